@@ -1,10 +1,12 @@
 package com.beiran;
 
+import com.beiran.common.repository.GenericRepositoryImpl;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 /**
@@ -12,9 +14,10 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
  */
 
 @EntityScan("com.beiran")
-@EnableJpaRepositories("com.beiran")
+@EnableJpaRepositories(value = "com.beiran", repositoryBaseClass = GenericRepositoryImpl.class)
 @EnableAspectJAutoProxy
 @EnableTransactionManagement
+@EnableScheduling
 @SpringBootApplication
 public class MainConfig {
 
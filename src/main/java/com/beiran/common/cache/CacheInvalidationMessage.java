@@ -0,0 +1,122 @@
+package com.beiran.common.cache;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Objects;
+
+/**
+ * 本地缓存在实例之间同步的消息，用于 Hibernate 二级缓存区域、两级缓存（TwoLevelCache）与库存可用量索引<br>
+ * 键只支持 String、Long、Integer（实体与集合区域使用主键作为键，更新时间戳区域使用表名，两级缓存的键均为 String），
+ * 其他类型的键无法在实例之间还原，移除时改为清空整个区域
+ */
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class CacheInvalidationMessage {
+
+    /**
+     * 发出消息的实例，实例忽略自己发出的消息
+     */
+    private String node;
+
+    /**
+     * 二级缓存区域名或两级缓存的缓存名
+     */
+    private String region;
+
+    private Action action;
+
+    private String key;
+
+    private KeyType keyType;
+
+    /**
+     * 写入的值，只用于更新时间戳区域
+     */
+    private Long value;
+
+    public static CacheInvalidationMessage evict(String region, Object key) {
+        KeyType keyType = KeyType.of(key);
+        if (Objects.equals(keyType, null)) {
+            return evictAll(region);
+        }
+        CacheInvalidationMessage message = of(region, Action.EVICT);
+        message.setKey(key.toString());
+        message.setKeyType(keyType);
+        return message;
+    }
+
+    public static CacheInvalidationMessage evictAll(String region) {
+        return of(region, Action.EVICT_ALL);
+    }
+
+    /**
+     * @return 键或值的类型不支持时返回 null，不发送
+     */
+    static CacheInvalidationMessage put(String region, Object key, Object value) {
+        KeyType keyType = KeyType.of(key);
+        if (Objects.equals(keyType, null) || !(value instanceof Long)) {
+            return null;
+        }
+        CacheInvalidationMessage message = of(region, Action.PUT);
+        message.setKey(key.toString());
+        message.setKeyType(keyType);
+        message.setValue((Long) value);
+        return message;
+    }
+
+    /**
+     * 还原为原始类型的键
+     */
+    Object restoreKey() {
+        switch (keyType) {
+            case LONG:
+                return Long.valueOf(key);
+            case INTEGER:
+                return Integer.valueOf(key);
+            default:
+                return key;
+        }
+    }
+
+    private static CacheInvalidationMessage of(String region, Action action) {
+        CacheInvalidationMessage message = new CacheInvalidationMessage();
+        message.setRegion(region);
+        message.setAction(action);
+        return message;
+    }
+
+    public enum Action {
+
+        EVICT,
+
+        EVICT_ALL,
+
+        PUT
+    }
+
+    public enum KeyType {
+
+        STRING,
+
+        LONG,
+
+        INTEGER;
+
+        static KeyType of(Object key) {
+            if (key instanceof String) {
+                return STRING;
+            }
+            if (key instanceof Long) {
+                return LONG;
+            }
+            if (key instanceof Integer) {
+                return INTEGER;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.beiran.common.cache;
+
+/**
+ * 将本地缓存的变更通知其他实例
+ */
+public interface CacheInvalidationPublisher {
+
+    /**
+     * 发送一条同步消息
+     * @param message 同步消息
+     */
+    void publish(CacheInvalidationMessage message);
+}
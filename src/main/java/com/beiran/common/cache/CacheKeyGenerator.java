@@ -0,0 +1,123 @@
+package com.beiran.common.cache;
+
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.data.domain.Pageable;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 缓存键生成器，用于未指定 key 的 @Cacheable<br>
+ * 键的形式为 "类名.方法名(参数, ...)"，类名与方法名部分按方法计算一次后复用；
+ * 参数按类型以单个字符标记后写出，字符串带长度前缀，不需要转义也不会与其他参数混淆，例如:<br>
+ * ProductServiceImpl.getProductsByCategory(S26:01H8..., P0x20:UNSORTED)<br>
+ * 标记: _ null，S 字符串，I/L 整数，D 浮点数，B 布尔，E 枚举，T 日期，P 分页参数，[ 集合或数组，{ Map，O 其他（取 toString）
+ */
+public class CacheKeyGenerator implements KeyGenerator {
+
+    /**
+     * 单个键的初始容量，足够容纳常见的几个参数
+     */
+    private static final int INITIAL_CAPACITY = 128;
+
+    private final Map<Method, String> prefixes = new ConcurrentHashMap<>();
+
+    /**
+     * 每个线程复用一个 StringBuilder，生成键时只分配最终的字符串
+     */
+    private final ThreadLocal<StringBuilder> builders = ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_CAPACITY));
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        String prefix = prefixes.get(method);
+        if (Objects.equals(prefix, null)) {
+            prefix = prefixes.computeIfAbsent(method, key -> ClassUtils.getUserClass(target).getSimpleName() + "." + key.getName() + "(");
+        }
+        StringBuilder builder = builders.get();
+        builder.setLength(0);
+        builder.append(prefix);
+        for (int i = 0; i < params.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            append(builder, params[i]);
+        }
+        return builder.append(')').toString();
+    }
+
+    private static void append(StringBuilder builder, Object param) {
+        if (Objects.equals(param, null)) {
+            builder.append('_');
+        } else if (param instanceof CharSequence) {
+            CharSequence value = (CharSequence) param;
+            builder.append('S').append(value.length()).append(':').append(value);
+        } else if (param instanceof Integer || param instanceof Long || param instanceof Short || param instanceof Byte) {
+            builder.append(param instanceof Long ? 'L' : 'I').append(((Number) param).longValue());
+        } else if (param instanceof Double || param instanceof Float) {
+            builder.append('D').append(((Number) param).doubleValue());
+        } else if (param instanceof Boolean) {
+            builder.append('B').append((boolean) (Boolean) param ? '1' : '0');
+        } else if (param instanceof Enum) {
+            builder.append('E').append(((Enum<?>) param).name());
+        } else if (param instanceof Date) {
+            builder.append('T').append(((Date) param).getTime());
+        } else if (param instanceof Pageable) {
+            appendPageable(builder, (Pageable) param);
+        } else if (param instanceof Collection) {
+            builder.append('[');
+            boolean first = true;
+            for (Object element : (Collection<?>) param) {
+                if (!first) {
+                    builder.append(',');
+                }
+                append(builder, element);
+                first = false;
+            }
+            builder.append(']');
+        } else if (param.getClass().isArray()) {
+            builder.append('[');
+            int length = Array.getLength(param);
+            for (int i = 0; i < length; i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                append(builder, Array.get(param, i));
+            }
+            builder.append(']');
+        } else if (param instanceof Map) {
+            builder.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) param).entrySet()) {
+                if (!first) {
+                    builder.append(',');
+                }
+                append(builder, entry.getKey());
+                builder.append('=');
+                append(builder, entry.getValue());
+                first = false;
+            }
+            builder.append('}');
+        } else {
+            String value = param.toString();
+            builder.append('O').append(value.length()).append(':').append(value);
+        }
+    }
+
+    /**
+     * 分页参数: P页码x每页条数:排序，未分页时为 PU
+     */
+    private static void appendPageable(StringBuilder builder, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            builder.append("PU");
+            return;
+        }
+        builder.append('P').append(pageable.getPageNumber()).append('x').append(pageable.getPageSize())
+                .append(':').append(pageable.getSort());
+    }
+}
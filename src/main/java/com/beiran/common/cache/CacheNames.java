@@ -0,0 +1,50 @@
+package com.beiran.common.cache;
+
+/**
+ * 两级缓存（@Cacheable）使用的缓存名
+ */
+public final class CacheNames {
+
+    /**
+     * 产品，键为产品编号
+     */
+    public static final String PRODUCT = "product";
+
+    /**
+     * 某个分类下的产品，键为分类编号与分页参数
+     */
+    public static final String PRODUCTS_BY_CATEGORY = "product:category";
+
+    /**
+     * 产品分类，键为分类编号
+     */
+    public static final String PRODUCT_CATEGORY = "productCategory";
+
+    /**
+     * 物料，键为物料编号
+     */
+    public static final String MATERIAL = "material";
+
+    /**
+     * 某个分类下的物料，键为分类编号与分页参数
+     */
+    public static final String MATERIALS_BY_CATEGORY = "material:category";
+
+    /**
+     * 物料分类，键为分类编号
+     */
+    public static final String MATERIAL_CATEGORY = "materialCategory";
+
+    /**
+     * 仓库，键为仓库名
+     */
+    public static final String STOCK_BY_NAME = "stock:name";
+
+    /**
+     * 部门树，只有一个条目
+     */
+    public static final String DEPT_TREE = "dept:tree";
+
+    private CacheNames() {
+    }
+}
@@ -0,0 +1,146 @@
+package com.beiran.common.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.internal.SimpleCacheKeysFactory;
+import org.hibernate.cache.spi.CacheKeysFactory;
+import org.hibernate.cache.spi.access.AccessType;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于本地内存的 Hibernate 二级缓存，每个区域一个 LocalStorageAccess<br>
+ * 区域配置（spring.jpa.properties 下）:<br>
+ * hibernate.cache.local.default.max_entries / ttl        所有区域的默认容量与存活秒数<br>
+ * hibernate.cache.local.[区域名].max_entries / ttl       单个区域的容量与存活秒数，区域名为实体全类名或集合的 role<br>
+ * 多实例部署时，实体以 NONSTRICT_READ_WRITE 缓存，修改后移除本地条目并通过 CacheInvalidationPublisher 通知其他实例移除；
+ * 更新时间戳区域的写入同样会通知其他实例，保证查询缓存在其他实例上也能失效
+ */
+
+@Slf4j
+public class LocalRegionFactory extends RegionFactoryTemplate {
+
+    private static final String CONFIG_PREFIX = "hibernate.cache.local.";
+
+    private static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    private static final long DEFAULT_TTL_SECONDS = 3600;
+
+    private final Map<String, LocalStorageAccess> storages = new ConcurrentHashMap<>();
+
+    private volatile CacheInvalidationPublisher publisher;
+
+    private Map<?, ?> configValues = Collections.emptyMap();
+
+    public void setPublisher(CacheInvalidationPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    /**
+     * @return 区域名 -> 本地存储
+     */
+    public Map<String, LocalStorageAccess> getStorages() {
+        return Collections.unmodifiableMap(storages);
+    }
+
+    /**
+     * 处理其他实例发来的同步消息
+     * @param message 同步消息
+     */
+    public void apply(CacheInvalidationMessage message) {
+        LocalStorageAccess storage = storages.get(message.getRegion());
+        if (Objects.equals(storage, null)) {
+            return;
+        }
+        switch (message.getAction()) {
+            case EVICT:
+                storage.applyEvict(message.restoreKey());
+                break;
+            case EVICT_ALL:
+                storage.applyEvictAll();
+                break;
+            case PUT:
+                storage.applyPut(message.restoreKey(), message.getValue());
+                break;
+            default:
+                break;
+        }
+    }
+
+    void publish(CacheInvalidationMessage message) {
+        CacheInvalidationPublisher current = publisher;
+        if (Objects.equals(current, null) || Objects.equals(message, null)) {
+            return;
+        }
+        try {
+            current.publish(message);
+        } catch (RuntimeException e) {
+            // 通知失败不影响本地事务，其他实例的条目将在存活时间后过期
+            log.error(" { 二级缓存同步消息发送失败 } " + message.getRegion(), e);
+        }
+    }
+
+    @Override
+    protected CacheKeysFactory getImplicitCacheKeysFactory() {
+        // 每个区域只存放一种实体或集合，直接以主键作为键，便于在实例之间传递
+        return SimpleCacheKeysFactory.INSTANCE;
+    }
+
+    @Override
+    public AccessType getDefaultAccessType() {
+        return AccessType.NONSTRICT_READ_WRITE;
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig, DomainDataRegionBuildingContext buildingContext) {
+        return createStorage(regionConfig.getRegionName(), false);
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        // 查询结果只保存在本地，由更新时间戳判断是否失效
+        return createStorage(regionName, false);
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return createStorage(regionName, true);
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map configValues) {
+        this.configValues = configValues;
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        storages.values().forEach(LocalStorageAccess::release);
+        storages.clear();
+    }
+
+    private LocalStorageAccess createStorage(String regionName, boolean broadcastPuts) {
+        int maxEntries = (int) getLong(regionName, "max_entries", DEFAULT_MAX_ENTRIES);
+        long ttlSeconds = getLong(regionName, "ttl", DEFAULT_TTL_SECONDS);
+        LocalStorageAccess storage = new LocalStorageAccess(regionName, maxEntries, ttlSeconds * 1000, broadcastPuts, this);
+        storages.put(regionName, storage);
+        log.info(" { 二级缓存区域 } " + regionName + ": 容量 " + maxEntries + "，存活 " + ttlSeconds + " 秒");
+        return storage;
+    }
+
+    private long getLong(String regionName, String name, long defaultValue) {
+        Object value = configValues.get(CONFIG_PREFIX + regionName + "." + name);
+        if (Objects.equals(value, null)) {
+            value = configValues.get(CONFIG_PREFIX + "default." + name);
+        }
+        return Objects.equals(value, null) ? defaultValue : Long.parseLong(value.toString().trim());
+    }
+}
@@ -0,0 +1,134 @@
+package com.beiran.common.cache;
+
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 二级缓存区域的本地存储: 按访问顺序淘汰的 LRU，超过容量时移除最久未访问的条目，条目超过存活时间后视为不存在<br>
+ * 本地的移除与清空（以及更新时间戳区域的写入）通过 CacheInvalidationPublisher 通知其他实例，
+ * 其他实例收到通知后调用 apply* 方法处理，不会再次发出通知
+ */
+public class LocalStorageAccess implements DomainDataStorageAccess {
+
+    private final String regionName;
+
+    private final int maxEntries;
+
+    private final long ttlMillis;
+
+    /**
+     * 是否广播写入，只有更新时间戳区域需要，其余区域只广播移除
+     */
+    private final boolean broadcastPuts;
+
+    private final LocalRegionFactory regionFactory;
+
+    private final Map<Object, Entry> entries;
+
+    LocalStorageAccess(String regionName, int maxEntries, long ttlMillis, boolean broadcastPuts, LocalRegionFactory regionFactory) {
+        this.regionName = regionName;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.broadcastPuts = broadcastPuts;
+        this.regionFactory = regionFactory;
+        this.entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                return size() > LocalStorageAccess.this.maxEntries;
+            }
+        };
+    }
+
+    public String getRegionName() {
+        return regionName;
+    }
+
+    /**
+     * @return 当前区域中的条目数（包含已过期但尚未被访问到的条目）
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        Entry entry = entries.get(key);
+        if (Objects.equals(entry, null)) {
+            return null;
+        }
+        if (entry.expireAt < System.currentTimeMillis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        applyPut(key, value);
+        if (broadcastPuts) {
+            regionFactory.publish(CacheInvalidationMessage.put(regionName, key, value));
+        }
+    }
+
+    @Override
+    public void removeFromCache(Object key, SharedSessionContractImplementor session) {
+        evictData(key);
+    }
+
+    @Override
+    public void clearCache(SharedSessionContractImplementor session) {
+        evictData();
+    }
+
+    @Override
+    public synchronized boolean contains(Object key) {
+        Entry entry = entries.get(key);
+        return !Objects.equals(entry, null) && entry.expireAt >= System.currentTimeMillis();
+    }
+
+    @Override
+    public void evictData() {
+        applyEvictAll();
+        regionFactory.publish(CacheInvalidationMessage.evictAll(regionName));
+    }
+
+    @Override
+    public void evictData(Object key) {
+        applyEvict(key);
+        regionFactory.publish(CacheInvalidationMessage.evict(regionName, key));
+    }
+
+    @Override
+    public synchronized void release() {
+        entries.clear();
+    }
+
+    synchronized void applyPut(Object key, Object value) {
+        entries.put(key, new Entry(value, System.currentTimeMillis() + ttlMillis));
+    }
+
+    synchronized void applyEvict(Object key) {
+        entries.remove(key);
+    }
+
+    synchronized void applyEvictAll() {
+        entries.clear();
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+
+        private final long expireAt;
+
+        private Entry(Object value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.beiran.common.cache;
+
+import com.google.gson.Gson;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * 通过 Redis 发布/订阅在实例之间同步本地缓存: 本地变更发布到给定频道，收到其他实例的消息后交给 receiver 处理<br>
+ * 二级缓存区域与两级缓存各使用一个频道（见 SecondLevelCacheConfig、RedisConfig）
+ */
+
+@Slf4j
+public class RedisCacheInvalidationPublisher implements CacheInvalidationPublisher, MessageListener {
+
+    /**
+     * 当前实例的标识，每次启动不同
+     */
+    private final String node = UUID.randomUUID().toString();
+
+    private final Gson gson = new Gson();
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final String channel;
+
+    private final Consumer<CacheInvalidationMessage> receiver;
+
+    public RedisCacheInvalidationPublisher(StringRedisTemplate stringRedisTemplate, String channel,
+                                           Consumer<CacheInvalidationMessage> receiver) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.channel = channel;
+        this.receiver = receiver;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    @Override
+    public void publish(CacheInvalidationMessage message) {
+        message.setNode(node);
+        stringRedisTemplate.convertAndSend(channel, gson.toJson(message));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        CacheInvalidationMessage invalidation;
+        try {
+            invalidation = gson.fromJson(new String(message.getBody(), StandardCharsets.UTF_8), CacheInvalidationMessage.class);
+        } catch (RuntimeException e) {
+            log.error(" { 缓存同步消息无法解析 } " + channel, e);
+            return;
+        }
+        if (Objects.equals(invalidation, null) || Objects.equals(invalidation.getNode(), node)) {
+            return;
+        }
+        receiver.accept(invalidation);
+    }
+}
@@ -0,0 +1,225 @@
+package com.beiran.common.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+/**
+ * 两级缓存: L1 为当前实例内按访问顺序淘汰的 LRU（容量与存活时间有限），L2 为 Redis<br>
+ * 读取时先查 L1，未命中再查 L2 并回填 L1；写入、移除与清空同时作用于两级<br>
+ * 移除、清空以及覆盖 L2 中已有的值时通知其他实例移除各自的 L1 条目；未命中后载入的值只在 L2 中不存在时写入，不发送通知<br>
+ * 键统一转为字符串，便于在实例之间传递；不缓存 null<br>
+ * L2 为 RedisCache 时，写入的 Redis 键按缓存的键前缀登记（见 RedisUtils 的键登记），便于按缓存分页列出
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+
+    private final Cache redisCache;
+
+    private final int maxEntries;
+
+    private final long ttlMillis;
+
+    private final TwoLevelCacheManager cacheManager;
+
+    private final String keyPrefix;
+
+    private final Map<String, Entry> entries;
+
+    TwoLevelCache(String name, Cache redisCache, int maxEntries, long ttlMillis, TwoLevelCacheManager cacheManager) {
+        super(false);
+        this.name = name;
+        this.redisCache = redisCache;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.cacheManager = cacheManager;
+        this.keyPrefix = redisCache instanceof RedisCache ?
+                ((RedisCache) redisCache).getCacheConfiguration().getKeyPrefixFor(name) : null;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > TwoLevelCache.this.maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    /**
+     * @return L2 中 Redis 键的前缀，L2 不是 RedisCache 时为 null
+     */
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    /**
+     * @return L1 中的条目数（包含已过期但尚未被访问到的条目）
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String cacheKey = toCacheKey(key);
+        Object value = getLocal(cacheKey);
+        if (!Objects.equals(value, null)) {
+            return value;
+        }
+        ValueWrapper wrapper = redisCache.get(cacheKey);
+        if (Objects.equals(wrapper, null) || Objects.equals(wrapper.get(), null)) {
+            return null;
+        }
+        putLocal(cacheKey, wrapper.get());
+        return wrapper.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = lookup(key);
+        if (!Objects.equals(value, null)) {
+            return (T) value;
+        }
+        // 同一实例内同一个缓存的加载串行执行，避免并发未命中时重复查询数据库
+        synchronized (this) {
+            value = lookup(key);
+            if (!Objects.equals(value, null)) {
+                return (T) value;
+            }
+            T loaded;
+            try {
+                loaded = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            if (Objects.equals(loaded, null)) {
+                return null;
+            }
+            String cacheKey = toCacheKey(key);
+            ValueWrapper existing = fill(cacheKey, loaded);
+            if (Objects.equals(existing, null)) {
+                return loaded;
+            }
+            // 其他实例已先载入，以 L2 中的值为准
+            putLocal(cacheKey, existing.get());
+            return (T) existing.get();
+        }
+    }
+
+    /**
+     * 写入两级缓存；@Cacheable 未命中后也通过此方法写入载入的值，因此先按载入处理，L2 中已有值时才覆盖并通知其他实例
+     */
+    @Override
+    public void put(Object key, Object value) {
+        if (Objects.equals(value, null)) {
+            evict(key);
+            return;
+        }
+        String cacheKey = toCacheKey(key);
+        if (Objects.equals(fill(cacheKey, value), null)) {
+            return;
+        }
+        redisCache.put(cacheKey, value);
+        putLocal(cacheKey, value);
+        cacheManager.publish(CacheInvalidationMessage.evict(name, cacheKey));
+    }
+
+    @Override
+    public void evict(Object key) {
+        String cacheKey = toCacheKey(key);
+        redisCache.evict(cacheKey);
+        applyEvict(cacheKey);
+        if (!Objects.equals(keyPrefix, null)) {
+            cacheManager.unregisterKey(keyPrefix, keyPrefix + cacheKey);
+        }
+        cacheManager.publish(CacheInvalidationMessage.evict(name, cacheKey));
+    }
+
+    @Override
+    public void clear() {
+        redisCache.clear();
+        applyClear();
+        if (!Objects.equals(keyPrefix, null)) {
+            cacheManager.clearRegistry(keyPrefix);
+        }
+        cacheManager.publish(CacheInvalidationMessage.evictAll(name));
+    }
+
+    /**
+     * 写入载入的值: 仅在 L2 中不存在时写入两级并登记键；其他实例的 L1 中不会有更新的值，不需要通知
+     * @return L2 中已有的值，写入成功时为 null
+     */
+    private ValueWrapper fill(String cacheKey, Object value) {
+        ValueWrapper existing = redisCache.putIfAbsent(cacheKey, value);
+        if (!Objects.equals(existing, null) && !Objects.equals(existing.get(), null)) {
+            return existing;
+        }
+        putLocal(cacheKey, value);
+        register(cacheKey);
+        return null;
+    }
+
+    /**
+     * 登记新写入 L2 的键，已存在的键在首次写入时已登记
+     */
+    private void register(String cacheKey) {
+        if (!Objects.equals(keyPrefix, null)) {
+            cacheManager.registerKey(keyPrefix, keyPrefix + cacheKey);
+        }
+    }
+
+    synchronized void applyEvict(String cacheKey) {
+        entries.remove(cacheKey);
+    }
+
+    synchronized void applyClear() {
+        entries.clear();
+    }
+
+    private synchronized Object getLocal(String cacheKey) {
+        Entry entry = entries.get(cacheKey);
+        if (Objects.equals(entry, null)) {
+            return null;
+        }
+        if (entry.expireAt < System.currentTimeMillis()) {
+            entries.remove(cacheKey);
+            return null;
+        }
+        return entry.value;
+    }
+
+    private synchronized void putLocal(String cacheKey, Object value) {
+        entries.put(cacheKey, new Entry(value, System.currentTimeMillis() + ttlMillis));
+    }
+
+    private static String toCacheKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+
+        private final long expireAt;
+
+        private Entry(Object value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.beiran.common.cache;
+
+import com.beiran.common.utils.RedisUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 两级缓存管理器，每个缓存名对应一个 TwoLevelCache，L2 取自 Redis 的 CacheManager<br>
+ * 缓存按事务感知的方式包装: 事务中的写入与移除在提交后才执行，避免其他实例在提交前重新载入旧数据
+ */
+
+@Slf4j
+public class TwoLevelCacheManager extends AbstractTransactionSupportingCacheManager {
+
+    private final CacheManager redisCacheManager;
+
+    private final int maxEntries;
+
+    private final long ttlMillis;
+
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    private volatile CacheInvalidationPublisher publisher;
+
+    private volatile RedisUtils keyRegistry;
+
+    /**
+     * @param redisCacheManager 提供 L2 的 CacheManager
+     * @param maxEntries 每个缓存 L1 的容量
+     * @param ttlMillis L1 条目的存活毫秒数
+     */
+    public TwoLevelCacheManager(CacheManager redisCacheManager, int maxEntries, long ttlMillis) {
+        this.redisCacheManager = redisCacheManager;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        setTransactionAware(true);
+    }
+
+    public void setPublisher(CacheInvalidationPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    /**
+     * @param keyRegistry 用于登记 L2 中 Redis 键的 RedisUtils，未设置时不登记
+     */
+    public void setKeyRegistry(RedisUtils keyRegistry) {
+        this.keyRegistry = keyRegistry;
+    }
+
+    /**
+     * @return 缓存名 -> 两级缓存
+     */
+    public Map<String, TwoLevelCache> getTwoLevelCaches() {
+        return Collections.unmodifiableMap(caches);
+    }
+
+    /**
+     * 处理其他实例发来的同步消息，只移除本地 L1 条目
+     * @param message 同步消息
+     */
+    public void apply(CacheInvalidationMessage message) {
+        TwoLevelCache cache = caches.get(message.getRegion());
+        if (Objects.equals(cache, null)) {
+            return;
+        }
+        switch (message.getAction()) {
+            case EVICT:
+                cache.applyEvict(message.getKey());
+                break;
+            case EVICT_ALL:
+                cache.applyClear();
+                break;
+            default:
+                break;
+        }
+    }
+
+    void publish(CacheInvalidationMessage message) {
+        CacheInvalidationPublisher current = publisher;
+        if (Objects.equals(current, null)) {
+            return;
+        }
+        try {
+            current.publish(message);
+        } catch (RuntimeException e) {
+            // 通知失败不影响本地操作，其他实例的 L1 条目将在存活时间后过期
+            log.error(" { 两级缓存同步消息发送失败 } " + message.getRegion(), e);
+        }
+    }
+
+    void registerKey(String prefix, String key) {
+        RedisUtils current = keyRegistry;
+        if (!Objects.equals(current, null)) {
+            current.registerKey(prefix, key);
+        }
+    }
+
+    void unregisterKey(String prefix, String key) {
+        RedisUtils current = keyRegistry;
+        if (Objects.equals(current, null)) {
+            return;
+        }
+        try {
+            current.unregisterKey(prefix, key);
+        } catch (RuntimeException e) {
+            // 登记表中残留的键会被定期清理
+            log.error(" { 缓存键取消登记失败 } " + key, e);
+        }
+    }
+
+    void clearRegistry(String prefix) {
+        RedisUtils current = keyRegistry;
+        if (Objects.equals(current, null)) {
+            return;
+        }
+        try {
+            current.clearRegistry(prefix);
+        } catch (RuntimeException e) {
+            log.error(" { 缓存键登记表清空失败 } " + prefix, e);
+        }
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        Cache redisCache = redisCacheManager.getCache(name);
+        if (Objects.equals(redisCache, null)) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, key -> new TwoLevelCache(key, redisCache, maxEntries, ttlMillis, this));
+    }
+}
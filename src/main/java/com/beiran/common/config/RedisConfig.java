@@ -1,9 +1,24 @@
 package com.beiran.common.config;
 
-import com.google.gson.Gson;
+import com.beiran.common.cache.CacheKeyGenerator;
+import com.beiran.common.cache.RedisCacheInvalidationPublisher;
+import com.beiran.common.cache.TwoLevelCacheManager;
+import com.beiran.common.serializer.TypeRegistry;
+import com.beiran.common.serializer.TypedRedisSerializer;
+import com.beiran.common.utils.RedisUtils;
+import com.beiran.core.material.entity.Material;
+import com.beiran.core.material.entity.MaterialCategory;
+import com.beiran.core.product.entity.Product;
+import com.beiran.core.product.entity.ProductCategory;
+import com.beiran.core.stock.dto.StockDto;
+import com.beiran.core.stock.index.StockAvailabilityIndex;
+import com.beiran.core.stock.vo.LowStockAlertVo;
+import com.beiran.core.system.dto.DeptSmallDto;
+import com.beiran.core.system.dto.DeptTree;
+import com.beiran.core.system.dto.UserSmallDto;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.codec.digest.DigestUtils;
-import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
@@ -16,9 +31,13 @@ import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.SerializationException;
@@ -26,8 +45,14 @@ import org.springframework.util.Assert;
 
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
-import java.util.Map;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Objects;
 
 /**
  * Redis 配置类
@@ -40,28 +65,126 @@ import java.util.Map;
 @EnableConfigurationProperties(RedisProperties.class)
 public class RedisConfig extends CachingConfigurerSupport {
 
+    /**
+     * 两级缓存同步消息的频道
+     */
+    public static final String CACHE_CHANNEL = "spring:cache:invalidation";
+
+    /**
+     * 库存可用量索引同步消息的频道
+     */
+    public static final String STOCK_INDEX_CHANNEL = "stock:index:invalidation";
+
+    /**
+     * 缓存值的类型表，编号写入 Redis 后不能更改或复用，新增类型请使用新的编号
+     * @return TypeRegistry
+     */
+    @Bean
+    public TypeRegistry redisTypeRegistry() {
+        return new TypeRegistry()
+                .register(1, ArrayList.class)
+                .register(2, HashSet.class)
+                .register(3, HashMap.class)
+                .register(4, LinkedHashMap.class)
+                .register(5, Date.class)
+                .register(6, Timestamp.class)
+                .register(10, Product.class)
+                .register(11, ProductCategory.class)
+                .register(12, Material.class)
+                .register(13, MaterialCategory.class)
+                .register(14, StockDto.class)
+                .register(15, UserSmallDto.class)
+                .register(16, DeptTree.class)
+                .register(17, DeptSmallDto.class)
+                .register(18, LowStockAlertVo.class);
+    }
+
+    /**
+     * Redis 值序列化，带类型信息的二进制格式，较大的值会被压缩
+     * @return TypedRedisSerializer
+     */
+    @Bean
+    public TypedRedisSerializer typedRedisSerializer(TypeRegistry redisTypeRegistry,
+                                                     @Value("${cache.serializer.compress-threshold:1024}") int compressThreshold) {
+        return new TypedRedisSerializer(redisTypeRegistry, compressThreshold);
+    }
+
     /**
      * 设置 Redis 数据默认过期时间，默认 2 小时
      * 设置 @Cacheable 序列化方式
      * @return RedisCacheConfiguration
      */
     @Bean
-    public RedisCacheConfiguration redisCacheConfiguration() {
-        // 使用 GsonRedisSerializer 的方式序列化
-        GsonRedisSerializer<Object> gsonRedisSerializer = new GsonRedisSerializer<>(Object.class);
-        RedisCacheConfiguration redisCacheConfiguration = RedisCacheConfiguration.defaultCacheConfig();
-        redisCacheConfiguration = redisCacheConfiguration.serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(gsonRedisSerializer));
-        return redisCacheConfiguration;
+    public RedisCacheConfiguration redisCacheConfiguration(@Value("${cache.redis.ttl:7200}") long ttl,
+                                                           TypedRedisSerializer typedRedisSerializer) {
+        return RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(Duration.ofSeconds(ttl))
+                .disableCachingNullValues()
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(typedRedisSerializer));
+    }
+
+    /**
+     * 两级缓存: 本地 L1 在前，Redis L2 在后
+     * @return TwoLevelCacheManager
+     */
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
+                                             RedisCacheConfiguration redisCacheConfiguration,
+                                             @Value("${cache.local.max-entries:1000}") int maxEntries,
+                                             @Value("${cache.local.ttl:300}") long ttl,
+                                             RedisUtils redisUtils) {
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisConnectionFactory)
+                .cacheDefaults(redisCacheConfiguration)
+                .build();
+        redisCacheManager.initializeCaches();
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(redisCacheManager, maxEntries, ttl * 1000);
+        // 登记写入 Redis 的缓存键，按缓存分页列出时不需要遍历键空间
+        cacheManager.setKeyRegistry(redisUtils);
+        return cacheManager;
+    }
+
+    @Bean
+    public RedisCacheInvalidationPublisher twoLevelCachePublisher(StringRedisTemplate stringRedisTemplate,
+                                                                  TwoLevelCacheManager cacheManager) {
+        RedisCacheInvalidationPublisher publisher = new RedisCacheInvalidationPublisher(stringRedisTemplate, CACHE_CHANNEL, cacheManager::apply);
+        cacheManager.setPublisher(publisher);
+        return publisher;
+    }
+
+    @Bean
+    public RedisMessageListenerContainer twoLevelCacheListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                        @Qualifier("twoLevelCachePublisher") RedisCacheInvalidationPublisher publisher) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(publisher, new ChannelTopic(publisher.getChannel()));
+        return container;
+    }
+
+    @Bean
+    public RedisCacheInvalidationPublisher stockIndexPublisher(StringRedisTemplate stringRedisTemplate,
+                                                               StockAvailabilityIndex stockAvailabilityIndex) {
+        RedisCacheInvalidationPublisher publisher = new RedisCacheInvalidationPublisher(stringRedisTemplate, STOCK_INDEX_CHANNEL, stockAvailabilityIndex::apply);
+        stockAvailabilityIndex.setPublisher(publisher);
+        return publisher;
+    }
+
+    @Bean
+    public RedisMessageListenerContainer stockIndexListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                     @Qualifier("stockIndexPublisher") RedisCacheInvalidationPublisher publisher) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(publisher, new ChannelTopic(publisher.getChannel()));
+        return container;
     }
 
     @Bean(name = "redisTemplate")
     @ConditionalOnMissingBean(name = "redisTemplate")
-    public RedisTemplate<Object, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory) {
+    public RedisTemplate<Object, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory,
+                                                       TypedRedisSerializer typedRedisSerializer) {
         RedisTemplate<Object, Object> redisTemplate = new RedisTemplate<>();
-        // value 采取 GsonRedisSerializer 的方式序列化
-        GsonRedisSerializer<Object> gsonRedisSerializer = new GsonRedisSerializer<>(Object.class);
-        redisTemplate.setValueSerializer(gsonRedisSerializer);
-        redisTemplate.setHashValueSerializer(gsonRedisSerializer);
+        // value 采取 TypedRedisSerializer 的方式序列化
+        redisTemplate.setValueSerializer(typedRedisSerializer);
+        redisTemplate.setHashValueSerializer(typedRedisSerializer);
         // key 采取自定义的 StringRedisSerializer 的方式序列化
         redisTemplate.setKeySerializer(new StringRedisSerializer());
         redisTemplate.setHashKeySerializer(new StringRedisSerializer());
@@ -70,30 +193,13 @@ public class RedisConfig extends CachingConfigurerSupport {
     }
 
     /**
-     * 自定义缓存 key 生成策略
+     * 自定义缓存 key 生成策略，见 CacheKeyGenerator
      * @return KeyGenerator
      */
     @Bean
     @Override
     public KeyGenerator keyGenerator() {
-        return (target, method, params) -> {
-            Map<String, Object> container = new HashMap<>(3);
-            Class<?> targetClassClass = target.getClass();
-            // 类地址
-            container.put("class", targetClassClass.toGenericString());
-            // 方法名
-            container.put("methodName", method.getName());
-            // 包名
-            container.put("package", targetClassClass.getPackage());
-            // 参数列表
-            for (int i = 0; i < params.length; i++) {
-                container.put(String.valueOf(i), params[i]);
-            }
-            // 转为 JSON 字符串
-            String json = new Gson().toJson(container);
-            // 做 SHA256 Hash 计算
-            return DigestUtils.sha256Hex(json);
-        };
+        return new CacheKeyGenerator();
     }
 
     /**
@@ -128,39 +234,6 @@ public class RedisConfig extends CachingConfigurerSupport {
     }
 }
 
-/**
- * Value 序列化, 采用 Gson
- * @param <T>
- */
-class GsonRedisSerializer<T> implements RedisSerializer<T> {
-
-    private final Class<T> clazz;
-
-    private final Gson gson;
-
-    GsonRedisSerializer(Class<T> clazz) {
-        super();
-        this.clazz = clazz;
-        this.gson = new Gson();
-    }
-
-    @Override
-    public byte[] serialize(T t) throws SerializationException {
-        if (t == null) {
-            return new byte[0];
-        }
-        return gson.toJson(t, clazz).getBytes(StandardCharsets.UTF_8);
-    }
-
-    @Override
-    public T deserialize(byte[] bytes) throws SerializationException {
-        if (bytes == null || bytes.length <= 0) {
-            return null;
-        }
-        return gson.fromJson(new String(bytes, StandardCharsets.UTF_8), clazz);
-    }
-}
-
 /**
  * 重写序列化器
  */
@@ -168,11 +241,8 @@ class StringRedisSerializer implements RedisSerializer<Object> {
 
     private final Charset charset;
 
-    private Gson gson;
-
     StringRedisSerializer() {
         this(StandardCharsets.UTF_8);
-        this.gson = new Gson();
     }
 
     public StringRedisSerializer(Charset charset) {
@@ -182,12 +252,11 @@ class StringRedisSerializer implements RedisSerializer<Object> {
 
     @Override
     public byte[] serialize(Object o) throws SerializationException {
-        String string = gson.toJson(o);
-        if (StringUtils.isBlank(string)) {
+        // 键直接取字符串形式，不再经过 JSON 转义
+        if (Objects.equals(o, null)) {
             return null;
         }
-        string = string.replace("\"", "");
-        return string.getBytes(charset);
+        return String.valueOf(o).getBytes(charset);
     }
 
     @Override
@@ -0,0 +1,57 @@
+package com.beiran.common.config;
+
+import com.beiran.common.cache.LocalRegionFactory;
+import com.beiran.common.cache.RedisCacheInvalidationPublisher;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Hibernate 二级缓存配置<br>
+ * 使用 LocalRegionFactory 作为缓存实现，并通过 Redis 发布/订阅在多个实例之间同步失效
+ */
+
+@Configuration
+public class SecondLevelCacheConfig {
+
+    /**
+     * 二级缓存同步消息的频道
+     */
+    public static final String CHANNEL = "hibernate:cache:invalidation";
+
+    @Bean
+    public LocalRegionFactory localRegionFactory() {
+        return new LocalRegionFactory();
+    }
+
+    /**
+     * 将 LocalRegionFactory 实例交给 Hibernate
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(LocalRegionFactory localRegionFactory) {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, localRegionFactory);
+    }
+
+    @Bean
+    public RedisCacheInvalidationPublisher secondLevelCachePublisher(StringRedisTemplate stringRedisTemplate,
+                                                                     LocalRegionFactory localRegionFactory) {
+        RedisCacheInvalidationPublisher publisher = new RedisCacheInvalidationPublisher(stringRedisTemplate, CHANNEL, localRegionFactory::apply);
+        localRegionFactory.setPublisher(publisher);
+        return publisher;
+    }
+
+    @Bean
+    public RedisMessageListenerContainer secondLevelCacheListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                           @Qualifier("secondLevelCachePublisher") RedisCacheInvalidationPublisher publisher) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(publisher, new ChannelTopic(publisher.getChannel()));
+        return container;
+    }
+}
@@ -0,0 +1,186 @@
+package com.beiran.common.id;
+
+import com.beiran.common.utils.IdUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 主键迁移工具: 将使用 TimeOrderedIdGenerator 的实体表中原有的 uuid 主键改写为 ULID<br>
+ * 新主键优先取记录的创建时间，保证改写后的主键顺序与创建顺序一致；引用这些主键的外键列以及没有外键约束的引用列一并改写<br>
+ * 每张表先按 id.migration.batch-size 分批生成 旧主键 -> 新主键 的映射，写入映射表 erp_id_migration（每批一个事务），
+ * 再对每个引用列与主键列各执行一条关联映射表的 UPDATE，引用列不会因逐条改写而被反复扫描；
+ * 中断后重新执行会沿用已生成的映射并从剩余的记录继续，全部完成后删除映射表<br>
+ * 执行期间关闭当前连接的外键检查，必须在没有其他请求与写入时执行: ApplicationRunner 在 Web 服务器开始接受请求之后才运行，
+ * 因此不能在正常启动的实例上开启，应以 id.migration.enabled=true 与 spring.main.web-application-type=none 单独启动一次，
+ * 迁移完成、进程退出后再正常启动
+ */
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "id.migration.enabled", havingValue = "true")
+public class IdMigrationRunner implements ApplicationRunner {
+
+    /**
+     * 没有外键约束、按编号引用其他表的列: 被引用的表 -> [表, 列]
+     */
+    private static final Map<String, List<String[]>> SOFT_REFERENCES = new HashMap<>();
+
+    /**
+     * 旧主键 -> 新主键 的映射表
+     */
+    private static final String MAPPING_TABLE = "erp_id_migration";
+
+    static {
+        SOFT_REFERENCES.put("erp_stock", Arrays.asList(
+                new String[]{"erp_stock_total", "stock_id"},
+                new String[]{"erp_stock_movement", "stock_id"},
+                new String[]{"erp_stock_snapshot", "stock_id"}));
+        SOFT_REFERENCES.put("erp_material", Arrays.asList(
+                new String[]{"erp_stock_movement", "item_id"},
+                new String[]{"erp_stock_snapshot", "item_id"}));
+        SOFT_REFERENCES.put("erp_product", Arrays.asList(
+                new String[]{"erp_stock_movement", "item_id"},
+                new String[]{"erp_stock_snapshot", "item_id"}));
+    }
+
+    @Value("${id.migration.batch-size:1000}")
+    private int batchSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<String[]> tables = findTables();
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            try {
+                connection.setAutoCommit(false);
+                JdbcTemplate template = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+                template.execute("SET FOREIGN_KEY_CHECKS = 0");
+                // DDL 会隐式提交，在改写之前创建
+                template.execute("CREATE TABLE IF NOT EXISTS " + MAPPING_TABLE + " (table_name VARCHAR(64) NOT NULL, " +
+                        "old_id VARCHAR(255) NOT NULL, new_id CHAR(" + IdUtils.ULID_LENGTH + ") NOT NULL, PRIMARY KEY (table_name, old_id))");
+                for (String[] table : tables) {
+                    migrateTable(connection, template, table[0], table[1]);
+                }
+                template.execute("DROP TABLE " + MAPPING_TABLE);
+            } catch (SQLException | RuntimeException e) {
+                // 恢复自动提交会提交未完成的一批，先回滚；已提交的批次不受影响，重新执行时继续
+                connection.rollback();
+                throw e;
+            } finally {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+            }
+            return null;
+        });
+        log.info(" { 主键迁移完成 } 表数: " + tables.size());
+    }
+
+    /**
+     * 查询主键由 TimeOrderedIdGenerator 生成且为字符串的实体表
+     * @return [表名, 主键列名]
+     */
+    private List<String[]> findTables() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        List<String[]> tables = new ArrayList<>();
+        for (EntityPersister persister : sessionFactory.getMetamodel().entityPersisters().values()) {
+            if (persister.getIdentifierGenerator() instanceof TimeOrderedIdGenerator
+                    && String.class.equals(persister.getIdentifierType().getReturnedClass())
+                    && persister instanceof AbstractEntityPersister) {
+                AbstractEntityPersister entityPersister = (AbstractEntityPersister) persister;
+                tables.add(new String[]{entityPersister.getTableName(), entityPersister.getIdentifierColumnNames()[0]});
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * 改写一张表的主键及其引用列，已是 ULID 的记录不再处理<br>
+     * 先分批生成映射，再对每个引用列与主键列各执行一条关联映射表的 UPDATE；已改写的值不再与映射的旧主键相同，重复执行不会改错
+     */
+    private void migrateTable(Connection connection, JdbcTemplate template, String table, String idColumn) throws SQLException {
+        String timeColumn = findTimeColumn(template, table);
+        List<String[]> references = findReferences(template, table, idColumn);
+        String select = "SELECT t." + idColumn + ", " + (Objects.equals(timeColumn, null) ? "NULL" : "t." + timeColumn) +
+                " FROM " + table + " t LEFT JOIN " + MAPPING_TABLE + " m ON m.table_name = ? AND m.old_id = t." + idColumn +
+                " WHERE m.old_id IS NULL AND CHAR_LENGTH(t." + idColumn + ") <> " + IdUtils.ULID_LENGTH + " LIMIT ?";
+        long mapped = 0;
+        while (true) {
+            List<Object[]> mappings = new ArrayList<>();
+            long now = System.currentTimeMillis();
+            template.query(select, new Object[]{table, batchSize}, rs -> {
+                Timestamp time = rs.getTimestamp(2);
+                mappings.add(new Object[]{table, rs.getString(1), IdUtils.nextId(Objects.equals(time, null) ? now : time.getTime())});
+            });
+            if (mappings.isEmpty()) {
+                break;
+            }
+            template.batchUpdate("INSERT INTO " + MAPPING_TABLE + " (table_name, old_id, new_id) VALUES (?, ?, ?)", mappings);
+            connection.commit();
+            mapped += mappings.size();
+        }
+        for (String[] reference : references) {
+            int updated = template.update("UPDATE " + reference[0] + " r JOIN " + MAPPING_TABLE + " m ON m.table_name = ? AND m.old_id = r." + reference[1] +
+                    " SET r." + reference[1] + " = m.new_id", table);
+            connection.commit();
+            log.info(" { 主键迁移 } " + table + " 的引用列 " + reference[0] + "." + reference[1] + ": " + updated + " 条记录");
+        }
+        int migrated = template.update("UPDATE " + table + " t JOIN " + MAPPING_TABLE + " m ON m.table_name = ? AND m.old_id = t." + idColumn +
+                " SET t." + idColumn + " = m.new_id", table);
+        connection.commit();
+        log.info(" { 主键迁移 } " + table + ": 新生成映射 " + mapped + " 条，改写 " + migrated + " 条记录，" + references.size() + " 个引用列");
+    }
+
+    /**
+     * 创建时间列: 优先取以 create_time 结尾的列，其次取第一个日期时间列
+     */
+    private String findTimeColumn(JdbcTemplate template, String table) {
+        List<String> columns = template.queryForList("SELECT COLUMN_NAME FROM information_schema.COLUMNS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND DATA_TYPE IN ('datetime', 'timestamp') " +
+                "ORDER BY COLUMN_NAME LIKE '%create_time' DESC, ORDINAL_POSITION", String.class, table);
+        return columns.isEmpty() ? null : columns.get(0);
+    }
+
+    /**
+     * 引用该表主键的列: 外键约束与 SOFT_REFERENCES 中登记的列
+     */
+    private List<String[]> findReferences(JdbcTemplate template, String table, String idColumn) {
+        List<String[]> references = template.query("SELECT TABLE_NAME, COLUMN_NAME FROM information_schema.KEY_COLUMN_USAGE " +
+                        "WHERE REFERENCED_TABLE_SCHEMA = DATABASE() AND REFERENCED_TABLE_NAME = ? AND REFERENCED_COLUMN_NAME = ?",
+                (rs, rowNum) -> new String[]{rs.getString(1), rs.getString(2)}, table, idColumn);
+        references.addAll(SOFT_REFERENCES.getOrDefault(table, Collections.emptyList()));
+        return references;
+    }
+}
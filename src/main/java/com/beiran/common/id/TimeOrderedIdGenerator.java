@@ -0,0 +1,51 @@
+package com.beiran.common.id;
+
+import com.beiran.common.utils.IdUtils;
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.Configurable;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+/**
+ * 按时间有序的主键生成器，根据主键的 Java 类型选择存储格式:<br>
+ * String -> 26 位 ULID（VARCHAR/CHAR(26)），Long -> Snowflake（BIGINT），byte[] -> 16 字节 ULID（BINARY(16)）<br>
+ * 主键在 JVM 中生成，不需要访问数据库，不会打断 JDBC batch；新记录总是追加在聚簇索引的末尾<br>
+ * 使用方式: {@code @GenericGenerator(name = "g_id", strategy = TimeOrderedIdGenerator.STRATEGY)}
+ */
+public class TimeOrderedIdGenerator implements IdentifierGenerator, Configurable {
+
+    public static final String STRATEGY = "com.beiran.common.id.TimeOrderedIdGenerator";
+
+    private Class<?> idClass;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        idClass = type.getReturnedClass();
+        if (!String.class.equals(idClass) && !Long.class.equals(idClass) && !byte[].class.equals(idClass)) {
+            throw new MappingException("TimeOrderedIdGenerator 不支持的主键类型: " + idClass.getName());
+        }
+        // 在启动时校验节点号，而不是等到第一次生成主键
+        try {
+            IdUtils.getNode();
+        } catch (ExceptionInInitializerError e) {
+            throw new MappingException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) throws HibernateException {
+        if (Long.class.equals(idClass)) {
+            return IdUtils.nextLong();
+        }
+        if (byte[].class.equals(idClass)) {
+            return IdUtils.nextBytes();
+        }
+        return IdUtils.nextId();
+    }
+}
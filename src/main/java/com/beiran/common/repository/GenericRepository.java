@@ -0,0 +1,54 @@
+package com.beiran.common.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 在 JpaRepository 的基础上增加按编号批量查询、更新与删除的操作<br>
+ * 编号较多时按固定大小分段，每段一条 IN 语句
+ * @param <T> 给定实体类型
+ * @param <ID> 给定实体 ID 类型
+ */
+
+@NoRepositoryBean
+public interface GenericRepository<T, ID> extends JpaRepository<T, ID> {
+
+    /**
+     * 根据一批编号查询实体
+     * @param ids 实体编号
+     * @return 存在的实体，不保证与编号的顺序一致
+     */
+    List<T> findAllByIdInBatch(Collection<ID> ids);
+
+    /**
+     * 批量更新一批已存在的实体<br>
+     * 先以 IN 查询将原有实体一次性载入持久化上下文，merge 时不再逐条查询，更新语句在 flush 时以 JDBC batch 发送
+     * @param entities 需要更新的实体
+     * @return 更新后的实体，编号为空或不存在的实体不会被更新，也不包含在内
+     */
+    <S extends T> List<S> updateAllInBatch(Collection<S> entities);
+
+    /**
+     * 根据一批编号批量删除，不逐条载入实体<br>
+     * 实体所拥有的多对多中间表记录由 Hibernate 一并删除，其他关联需要调用方先行处理
+     * @param ids 实体编号
+     * @return 删除的记录数
+     */
+    int deleteAllByIdInBatch(Collection<ID> ids);
+
+    /**
+     * 分页查询，按 count 决定总数的取得方式<br>
+     * EXACT 与 findAll(Pageable) 相同；NONE 多取一条判断是否有下一页，返回 Slice；
+     * ESTIMATE 以表统计信息作为近似总数，总数不小于已经取到的记录数<br>
+     * 子接口覆盖此方法并加上 @EntityGraph 时，三种方式都按该实体图加载
+     * @param pageable 分页参数
+     * @param count 总数的取得方式
+     * @return EXACT、ESTIMATE 时为 Page
+     */
+    Slice<T> findAll(Pageable pageable, PageCount count);
+}
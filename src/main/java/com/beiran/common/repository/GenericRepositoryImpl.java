@@ -0,0 +1,154 @@
+package com.beiran.common.repository;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * GenericRepository 的实现，作为所有 Repository 的基类（见 MainConfig）
+ * @param <T> 给定实体类型
+ * @param <ID> 给定实体 ID 类型
+ */
+public class GenericRepositoryImpl<T, ID> extends SimpleJpaRepository<T, ID> implements GenericRepository<T, ID> {
+
+    /**
+     * 每条 IN 语句中编号的最大数目
+     */
+    private static final int IN_CHUNK_SIZE = 500;
+
+    private final JpaEntityInformation<T, ?> entityInformation;
+
+    private final EntityManager entityManager;
+
+    public GenericRepositoryImpl(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+        super(entityInformation, entityManager);
+        this.entityInformation = entityInformation;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<T> findAllByIdInBatch(Collection<ID> ids) {
+        List<T> entities = new ArrayList<>();
+        for (List<ID> chunk : chunk(ids)) {
+            entities.addAll(findAllById(chunk));
+        }
+        return entities;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    @SuppressWarnings("unchecked")
+    public <S extends T> List<S> updateAllInBatch(Collection<S> entities) {
+        List<ID> ids = new ArrayList<>();
+        for (S entity : entities) {
+            Object id = entityInformation.getId(entity);
+            if (!Objects.equals(id, null)) {
+                ids.add((ID) id);
+            }
+        }
+        Set<Object> existingIds = new HashSet<>();
+        for (T entity : findAllByIdInBatch(ids)) {
+            existingIds.add(entityInformation.getId(entity));
+        }
+        List<S> updated = new ArrayList<>();
+        for (S entity : entities) {
+            if (existingIds.contains(entityInformation.getId(entity))) {
+                updated.add(entityManager.merge(entity));
+            }
+        }
+        entityManager.flush();
+        return updated;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int deleteAllByIdInBatch(Collection<ID> ids) {
+        // 先写入待执行的修改，避免批量删除与持久化上下文中的实体不一致
+        entityManager.flush();
+        String jpql = "DELETE FROM " + entityInformation.getEntityName() + " e WHERE e."
+                + entityInformation.getIdAttribute().getName() + " IN :ids";
+        int deleted = 0;
+        for (List<ID> chunk : chunk(ids)) {
+            deleted += entityManager.createQuery(jpql).setParameter("ids", chunk).executeUpdate();
+        }
+        return deleted;
+    }
+
+    @Override
+    public Slice<T> findAll(Pageable pageable, PageCount count) {
+        if (Objects.equals(count, PageCount.NONE)) {
+            return findSlice(pageable);
+        }
+        if (Objects.equals(count, PageCount.ESTIMATE)) {
+            Slice<T> slice = findSlice(pageable);
+            long fetched = pageable.isPaged() ?
+                    pageable.getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0) : slice.getNumberOfElements();
+            return new PageImpl<>(slice.getContent(), pageable, Math.max(estimateRowCount(), fetched));
+        }
+        return findAll(pageable);
+    }
+
+    /**
+     * 多取一条记录判断是否有下一页，不执行 COUNT 查询
+     */
+    private Slice<T> findSlice(Pageable pageable) {
+        TypedQuery<T> query = getQuery(null, pageable.getSort());
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(query.getResultList(), pageable, false);
+        }
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize() + 1);
+        List<T> content = new ArrayList<>(query.getResultList());
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content.remove(content.size() - 1);
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    /**
+     * 从 information_schema 读取实体所在表的估计行数，InnoDB 下误差可达数十个百分点，取不到时为 0
+     */
+    private long estimateRowCount() {
+        EntityPersister persister = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getMetamodel().entityPersister(entityInformation.getJavaType());
+        if (!(persister instanceof AbstractEntityPersister)) {
+            return 0L;
+        }
+        List<?> rows = entityManager.createNativeQuery("SELECT TABLE_ROWS FROM information_schema.TABLES " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?1")
+                .setParameter(1, ((AbstractEntityPersister) persister).getTableName())
+                .getResultList();
+        return rows.isEmpty() || Objects.equals(rows.get(0), null) ? 0L : ((Number) rows.get(0)).longValue();
+    }
+
+    /**
+     * 去除空值与重复后按 IN_CHUNK_SIZE 分段
+     */
+    private List<List<ID>> chunk(Collection<ID> ids) {
+        List<ID> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinctIds.removeIf(id -> Objects.equals(id, null));
+        List<List<ID>> chunks = new ArrayList<>();
+        for (int i = 0; i < distinctIds.size(); i += IN_CHUNK_SIZE) {
+            chunks.add(distinctIds.subList(i, Math.min(i + IN_CHUNK_SIZE, distinctIds.size())));
+        }
+        return chunks;
+    }
+}
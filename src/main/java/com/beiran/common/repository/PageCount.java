@@ -0,0 +1,22 @@
+package com.beiran.common.repository;
+
+/**
+ * 分页查询时总数的取得方式，列表接口以 count 参数指定，缺省为 EXACT
+ */
+public enum PageCount {
+
+    /**
+     * 执行 COUNT(*) 取得精确总数，返回 Page
+     */
+    EXACT,
+
+    /**
+     * 不统计总数，多取一条判断是否有下一页，返回 Slice，适合滚动加载
+     */
+    NONE,
+
+    /**
+     * 以表统计信息（information_schema.TABLES.TABLE_ROWS）作为近似总数，返回 Page
+     */
+    ESTIMATE
+}
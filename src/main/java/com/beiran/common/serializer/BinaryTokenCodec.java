@@ -0,0 +1,278 @@
+package com.beiran.common.serializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Jackson 事件流的二进制编码<br>
+ * 每个事件一个字节的标记，整数以 zigzag 变长编码，字符串以变长长度加 UTF-8 字节表示；
+ * 字段名第一次出现时写出全名，之后只写出它在本条消息中的序号
+ */
+class BinaryTokenCodec {
+
+    private static final int START_OBJECT = 1;
+    private static final int END_OBJECT = 2;
+    private static final int START_ARRAY = 3;
+    private static final int END_ARRAY = 4;
+    private static final int NAME_NEW = 5;
+    private static final int NAME_REF = 6;
+    private static final int STRING = 7;
+    private static final int INT = 8;
+    private static final int LONG = 9;
+    private static final int BIG_INTEGER = 10;
+    private static final int FLOAT = 11;
+    private static final int DOUBLE = 12;
+    private static final int BIG_DECIMAL = 13;
+    private static final int TRUE = 14;
+    private static final int FALSE = 15;
+    private static final int NULL = 16;
+    private static final int BINARY = 17;
+
+    private BinaryTokenCodec() {
+    }
+
+    /**
+     * 将 parser 中剩余的事件编码后写入 out
+     */
+    static void encode(JsonParser parser, ByteArrayOutputStream out) throws IOException {
+        Map<String, Integer> names = new HashMap<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            switch (token) {
+                case START_OBJECT:
+                    out.write(START_OBJECT);
+                    break;
+                case END_OBJECT:
+                    out.write(END_OBJECT);
+                    break;
+                case START_ARRAY:
+                    out.write(START_ARRAY);
+                    break;
+                case END_ARRAY:
+                    out.write(END_ARRAY);
+                    break;
+                case FIELD_NAME:
+                    String name = parser.getCurrentName();
+                    Integer index = names.get(name);
+                    if (Objects.equals(index, null)) {
+                        names.put(name, names.size());
+                        out.write(NAME_NEW);
+                        writeString(out, name);
+                    } else {
+                        out.write(NAME_REF);
+                        writeVarLong(out, index);
+                    }
+                    break;
+                case VALUE_STRING:
+                    out.write(STRING);
+                    writeString(out, parser.getText());
+                    break;
+                case VALUE_NUMBER_INT:
+                    writeInteger(parser, out);
+                    break;
+                case VALUE_NUMBER_FLOAT:
+                    writeFloat(parser, out);
+                    break;
+                case VALUE_TRUE:
+                    out.write(TRUE);
+                    break;
+                case VALUE_FALSE:
+                    out.write(FALSE);
+                    break;
+                case VALUE_NULL:
+                    out.write(NULL);
+                    break;
+                case VALUE_EMBEDDED_OBJECT:
+                    Object embedded = parser.getEmbeddedObject();
+                    if (!(embedded instanceof byte[])) {
+                        throw new IOException("不支持的嵌入值: " + (Objects.equals(embedded, null) ? null : embedded.getClass().getName()));
+                    }
+                    out.write(BINARY);
+                    writeBytes(out, (byte[]) embedded);
+                    break;
+                default:
+                    throw new IOException("不支持的事件: " + token);
+            }
+        }
+    }
+
+    /**
+     * 将 bytes 中 offset 之后的内容解码为事件写入 generator
+     */
+    static void decode(byte[] bytes, int offset, JsonGenerator generator) throws IOException {
+        List<String> names = new ArrayList<>();
+        int[] position = {offset};
+        while (position[0] < bytes.length) {
+            int token = bytes[position[0]++];
+            switch (token) {
+                case START_OBJECT:
+                    generator.writeStartObject();
+                    break;
+                case END_OBJECT:
+                    generator.writeEndObject();
+                    break;
+                case START_ARRAY:
+                    generator.writeStartArray();
+                    break;
+                case END_ARRAY:
+                    generator.writeEndArray();
+                    break;
+                case NAME_NEW:
+                    String name = readString(bytes, position);
+                    names.add(name);
+                    generator.writeFieldName(name);
+                    break;
+                case NAME_REF:
+                    generator.writeFieldName(names.get((int) readVarLong(bytes, position)));
+                    break;
+                case STRING:
+                    generator.writeString(readString(bytes, position));
+                    break;
+                case INT:
+                    generator.writeNumber((int) zigzagDecode(readVarLong(bytes, position)));
+                    break;
+                case LONG:
+                    generator.writeNumber(zigzagDecode(readVarLong(bytes, position)));
+                    break;
+                case BIG_INTEGER:
+                    generator.writeNumber(new BigInteger(readString(bytes, position)));
+                    break;
+                case FLOAT:
+                    generator.writeNumber(Float.intBitsToFloat((int) readFixed(bytes, position, 4)));
+                    break;
+                case DOUBLE:
+                    generator.writeNumber(Double.longBitsToDouble(readFixed(bytes, position, 8)));
+                    break;
+                case BIG_DECIMAL:
+                    generator.writeNumber(new BigDecimal(readString(bytes, position)));
+                    break;
+                case TRUE:
+                    generator.writeBoolean(true);
+                    break;
+                case FALSE:
+                    generator.writeBoolean(false);
+                    break;
+                case NULL:
+                    generator.writeNull();
+                    break;
+                case BINARY:
+                    generator.writeBinary(readBytes(bytes, position));
+                    break;
+                default:
+                    throw new IOException("无法识别的标记: " + token);
+            }
+        }
+    }
+
+    private static void writeInteger(JsonParser parser, ByteArrayOutputStream out) throws IOException {
+        switch (parser.getNumberType()) {
+            case INT:
+                out.write(INT);
+                writeVarLong(out, zigzagEncode(parser.getIntValue()));
+                break;
+            case LONG:
+                out.write(LONG);
+                writeVarLong(out, zigzagEncode(parser.getLongValue()));
+                break;
+            default:
+                out.write(BIG_INTEGER);
+                writeString(out, parser.getBigIntegerValue().toString());
+                break;
+        }
+    }
+
+    private static void writeFloat(JsonParser parser, ByteArrayOutputStream out) throws IOException {
+        switch (parser.getNumberType()) {
+            case FLOAT:
+                out.write(FLOAT);
+                writeFixed(out, Float.floatToIntBits(parser.getFloatValue()), 4);
+                break;
+            case DOUBLE:
+                out.write(DOUBLE);
+                writeFixed(out, Double.doubleToLongBits(parser.getDoubleValue()), 8);
+                break;
+            default:
+                out.write(BIG_DECIMAL);
+                writeString(out, parser.getDecimalValue().toString());
+                break;
+        }
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBytes(ByteArrayOutputStream out, byte[] value) {
+        writeVarLong(out, value.length);
+        out.write(value, 0, value.length);
+    }
+
+    private static String readString(byte[] bytes, int[] position) {
+        int length = (int) readVarLong(bytes, position);
+        String value = new String(bytes, position[0], length, StandardCharsets.UTF_8);
+        position[0] += length;
+        return value;
+    }
+
+    private static byte[] readBytes(byte[] bytes, int[] position) {
+        int length = (int) readVarLong(bytes, position);
+        byte[] value = new byte[length];
+        System.arraycopy(bytes, position[0], value, 0, length);
+        position[0] += length;
+        return value;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] bytes, int[] position) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static void writeFixed(ByteArrayOutputStream out, long value, int size) {
+        for (int i = size - 1; i >= 0; i--) {
+            out.write((int) (value >>> (8 * i)));
+        }
+    }
+
+    private static long readFixed(byte[] bytes, int[] position, int size) {
+        long value = 0;
+        for (int i = 0; i < size; i++) {
+            value = (value << 8) | (bytes[position[0]++] & 0xFF);
+        }
+        return value;
+    }
+
+    private static long zigzagEncode(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long zigzagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
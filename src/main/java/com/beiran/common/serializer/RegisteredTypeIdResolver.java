@@ -0,0 +1,47 @@
+package com.beiran.common.serializer;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DatabindContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.impl.ClassNameIdResolver;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * 类型标识: 登记过的类型使用 TypeRegistry 中的编号，其他类型使用全类名<br>
+ * 读取全类名时只接受 validator 允许的类型，避免 Redis 中的值指定任意类作反序列化
+ */
+class RegisteredTypeIdResolver extends ClassNameIdResolver {
+
+    private final TypeRegistry registry;
+
+    RegisteredTypeIdResolver(TypeRegistry registry, PolymorphicTypeValidator validator) {
+        super(TypeFactory.defaultInstance().constructType(Object.class), TypeFactory.defaultInstance(), validator);
+        this.registry = registry;
+    }
+
+    @Override
+    public JsonTypeInfo.Id getMechanism() {
+        return JsonTypeInfo.Id.CUSTOM;
+    }
+
+    @Override
+    public String idFromValue(Object value) {
+        return idFromValueAndType(value, value.getClass());
+    }
+
+    @Override
+    public String idFromValueAndType(Object value, Class<?> type) {
+        String id = registry.idOf(type);
+        return Objects.equals(id, null) ? super.idFromValueAndType(value, type) : id;
+    }
+
+    @Override
+    public JavaType typeFromId(DatabindContext context, String id) throws IOException {
+        Class<?> type = registry.typeOf(id);
+        return Objects.equals(type, null) ? super.typeFromId(context, id) : context.constructType(type);
+    }
+}
@@ -0,0 +1,48 @@
+package com.beiran.common.serializer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 类型表: 为常用的缓存值类型登记固定的短编号，序列化时以 "#编号" 代替全类名<br>
+ * 编号写入 Redis 后即不能更改或复用，新增类型只能使用新的编号；未登记的类型仍以全类名表示
+ */
+public class TypeRegistry {
+
+    private static final String ID_PREFIX = "#";
+
+    private final Map<Class<?>, String> ids = new HashMap<>();
+
+    private final Map<String, Class<?>> types = new HashMap<>();
+
+    /**
+     * 登记一个类型
+     * @param id 编号，不能重复
+     * @param type 类型，不能重复
+     * @return 当前类型表
+     */
+    public TypeRegistry register(int id, Class<?> type) {
+        String typeId = ID_PREFIX + id;
+        if (types.containsKey(typeId) || ids.containsKey(type)) {
+            throw new IllegalArgumentException("类型编号重复: " + id + " -> " + type.getName());
+        }
+        ids.put(type, typeId);
+        types.put(typeId, type);
+        return this;
+    }
+
+    /**
+     * @return 类型的编号，未登记时为 null
+     */
+    String idOf(Class<?> type) {
+        return ids.get(type);
+    }
+
+    /**
+     * @return 编号对应的类型，不是登记的编号时为 null
+     */
+    Class<?> typeOf(String id) {
+        return Objects.equals(id, null) || !id.startsWith(ID_PREFIX) ? null : types.get(id);
+    }
+}
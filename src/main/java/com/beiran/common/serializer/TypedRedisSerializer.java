@@ -0,0 +1,193 @@
+package com.beiran.common.serializer;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.google.gson.Gson;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 带类型信息的二进制 Redis 值序列化<br>
+ * 格式: 1 字节魔数 + 1 字节标志 + 内容；内容为 Jackson 事件流的二进制编码（见 BinaryTokenCodec），
+ * 非基本类型的值带有类型标识（TypeRegistry 中的编号或全类名），读取时还原为原来的类型<br>
+ * 内容超过压缩阈值且压缩后更小时以 Deflate 压缩，标志中记录压缩方式<br>
+ * 不以魔数开头的值视为旧的 JSON 格式: 带 "@class" 的按其中的类型读取，其余与原来的 Gson 方式相同，读为 Map、List 等<br>
+ * 两种格式中以全类名表示的类型都只接受 TYPE_VALIDATOR 允许的类型
+ */
+public class TypedRedisSerializer implements RedisSerializer<Object> {
+
+    /**
+     * 魔数，不是合法 UTF-8 文本的首字节，不会与 JSON 混淆
+     */
+    private static final byte MAGIC = (byte) 0xB7;
+
+    private static final int VERSION = 0x10;
+
+    private static final int FLAG_DEFLATE = 0x01;
+
+    private static final int HEADER_LENGTH = 2;
+
+    /**
+     * 允许以全类名读取的类型: 本项目的类、集合、日期时间类型，以及 Object 类型的集合元素中出现的基本类型包装类
+     */
+    static final PolymorphicTypeValidator TYPE_VALIDATOR = BasicPolymorphicTypeValidator.builder()
+            .allowIfSubType("com.beiran.")
+            .allowIfSubType(Long.class)
+            .allowIfSubType(Integer.class)
+            .allowIfSubType(Short.class)
+            .allowIfSubType(Byte.class)
+            .allowIfSubType(Double.class)
+            .allowIfSubType(Float.class)
+            .allowIfSubType(Boolean.class)
+            .allowIfSubType(Character.class)
+            .allowIfSubType(String.class)
+            .allowIfSubType("java.util.")
+            .allowIfSubType("java.time.")
+            .allowIfSubType("java.math.")
+            .allowIfSubType(Timestamp.class)
+            .allowIfSubTypeIsArray()
+            .build();
+
+    private final ObjectMapper mapper;
+
+    private final ObjectMapper legacyMapper;
+
+    private final Gson gson = new Gson();
+
+    private final int compressThreshold;
+
+    /**
+     * @param registry 类型表
+     * @param compressThreshold 内容达到该字节数时尝试压缩，小于等于 0 时不压缩
+     */
+    public TypedRedisSerializer(TypeRegistry registry, int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+        this.mapper = new ObjectMapper();
+        this.mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+        this.mapper.setDefaultTyping(new ObjectMapper.DefaultTypeResolverBuilder(ObjectMapper.DefaultTyping.NON_FINAL, TYPE_VALIDATOR)
+                .init(JsonTypeInfo.Id.CUSTOM, new RegisteredTypeIdResolver(registry, TYPE_VALIDATOR))
+                .inclusion(JsonTypeInfo.As.PROPERTY)
+                .typeProperty("@t"));
+        this.legacyMapper = new ObjectMapper();
+        this.legacyMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.legacyMapper.activateDefaultTyping(TYPE_VALIDATOR, ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (Objects.equals(value, null)) {
+            return new byte[0];
+        }
+        try {
+            TokenBuffer buffer = new TokenBuffer(mapper, false);
+            mapper.writeValue(buffer, value);
+            ByteArrayOutputStream body = new ByteArrayOutputStream(64);
+            BinaryTokenCodec.encode(buffer.asParser(), body);
+            byte[] content = body.toByteArray();
+            int flags = VERSION;
+            if (compressThreshold > 0 && content.length >= compressThreshold) {
+                byte[] compressed = deflate(content);
+                if (compressed.length < content.length) {
+                    content = compressed;
+                    flags |= FLAG_DEFLATE;
+                }
+            }
+            byte[] bytes = new byte[HEADER_LENGTH + content.length];
+            bytes[0] = MAGIC;
+            bytes[1] = (byte) flags;
+            System.arraycopy(content, 0, bytes, HEADER_LENGTH, content.length);
+            return bytes;
+        } catch (IOException e) {
+            throw new SerializationException("无法序列化: " + value.getClass().getName(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (Objects.equals(bytes, null) || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return deserializeLegacy(bytes);
+        }
+        try {
+            byte[] content = (bytes[1] & FLAG_DEFLATE) != 0 ?
+                    inflate(bytes, HEADER_LENGTH) : Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length);
+            TokenBuffer buffer = new TokenBuffer(mapper, false);
+            BinaryTokenCodec.decode(content, 0, buffer);
+            return mapper.readValue(buffer.asParser(mapper), Object.class);
+        } catch (IOException | DataFormatException | RuntimeException e) {
+            throw new SerializationException("无法反序列化", e);
+        }
+    }
+
+    /**
+     * 读取旧的 JSON 值
+     */
+    private Object deserializeLegacy(byte[] bytes) {
+        String json = new String(bytes, StandardCharsets.UTF_8);
+        if (json.contains("\"@class\"")) {
+            try {
+                return legacyMapper.readValue(bytes, Object.class);
+            } catch (IOException e) {
+                // 无法按类型读取时按普通 JSON 读取
+            }
+        }
+        try {
+            return gson.fromJson(json, Object.class);
+        } catch (RuntimeException e) {
+            throw new SerializationException("无法反序列化旧格式的值", e);
+        }
+    }
+
+    private static byte[] deflate(byte[] content) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(content);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 2);
+            byte[] chunk = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes, int offset) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, offset, bytes.length - offset);
+            ByteArrayOutputStream out = new ByteArrayOutputStream((bytes.length - offset) * 3);
+            byte[] chunk = new byte[4096];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(chunk);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("压缩内容不完整");
+                }
+                out.write(chunk, 0, length);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
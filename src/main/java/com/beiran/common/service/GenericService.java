@@ -1,8 +1,11 @@
 package com.beiran.common.service;
 
+import com.beiran.common.repository.PageCount;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -20,12 +23,25 @@ public interface GenericService<T, ID> {
      */
     T save(T entity);
 
+    /**
+     * 批量保存操作，插入语句在 flush 时以 JDBC batch 发送
+     * @param entities 需要保存的实体
+     * @return 保存的实体
+     */
+    List<T> saveAll(List<T> entities);
+
     /**
      * 根据给定一批实体进行批量删除
      * @param entities
      */
     void deleteAll(List<T> entities);
 
+    /**
+     * 根据给定一批 ID 进行批量删除，按 ID 分段以 DELETE ... WHERE id IN (...) 删除，不逐条载入实体
+     * @param ids 需要删除的实体 ID
+     */
+    void deleteAllById(Collection<ID> ids);
+
     /**
      * 更新操作
      * @param entity 需要更新的实体
@@ -33,6 +49,13 @@ public interface GenericService<T, ID> {
      */
     T update(T entity);
 
+    /**
+     * 批量更新操作，原有实体以 IN 查询一次性载入，更新语句在 flush 时以 JDBC batch 发送
+     * @param entities 需要更新的实体
+     * @return 更新后的实体
+     */
+    List<T> updateAll(List<T> entities);
+
     /**
      * 根据给定 ID 查询一个实体
      * @param id 需要查询的实体 ID
@@ -40,11 +63,25 @@ public interface GenericService<T, ID> {
      */
     T findById(ID id);
 
+    /**
+     * 根据给定一批 ID 查询实体
+     * @param ids 需要查询的实体 ID
+     * @return 存在的实体
+     */
+    List<T> findAllById(Collection<ID> ids);
+
     /**
      * 分页查询
      * @param pageable 常用 Pageable 接口的实现类 PageRequest
      * @return 返回一个 Page 对象
      */
     Page<T> findAll(Pageable pageable);
-}
 
+    /**
+     * 分页查询，按 count 决定总数的取得方式，避免数据量大时每页都执行 COUNT(*)
+     * @param pageable 常用 Pageable 接口的实现类 PageRequest
+     * @param count EXACT 精确总数，NONE 不统计总数，ESTIMATE 近似总数
+     * @return NONE 时为 Slice，否则为 Page
+     */
+    Slice<T> findAll(Pageable pageable, PageCount count);
+}
@@ -0,0 +1,101 @@
+package com.beiran.common.state;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 实体状态机定义<br>
+ * 声明某个实体的状态字段允许的状态转换，由 {@link StateMachineExecutor} 以一条带状态条件的 UPDATE 执行<br>
+ * 约定实体具有 lastModifiedTime 与 lastModifiedOperator 字段，转换时一并修改
+ * @param <S> 状态枚举
+ */
+public class StateMachine<S extends Enum<S>> {
+
+    private final Class<?> entityClass;
+
+    private final String idField;
+
+    private final String stateField;
+
+    private final String entityName;
+
+    private final Class<S> stateClass;
+
+    /**
+     * 目标状态 -> 允许转换到该状态的原状态
+     */
+    private final Map<S, Set<S>> sources;
+
+    private StateMachine(Class<?> entityClass, String idField, String stateField, String entityName, Class<S> stateClass) {
+        this.entityClass = entityClass;
+        this.idField = idField;
+        this.stateField = stateField;
+        this.entityName = entityName;
+        this.stateClass = stateClass;
+        this.sources = new EnumMap<>(stateClass);
+    }
+
+    /**
+     * 创建状态机
+     * @param entityClass 实体类
+     * @param idField 实体编号字段名
+     * @param stateField 实体状态字段名
+     * @param entityName 实体名，用于异常信息
+     * @param stateClass 状态枚举类
+     * @return StateMachine
+     */
+    public static <S extends Enum<S>> StateMachine<S> of(Class<?> entityClass, String idField, String stateField, String entityName, Class<S> stateClass) {
+        return new StateMachine<>(entityClass, idField, stateField, entityName, stateClass);
+    }
+
+    /**
+     * 允许从一些状态转换到目标状态
+     * @param target 目标状态
+     * @param from 原状态
+     * @return 当前状态机
+     */
+    @SafeVarargs
+    public final StateMachine<S> allow(S target, S... from) {
+        Set<S> states = sources.computeIfAbsent(target, state -> EnumSet.noneOf(stateClass));
+        Collections.addAll(states, from);
+        return this;
+    }
+
+    /**
+     * 查询允许转换到目标状态的原状态
+     * @param target 目标状态
+     * @return 原状态，不允许转换到目标状态时为空集合
+     */
+    public Set<S> getSources(S target) {
+        return Collections.unmodifiableSet(sources.getOrDefault(target, EnumSet.noneOf(stateClass)));
+    }
+
+    /**
+     * 是否允许从原状态转换到目标状态
+     * @param from 原状态
+     * @param target 目标状态
+     * @return 是否允许
+     */
+    public boolean isAllowed(S from, S target) {
+        return getSources(target).contains(from);
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    public String getIdField() {
+        return idField;
+    }
+
+    public String getStateField() {
+        return stateField;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+}
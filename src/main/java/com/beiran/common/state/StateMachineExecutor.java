@@ -0,0 +1,87 @@
+package com.beiran.common.state;
+
+import com.beiran.common.exception.EntityNotExistException;
+import com.beiran.common.exception.ParameterException;
+import com.beiran.core.system.entity.User;
+import com.beiran.security.utils.SecurityUtil;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Set;
+
+/**
+ * 执行状态机中声明的状态转换<br>
+ * 每次转换是一条 UPDATE ... SET 状态, 修改时间, 操作者 WHERE 编号 = ? AND 状态 IN (允许的原状态)，
+ * 以影响的行数判断是否成功: 并发的两次相同转换只有一次成功，转换后的副作用（扣减库存、入库等）因此只执行一次
+ */
+
+@Component
+public class StateMachineExecutor {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 从任一允许的原状态转换到目标状态
+     * @param stateMachine 状态机
+     * @param id 实体编号
+     * @param target 目标状态
+     * @return 是否转换成功，当前状态不允许转换到目标状态时为 false
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public <S extends Enum<S>> boolean transit(StateMachine<S> stateMachine, String id, S target) {
+        return transit(stateMachine, id, stateMachine.getSources(target), target);
+    }
+
+    /**
+     * 从指定的原状态转换到目标状态，用于需要根据原状态执行不同副作用的转换
+     * @param stateMachine 状态机
+     * @param id 实体编号
+     * @param from 原状态，必须是允许转换到目标状态的状态
+     * @param target 目标状态
+     * @return 是否转换成功，当前状态不是 from 时为 false
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public <S extends Enum<S>> boolean transit(StateMachine<S> stateMachine, String id, S from, S target) {
+        if (!stateMachine.isAllowed(from, target)) {
+            throw new ParameterException("不允许从 " + from + " 转换到 " + target);
+        }
+        return transit(stateMachine, id, Collections.singleton(from), target);
+    }
+
+    private <S extends Enum<S>> boolean transit(StateMachine<S> stateMachine, String id, Set<S> sources, S target) {
+        if (!StringUtils.hasText(id)) {
+            throw new ParameterException(stateMachine.getEntityName() + "编号不能为空");
+        }
+        if (sources.isEmpty()) {
+            return false;
+        }
+        String entityName = stateMachine.getEntityClass().getSimpleName();
+        String userId = SecurityUtil.getUserId();
+        int updated = entityManager.createQuery("UPDATE " + entityName + " e SET e." + stateMachine.getStateField() + " = :target, " +
+                "e.lastModifiedTime = :time, e.lastModifiedOperator = :operator " +
+                "WHERE e." + stateMachine.getIdField() + " = :id AND e." + stateMachine.getStateField() + " IN :sources")
+                .setParameter("target", target)
+                .setParameter("time", new Date())
+                .setParameter("operator", StringUtils.hasText(userId) ? entityManager.getReference(User.class, userId) : null)
+                .setParameter("id", id)
+                .setParameter("sources", sources)
+                .executeUpdate();
+        if (updated > 0) {
+            return true;
+        }
+        // 只在失败时区分实体不存在与状态不符，成功的转换只需要一次数据库往返
+        Long count = entityManager.createQuery("SELECT COUNT(e) FROM " + entityName + " e WHERE e." + stateMachine.getIdField() + " = :id", Long.class)
+                .setParameter("id", id)
+                .getSingleResult();
+        if (count == 0) {
+            throw new EntityNotExistException(stateMachine.getEntityName() + "不存在");
+        }
+        return false;
+    }
+}
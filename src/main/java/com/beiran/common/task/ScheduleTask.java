@@ -1,8 +1,65 @@
 package com.beiran.common.task;
 
+import com.beiran.common.utils.RedisUtils;
+import com.beiran.core.stock.service.StockAlertService;
+import com.beiran.core.stock.service.StockJournalService;
+import com.beiran.core.stock.service.StockService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 @Component
 public class ScheduleTask {
-    // 执行每小时更新所有报价单的汇率任务
+
+    @Autowired
+    private StockJournalService stockJournalService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockAlertService stockAlertService;
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    /**
+     * 每分钟释放已到期的库存预留
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void releaseExpiredStockHolds() {
+        stockService.releaseExpiredProductHolds();
+    }
+
+    /**
+     * 每天凌晨 1 点创建库存快照
+     */
+    @Scheduled(cron = "0 0 1 * * ?")
+    public void createStockSnapshot() {
+        stockJournalService.createSnapshot();
+    }
+
+    /**
+     * 每天凌晨 1 点 30 分压缩历史库存快照
+     */
+    @Scheduled(cron = "0 30 1 * * ?")
+    public void compactStockSnapshots() {
+        stockJournalService.compactSnapshots();
+    }
+
+    /**
+     * 每分钟增量检查低库存
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void checkLowStocks() {
+        stockAlertService.checkLowStocks();
+    }
+
+    /**
+     * 每分钟从 Redis 键登记表中移除已过期的键
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void reapRegisteredRedisKeys() {
+        redisUtils.reapRegisteredKeys();
+    }
 }
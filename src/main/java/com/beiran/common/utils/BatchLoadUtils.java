@@ -0,0 +1,74 @@
+package com.beiran.common.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 批量加载子项的工具<br>
+ * 先收集一页父记录的编号，以 IN 查询一次取出所有子项，再在内存中按父记录分组，
+ * 代替每条父记录单独查询一次子项（N+1 查询）
+ */
+public class BatchLoadUtils {
+
+	/**
+	 * 每条 IN 查询最多包含的编号数，超过时分多次查询
+	 */
+	private static final int IN_QUERY_CHUNK_SIZE = 500;
+
+	/**
+	 * 批量查询一批父记录的子项，并按父记录编号分组
+	 * @param parentIds 父记录编号
+	 * @param childrenFinder 根据一批父记录编号查询子项
+	 * @param parentIdOfChild 获取子项所属父记录的编号
+	 * @return 父记录编号 -> 子项（保持查询返回的顺序），没有子项的父记录不包含在内
+	 */
+	public static <C> Map<String, List<C>> loadChildren(Collection<String> parentIds,
+														Function<Collection<String>, List<C>> childrenFinder,
+														Function<C, String> parentIdOfChild) {
+		Map<String, List<C>> children = new HashMap<>();
+		List<String> ids = new ArrayList<>(new LinkedHashSet<>(parentIds));
+		for (int i = 0; i < ids.size(); i += IN_QUERY_CHUNK_SIZE) {
+			for (C child : childrenFinder.apply(ids.subList(i, Math.min(i + IN_QUERY_CHUNK_SIZE, ids.size())))) {
+				children.computeIfAbsent(parentIdOfChild.apply(child), id -> new ArrayList<>()).add(child);
+			}
+		}
+		return children;
+	}
+
+	/**
+	 * 批量查询一批父记录的子项，转换后设置到各父记录上
+	 * @param parents 父记录
+	 * @param parentId 获取父记录的编号
+	 * @param childrenFinder 根据一批父记录编号查询子项
+	 * @param parentIdOfChild 获取子项所属父记录的编号
+	 * @param transfer 子项的转换方法
+	 * @param setter 将转换后的子项设置到父记录上，没有子项的父记录设置为空集合
+	 */
+	public static <P, C, R> void attachChildren(List<P> parents,
+												Function<P, String> parentId,
+												Function<Collection<String>, List<C>> childrenFinder,
+												Function<C, String> parentIdOfChild,
+												Function<C, R> transfer,
+												BiConsumer<P, List<R>> setter) {
+		if (parents.isEmpty()) {
+			return;
+		}
+		Set<String> parentIds = new LinkedHashSet<>();
+		parents.forEach(parent -> parentIds.add(parentId.apply(parent)));
+		Map<String, List<C>> children = loadChildren(parentIds, childrenFinder, parentIdOfChild);
+		for (P parent : parents) {
+			List<R> transferred = new ArrayList<>();
+			for (C child : children.getOrDefault(parentId.apply(parent), new ArrayList<>())) {
+				transferred.add(transfer.apply(child));
+			}
+			setter.accept(parent, transferred);
+		}
+	}
+}
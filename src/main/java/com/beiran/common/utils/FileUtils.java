@@ -1,19 +1,33 @@
 package com.beiran.common.utils;
 
 import com.beiran.common.exception.FileDownloadException;
+import com.beiran.common.exception.ParameterException;
 import com.beiran.core.quotation.entity.BasicInfo;
 import com.beiran.core.quotation.entity.Quotation;
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
 import org.apache.poi.util.Units;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
 import org.apache.poi.xssf.streaming.*;
 import org.apache.poi.xssf.usermodel.XSSFClientAnchor;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
 
 import javax.imageio.ImageIO;
 import javax.servlet.http.HttpServletResponse;
 import java.awt.image.BufferedImage;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.Month;
 import java.time.ZoneId;
@@ -23,6 +37,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 /**
  * 文件相关操作，若出现异常，会抛出 FileDownloadException
@@ -85,6 +100,138 @@ public class FileUtils {
 		return file;
 	}
 
+	/**
+	 * 逐行读取上传的 xlsx 或 csv 文件，不会将整个文件加载到内存中<br>
+	 * xlsx 使用 POI 的 SAX 事件模型，只读取第一个工作表；csv 使用 UTF-8 编码
+	 * @param inputStream 文件内容
+	 * @param fileName 文件名，根据扩展名判断文件类型
+	 * @param rowHandler 行处理器，参数为行号（从 1 开始）与各列的值（空单元格为空字符串）
+	 */
+	public static void readRows(InputStream inputStream, String fileName, BiConsumer<Integer, List<String>> rowHandler) {
+		String lowerName = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+		if (lowerName.endsWith(".csv")) {
+			readCsvRows(inputStream, rowHandler);
+		} else if (lowerName.endsWith(".xlsx")) {
+			readXlsxRows(inputStream, rowHandler);
+		} else {
+			throw new ParameterException("仅支持 xlsx 或 csv 文件");
+		}
+	}
+
+	/**
+	 * 以 SAX 方式读取 xlsx 的第一个工作表，先写入临时文件，避免 OPCPackage 将整个压缩包读入内存
+	 */
+	private static void readXlsxRows(InputStream inputStream, BiConsumer<Integer, List<String>> rowHandler) {
+		File file = null;
+		try {
+			file = File.createTempFile("erp_import", ".xlsx");
+			Files.copy(inputStream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			try (OPCPackage opcPackage = OPCPackage.open(file, PackageAccess.READ)) {
+				XSSFReader reader = new XSSFReader(opcPackage);
+				ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(opcPackage);
+				StylesTable styles = reader.getStylesTable();
+				XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+				if (!sheets.hasNext()) {
+					return;
+				}
+				try (InputStream sheet = sheets.next()) {
+					XMLReader xmlReader = SAXHelper.newXMLReader();
+					xmlReader.setContentHandler(new XSSFSheetXMLHandler(styles, null, strings, new XSSFSheetXMLHandler.SheetContentsHandler() {
+
+						private List<String> cells;
+
+						@Override
+						public void startRow(int rowNum) {
+							cells = new ArrayList<>();
+						}
+
+						@Override
+						public void endRow(int rowNum) {
+							rowHandler.accept(rowNum + 1, cells);
+						}
+
+						@Override
+						public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+							int column = cellReference == null ? cells.size() : new CellReference(cellReference).getCol();
+							while (cells.size() < column) {
+								cells.add("");
+							}
+							cells.add(formattedValue == null ? "" : formattedValue.trim());
+						}
+					}, new DataFormatter(), false));
+					xmlReader.parse(new InputSource(sheet));
+				}
+			}
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new ParameterException("无法读取上传的 xlsx 文件");
+		} finally {
+			if (file != null && !file.delete()) {
+				file.deleteOnExit();
+			}
+		}
+	}
+
+	/**
+	 * 逐行读取 csv，支持双引号包裹的字段（字段内可包含逗号、换行与成对的双引号）
+	 */
+	private static void readCsvRows(InputStream inputStream, BiConsumer<Integer, List<String>> rowHandler) {
+		try (Reader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+			List<String> cells = new ArrayList<>();
+			StringBuilder cell = new StringBuilder();
+			boolean quoted = false;
+			boolean rowStarted = false;
+			int rowNum = 1;
+			int c = reader.read();
+			// 跳过 UTF-8 BOM
+			if (c == '\uFEFF') {
+				c = reader.read();
+			}
+			for (; c != -1; c = reader.read()) {
+				if (quoted) {
+					if (c == '"') {
+						reader.mark(1);
+						int next = reader.read();
+						if (next == '"') {
+							cell.append('"');
+						} else {
+							quoted = false;
+							reader.reset();
+						}
+					} else {
+						cell.append((char) c);
+					}
+				} else if (c == '"') {
+					quoted = true;
+					rowStarted = true;
+				} else if (c == ',') {
+					cells.add(cell.toString().trim());
+					cell.setLength(0);
+					rowStarted = true;
+				} else if (c == '\n') {
+					if (rowStarted || cell.length() > 0) {
+						cells.add(cell.toString().trim());
+						rowHandler.accept(rowNum, cells);
+					}
+					cells = new ArrayList<>();
+					cell.setLength(0);
+					rowStarted = false;
+					rowNum++;
+				} else if (c != '\r') {
+					cell.append((char) c);
+					rowStarted = true;
+				}
+			}
+			if (rowStarted || cell.length() > 0) {
+				cells.add(cell.toString().trim());
+				rowHandler.accept(rowNum, cells);
+			}
+		} catch (IOException e) {
+			throw new ParameterException("无法读取上传的 csv 文件");
+		}
+	}
+
 	/**
 	 * 生成报价单 Excel
 	 * @param quotation 报价单数据
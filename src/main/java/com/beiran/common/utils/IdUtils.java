@@ -0,0 +1,188 @@
+package com.beiran.common.utils;
+
+import java.security.SecureRandom;
+import java.util.Objects;
+
+/**
+ * 按时间有序的主键生成工具<br>
+ * ULID: 48 位毫秒时间戳 + 80 位随机数，编码为 26 位 Crockford Base32 字符串或 16 字节，字典序与生成时间一致<br>
+ * Snowflake: 41 位毫秒时间戳（自 EPOCH 起）+ 10 位节点号 + 12 位序列号，适合 BIGINT 主键
+ */
+public class IdUtils {
+
+	/**
+	 * ULID 字符串长度
+	 */
+	public static final int ULID_LENGTH = 26;
+
+	/**
+	 * Snowflake 时间戳起点: 2020-01-01 00:00:00 UTC
+	 */
+	private static final long EPOCH = 1577836800000L;
+
+	private static final int NODE_BITS = 10;
+
+	private static final int SEQUENCE_BITS = 12;
+
+	private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+
+	private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+	private static final char[] ENCODING = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+	private static final SecureRandom RANDOM = new SecureRandom();
+
+	/**
+	 * 上一个 ULID 的时间戳与随机部分（高 16 位、低 64 位），同一毫秒内随机部分递增，保证单调
+	 */
+	private static long lastUlidTime = -1L;
+
+	private static long lastRandomHigh;
+
+	private static long lastRandomLow;
+
+	/**
+	 * Snowflake 节点号，取系统属性 id.node（0 ~ 1023，多个实例需各不相同），未设置时为 0；超出范围时类无法初始化
+	 */
+	private static final long NODE = checkNode(Long.getLong("id.node", 0L));
+
+	private static long lastSnowflakeTime = -1L;
+
+	private static long sequence = 0L;
+
+	/**
+	 * 生成 ULID 字符串
+	 * @return 26 位 ULID
+	 */
+	public static String nextId() {
+		return encode(nextUlid(System.currentTimeMillis()));
+	}
+
+	/**
+	 * 以给定时间生成 ULID 字符串，用于为已有数据按创建时间补发主键
+	 * @param timestamp 毫秒时间戳
+	 * @return 26 位 ULID
+	 */
+	public static String nextId(long timestamp) {
+		return encode(nextUlid(timestamp));
+	}
+
+	/**
+	 * 生成 16 字节的 ULID，用于 BINARY(16) 主键
+	 * @return 16 字节，高位在前
+	 */
+	public static byte[] nextBytes() {
+		long[] ulid = nextUlid(System.currentTimeMillis());
+		byte[] bytes = new byte[16];
+		long high = (ulid[0] << 16) | ulid[1];
+		for (int i = 0; i < 8; i++) {
+			bytes[i] = (byte) (high >>> (56 - 8 * i));
+			bytes[8 + i] = (byte) (ulid[2] >>> (56 - 8 * i));
+		}
+		return bytes;
+	}
+
+	/**
+	 * 生成 Snowflake 主键，用于 BIGINT 主键；同一毫秒内序列号用尽时等待下一毫秒，时钟回拨时沿用上一次的时间
+	 * @return 正的 long
+	 */
+	public static synchronized long nextLong() {
+		long now = Math.max(System.currentTimeMillis(), lastSnowflakeTime);
+		if (now == lastSnowflakeTime) {
+			sequence = (sequence + 1) & SEQUENCE_MASK;
+			if (sequence == 0) {
+				while (now <= lastSnowflakeTime) {
+					now = System.currentTimeMillis();
+				}
+			}
+		} else {
+			sequence = 0L;
+		}
+		lastSnowflakeTime = now;
+		return ((now - EPOCH) << (NODE_BITS + SEQUENCE_BITS)) | (NODE << SEQUENCE_BITS) | sequence;
+	}
+
+	/**
+	 * 当前实例的 Snowflake 节点号
+	 * @return 0 ~ 1023
+	 */
+	public static long getNode() {
+		return NODE;
+	}
+
+	/**
+	 * 校验节点号，超出范围时不能按位截断，否则不同实例可能得到相同的节点号
+	 * @param node 节点号
+	 * @return 节点号
+	 */
+	static long checkNode(long node) {
+		if (node < 0 || node > MAX_NODE) {
+			throw new IllegalArgumentException("id.node 超出范围 0 ~ " + MAX_NODE + ": " + node);
+		}
+		return node;
+	}
+
+	/**
+	 * 是否为 ULID 字符串
+	 * @param id 主键
+	 * @return 是否为 26 位 Crockford Base32 字符串
+	 */
+	public static boolean isUlid(String id) {
+		if (Objects.equals(id, null) || id.length() != ULID_LENGTH) {
+			return false;
+		}
+		for (char c : id.toCharArray()) {
+			if (decode(c) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return [时间戳, 随机部分高 16 位, 随机部分低 64 位]
+	 */
+	private static synchronized long[] nextUlid(long timestamp) {
+		if (timestamp == lastUlidTime) {
+			lastRandomLow++;
+			if (lastRandomLow == 0) {
+				lastRandomHigh = (lastRandomHigh + 1) & 0xFFFF;
+			}
+		} else {
+			lastUlidTime = timestamp;
+			lastRandomHigh = RANDOM.nextInt(1 << 16);
+			lastRandomLow = RANDOM.nextLong();
+		}
+		return new long[]{timestamp & 0xFFFFFFFFFFFFL, lastRandomHigh, lastRandomLow};
+	}
+
+	/**
+	 * 将 128 位按每 5 位一个字符编码，首字符只占 3 位
+	 */
+	private static String encode(long[] ulid) {
+		char[] chars = new char[ULID_LENGTH];
+		long time = ulid[0];
+		for (int i = 9; i >= 0; i--) {
+			chars[i] = ENCODING[(int) (time & 31)];
+			time >>>= 5;
+		}
+		// 随机部分 80 位: 高 16 位 + 低 64 位，共 16 个字符
+		long high = ulid[1];
+		long low = ulid[2];
+		for (int i = ULID_LENGTH - 1; i >= 10; i--) {
+			chars[i] = ENCODING[(int) (low & 31)];
+			low = (low >>> 5) | ((high & 31) << 59);
+			high >>>= 5;
+		}
+		return new String(chars);
+	}
+
+	private static int decode(char c) {
+		for (int i = 0; i < ENCODING.length; i++) {
+			if (ENCODING[i] == Character.toUpperCase(c)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,68 @@
+package com.beiran.common.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RedisUtils 中某一种操作的调用统计: 调用次数、涉及的键数、失败次数与耗时
+ */
+public class RedisOperationStats {
+
+    private final String operation;
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LongAdder keys = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    RedisOperationStats(String operation) {
+        this.operation = operation;
+    }
+
+    void record(int keyCount, long nanos, boolean failed) {
+        calls.increment();
+        keys.add(keyCount);
+        totalNanos.add(nanos);
+        if (failed) {
+            errors.increment();
+        }
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getKeys() {
+        return keys.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * @return 平均每次调用的耗时（微秒），尚无调用时为 0
+     */
+    public long getAverageMicros() {
+        long count = calls.sum();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.sum() / count);
+    }
+
+    /**
+     * @return 单次调用的最大耗时（微秒）
+     */
+    public long getMaxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxNanos.get());
+    }
+}
@@ -2,27 +2,87 @@ package com.beiran.common.utils;
 
 import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.StringRedisConnection;
 import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisConnectionUtils;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
 import javax.annotation.Resource;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
- * Redis 工具类
+ * Redis 工具类<br>
+ * 批量方法（hmget）与脚本方法在一次往返中完成，
+ * 其调用次数与耗时记录在 getOperationStats 中<br>
+ * 键登记: 按前缀登记的键保存在 registry:前缀 的 ZSet 中（分值为登记时间），
+ * 按前缀查找与分页时使用 ZRANGE 而不是遍历整个键空间；已过期的键由 reapRegisteredKeys 定期移除
  */
 
 @Component
 public class RedisUtils {
 
+    /**
+     * 存在则取出并删除
+     */
+    private static final RedisScript<Object> GET_AND_DELETE_SCRIPT = new DefaultRedisScript<>(
+            "local value = redis.call('GET', KEYS[1]) " +
+            "if value then redis.call('DEL', KEYS[1]) end " +
+            "return value", Object.class);
+
+    /**
+     * 值与 ARGV[1] 相同时删除
+     */
+    private static final RedisScript<Long> COMPARE_AND_DELETE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end " +
+            "return 0", Long.class);
+
+    /**
+     * KEYS[1] 为登记表，KEYS[2..n] 为待检查的键: 已不存在的键从登记表中移除，返回移除的键数<br>
+     * 检查与移除在同一个脚本中，期间重新写入并登记的键不会被误删
+     */
+    private static final RedisScript<Long> REAP_REGISTRY_SCRIPT = new DefaultRedisScript<>(
+            "local removed = 0 " +
+            "for i = 2, #KEYS do " +
+            "if redis.call('EXISTS', KEYS[i]) == 0 then removed = removed + redis.call('ZREM', KEYS[1], KEYS[i]) end " +
+            "end " +
+            "return removed", Long.class);
+
+    /**
+     * 登记表的键前缀，registry:前缀 为该前缀下的键，分值为登记时间<br>
+     * scan 与 findKeysForPage 遇到已登记的前缀时只读取登记表，因此该前缀下的键须通过 setAndRegister 或 registerKey 写入；
+     * 未登记的前缀仍遍历键空间
+     */
+    private static final String REGISTRY_KEY_PREFIX = "registry:";
+
+    /**
+     * 所有已登记的前缀
+     */
+    private static final String REGISTRY_PREFIXES_KEY = "registry:prefixes";
+
+    /**
+     * 清理登记表时每批检查的键数
+     */
+    private static final int REAP_BATCH_SIZE = 500;
+
     @Resource
     private RedisTemplate<Object, Object> redisTemplate;
 
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final Map<String, RedisOperationStats> operationStats = new ConcurrentHashMap<>();
+
     // =============================common============================
 
     /**
@@ -52,11 +112,15 @@ public class RedisUtils {
     }
 
     /**
-     * 查找匹配key
+     * 查找匹配key，形如 "前缀*" 且该前缀已登记时从登记表中读取，否则遍历键空间
      * @param pattern key
      * @return /
      */
     public List<String> scan(String pattern) {
+        String prefix = registeredPrefixOf(pattern);
+        if (!Objects.equals(prefix, null)) {
+            return findRegisteredKeys(prefix, 0, -1);
+        }
         ScanOptions options = ScanOptions.scanOptions().match(pattern).build();
         RedisConnectionFactory factory = redisTemplate.getConnectionFactory();
         RedisConnection rc = Objects.requireNonNull(factory).getConnection();
@@ -74,13 +138,17 @@ public class RedisUtils {
     }
 
     /**
-     * 分页查询 key
+     * 分页查询 key，形如 "前缀*" 且该前缀已登记时从登记表中按登记时间分页，否则遍历键空间
      * @param patternKey key
      * @param page 页码
      * @param size 每页数目
      * @return /
      */
     public List<String> findKeysForPage(String patternKey, int page, int size) {
+        String prefix = registeredPrefixOf(patternKey);
+        if (!Objects.equals(prefix, null)) {
+            return findRegisteredKeys(prefix, page, size);
+        }
         ScanOptions options = ScanOptions.scanOptions().match(patternKey).build();
         RedisConnectionFactory factory = redisTemplate.getConnectionFactory();
         RedisConnection rc = Objects.requireNonNull(factory).getConnection();
@@ -149,16 +217,6 @@ public class RedisUtils {
         return key == null ? null : redisTemplate.opsForValue().get(key);
     }
 
-    /**
-     * 批量获取
-     * @param keys
-     * @return
-     */
-    public List<Object> multiGet(List<String> keys) {
-        Object obj = redisTemplate.opsForValue().multiGet(Collections.singleton(keys));
-        return null;
-    }
-
     /**
      * 普通缓存放入
      * @param key   键
@@ -218,6 +276,17 @@ public class RedisUtils {
         }
     }
 
+    /**
+     * 键不存在时放入并设置时间，可用作跨实例的锁
+     * @param key   键
+     * @param value 值
+     * @param time  时间(秒) 要大于0
+     * @return true 放入成功 false 键已存在
+     */
+    public boolean setIfAbsent(String key, Object value, long time) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, value, time, TimeUnit.SECONDS));
+    }
+
     // ================================Map=================================
 
     /**
@@ -240,6 +309,19 @@ public class RedisUtils {
 
     }
 
+    /**
+     * 获取hash表中的多个项，一次 HMGET
+     * @param key   键
+     * @param items 项
+     * @return 与 items 顺序一致的值，不存在的项对应 null
+     */
+    public List<Object> hmget(String key, List<String> items) {
+        if (CollectionUtils.isEmpty(items)) {
+            return new ArrayList<>();
+        }
+        return timed("hmget", 1, () -> redisTemplate.opsForHash().multiGet(key, new ArrayList<>(items)));
+    }
+
     /**
      * HashSet
      * @param key 键
@@ -611,4 +693,228 @@ public class RedisUtils {
             return 0;
         }
     }
+
+    // ============================script=============================
+
+    /**
+     * 执行 Lua 脚本，参数与返回值均按普通字符串处理（不经过值的序列化）
+     * @param script 脚本
+     * @param keys 脚本中使用的键
+     * @param args 脚本参数
+     * @return 脚本返回值
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+        Object[] stringArgs = Arrays.stream(args).map(String::valueOf).toArray();
+        return timed("execute", keys.size(), () ->
+                redisTemplate.execute(script, RedisSerializer.string(), (RedisSerializer<T>) RedisSerializer.string(), new ArrayList<>(keys), stringArgs));
+    }
+
+    /**
+     * 取出并删除，取出与删除是原子的，同一个值只会被取出一次
+     * @param key 键
+     * @return 值，不存在时为 null
+     */
+    @SuppressWarnings("unchecked")
+    public Object getAndDelete(String key) {
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        return timed("getAndDelete", 1, () ->
+                redisTemplate.execute(GET_AND_DELETE_SCRIPT, valueSerializer, valueSerializer, Collections.<Object>singletonList(key)));
+    }
+
+    /**
+     * 当前值等于 expected 时删除，比较的是序列化后的内容
+     * @param key      键
+     * @param expected 期望的值
+     * @return true 已删除 false 值不同或不存在
+     */
+    @SuppressWarnings("unchecked")
+    public boolean compareAndDelete(String key, Object expected) {
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        Long deleted = timed("compareAndDelete", 1, () ->
+                redisTemplate.execute(COMPARE_AND_DELETE_SCRIPT, valueSerializer, (RedisSerializer<Long>) (RedisSerializer<?>) RedisSerializer.string(),
+                        Collections.<Object>singletonList(key), expected));
+        return !Objects.equals(deleted, null) && deleted > 0;
+    }
+
+    // ============================registry=============================
+
+    /**
+     * 普通缓存放入并设置时间，同时按前缀登记该键
+     * @param prefix 前缀，key 须以其开头
+     * @param key    键
+     * @param value  值
+     * @param time   时间(秒) time要大于0 如果time小于等于0 将设置无限期
+     * @return true成功 false 失败
+     */
+    public boolean setAndRegister(String prefix, String key, Object value, long time) {
+        return setAndRegister(prefix, key, value, time, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 普通缓存放入并设置时间，同时按前缀登记该键
+     * @param prefix   前缀，key 须以其开头
+     * @param key      键
+     * @param value    值
+     * @param time     时间
+     * @param timeUnit 类型
+     * @return true成功 false 失败
+     */
+    public boolean setAndRegister(String prefix, String key, Object value, long time, TimeUnit timeUnit) {
+        return set(key, value, time, timeUnit) && registerKey(prefix, key);
+    }
+
+    /**
+     * 按前缀登记键，一次往返完成 SADD 与 ZADD；已登记的键更新登记时间
+     * @param prefix 前缀，key 须以其开头
+     * @param key    键
+     * @return true成功 false 失败
+     */
+    public boolean registerKey(String prefix, String key) {
+        if (!key.startsWith(prefix)) {
+            throw new IllegalArgumentException("键 " + key + " 不以前缀 " + prefix + " 开头");
+        }
+        try {
+            double now = System.currentTimeMillis();
+            timed("registerKey", 1, () -> stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                stringConnection.sAdd(REGISTRY_PREFIXES_KEY, prefix);
+                stringConnection.zAdd(REGISTRY_KEY_PREFIX + prefix, now, key);
+                return null;
+            }));
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * 取消登记，不删除键本身
+     * @param prefix 前缀
+     * @param keys   键 可以是多个
+     */
+    public void unregisterKey(String prefix, String... keys) {
+        if (keys != null && keys.length > 0) {
+            timed("unregisterKey", keys.length, () -> stringRedisTemplate.opsForZSet().remove(REGISTRY_KEY_PREFIX + prefix, (Object[]) keys));
+        }
+    }
+
+    /**
+     * 清空某个前缀的登记表，不删除键本身
+     * @param prefix 前缀
+     */
+    public void clearRegistry(String prefix) {
+        stringRedisTemplate.delete(REGISTRY_KEY_PREFIX + prefix);
+    }
+
+    /**
+     * 是否有键以该前缀登记过（清空登记表不会移除前缀）
+     * @param prefix 前缀
+     * @return true 登记过 false 没有
+     */
+    public boolean isRegisteredPrefix(String prefix) {
+        return Boolean.TRUE.equals(stringRedisTemplate.opsForSet().isMember(REGISTRY_PREFIXES_KEY, prefix));
+    }
+
+    /**
+     * 某个前缀下登记的键数，可能包含已过期但尚未清理的键
+     * @param prefix 前缀
+     * @return 键数
+     */
+    public long countRegisteredKeys(String prefix) {
+        Long count = stringRedisTemplate.opsForZSet().zCard(REGISTRY_KEY_PREFIX + prefix);
+        return Objects.equals(count, null) ? 0 : count;
+    }
+
+    /**
+     * 按登记时间分页查询某个前缀下登记的键，可能包含已过期但尚未清理的键
+     * @param prefix 前缀
+     * @param page   页码
+     * @param size   每页数目，小于等于 0 时返回全部
+     * @return /
+     */
+    public List<String> findRegisteredKeys(String prefix, int page, int size) {
+        long start = size > 0 ? (long) page * size : 0;
+        long end = size > 0 ? start + size - 1 : -1;
+        Set<String> keys = timed("findRegisteredKeys", 1, () -> stringRedisTemplate.opsForZSet().range(REGISTRY_KEY_PREFIX + prefix, start, end));
+        return Objects.equals(keys, null) ? new ArrayList<>() : new ArrayList<>(keys);
+    }
+
+    /**
+     * 从所有登记表中移除已不存在（过期或被删除）的键，每批以一个脚本检查 REAP_BATCH_SIZE 个键
+     * @return 移除的键数
+     */
+    public long reapRegisteredKeys() {
+        Set<String> prefixes = stringRedisTemplate.opsForSet().members(REGISTRY_PREFIXES_KEY);
+        if (CollectionUtils.isEmpty(prefixes)) {
+            return 0;
+        }
+        long removed = 0;
+        for (String prefix : prefixes) {
+            removed += timed("reapRegisteredKeys", 1, () -> reapRegistry(REGISTRY_KEY_PREFIX + prefix));
+        }
+        return removed;
+    }
+
+    private long reapRegistry(String registryKey) {
+        long removed = 0;
+        long start = 0;
+        while (true) {
+            Set<String> members = stringRedisTemplate.opsForZSet().range(registryKey, start, start + REAP_BATCH_SIZE - 1);
+            if (CollectionUtils.isEmpty(members)) {
+                break;
+            }
+            List<String> keys = new ArrayList<>(members.size() + 1);
+            keys.add(registryKey);
+            keys.addAll(members);
+            Long batchRemoved = stringRedisTemplate.execute(REAP_REGISTRY_SCRIPT, keys);
+            long count = Objects.equals(batchRemoved, null) ? 0 : batchRemoved;
+            removed += count;
+            if (members.size() < REAP_BATCH_SIZE) {
+                break;
+            }
+            // 已移除的键不再占用位置
+            start += members.size() - count;
+        }
+        return removed;
+    }
+
+    /**
+     * pattern 形如 "前缀*"（前缀中没有其他通配符）且该前缀已登记时返回前缀，否则返回 null
+     */
+    private String registeredPrefixOf(String pattern) {
+        if (Objects.equals(pattern, null) || !pattern.endsWith("*")) {
+            return null;
+        }
+        String prefix = pattern.substring(0, pattern.length() - 1);
+        if (prefix.isEmpty() || prefix.matches(".*[*?\\[\\]\\\\].*")) {
+            return null;
+        }
+        return isRegisteredPrefix(prefix) ? prefix : null;
+    }
+
+    // ============================stats=============================
+
+    /**
+     * 批量与脚本操作的调用统计
+     * @return 按操作名排序的统计
+     */
+    public List<RedisOperationStats> getOperationStats() {
+        List<RedisOperationStats> stats = new ArrayList<>(operationStats.values());
+        stats.sort(Comparator.comparing(RedisOperationStats::getOperation));
+        return stats;
+    }
+
+    private <T> T timed(String operation, int keyCount, Supplier<T> call) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = call.get();
+            failed = false;
+            return result;
+        } finally {
+            operationStats.computeIfAbsent(operation, RedisOperationStats::new).record(keyCount, System.nanoTime() - start, failed);
+        }
+    }
 }
@@ -3,7 +3,6 @@ package com.beiran.common.utils.transfer;
 import com.beiran.core.quotation.entity.BasicInfo;
 import com.beiran.core.quotation.vo.BasicInfoVo;
 import lombok.extern.java.Log;
-import org.springframework.beans.BeanUtils;
 
 import java.util.Objects;
 
@@ -21,7 +20,27 @@ public class BasicInfoTransferUtils {
     public static BasicInfo voToBasicInfo(BasicInfoVo basicInfoVo) {
         BasicInfo basicInfo = new BasicInfo();
         if (!Objects.equals(basicInfoVo, null)) {
-            BeanUtils.copyProperties(basicInfoVo, basicInfo);
+            basicInfo.setMainPicture(basicInfoVo.getMainPicture());
+            basicInfo.setModel(basicInfoVo.getModel());
+            basicInfo.setFrontFork(basicInfoVo.getFrontFork());
+            basicInfo.setDisplay(basicInfoVo.getDisplay());
+            basicInfo.setThrottle(basicInfoVo.getThrottle());
+            basicInfo.setDerailleur(basicInfoVo.getDerailleur());
+            basicInfo.setPower(basicInfoVo.getPower());
+            basicInfo.setVoltage(basicInfoVo.getVoltage());
+            basicInfo.setWheelSize(basicInfoVo.getWheelSize());
+            basicInfo.setFrame(basicInfoVo.getFrame());
+            basicInfo.setMaxSpeed(basicInfoVo.getMaxSpeed());
+            basicInfo.setMileagePerCharge(basicInfoVo.getMileagePerCharge());
+            basicInfo.setBatteryCapacity(basicInfoVo.getBatteryCapacity());
+            basicInfo.setBrakeSystem(basicInfoVo.getBrakeSystem());
+            basicInfo.setMoq(basicInfoVo.getMoq());
+            basicInfo.setFobPrice(basicInfoVo.getFobPrice());
+            basicInfo.setCartonSize(basicInfoVo.getCartonSize());
+            basicInfo.setHsCode(basicInfoVo.getHsCode());
+            basicInfo.setLogo(basicInfoVo.getLogo());
+            basicInfo.setOuterPacking(basicInfoVo.getOuterPacking());
+            basicInfo.setDesign(basicInfoVo.getDesign());
         }
         return basicInfo;
     }
@@ -6,7 +6,6 @@ import com.beiran.core.system.dto.DeptSmallDto;
 import com.beiran.core.system.entity.Dept;
 import com.beiran.core.system.vo.DeptVo;
 import lombok.extern.java.Log;
-import org.springframework.beans.BeanUtils;
 import org.springframework.util.StringUtils;
 
 import java.text.ParseException;
@@ -29,11 +28,14 @@ public class DeptTransferUtils {
     public static Dept dtoToDept(DeptDto deptDto) {
         Dept dept = new Dept();
         if (!Objects.equals(deptDto, null)) {
-            BeanUtils.copyProperties(deptDto, dept);
+            dept.setDeptId(deptDto.getDeptId());
+            dept.setDeptName(deptDto.getDeptName());
+            dept.setDeptState(deptDto.getDeptState());
         }
         if (!Objects.equals(deptDto.getParent(), null)) {
             Dept parent = new Dept();
-            BeanUtils.copyProperties(deptDto.getParent(), parent);
+            parent.setDeptId(deptDto.getParent().getDeptId());
+            parent.setDeptName(deptDto.getParent().getDeptName());
             dept.setDeptParent(parent);
         }
         Date createTime = null;
@@ -57,11 +59,14 @@ public class DeptTransferUtils {
     public static DeptDto deptToDto(Dept dept) {
         DeptDto deptDto = new DeptDto();
         if (!Objects.equals(dept, null)) {
-            BeanUtils.copyProperties(dept, deptDto);
+            deptDto.setDeptId(dept.getDeptId());
+            deptDto.setDeptName(dept.getDeptName());
+            deptDto.setDeptState(dept.getDeptState());
         }
         if (!Objects.equals(dept.getDeptParent(), null)) {
             DeptSmallDto parent = new DeptSmallDto();
-            BeanUtils.copyProperties(dept.getDeptParent(), parent);
+            parent.setDeptId(dept.getDeptParent().getDeptId());
+            parent.setDeptName(dept.getDeptParent().getDeptName());
             deptDto.setParent(parent);
         }
         if (!Objects.equals(dept.getDeptCreateTime(), null)) {
@@ -78,7 +83,8 @@ public class DeptTransferUtils {
     public static Dept voToDept(DeptVo deptVo) {
         Dept dept = new Dept();
         if (!Objects.equals(deptVo, null)) {
-            BeanUtils.copyProperties(deptVo, dept);
+            dept.setDeptName(deptVo.getDeptName());
+            dept.setDeptState(deptVo.getDeptState());
         }
         if (!Objects.equals(deptVo.getParent(), null)) {
             Dept parent = new Dept();
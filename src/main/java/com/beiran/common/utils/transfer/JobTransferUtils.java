@@ -7,7 +7,6 @@ import com.beiran.core.system.entity.Dept;
 import com.beiran.core.system.entity.Job;
 import com.beiran.core.system.vo.JobVo;
 import lombok.extern.java.Log;
-import org.springframework.beans.BeanUtils;
 import org.springframework.util.StringUtils;
 
 import java.text.ParseException;
@@ -30,7 +29,9 @@ public class JobTransferUtils {
     public static Job dtoToJob(JobDto jobDto) {
         Job job = new Job();
         if (!Objects.equals(jobDto, null)) {
-            BeanUtils.copyProperties(jobDto, job);
+            job.setJobId(jobDto.getJobId());
+            job.setJobName(jobDto.getJobName());
+            job.setJobState(jobDto.getJobState());
         }
         Date createTime = null;
         if (StringUtils.hasText(jobDto.getCreateTime())) {
@@ -44,7 +45,8 @@ public class JobTransferUtils {
         job.setJobCreateTime(createTime);
         Dept dept = new Dept();
         if (!Objects.equals(jobDto.getDept(), null)) {
-            BeanUtils.copyProperties(jobDto.getDept(), dept);
+            dept.setDeptId(jobDto.getDept().getDeptId());
+            dept.setDeptName(jobDto.getDept().getDeptName());
         }
         job.setJobDept(dept);
         return job;
@@ -58,14 +60,17 @@ public class JobTransferUtils {
     public static JobDto jobToDto(Job job) {
         JobDto jobDto = new JobDto();
         if (!Objects.equals(job, null)) {
-            BeanUtils.copyProperties(job, jobDto);
+            jobDto.setJobId(job.getJobId());
+            jobDto.setJobName(job.getJobName());
+            jobDto.setJobState(job.getJobState());
         }
         if (!Objects.equals(job.getJobCreateTime(), null)) {
             jobDto.setCreateTime(DateTimeUtils.getDateTime(job.getJobCreateTime()));
         }
         DeptSmallDto deptSmallDto = new DeptSmallDto();
         if (!Objects.equals(job.getJobDept(), null)) {
-            BeanUtils.copyProperties(job.getJobDept(), deptSmallDto);
+            deptSmallDto.setDeptId(job.getJobDept().getDeptId());
+            deptSmallDto.setDeptName(job.getJobDept().getDeptName());
         }
         jobDto.setDept(deptSmallDto);
         return jobDto;
@@ -79,11 +84,13 @@ public class JobTransferUtils {
     public static Job voToJob(JobVo jobVo) {
         Job job = new Job();
         if (!Objects.equals(jobVo, null)) {
-            BeanUtils.copyProperties(jobVo, job);
+            job.setJobName(jobVo.getJobName());
+            job.setJobState(jobVo.getJobState());
         }
         Dept dept = new Dept();
         if (!Objects.equals(jobVo.getDept(), null)) {
-            BeanUtils.copyProperties(jobVo.getDept(), dept);
+            dept.setDeptId(jobVo.getDept().getDeptId());
+            dept.setDeptName(jobVo.getDept().getDeptName());
         }
         job.setJobDept(dept);
         return job;
@@ -5,7 +5,6 @@ import com.beiran.core.system.dto.PermissionDto;
 import com.beiran.core.system.entity.Permission;
 import com.beiran.core.system.vo.PermissionVo;
 import lombok.extern.java.Log;
-import org.springframework.beans.BeanUtils;
 import org.springframework.util.StringUtils;
 
 import java.text.ParseException;
@@ -27,7 +26,9 @@ public class PermissionTransferUtils {
     public static Permission dtoToPermission(PermissionDto permissionDto) {
         Permission permission = new Permission();
         if (!Objects.equals(permissionDto, null)) {
-            BeanUtils.copyProperties(permissionDto, permission);
+            permission.setPermissionId(permissionDto.getPermissionId());
+            permission.setPermissionName(permissionDto.getPermissionName());
+            permission.setPermissionDesc(permissionDto.getPermissionDesc());
         }
         Date createTime = null;
         if (StringUtils.hasText(permissionDto.getCreateTime())) {
@@ -50,7 +51,9 @@ public class PermissionTransferUtils {
     public static PermissionDto permissionToDto(Permission permission) {
         PermissionDto permissionDto = new PermissionDto();
         if (!Objects.equals(permission, null)) {
-            BeanUtils.copyProperties(permission, permissionDto);
+            permissionDto.setPermissionId(permission.getPermissionId());
+            permissionDto.setPermissionName(permission.getPermissionName());
+            permissionDto.setPermissionDesc(permission.getPermissionDesc());
         }
         if (!Objects.equals(permission.getPermissionCreateTime(), null)) {
             permissionDto.setCreateTime(DateTimeUtils.getDateTime(permission.getPermissionCreateTime()));
@@ -66,7 +69,8 @@ public class PermissionTransferUtils {
     public static Permission voToPermission(PermissionVo permissionVo) {
         Permission permission = new Permission();
         if (!Objects.equals(permissionVo, null)) {
-            BeanUtils.copyProperties(permissionVo, permission);
+            permission.setPermissionName(permissionVo.getPermissionName());
+            permission.setPermissionDesc(permissionVo.getPermissionDesc());
         }
         return permission;
     }
@@ -6,7 +6,6 @@ import com.beiran.core.quotation.entity.Salesman;
 import com.beiran.core.quotation.vo.QuotationVo;
 import lombok.extern.java.Log;
 import org.apache.commons.lang3.time.DateUtils;
-import org.springframework.beans.BeanUtils;
 
 import java.util.Date;
 import java.util.Objects;
@@ -28,7 +27,10 @@ public class QuotationTransferUtils {
     public static Quotation voToQuotation(QuotationVo quotationVo, String rate) {
         Quotation quotation = new Quotation();
         if (!Objects.equals(quotationVo, null)) {
-            BeanUtils.copyProperties(quotationVo, quotation);
+            quotation.setChineseName(quotationVo.getChineseName());
+            quotation.setEnglishName(quotationVo.getEnglishName());
+            quotation.setAddress(quotationVo.getAddress());
+            quotation.setOfficialWebsite(quotationVo.getOfficialWebsite());
         }
         // 业务员信息
         Salesman salesman = new Salesman();
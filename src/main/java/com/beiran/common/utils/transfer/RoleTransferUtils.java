@@ -7,7 +7,6 @@ import com.beiran.core.system.entity.Permission;
 import com.beiran.core.system.entity.Role;
 import com.beiran.core.system.vo.RoleVo;
 import lombok.extern.java.Log;
-import org.springframework.beans.BeanUtils;
 import org.springframework.util.StringUtils;
 
 import java.text.ParseException;
@@ -33,7 +32,9 @@ public class RoleTransferUtils {
         RoleDto roleDto = new RoleDto();
         // 复制属性
         if (!Objects.equals(role, null)) {
-            BeanUtils.copyProperties(role, roleDto);
+            roleDto.setRoleId(role.getRoleId());
+            roleDto.setRoleName(role.getRoleName());
+            roleDto.setRoleDesc(role.getRoleDesc());
         }
         // 手动设置的属性 createTime permissions
         if (!Objects.equals(role.getRoleCreateTime(), null)) {
@@ -64,7 +65,9 @@ public class RoleTransferUtils {
         Role role = new Role();
         // 复制属性
         if (!Objects.equals(roleDto, null)) {
-            BeanUtils.copyProperties(roleDto, role);
+            role.setRoleId(roleDto.getRoleId());
+            role.setRoleName(roleDto.getRoleName());
+            role.setRoleDesc(roleDto.getRoleDesc());
         }
         // 手动设置 createTime permissions
         SimpleDateFormat simpleDateFormat = new SimpleDateFormat(DateTimeUtils.DATE_FORMAT_TIMESTAMP);
@@ -102,7 +105,8 @@ public class RoleTransferUtils {
         Role role = new Role();
         // 复制属性
         if (!Objects.equals(roleVo, null)) {
-            BeanUtils.copyProperties(roleVo, role);
+            role.setRoleName(roleVo.getRoleName());
+            role.setRoleDesc(roleVo.getRoleDesc());
         }
         Set<Permission> permissions = new HashSet<>();
         if (!roleVo.getPermissionIds().isEmpty() && !Objects.equals(roleVo.getPermissionIds(), null)) {
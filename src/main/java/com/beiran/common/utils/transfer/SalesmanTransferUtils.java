@@ -3,7 +3,6 @@ package com.beiran.common.utils.transfer;
 import com.beiran.core.quotation.entity.Salesman;
 import com.beiran.core.quotation.vo.SalesmanVo;
 import lombok.extern.java.Log;
-import org.springframework.beans.BeanUtils;
 
 import java.util.Objects;
 
@@ -21,7 +20,10 @@ public class SalesmanTransferUtils {
     public static Salesman voToSalesman(SalesmanVo salesmanVo) {
         Salesman salesman = new Salesman();
         if (!Objects.equals(salesmanVo, null)) {
-            BeanUtils.copyProperties(salesmanVo, salesman);
+            salesman.setName(salesmanVo.getName());
+            salesman.setTel(salesmanVo.getTel());
+            salesman.setFax(salesmanVo.getFax());
+            salesman.setEmail(salesmanVo.getEmail());
         }
         return salesman;
     }
@@ -4,7 +4,6 @@ import com.beiran.core.stock.dto.StockDto;
 import com.beiran.core.stock.entity.Stock;
 import com.beiran.core.system.dto.UserSmallDto;
 import com.beiran.core.system.entity.User;
-import org.springframework.beans.BeanUtils;
 
 import java.util.Objects;
 
@@ -22,7 +21,11 @@ public class StockTransferUtils {
     public static StockDto stockToDto(Stock stock) {
         StockDto stockDto = new StockDto();
         if (!Objects.equals(stock, null)) {
-            BeanUtils.copyProperties(stock, stockDto);
+            stockDto.setStockId(stock.getStockId());
+            stockDto.setStockName(stock.getStockName());
+            stockDto.setStockPosition(stock.getStockPosition());
+            stockDto.setStockLatitude(stock.getStockLatitude());
+            stockDto.setStockLongitude(stock.getStockLongitude());
         }
         UserSmallDto userSmallDto = new UserSmallDto();
         if (!Objects.equals(stock.getStockManager(), null)) {
@@ -41,7 +44,11 @@ public class StockTransferUtils {
     public static Stock dtoToStock(StockDto stockDto) {
         Stock stock = new Stock();
         if (!Objects.equals(stockDto, null)) {
-            BeanUtils.copyProperties(stockDto, stock);
+            stock.setStockId(stockDto.getStockId());
+            stock.setStockName(stockDto.getStockName());
+            stock.setStockPosition(stockDto.getStockPosition());
+            stock.setStockLatitude(stockDto.getStockLatitude());
+            stock.setStockLongitude(stockDto.getStockLongitude());
         }
         User user = new User();
         if (!Objects.equals(stockDto.getManager(), null)) {
@@ -10,7 +10,6 @@ import com.beiran.core.system.entity.Role;
 import com.beiran.core.system.entity.User;
 import com.beiran.core.system.vo.UserVo;
 import lombok.extern.java.Log;
-import org.springframework.beans.BeanUtils;
 import org.springframework.util.StringUtils;
 
 import java.text.ParseException;
@@ -36,12 +35,19 @@ public class UserTransferUtils {
         UserDto userDto = new UserDto();
         // 复制属性
         if (!Objects.equals(user, null)) {
-            BeanUtils.copyProperties(user, userDto);
+            userDto.setUserId(user.getUserId());
+            userDto.setUserName(user.getUserName());
+            userDto.setUserAvatar(user.getUserAvatar());
+            userDto.setNickName(user.getNickName());
+            userDto.setUserPassword(user.getUserPassword());
+            userDto.setUserPhone(user.getUserPhone());
+            userDto.setUserEmail(user.getUserEmail());
         }
         // 需要手动设置的属性
         JobSmallDto jobSmallDto = new JobSmallDto();
         if (!Objects.equals(user.getUserJob(), null)) {
-            BeanUtils.copyProperties(user.getUserJob(), jobSmallDto);
+            jobSmallDto.setJobId(user.getUserJob().getJobId());
+            jobSmallDto.setJobName(user.getUserJob().getJobName());
             // FIXME 可能会报空指针
 //            jobSmallDto.setDeptId(user.getUserJob().getJobDept().getDeptId());
 //            jobSmallDto.setDeptName(user.getUserJob().getJobDept().getDeptName());
@@ -51,7 +57,8 @@ public class UserTransferUtils {
         if (!user.getUserRoles().isEmpty() && user.getUserRoles().size() > 0) {
             user.getUserRoles().stream().forEach(role -> {
                 RoleSmallDto roleSmallDto = new RoleSmallDto();
-                BeanUtils.copyProperties(role, roleSmallDto);
+                roleSmallDto.setRoleId(role.getRoleId());
+                roleSmallDto.setRoleName(role.getRoleName());
                 roles.add(roleSmallDto);
             });
         }
@@ -77,12 +84,19 @@ public class UserTransferUtils {
         User user = new User();
         // 复制属性
         if (!Objects.equals(userDto, null)) {
-            BeanUtils.copyProperties(userDto, user);
+            user.setUserId(userDto.getUserId());
+            user.setUserName(userDto.getUserName());
+            user.setUserAvatar(userDto.getUserAvatar());
+            user.setNickName(userDto.getNickName());
+            user.setUserPassword(userDto.getUserPassword());
+            user.setUserPhone(userDto.getUserPhone());
+            user.setUserEmail(userDto.getUserEmail());
         }
         // 需要手动设置的属性 state、sex、createTime、job、roles
         Job job = new Job();
         if (!Objects.equals(userDto.getJobSmallDto(), null)) {
-            BeanUtils.copyProperties(userDto.getJobSmallDto(), job);
+            job.setJobId(userDto.getJobSmallDto().getJobId());
+            job.setJobName(userDto.getJobSmallDto().getJobName());
             Dept dept = new Dept();
             dept.setDeptId(userDto.getJobSmallDto().getDeptId());
             dept.setDeptName(userDto.getJobSmallDto().getDeptName());
@@ -94,7 +108,8 @@ public class UserTransferUtils {
         if (!userDto.getRoles().isEmpty() && userDto.getRoles().size() > 0) {
             userDto.getRoles().stream().forEach(roleSmallDto -> {
                 Role role = new Role();
-                BeanUtils.copyProperties(roleSmallDto, role);
+                role.setRoleId(roleSmallDto.getRoleId());
+                role.setRoleName(roleSmallDto.getRoleName());
                 roles.add(role);
             });
         }
@@ -135,7 +150,13 @@ public class UserTransferUtils {
         User user = new User();
         // 复制属性
         if (!Objects.equals(userVo, null)) {
-            BeanUtils.copyProperties(userVo, user);
+            user.setUserName(userVo.getUserName());
+            user.setUserPassword(userVo.getUserPassword());
+            user.setNickName(userVo.getNickName());
+            user.setUserState(userVo.getUserState());
+            user.setUserPhone(userVo.getUserPhone());
+            user.setUserSex(userVo.getUserSex());
+            user.setUserEmail(userVo.getUserEmail());
         }
         // 手动设置属性
         Job job = new Job();
@@ -1,6 +1,7 @@
 package com.beiran.core.material.controller;
 
 import com.beiran.common.annotation.LogRecord;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.respone.ResponseModel;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.core.material.entity.Material;
@@ -20,7 +21,6 @@ import javax.validation.Valid;
 import java.io.File;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * 物料接口<br>
@@ -85,12 +85,7 @@ public class MaterialController {
         if (Objects.equals(materialIds, null) || materialIds.isEmpty()) {
             return ResponseModel.error("需要删除的物料不能为空");
         }
-        List<Material> materials = materialIds.stream().map(materialId -> {
-            Material material = new Material();
-            material.setMaterialId(materialId);
-            return material;
-        }).collect(Collectors.toList());
-        materialService.deleteAll(materials);
+        materialService.deleteAllById(materialIds);
         return ResponseModel.ok("删除成功");
     }
 
@@ -110,14 +105,16 @@ public class MaterialController {
     /**
      * 查询所有物料
      * @param pageable
+     * @param count 总数的取得方式: EXACT（缺省）精确总数，NONE 不统计总数，ESTIMATE 近似总数
      * @return
      */
     @GetMapping
     @LogRecord("查询所有物料")
     @PreAuthorize("@erp.check('material:view')")
     @ApiOperation("查询所有物料")
-    public ResponseModel getMaterials(@PageableDefault(sort = "materialCategory") Pageable pageable) {
-        return ResponseModel.ok(materialService.findAll(pageable));
+    public ResponseModel getMaterials(@PageableDefault(sort = "materialCategory") Pageable pageable,
+                                      @RequestParam(value = "count", defaultValue = "EXACT") PageCount count) {
+        return ResponseModel.ok(materialService.findAll(pageable, count));
     }
 
     /**
@@ -192,25 +189,22 @@ public class MaterialController {
         if (Objects.equals(categoryIds, null) || categoryIds.isEmpty()) {
             return ResponseModel.error("需要删除的物料分类不能为空");
         }
-        List<MaterialCategory> materialCategories = categoryIds.stream().map(categoryId -> {
-            MaterialCategory materialCategory = new MaterialCategory();
-            materialCategory.setCategoryId(categoryId);
-            return materialCategory;
-        }).collect(Collectors.toList());
-        materialCategoryService.deleteAll(materialCategories);
+        materialCategoryService.deleteAllById(categoryIds);
         return ResponseModel.ok("删除成功");
     }
 
     /**
      * 查询物料分类
      * @param pageable
+     * @param count 总数的取得方式: EXACT（缺省）精确总数，NONE 不统计总数，ESTIMATE 近似总数
      * @return
      */
     @GetMapping("/categories")
     @LogRecord("查询物料分类")
     @PreAuthorize("@erp.check('material:view')")
     @ApiOperation("查询物料分类")
-    public ResponseModel getMaterialCategories(@PageableDefault Pageable pageable) {
-        return ResponseModel.ok(materialCategoryService.findAll(pageable));
+    public ResponseModel getMaterialCategories(@PageableDefault Pageable pageable,
+                                               @RequestParam(value = "count", defaultValue = "EXACT") PageCount count) {
+        return ResponseModel.ok(materialCategoryService.findAll(pageable, count));
     }
 }
@@ -1,6 +1,9 @@
 package com.beiran.core.material.entity;
 
+import com.beiran.common.id.TimeOrderedIdGenerator;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
 
 import javax.persistence.*;
@@ -11,6 +14,8 @@ import javax.validation.constraints.NotBlank;
  */
 
 @Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 @Table(name = "erp_material_category")
 @Entity
 public class MaterialCategory {
@@ -18,8 +23,8 @@ public class MaterialCategory {
     /**
      * 物料分类编号
      */
-    @GenericGenerator(name = "g_uuid", strategy = "uuid")
-    @GeneratedValue(generator = "g_uuid")
+    @GenericGenerator(name = "g_id", strategy = TimeOrderedIdGenerator.STRATEGY)
+    @GeneratedValue(generator = "g_id")
     @Id
     private String categoryId;
 
@@ -1,16 +1,18 @@
 package com.beiran.core.material.repository;
 
+import com.beiran.common.repository.GenericRepository;
 import com.beiran.core.material.entity.Material;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
  * 物料 Repository
  */
-public interface MaterialRepository extends JpaRepository<Material, String>, JpaSpecificationExecutor<Material> {
+public interface MaterialRepository extends GenericRepository<Material, String>, JpaSpecificationExecutor<Material> {
 
     /**
      * 根据物料分类查询物料信息
@@ -19,4 +21,27 @@ public interface MaterialRepository extends JpaRepository<Material, String>, Jpa
      * @return List<Material>
      */
     List<Material> findByMaterialCategory_CategoryId(String categoryId, Pageable pageable);
+
+    /**
+     * 查询给定编号中存在的物料编号，用于批量校验
+     * @param ids 物料编号
+     * @return 存在的物料编号
+     */
+    @Query("SELECT m.materialId FROM Material m WHERE m.materialId IN ?1")
+    List<String> findExistingIds(Collection<String> ids);
+
+    /**
+     * 查询给定物料中设置了预警阈值的物料
+     * @param ids 物料编号
+     * @return 每行依次为物料编号、物料名与预警阈值
+     */
+    @Query("SELECT m.materialId, m.materialName, m.materialReorderPoint FROM Material m WHERE m.materialId IN ?1 AND m.materialReorderPoint IS NOT NULL")
+    List<Object[]> findReorderPoints(Collection<String> ids);
+
+    /**
+     * 查询所有设置了预警阈值的物料编号，用于首次检查低库存
+     * @return 物料编号
+     */
+    @Query("SELECT m.materialId FROM Material m WHERE m.materialReorderPoint IS NOT NULL")
+    List<String> findIdsWithReorderPoint();
 }
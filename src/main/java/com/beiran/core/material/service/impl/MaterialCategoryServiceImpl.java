@@ -1,19 +1,26 @@
 package com.beiran.core.material.service.impl;
 
+import com.beiran.common.cache.CacheNames;
 import com.beiran.common.exception.EntityNotExistException;
 import com.beiran.common.exception.ParameterException;
+import com.beiran.common.repository.PageCount;
 import com.beiran.core.material.entity.MaterialCategory;
 import com.beiran.core.material.repository.MaterialCategoryRepository;
 import com.beiran.core.material.service.MaterialCategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * MaterialCategoryService 接口的实现类
@@ -26,6 +33,7 @@ public class MaterialCategoryServiceImpl implements MaterialCategoryService {
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = {CacheNames.MATERIAL_CATEGORY, CacheNames.MATERIAL, CacheNames.MATERIALS_BY_CATEGORY}, allEntries = true)
     public MaterialCategory save(MaterialCategory entity) {
         if (Objects.equals(entity, null)) {
             throw new ParameterException("需要保存的物料分类不能为空");
@@ -35,15 +43,37 @@ public class MaterialCategoryServiceImpl implements MaterialCategoryService {
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = {CacheNames.MATERIAL_CATEGORY, CacheNames.MATERIAL, CacheNames.MATERIALS_BY_CATEGORY}, allEntries = true)
+    public List<MaterialCategory> saveAll(List<MaterialCategory> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要保存的物料分类不能为空");
+        }
+        return materialCategoryRepository.saveAll(entities);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = {CacheNames.MATERIAL_CATEGORY, CacheNames.MATERIAL, CacheNames.MATERIALS_BY_CATEGORY}, allEntries = true)
     public void deleteAll(List<MaterialCategory> entities) {
         if (Objects.equals(entities, null) || entities.isEmpty()) {
             throw new ParameterException("需要删除的物料分类不能为空");
         }
-        materialCategoryRepository.deleteAll(entities);
+        deleteAllById(entities.stream().map(MaterialCategory::getCategoryId).collect(Collectors.toList()));
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = {CacheNames.MATERIAL_CATEGORY, CacheNames.MATERIAL, CacheNames.MATERIALS_BY_CATEGORY}, allEntries = true)
+    public void deleteAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("需要删除的物料分类不能为空");
+        }
+        materialCategoryRepository.deleteAllByIdInBatch(ids);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = {CacheNames.MATERIAL_CATEGORY, CacheNames.MATERIAL, CacheNames.MATERIALS_BY_CATEGORY}, allEntries = true)
     public MaterialCategory update(MaterialCategory entity) {
         if (Objects.equals(entity, null)) {
             throw new ParameterException("需要修改的物料分类不能为空");
@@ -52,6 +82,21 @@ public class MaterialCategoryServiceImpl implements MaterialCategoryService {
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = {CacheNames.MATERIAL_CATEGORY, CacheNames.MATERIAL, CacheNames.MATERIALS_BY_CATEGORY}, allEntries = true)
+    public List<MaterialCategory> updateAll(List<MaterialCategory> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要修改的物料分类不能为空");
+        }
+        List<MaterialCategory> updated = materialCategoryRepository.updateAllInBatch(entities);
+        if (updated.size() < entities.size()) {
+            throw new EntityNotExistException("物料分类不存在");
+        }
+        return updated;
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheNames.MATERIAL_CATEGORY, key = "#id")
     public MaterialCategory findById(String id) {
         if (!StringUtils.hasText(id)) {
             throw new ParameterException("物料分类编号不能为空");
@@ -59,8 +104,21 @@ public class MaterialCategoryServiceImpl implements MaterialCategoryService {
         return materialCategoryRepository.findById(id).orElseThrow(() -> new EntityNotExistException("物料分类不存在"));
     }
 
+    @Override
+    public List<MaterialCategory> findAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("物料分类编号不能为空");
+        }
+        return materialCategoryRepository.findAllByIdInBatch(ids);
+    }
+
     @Override
     public Page<MaterialCategory> findAll(Pageable pageable) {
         return materialCategoryRepository.findAll(pageable);
     }
+
+    @Override
+    public Slice<MaterialCategory> findAll(Pageable pageable, PageCount count) {
+        return materialCategoryRepository.findAll(pageable, count);
+    }
 }
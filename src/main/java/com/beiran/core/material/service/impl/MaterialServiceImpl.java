@@ -1,27 +1,38 @@
 package com.beiran.core.material.service.impl;
 
+import com.beiran.common.cache.CacheNames;
 import com.beiran.common.exception.EntityNotExistException;
 import com.beiran.common.exception.ParameterException;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.core.material.entity.Material;
 import com.beiran.core.material.repository.MaterialRepository;
 import com.beiran.core.material.service.MaterialService;
+import com.beiran.core.stock.entity.StockMovement;
+import com.beiran.core.stock.service.StockAlertService;
 import com.beiran.core.system.entity.Dept;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * MaterialService 接口的实现类
@@ -32,7 +43,11 @@ public class MaterialServiceImpl implements MaterialService {
     @Autowired
     private MaterialRepository materialRepository;
 
+    @Autowired
+    private StockAlertService stockAlertService;
+
     @Override
+    @Cacheable(cacheNames = CacheNames.MATERIALS_BY_CATEGORY, key = "#categoryId + ':' + #pageable")
     public List<Material> getMaterialsByCategory(String categoryId, Pageable pageable) {
         if (!StringUtils.hasText(categoryId)) {
             throw new ParameterException("物料分类编号不能为空");
@@ -82,33 +97,83 @@ public class MaterialServiceImpl implements MaterialService {
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.MATERIAL, key = "#entity.materialId"),
+            @CacheEvict(cacheNames = CacheNames.MATERIALS_BY_CATEGORY, allEntries = true)
+    })
     public Material save(Material entity) {
         if (Objects.equals(entity, null)) {
             throw new ParameterException("需要保存的物料不能为空");
         }
         // 无需判断是否已存在
-        return materialRepository.save(entity);
+        Material saved = materialRepository.save(entity);
+        // 预警阈值可能变化，下次低库存检查时重新检查
+        stockAlertService.recheckItems(StockMovement.StockItemType.MATERIAL, Collections.singletonList(saved.getMaterialId()));
+        return saved;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = {CacheNames.MATERIAL, CacheNames.MATERIALS_BY_CATEGORY}, allEntries = true)
+    public List<Material> saveAll(List<Material> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要保存的物料不能为空");
+        }
+        return materialRepository.saveAll(entities);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = {CacheNames.MATERIAL, CacheNames.MATERIALS_BY_CATEGORY}, allEntries = true)
     public void deleteAll(List<Material> entities) {
         if (Objects.equals(entities, null) || entities.isEmpty()) {
             throw new ParameterException("需要删除的物料不能为空");
         }
-        materialRepository.deleteAll(entities);
+        deleteAllById(entities.stream().map(Material::getMaterialId).collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = {CacheNames.MATERIAL, CacheNames.MATERIALS_BY_CATEGORY}, allEntries = true)
+    public void deleteAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("需要删除的物料不能为空");
+        }
+        materialRepository.deleteAllByIdInBatch(ids);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.MATERIAL, key = "#entity.materialId"),
+            @CacheEvict(cacheNames = CacheNames.MATERIALS_BY_CATEGORY, allEntries = true)
+    })
     public Material update(Material entity) {
         if (Objects.equals(entity, null)) {
             throw new ParameterException("需要修改的物料不能为空");
         }
-        return materialRepository.saveAndFlush(entity);
+        Material updated = materialRepository.saveAndFlush(entity);
+        stockAlertService.recheckItems(StockMovement.StockItemType.MATERIAL, Collections.singletonList(updated.getMaterialId()));
+        return updated;
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = {CacheNames.MATERIAL, CacheNames.MATERIALS_BY_CATEGORY}, allEntries = true)
+    public List<Material> updateAll(List<Material> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要修改的物料不能为空");
+        }
+        List<Material> updated = materialRepository.updateAllInBatch(entities);
+        if (updated.size() < entities.size()) {
+            throw new EntityNotExistException("物料不存在");
+        }
+        stockAlertService.recheckItems(StockMovement.StockItemType.MATERIAL, updated.stream().map(Material::getMaterialId).collect(Collectors.toList()));
+        return updated;
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheNames.MATERIAL, key = "#id")
     public Material findById(String id) {
         if (!StringUtils.hasText(id)) {
             throw new ParameterException("物料编号不能为空");
@@ -116,8 +181,21 @@ public class MaterialServiceImpl implements MaterialService {
         return materialRepository.findById(id).orElseThrow(() -> new EntityNotExistException("物料不存在"));
     }
 
+    @Override
+    public List<Material> findAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("物料编号不能为空");
+        }
+        return materialRepository.findAllByIdInBatch(ids);
+    }
+
     @Override
     public Page<Material> findAll(Pageable pageable) {
         return materialRepository.findAll(pageable);
     }
+
+    @Override
+    public Slice<Material> findAll(Pageable pageable, PageCount count) {
+        return materialRepository.findAll(pageable, count);
+    }
 }
@@ -20,7 +20,6 @@ import java.io.File;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * 生产需求计划接口<br>
@@ -170,12 +169,7 @@ public class ProductionController {
         if (Objects.equals(productionIds, null) || productionIds.isEmpty()) {
             return ResponseModel.error("需要删除的生产需求计划不能为空");
         }
-        List<ProductionDemand> productionDemands = productionIds.stream().map(productionId -> {
-            ProductionDemand productionDemand = new ProductionDemand();
-            productionDemand.setProductionId(productionId);
-            return productionDemand;
-        }).collect(Collectors.toList());
-        productionService.deleteAll(productionDemands);
+        productionService.deleteAllById(productionIds);
         return ResponseModel.ok("删除成功");
     }
 
@@ -1,5 +1,6 @@
 package com.beiran.core.produce.entity;
 
+import com.beiran.common.id.TimeOrderedIdGenerator;
 import com.beiran.core.system.entity.User;
 import lombok.Getter;
 import lombok.Setter;
@@ -23,8 +24,8 @@ public class ProductionDemand {
     /**
      * 生产需求计划编号
      */
-    @GenericGenerator(name = "g_uuid", strategy = "uuid")
-    @GeneratedValue(generator = "g_uuid")
+    @GenericGenerator(name = "g_id", strategy = TimeOrderedIdGenerator.STRATEGY)
+    @GeneratedValue(generator = "g_id")
     @Id
     private String productionId;
 
@@ -1,5 +1,6 @@
 package com.beiran.core.produce.entity;
 
+import com.beiran.common.id.TimeOrderedIdGenerator;
 import com.beiran.core.product.entity.ProductCategory;
 import com.beiran.core.stock.entity.Stock;
 import lombok.Getter;
@@ -25,8 +26,8 @@ public class ProductionDemandDetail {
     /**
      * 生产需求计划详细编号
      */
-    @GenericGenerator(name = "g_uuid", strategy = "uuid")
-    @GeneratedValue(generator = "g_uuid")
+    @GenericGenerator(name = "g_id", strategy = TimeOrderedIdGenerator.STRATEGY)
+    @GeneratedValue(generator = "g_id")
     @Id
     private String productionDetailId;
 
@@ -2,11 +2,13 @@ package com.beiran.core.produce.repository;
 
 import com.beiran.core.produce.entity.ProductionDemandDetail;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -33,6 +35,14 @@ public interface ProductionDemandDetailRepository extends JpaRepository<Producti
     @Query(value = "DELETE FROM erp_production_demand_detail WHERE production_detail_id = ?1", nativeQuery = true)
     void deleteByProductionId(String productionId);
 
+    /**
+     * 根据一批生产需求计划编号删除其下的所有详细项
+     * @param productionIds 生产需求计划编号
+     */
+    @Modifying
+    @Query(value = "DELETE FROM erp_production_demand_detail WHERE production_id IN ?1", nativeQuery = true)
+    void deleteByProductionIdIn(Collection<String> productionIds);
+
     /**
      * 根据生产需求计划编号查询生产需求计划子项
      * @param productionId 生产需求计划编号
@@ -40,4 +50,19 @@ public interface ProductionDemandDetailRepository extends JpaRepository<Producti
      * @return
      */
     List<ProductionDemandDetail> findByBelongDemand_ProductionId(String productionId, Pageable pageable);
+
+    /**
+     * 根据生产需求计划编号查询所有的生产需求计划子项
+     * @param productionId 生产需求计划编号
+     * @return List<ProductionDemandDetail>
+     */
+    List<ProductionDemandDetail> findByBelongDemand_ProductionId(String productionId);
+
+    /**
+     * 根据一批生产需求计划编号查询所有的生产需求计划子项，所属计划、仓库与产品分类在同一条查询中取出
+     * @param productionIds 生产需求计划编号集合
+     * @return List<ProductionDemandDetail>
+     */
+    @EntityGraph(attributePaths = {"belongDemand", "productionStock", "productCategory"})
+    List<ProductionDemandDetail> findByBelongDemand_ProductionIdIn(Collection<String> productionIds);
 }
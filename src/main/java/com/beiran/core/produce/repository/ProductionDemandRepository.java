@@ -1,8 +1,8 @@
 package com.beiran.core.produce.repository;
 
+import com.beiran.common.repository.GenericRepository;
 import com.beiran.core.produce.entity.ProductionDemand;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -14,7 +14,7 @@ import java.util.List;
  * 生产需求计划 Repository
  */
 
-public interface ProductionDemandRepository extends JpaRepository<ProductionDemand, String>, JpaSpecificationExecutor<ProductionDemand> {
+public interface ProductionDemandRepository extends GenericRepository<ProductionDemand, String>, JpaSpecificationExecutor<ProductionDemand> {
 
     /**
      * 根据生产需求计划编号修改状态
@@ -2,6 +2,10 @@ package com.beiran.core.produce.service.impl;
 
 import com.beiran.common.exception.EntityNotExistException;
 import com.beiran.common.exception.ParameterException;
+import com.beiran.common.repository.PageCount;
+import com.beiran.common.state.StateMachine;
+import com.beiran.common.state.StateMachineExecutor;
+import com.beiran.common.utils.BatchLoadUtils;
 import com.beiran.common.utils.DateTimeUtils;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.core.produce.dto.ProductionDetailDto;
@@ -14,6 +18,7 @@ import com.beiran.core.produce.service.ProductionService;
 import com.beiran.core.produce.vo.ProductionDetailVo;
 import com.beiran.core.produce.vo.ProductionVo;
 import com.beiran.core.product.entity.Product;
+import com.beiran.core.product.repository.ProductRepository;
 import com.beiran.core.product.service.ProductService;
 import com.beiran.core.stock.dto.StockSmallDto;
 import com.beiran.core.stock.entity.Stock;
@@ -26,17 +31,17 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
@@ -49,23 +54,45 @@ import java.util.stream.Collectors;
 @Service("productionService")
 public class ProductionServiceImpl implements ProductionService {
 
+    /**
+     * 生产需求计划状态机: 已创建 -> 已确认 -> 校验中 -> 已入库/重生产，重生产 -> 校验中，
+     * 已创建/已入库 -> 已关闭
+     */
+    private static final StateMachine<ProductionDemand.ProductionDemandState> PRODUCTION_STATE_MACHINE =
+            StateMachine.of(ProductionDemand.class, "productionId", "productionState", "生产需求计划", ProductionDemand.ProductionDemandState.class)
+                    .allow(ProductionDemand.ProductionDemandState.CONFIRMED, ProductionDemand.ProductionDemandState.CREATED)
+                    .allow(ProductionDemand.ProductionDemandState.VERIFYING, ProductionDemand.ProductionDemandState.CONFIRMED, ProductionDemand.ProductionDemandState.REPRODUCED)
+                    .allow(ProductionDemand.ProductionDemandState.IMPORTED, ProductionDemand.ProductionDemandState.VERIFYING)
+                    .allow(ProductionDemand.ProductionDemandState.REPRODUCED, ProductionDemand.ProductionDemandState.VERIFYING)
+                    .allow(ProductionDemand.ProductionDemandState.CLOSED, ProductionDemand.ProductionDemandState.CREATED, ProductionDemand.ProductionDemandState.IMPORTED);
+
     @Autowired
     private ProductionDemandRepository productionDemandRepository;
 
     @Autowired
     private ProductionDemandDetailRepository productionDemandDetailRepository;
 
+    @Autowired
+    private ProductRepository productRepository;
+
     @Autowired
     private ProductService productService;
 
     @Autowired
     private StockService stockService;
 
+    @Autowired
+    private StateMachineExecutor stateMachineExecutor;
+
     private ProductionDto transferProduction(ProductionDemand productionDemand) {
         ProductionDto productionDto = new ProductionDto();
 
         if (!Objects.equals(productionDemand, null)) {
-            BeanUtils.copyProperties(productionDemand, productionDto);
+            productionDto.setProductionId(productionDemand.getProductionId());
+            productionDto.setProductionSubject(productionDemand.getProductionSubject());
+            productionDto.setProductionCreateTime(productionDemand.getProductionCreateTime());
+            productionDto.setProductionState(productionDemand.getProductionState());
+            productionDto.setLastModifiedTime(productionDemand.getLastModifiedTime());
         }
 
         UserSmallDto applicant = new UserSmallDto();
@@ -90,7 +117,16 @@ public class ProductionServiceImpl implements ProductionService {
         ProductionDetailDto productionDetailDto = new ProductionDetailDto();
 
         if (!Objects.equals(productionDemandDetail, null)) {
-            BeanUtils.copyProperties(productionDemandDetail, productionDetailDto);
+            productionDetailDto.setProductionDetailId(productionDemandDetail.getProductionDetailId());
+            productionDetailDto.setNewProduct(productionDemandDetail.getNewProduct());
+            productionDetailDto.setProductId(productionDemandDetail.getProductId());
+            productionDetailDto.setProductName(productionDemandDetail.getProductName());
+            productionDetailDto.setProductCategory(productionDemandDetail.getProductCategory());
+            productionDetailDto.setProductSpecification(productionDemandDetail.getProductSpecification());
+            productionDetailDto.setProductManufacturer(productionDemandDetail.getProductManufacturer());
+            productionDetailDto.setProductOrigin(productionDemandDetail.getProductOrigin());
+            productionDetailDto.setProductInPrice(productionDemandDetail.getProductInPrice());
+            productionDetailDto.setProductOutPrice(productionDemandDetail.getProductOutPrice());
         }
 
         StockSmallDto stock = new StockSmallDto();
@@ -105,11 +141,22 @@ public class ProductionServiceImpl implements ProductionService {
         return productionDetailDto;
     }
 
+    /**
+     * 以一条 IN 查询取出一页生产需求计划的所有子项，并设置到对应的计划上
+     */
+    private void attachDetails(List<ProductionDto> productionDtos) {
+        BatchLoadUtils.attachChildren(productionDtos, ProductionDto::getProductionId,
+                productionDemandDetailRepository::findByBelongDemand_ProductionIdIn,
+                productionDemandDetail -> productionDemandDetail.getBelongDemand().getProductionId(),
+                this::transferDetail, ProductionDto::setProductionDetails);
+    }
+
     private ProductionDemand transferProductionVo(ProductionVo productionVo) {
         ProductionDemand productionDemand = new ProductionDemand();
 
         if (!Objects.equals(productionVo, null)) {
-            BeanUtils.copyProperties(productionVo, productionDemand);
+            productionDemand.setProductionSubject(productionVo.getProductionSubject());
+            productionDemand.setProductionState(productionVo.getProductionState());
         }
 
         User user = new User();
@@ -128,7 +175,16 @@ public class ProductionServiceImpl implements ProductionService {
         ProductionDemandDetail productionDemandDetail = new ProductionDemandDetail();
 
         if (!Objects.equals(productionDetailVo, null)) {
-            BeanUtils.copyProperties(productionDetailVo, productionDemandDetail);
+            productionDemandDetail.setNewProduct(productionDetailVo.getNewProduct());
+            productionDemandDetail.setProductId(productionDetailVo.getProductId());
+            productionDemandDetail.setProductName(productionDetailVo.getProductName());
+            productionDemandDetail.setProductCategory(productionDetailVo.getProductCategory());
+            productionDemandDetail.setProductSpecification(productionDetailVo.getProductSpecification());
+            productionDemandDetail.setProductManufacturer(productionDetailVo.getProductManufacturer());
+            productionDemandDetail.setProductOrigin(productionDetailVo.getProductOrigin());
+            productionDemandDetail.setProductInPrice(productionDetailVo.getProductInPrice());
+            productionDemandDetail.setProductOutPrice(productionDetailVo.getProductOutPrice());
+            productionDemandDetail.setProductionNumber(productionDetailVo.getProductionNumber());
         }
 
         Stock stock = new Stock();
@@ -202,16 +258,11 @@ public class ProductionServiceImpl implements ProductionService {
         if (!StringUtils.hasText(productionId)) {
             throw new ParameterException("生产需求计划编号不能为空");
         }
-        // 同时修改上一次操作者和上一次修改时间
-        ProductionDemand productionDemand = findById(productionId);
-        productionDemand.setLastModifiedTime(new Date());
-        User operator = new User();
-        operator.setUserId(SecurityUtil.getUserId());
-        operator.setUserName(SecurityUtil.getUserName());
-        productionDemand.setLastModifiedOperator(operator);
-        productionDemand.setProductionState(productionState);
-        ProductionDemand update = update(productionDemand);
-        return !Objects.equals(productionDemand,null);
+        if (Objects.equals(productionState, null)) {
+            throw new ParameterException("生产需求计划状态不能为空");
+        }
+        // 只有状态机允许的转换才会执行，同时修改上一次操作者和上一次修改时间
+        return stateMachineExecutor.transit(PRODUCTION_STATE_MACHINE, productionId, productionState);
     }
 
     /**
@@ -222,12 +273,11 @@ public class ProductionServiceImpl implements ProductionService {
      */
     @Override
     public Boolean confirmProduction(String productionId) {
-        ProductionDemand productionDemand = findById(productionId);
         // 若不是 CREATED 状态，则无法被修改为 CONFIRMED 状态
-        if (!Objects.equals(productionDemand.getProductionState(), ProductionDemand.ProductionDemandState.CREATED)) {
+        if (!updateState(productionId, ProductionDemand.ProductionDemandState.CONFIRMED)) {
             throw new ParameterException("无法被修改");
         }
-        return updateState(productionId, ProductionDemand.ProductionDemandState.CONFIRMED);
+        return true;
     }
 
     /**
@@ -238,13 +288,11 @@ public class ProductionServiceImpl implements ProductionService {
      */
     @Override
     public Boolean verifyProduction(String productionId) {
-        ProductionDemand productionDemand = findById(productionId);
         // 若不是 CONFIRMED/REPRODUCED 状态，则无法被修改为 VERIFYING 状态
-        if (Objects.equals(productionDemand.getProductionState(), ProductionDemand.ProductionDemandState.CONFIRMED) || Objects.equals(productionDemand.getProductionState(), ProductionDemand.ProductionDemandState.REPRODUCED)) {
-            return updateState(productionId, ProductionDemand.ProductionDemandState.VERIFYING);
-        } else {
+        if (!updateState(productionId, ProductionDemand.ProductionDemandState.VERIFYING)) {
             throw new ParameterException("无法被修改");
         }
+        return true;
     }
 
     /**
@@ -254,31 +302,46 @@ public class ProductionServiceImpl implements ProductionService {
      * @return 是否修改成功
      */
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public Boolean importProduction(String productionId) {
         // 已入库状态需要将产品存入仓库
-        ProductionDemand productionDemand = findById(productionId);
-        // 若不是 VERIFYING 状态，则无法被修改为 IMPORTED 状态
-        if (!Objects.equals(productionDemand.getProductionState(), ProductionDemand.ProductionDemandState.VERIFYING)) {
+        // 若不是 VERIFYING 状态，则无法被修改为 IMPORTED 状态；条件更新只有一次能成功，产品只入库一次
+        if (!updateState(productionId, ProductionDemand.ProductionDemandState.IMPORTED)) {
             throw new ParameterException("无法被修改");
         }
-        boolean result = updateState(productionId, ProductionDemand.ProductionDemandState.IMPORTED);
-        List<ProductionDemandDetail> productionDemandDetails = productionDemandDetailRepository.findByBelongDemand_ProductionId(productionId, PageRequest.of(0, 200));
-        productionDemandDetails.stream().forEach(productionDemandDetail -> {
+        List<ProductionDemandDetail> productionDemandDetails = productionDemandDetailRepository.findByBelongDemand_ProductionId(productionId);
+        // 新产品先一次性批量插入，再将所有明细的数量按 (产品, 仓库) 合并后以一条语句入库，全部在同一事务中完成
+        List<Product> newProducts = new ArrayList<>();
+        List<ProductionDemandDetail> newProductDetails = new ArrayList<>();
+        List<ProductNumberVo> productNumberVos = new ArrayList<>();
+        for (ProductionDemandDetail productionDemandDetail : productionDemandDetails) {
             if (productionDemandDetail.getNewProduct()) {
-                // 新产品则直接添加
                 Product product = new Product();
-                // FIXME BeanUtils 复制数据可能会出错
-                BeanUtils.copyProperties(productionDemandDetail, product);
-                Product save = productService.save(product);
-                ProductNumberVo productNumberVo = new ProductNumberVo(save.getProductId(), productionDemandDetail.getProductionStock().getStockId(), productionDemandDetail.getProductionNumber());
-                stockService.saveProductRecord(productNumberVo);
+                product.setProductId(productionDemandDetail.getProductId());
+                product.setProductName(productionDemandDetail.getProductName());
+                product.setProductCategory(productionDemandDetail.getProductCategory());
+                product.setProductSpecification(productionDemandDetail.getProductSpecification());
+                product.setProductManufacturer(productionDemandDetail.getProductManufacturer());
+                product.setProductOrigin(productionDemandDetail.getProductOrigin());
+                product.setProductInPrice(productionDemandDetail.getProductInPrice());
+                product.setProductOutPrice(productionDemandDetail.getProductOutPrice());
+                newProducts.add(product);
+                newProductDetails.add(productionDemandDetail);
             } else {
-                // 否则直接在原有库存中添加
-                ProductNumberVo productNumberVo = new ProductNumberVo(productionDemandDetail.getProductId(), productionDemandDetail.getProductionStock().getStockId(), productionDemandDetail.getProductionNumber());
-                stockService.saveProductRecord(productNumberVo);
+                productNumberVos.add(new ProductNumberVo(productionDemandDetail.getProductId(), productionDemandDetail.getProductionStock().getStockId(), productionDemandDetail.getProductionNumber()));
             }
-        });
-        return result;
+        }
+        if (!newProducts.isEmpty()) {
+            List<Product> savedProducts = productService.saveAll(newProducts);
+            // 库存以 JDBC 写入，不会触发 Hibernate 的自动刷新，需先将新产品写入数据库
+            productRepository.flush();
+            for (int i = 0; i < savedProducts.size(); i++) {
+                ProductionDemandDetail productionDemandDetail = newProductDetails.get(i);
+                productNumberVos.add(new ProductNumberVo(savedProducts.get(i).getProductId(), productionDemandDetail.getProductionStock().getStockId(), productionDemandDetail.getProductionNumber()));
+            }
+        }
+        stockService.saveProductRecords(productNumberVos);
+        return true;
     }
 
     /**
@@ -289,12 +352,11 @@ public class ProductionServiceImpl implements ProductionService {
      */
     @Override
     public Boolean reproduceProduction(String productionId) {
-        ProductionDemand productionDemand = findById(productionId);
         // 若不是 VERIFYING 状态，则无法被修改为 REPRODUCED 状态
-        if (!Objects.equals(productionDemand.getProductionState(), ProductionDemand.ProductionDemandState.VERIFYING)) {
+        if (!updateState(productionId, ProductionDemand.ProductionDemandState.REPRODUCED)) {
             throw new ParameterException("无法被修改");
         }
-        return updateState(productionId, ProductionDemand.ProductionDemandState.REPRODUCED);
+        return true;
     }
 
     /**
@@ -305,13 +367,11 @@ public class ProductionServiceImpl implements ProductionService {
      */
     @Override
     public Boolean closeProduction(String productionId) {
-        ProductionDemand productionDemand = findById(productionId);
         // 若不是 CREATED/IMPORTED 状态，则无法被修改为 CLOSED 状态
-        if (Objects.equals(productionDemand.getProductionState(), ProductionDemand.ProductionDemandState.CREATED) || Objects.equals(productionDemand.getProductionState(), ProductionDemand.ProductionDemandState.IMPORTED)) {
-            return updateState(productionId, ProductionDemand.ProductionDemandState.CLOSED);
-        } else {
+        if (!updateState(productionId, ProductionDemand.ProductionDemandState.CLOSED)) {
             throw new ParameterException("无法被修改");
         }
+        return true;
     }
 
     /**
@@ -331,11 +391,7 @@ public class ProductionServiceImpl implements ProductionService {
                 productionDemands.stream()
                         .map(this::transferProduction)
                         .collect(Collectors.toList());
-        productionDtos.stream().forEach(productionDto -> {
-            List<ProductionDemandDetail> productionDemandDetails = productionDemandDetailRepository.findByBelongDemand_ProductionId(productionDto.getProductionId(), PageRequest.of(0, 200));
-            List<ProductionDetailDto> productionDetailDtos = productionDemandDetails.stream().map(this::transferDetail).collect(Collectors.toList());
-            productionDto.setProductionDetails(productionDetailDtos);
-        });
+        attachDetails(productionDtos);
         return productionDtos;
     }
 
@@ -360,11 +416,7 @@ public class ProductionServiceImpl implements ProductionService {
                 productionDemands.stream()
                         .map(this::transferProduction)
                         .collect(Collectors.toList());
-        productionDtos.stream().forEach(productionDto -> {
-            List<ProductionDemandDetail> productionDemandDetails = productionDemandDetailRepository.findByBelongDemand_ProductionId(productionDto.getProductionId(), PageRequest.of(0, 200));
-            List<ProductionDetailDto> productionDetailDtos = productionDemandDetails.stream().map(this::transferDetail).collect(Collectors.toList());
-            productionDto.setProductionDetails(productionDetailDtos);
-        });
+        attachDetails(productionDtos);
         return productionDtos;
     }
 
@@ -385,11 +437,7 @@ public class ProductionServiceImpl implements ProductionService {
                 productionDemands.stream()
                         .map(this::transferProduction)
                         .collect(Collectors.toList());
-        productionDtos.stream().forEach(productionDto -> {
-            List<ProductionDemandDetail> productionDemandDetails = productionDemandDetailRepository.findByBelongDemand_ProductionId(productionDto.getProductionId(), PageRequest.of(0, 200));
-            List<ProductionDetailDto> productionDetailDtos = productionDemandDetails.stream().map(this::transferDetail).collect(Collectors.toList());
-            productionDto.setProductionDetails(productionDetailDtos);
-        });
+        attachDetails(productionDtos);
         return productionDtos;
     }
 
@@ -410,11 +458,7 @@ public class ProductionServiceImpl implements ProductionService {
                 productionDemands.stream()
                         .map(this::transferProduction)
                         .collect(Collectors.toList());
-        productionDtos.stream().forEach(productionDto -> {
-            List<ProductionDemandDetail> productionDemandDetails = productionDemandDetailRepository.findByBelongDemand_ProductionId(productionDto.getProductionId(), PageRequest.of(0, 200));
-            List<ProductionDetailDto> productionDetailDtos = productionDemandDetails.stream().map(this::transferDetail).collect(Collectors.toList());
-            productionDto.setProductionDetails(productionDetailDtos);
-        });
+        attachDetails(productionDtos);
         return productionDtos;
     }
 
@@ -436,11 +480,7 @@ public class ProductionServiceImpl implements ProductionService {
                 productionDemands.stream()
                         .map(this::transferProduction)
                         .collect(Collectors.toList());
-        productionDtos.stream().forEach(productionDto -> {
-            List<ProductionDemandDetail> productionDemandDetails = productionDemandDetailRepository.findByBelongDemand_ProductionId(productionDto.getProductionId(), PageRequest.of(0, 200));
-            List<ProductionDetailDto> productionDetailDtos = productionDemandDetails.stream().map(this::transferDetail).collect(Collectors.toList());
-            productionDto.setProductionDetails(productionDetailDtos);
-        });
+        attachDetails(productionDtos);
         return productionDtos;
     }
 
@@ -462,11 +502,7 @@ public class ProductionServiceImpl implements ProductionService {
                 productionDemands.stream()
                         .map(this::transferProduction)
                         .collect(Collectors.toList());
-        productionDtos.stream().forEach(productionDto -> {
-            List<ProductionDemandDetail> productionDemandDetails = productionDemandDetailRepository.findByBelongDemand_ProductionId(productionDto.getProductionId(), PageRequest.of(0, 200));
-            List<ProductionDetailDto> productionDetailDtos = productionDemandDetails.stream().map(this::transferDetail).collect(Collectors.toList());
-            productionDto.setProductionDetails(productionDetailDtos);
-        });
+        attachDetails(productionDtos);
         return productionDtos;
     }
 
@@ -478,11 +514,7 @@ public class ProductionServiceImpl implements ProductionService {
                 productionDemands.stream()
                         .map(this::transferProduction)
                         .collect(Collectors.toList());
-        productionDtos.stream().forEach(productionDto -> {
-            List<ProductionDemandDetail> productionDemandDetails = productionDemandDetailRepository.findByBelongDemand_ProductionId(productionDto.getProductionId(), PageRequest.of(0, 200));
-            List<ProductionDetailDto> productionDetailDtos = productionDemandDetails.stream().map(this::transferDetail).collect(Collectors.toList());
-            productionDto.setProductionDetails(productionDetailDtos);
-        });
+        attachDetails(productionDtos);
         return productionDtos;
     }
 
@@ -592,6 +624,21 @@ public class ProductionServiceImpl implements ProductionService {
         return productionDemandRepository.save(entity);
     }
 
+    /**
+     * 批量保存操作
+     *
+     * @param entities 需要保存的实体
+     * @return 保存的实体
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<ProductionDemand> saveAll(List<ProductionDemand> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要保存的生产需求计划不能为空");
+        }
+        return productionDemandRepository.saveAll(entities);
+    }
+
     /**
      * 根据给定一批实体进行批量删除
      *
@@ -603,10 +650,23 @@ public class ProductionServiceImpl implements ProductionService {
         if (Objects.equals(entities, null) || entities.isEmpty()) {
             throw new ParameterException("需求删除的生产需求计划不能为空");
         }
+        deleteAllById(entities.stream().map(ProductionDemand::getProductionId).collect(Collectors.toList()));
+    }
+
+    /**
+     * 根据给定一批 ID 进行批量删除
+     *
+     * @param ids 需要删除的实体 ID
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void deleteAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("需要删除的生产需求计划不能为空");
+        }
         // 同时删除对应的生产需求计划详细项
-        List<String> productionIds = entities.stream().map(ProductionDemand::getProductionId).collect(Collectors.toList());
-        productionIds.stream().forEach(productionId -> deleteProductionDetail(productionId));
-        productionDemandRepository.deleteAll(entities);
+        productionDemandDetailRepository.deleteByProductionIdIn(ids);
+        productionDemandRepository.deleteAllByIdInBatch(ids);
     }
 
     /**
@@ -628,6 +688,25 @@ public class ProductionServiceImpl implements ProductionService {
         return productionDemandRepository.saveAndFlush(entity);
     }
 
+    /**
+     * 批量更新操作
+     *
+     * @param entities 需要更新的实体
+     * @return 更新后的实体
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<ProductionDemand> updateAll(List<ProductionDemand> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要修改的生产需求计划不能为空");
+        }
+        List<ProductionDemand> updated = productionDemandRepository.updateAllInBatch(entities);
+        if (updated.size() < entities.size()) {
+            throw new EntityNotExistException("生产需求计划不存在");
+        }
+        return updated;
+    }
+
     /**
      * 根据给定 ID 查询一个实体
      *
@@ -642,6 +721,20 @@ public class ProductionServiceImpl implements ProductionService {
         return productionDemandRepository.findById(id).orElseThrow(() -> new EntityNotExistException("生产需求计划不存在"));
     }
 
+    /**
+     * 根据给定一批 ID 查询实体
+     *
+     * @param ids 需要查询的实体 ID
+     * @return 存在的实体
+     */
+    @Override
+    public List<ProductionDemand> findAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("生产需求计划编号不能为空");
+        }
+        return productionDemandRepository.findAllByIdInBatch(ids);
+    }
+
     /**
      * 分页查询
      *
@@ -653,6 +746,11 @@ public class ProductionServiceImpl implements ProductionService {
         return productionDemandRepository.findAll(pageable);
     }
 
+    @Override
+    public Slice<ProductionDemand> findAll(Pageable pageable, PageCount count) {
+        return productionDemandRepository.findAll(pageable, count);
+    }
+
     /* ------------------------------------- 生产需求计划相关 ----------------------------------------- */
 
     /**
@@ -1,6 +1,7 @@
 package com.beiran.core.product.controller;
 
 import com.beiran.common.annotation.LogRecord;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.respone.ResponseModel;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.core.product.entity.Product;
@@ -20,7 +21,6 @@ import javax.validation.Valid;
 import java.io.File;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * 产品接口<br>
@@ -85,12 +85,7 @@ public class ProductController {
         if (Objects.equals(productIds, null) || productIds.isEmpty()) {
             return ResponseModel.error("需要删除的产品不能为空");
         }
-        List<Product> products = productIds.stream().map(productId -> {
-            Product product = new Product();
-            product.setProductId(productId);
-            return product;
-        }).collect(Collectors.toList());
-        productService.deleteAll(products);
+        productService.deleteAllById(productIds);
         return ResponseModel.ok("删除成功");
     }
 
@@ -110,14 +105,16 @@ public class ProductController {
     /**
      * 查询所有产品
      * @param pageable
+     * @param count 总数的取得方式: EXACT（缺省）精确总数，NONE 不统计总数，ESTIMATE 近似总数
      * @return
      */
     @GetMapping
     @LogRecord("查询所有产品")
     @PreAuthorize("@erp.check('product:view')")
     @ApiOperation("查询所有产品")
-    public ResponseModel getProducts(@PageableDefault(sort = "productCategory") Pageable pageable) {
-        return ResponseModel.ok(productService.findAll(pageable));
+    public ResponseModel getProducts(@PageableDefault(sort = "productCategory") Pageable pageable,
+                                     @RequestParam(value = "count", defaultValue = "EXACT") PageCount count) {
+        return ResponseModel.ok(productService.findAll(pageable, count));
     }
 
     /**
@@ -192,25 +189,22 @@ public class ProductController {
         if (Objects.equals(categoryIds, null) || categoryIds.isEmpty()) {
             return ResponseModel.error("需要删除的产品分类不能为空");
         }
-        List<ProductCategory> categories = categoryIds.stream().map(categoryId -> {
-            ProductCategory productCategory = new ProductCategory();
-            productCategory.setCategoryId(categoryId);
-            return productCategory;
-        }).collect(Collectors.toList());
-        productCategoryService.deleteAll(categories);
+        productCategoryService.deleteAllById(categoryIds);
         return ResponseModel.ok("删除成功");
     }
 
     /**
      * 查询产品分类
      * @param pageable
+     * @param count 总数的取得方式: EXACT（缺省）精确总数，NONE 不统计总数，ESTIMATE 近似总数
      * @return
      */
     @GetMapping("/categories")
     @LogRecord("查询产品分类")
     @PreAuthorize("@erp.check('product:view')")
     @ApiOperation("查询产品分类")
-    public ResponseModel getProductCategories(@PageableDefault Pageable pageable) {
-        return ResponseModel.ok(productCategoryService.findAll(pageable));
+    public ResponseModel getProductCategories(@PageableDefault Pageable pageable,
+                                              @RequestParam(value = "count", defaultValue = "EXACT") PageCount count) {
+        return ResponseModel.ok(productCategoryService.findAll(pageable, count));
     }
 }
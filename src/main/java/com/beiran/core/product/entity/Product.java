@@ -1,5 +1,6 @@
 package com.beiran.core.product.entity;
 
+import com.beiran.common.id.TimeOrderedIdGenerator;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.GenericGenerator;
@@ -8,6 +9,7 @@ import javax.persistence.*;
 import javax.validation.constraints.Digits;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.PositiveOrZero;
 import java.util.Objects;
 
 /**
@@ -23,8 +25,8 @@ public class Product {
     /**
      * 产品编号
      */
-    @GenericGenerator(name = "g_uuid", strategy = "uuid")
-    @GeneratedValue(generator = "g_uuid")
+    @GenericGenerator(name = "g_id", strategy = TimeOrderedIdGenerator.STRATEGY)
+    @GeneratedValue(generator = "g_id")
     @Id
     private String productId;
 
@@ -78,6 +80,12 @@ public class Product {
     @NotBlank(message = "产品产地不能为空")
     private String productOrigin;
 
+    /**
+     * 低库存预警阈值，所有仓库中的产品总数量低于该值时预警，为空时不预警
+     */
+    @PositiveOrZero(message = "预警阈值不能小于零")
+    private Long productReorderPoint;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
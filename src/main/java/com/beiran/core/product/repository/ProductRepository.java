@@ -1,16 +1,18 @@
 package com.beiran.core.product.repository;
 
+import com.beiran.common.repository.GenericRepository;
 import com.beiran.core.product.entity.Product;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
  * 产品 Repository
  */
-public interface ProductRepository extends JpaRepository<Product, String>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends GenericRepository<Product, String>, JpaSpecificationExecutor<Product> {
 
     /**
      * 根据产品分类编号查询产品
@@ -19,4 +21,27 @@ public interface ProductRepository extends JpaRepository<Product, String>, JpaSp
      * @return List<Product>
      */
     List<Product> findByProductCategory_CategoryId(String categoryId, Pageable pageable);
+
+    /**
+     * 查询给定编号中存在的产品编号，用于批量校验
+     * @param ids 产品编号
+     * @return 存在的产品编号
+     */
+    @Query("SELECT p.productId FROM Product p WHERE p.productId IN ?1")
+    List<String> findExistingIds(Collection<String> ids);
+
+    /**
+     * 查询给定产品中设置了预警阈值的产品
+     * @param ids 产品编号
+     * @return 每行依次为产品编号、产品名与预警阈值
+     */
+    @Query("SELECT p.productId, p.productName, p.productReorderPoint FROM Product p WHERE p.productId IN ?1 AND p.productReorderPoint IS NOT NULL")
+    List<Object[]> findReorderPoints(Collection<String> ids);
+
+    /**
+     * 查询所有设置了预警阈值的产品编号，用于首次检查低库存
+     * @return 产品编号
+     */
+    @Query("SELECT p.productId FROM Product p WHERE p.productReorderPoint IS NOT NULL")
+    List<String> findIdsWithReorderPoint();
 }
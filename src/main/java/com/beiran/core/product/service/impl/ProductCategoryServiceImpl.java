@@ -1,19 +1,26 @@
 package com.beiran.core.product.service.impl;
 
+import com.beiran.common.cache.CacheNames;
 import com.beiran.common.exception.EntityNotExistException;
 import com.beiran.common.exception.ParameterException;
+import com.beiran.common.repository.PageCount;
 import com.beiran.core.product.entity.ProductCategory;
 import com.beiran.core.product.repository.ProductCategoryRepository;
 import com.beiran.core.product.service.ProductCategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * ProductCategoryService 实现类
@@ -27,6 +34,7 @@ public class ProductCategoryServiceImpl implements ProductCategoryService {
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = {CacheNames.PRODUCT_CATEGORY, CacheNames.PRODUCT, CacheNames.PRODUCTS_BY_CATEGORY}, allEntries = true)
     public ProductCategory save(ProductCategory entity) {
         if (Objects.equals(entity, null)) {
             throw new ParameterException("需要保存的产品分类不能为空");
@@ -36,15 +44,37 @@ public class ProductCategoryServiceImpl implements ProductCategoryService {
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = {CacheNames.PRODUCT_CATEGORY, CacheNames.PRODUCT, CacheNames.PRODUCTS_BY_CATEGORY}, allEntries = true)
+    public List<ProductCategory> saveAll(List<ProductCategory> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要保存的产品分类不能为空");
+        }
+        return productCategoryRepository.saveAll(entities);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = {CacheNames.PRODUCT_CATEGORY, CacheNames.PRODUCT, CacheNames.PRODUCTS_BY_CATEGORY}, allEntries = true)
     public void deleteAll(List<ProductCategory> entities) {
         if (Objects.equals(entities, null) || entities.isEmpty()) {
             throw new ParameterException("需要删除的产品分类不能为空");
         }
-        productCategoryRepository.deleteAll(entities);
+        deleteAllById(entities.stream().map(ProductCategory::getCategoryId).collect(Collectors.toList()));
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = {CacheNames.PRODUCT_CATEGORY, CacheNames.PRODUCT, CacheNames.PRODUCTS_BY_CATEGORY}, allEntries = true)
+    public void deleteAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("需要删除的产品分类不能为空");
+        }
+        productCategoryRepository.deleteAllByIdInBatch(ids);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = {CacheNames.PRODUCT_CATEGORY, CacheNames.PRODUCT, CacheNames.PRODUCTS_BY_CATEGORY}, allEntries = true)
     public ProductCategory update(ProductCategory entity) {
         if (Objects.equals(entity, null)) {
             throw new ParameterException("需要修改的产品分类不能为空");
@@ -53,6 +83,21 @@ public class ProductCategoryServiceImpl implements ProductCategoryService {
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = {CacheNames.PRODUCT_CATEGORY, CacheNames.PRODUCT, CacheNames.PRODUCTS_BY_CATEGORY}, allEntries = true)
+    public List<ProductCategory> updateAll(List<ProductCategory> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要修改的产品分类不能为空");
+        }
+        List<ProductCategory> updated = productCategoryRepository.updateAllInBatch(entities);
+        if (updated.size() < entities.size()) {
+            throw new EntityNotExistException("产品分类不存在");
+        }
+        return updated;
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheNames.PRODUCT_CATEGORY, key = "#id")
     public ProductCategory findById(String id) {
         if (!StringUtils.hasText(id)) {
             throw new ParameterException("产品分类编号不能为空");
@@ -60,8 +105,21 @@ public class ProductCategoryServiceImpl implements ProductCategoryService {
         return productCategoryRepository.findById(id).orElseThrow(() -> new EntityNotExistException("产品分类不存在"));
     }
 
+    @Override
+    public List<ProductCategory> findAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("产品分类编号不能为空");
+        }
+        return productCategoryRepository.findAllByIdInBatch(ids);
+    }
+
     @Override
     public Page<ProductCategory> findAll(Pageable pageable) {
         return productCategoryRepository.findAll(pageable);
     }
+
+    @Override
+    public Slice<ProductCategory> findAll(Pageable pageable, PageCount count) {
+        return productCategoryRepository.findAll(pageable, count);
+    }
 }
@@ -1,26 +1,37 @@
 package com.beiran.core.product.service.impl;
 
+import com.beiran.common.cache.CacheNames;
 import com.beiran.common.exception.EntityNotExistException;
 import com.beiran.common.exception.ParameterException;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.core.product.entity.Product;
 import com.beiran.core.product.repository.ProductRepository;
 import com.beiran.core.product.service.ProductService;
+import com.beiran.core.stock.entity.StockMovement;
+import com.beiran.core.stock.service.StockAlertService;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * ProductService 实现类
@@ -32,7 +43,11 @@ public class ProductServiceImpl implements ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private StockAlertService stockAlertService;
+
     @Override
+    @Cacheable(cacheNames = CacheNames.PRODUCTS_BY_CATEGORY, key = "#categoryId + ':' + #pageable")
     public List<Product> getProductsByCategory(String categoryId, Pageable pageable) {
         if (!StringUtils.hasText(categoryId)) {
             throw new ParameterException("产品分类编号不能为空");
@@ -84,33 +99,83 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.PRODUCT, key = "#entity.productId"),
+            @CacheEvict(cacheNames = CacheNames.PRODUCTS_BY_CATEGORY, allEntries = true)
+    })
     public Product save(Product entity) {
         // 产品新增无需判断是否已存在
         if (Objects.equals(entity, null)) {
             throw new ParameterException("需要保存的产品不能为空");
         }
-        return productRepository.save(entity);
+        Product saved = productRepository.save(entity);
+        // 预警阈值可能变化，下次低库存检查时重新检查
+        stockAlertService.recheckItems(StockMovement.StockItemType.PRODUCT, Collections.singletonList(saved.getProductId()));
+        return saved;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = {CacheNames.PRODUCT, CacheNames.PRODUCTS_BY_CATEGORY}, allEntries = true)
+    public List<Product> saveAll(List<Product> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要保存的产品不能为空");
+        }
+        return productRepository.saveAll(entities);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = {CacheNames.PRODUCT, CacheNames.PRODUCTS_BY_CATEGORY}, allEntries = true)
     public void deleteAll(List<Product> entities) {
         if (Objects.equals(entities, null) || entities.isEmpty()) {
             throw new ParameterException("需要删除的产品不能为空");
         }
-        productRepository.deleteAll(entities);
+        deleteAllById(entities.stream().map(Product::getProductId).collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = {CacheNames.PRODUCT, CacheNames.PRODUCTS_BY_CATEGORY}, allEntries = true)
+    public void deleteAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("需要删除的产品不能为空");
+        }
+        productRepository.deleteAllByIdInBatch(ids);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.PRODUCT, key = "#entity.productId"),
+            @CacheEvict(cacheNames = CacheNames.PRODUCTS_BY_CATEGORY, allEntries = true)
+    })
     public Product update(Product entity) {
         if (Objects.equals(entity, null)) {
             throw new ParameterException("需要修改的产品不能为空");
         }
-        return productRepository.saveAndFlush(entity);
+        Product updated = productRepository.saveAndFlush(entity);
+        stockAlertService.recheckItems(StockMovement.StockItemType.PRODUCT, Collections.singletonList(updated.getProductId()));
+        return updated;
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = {CacheNames.PRODUCT, CacheNames.PRODUCTS_BY_CATEGORY}, allEntries = true)
+    public List<Product> updateAll(List<Product> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要修改的产品不能为空");
+        }
+        List<Product> updated = productRepository.updateAllInBatch(entities);
+        if (updated.size() < entities.size()) {
+            throw new EntityNotExistException("产品不存在");
+        }
+        stockAlertService.recheckItems(StockMovement.StockItemType.PRODUCT, updated.stream().map(Product::getProductId).collect(Collectors.toList()));
+        return updated;
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheNames.PRODUCT, key = "#id")
     public Product findById(String id) {
         if (!StringUtils.hasText(id)) {
             throw new ParameterException("产品编号不能为空");
@@ -118,8 +183,21 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.findById(id).orElseThrow(() -> new EntityNotExistException("产品不存在"));
     }
 
+    @Override
+    public List<Product> findAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("产品编号不能为空");
+        }
+        return productRepository.findAllByIdInBatch(ids);
+    }
+
     @Override
     public Page<Product> findAll(Pageable pageable) {
         return productRepository.findAll(pageable);
     }
+
+    @Override
+    public Slice<Product> findAll(Pageable pageable, PageCount count) {
+        return productRepository.findAll(pageable, count);
+    }
 }
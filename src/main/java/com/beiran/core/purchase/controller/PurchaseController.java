@@ -20,7 +20,6 @@ import java.io.File;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * 采购管理接口<br>
@@ -170,12 +169,7 @@ public class PurchaseController {
         if (Objects.equals(purchaseOrderIds, null) || purchaseOrderIds.isEmpty()) {
             return ResponseModel.error("需要删除的采购计划不能为空");
         }
-        List<PurchaseOrder> purchaseOrders = purchaseOrderIds.stream().map(purchaseId -> {
-            PurchaseOrder purchaseOrder = new PurchaseOrder();
-            purchaseOrder.setPurchaseId(purchaseId);
-            return purchaseOrder;
-        }).collect(Collectors.toList());
-        purchaseService.deleteAll(purchaseOrders);
+        purchaseService.deleteAllById(purchaseOrderIds);
         return ResponseModel.ok("删除成功");
     }
 
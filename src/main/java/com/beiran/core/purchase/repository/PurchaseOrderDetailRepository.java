@@ -2,11 +2,13 @@ package com.beiran.core.purchase.repository;
 
 import com.beiran.core.purchase.entity.PurchaseOrderDetail;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -33,6 +35,14 @@ public interface PurchaseOrderDetailRepository extends JpaRepository<PurchaseOrd
     @Query(value = "DELETE FROM erp_purchase_order_detail WHERE purchase_id = ?1", nativeQuery = true)
     void deleteByPurchaseId(String purchaseId);
 
+    /**
+     * 根据一批采购计划编号删除其下的所有详细项
+     * @param purchaseIds 采购计划编号
+     */
+    @Modifying
+    @Query(value = "DELETE FROM erp_purchase_order_detail WHERE purchase_id IN ?1", nativeQuery = true)
+    void deleteByPurchaseIdIn(Collection<String> purchaseIds);
+
     /**
      * 根据采购计划编号查询采购计划详细
      * @param purchaseId 采购计划编号
@@ -40,4 +50,19 @@ public interface PurchaseOrderDetailRepository extends JpaRepository<PurchaseOrd
      * @return List<PurchaseOrderDetail>
      */
     List<PurchaseOrderDetail> findByBelongOrder_PurchaseId(String purchaseId, Pageable pageable);
+
+    /**
+     * 根据采购计划编号查询所有的采购计划详细
+     * @param purchaseId 采购计划编号
+     * @return List<PurchaseOrderDetail>
+     */
+    List<PurchaseOrderDetail> findByBelongOrder_PurchaseId(String purchaseId);
+
+    /**
+     * 根据一批采购计划编号查询所有的采购计划详细，所属采购计划、仓库与物料分类在同一条查询中取出
+     * @param purchaseIds 采购计划编号集合
+     * @return List<PurchaseOrderDetail>
+     */
+    @EntityGraph(attributePaths = {"belongOrder", "purchaseStock", "materialCategory"})
+    List<PurchaseOrderDetail> findByBelongOrder_PurchaseIdIn(Collection<String> purchaseIds);
 }
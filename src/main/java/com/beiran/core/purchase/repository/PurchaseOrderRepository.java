@@ -1,8 +1,8 @@
 package com.beiran.core.purchase.repository;
 
+import com.beiran.common.repository.GenericRepository;
 import com.beiran.core.purchase.entity.PurchaseOrder;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -14,7 +14,7 @@ import java.util.List;
  * 采购计划 Repository
  */
 
-public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, String>, JpaSpecificationExecutor<PurchaseOrder> {
+public interface PurchaseOrderRepository extends GenericRepository<PurchaseOrder, String>, JpaSpecificationExecutor<PurchaseOrder> {
 
     /**
      * 根据采购计划编号修改采购计划状态
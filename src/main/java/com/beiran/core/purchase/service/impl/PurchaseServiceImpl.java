@@ -2,9 +2,14 @@ package com.beiran.core.purchase.service.impl;
 
 import com.beiran.common.exception.EntityNotExistException;
 import com.beiran.common.exception.ParameterException;
+import com.beiran.common.repository.PageCount;
+import com.beiran.common.state.StateMachine;
+import com.beiran.common.state.StateMachineExecutor;
+import com.beiran.common.utils.BatchLoadUtils;
 import com.beiran.common.utils.DateTimeUtils;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.core.material.entity.Material;
+import com.beiran.core.material.repository.MaterialRepository;
 import com.beiran.core.material.service.MaterialService;
 import com.beiran.core.purchase.dto.PurchaseDetailDto;
 import com.beiran.core.purchase.dto.PurchaseDto;
@@ -21,22 +26,21 @@ import com.beiran.core.stock.vo.MaterialNumberVo;
 import com.beiran.core.system.dto.UserSmallDto;
 import com.beiran.core.system.entity.Dept;
 import com.beiran.core.system.entity.User;
-import com.beiran.security.utils.SecurityUtil;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
@@ -49,18 +53,37 @@ import java.util.stream.Collectors;
 @Service("purchaseService")
 public class PurchaseServiceImpl implements PurchaseService {
 
+    /**
+     * 采购计划状态机: 已创建 -> 已确认 -> 校验中 -> 已入库/交涉中，交涉中 -> 校验中，
+     * 已创建/已入库/交涉中 -> 已关闭
+     */
+    private static final StateMachine<PurchaseOrder.PurchaseOrderState> PURCHASE_STATE_MACHINE =
+            StateMachine.of(PurchaseOrder.class, "purchaseId", "purchaseState", "采购计划", PurchaseOrder.PurchaseOrderState.class)
+                    .allow(PurchaseOrder.PurchaseOrderState.CONFIRMED, PurchaseOrder.PurchaseOrderState.CREATED)
+                    .allow(PurchaseOrder.PurchaseOrderState.VERIFYING, PurchaseOrder.PurchaseOrderState.CONFIRMED, PurchaseOrder.PurchaseOrderState.DISCUSSING)
+                    .allow(PurchaseOrder.PurchaseOrderState.IMPORTED, PurchaseOrder.PurchaseOrderState.VERIFYING)
+                    .allow(PurchaseOrder.PurchaseOrderState.DISCUSSING, PurchaseOrder.PurchaseOrderState.VERIFYING)
+                    .allow(PurchaseOrder.PurchaseOrderState.CLOSED, PurchaseOrder.PurchaseOrderState.CREATED,
+                            PurchaseOrder.PurchaseOrderState.IMPORTED, PurchaseOrder.PurchaseOrderState.DISCUSSING);
+
     @Autowired
     private PurchaseOrderRepository purchaseOrderRepository;
 
     @Autowired
     private PurchaseOrderDetailRepository purchaseOrderDetailRepository;
 
+    @Autowired
+    private MaterialRepository materialRepository;
+
     @Autowired
     private MaterialService materialService;
 
     @Autowired
     private StockService stockService;
 
+    @Autowired
+    private StateMachineExecutor stateMachineExecutor;
+
     /* --------------------------------- 采购计划相关 -------------------------------------- */
 
     /**
@@ -94,7 +117,13 @@ public class PurchaseServiceImpl implements PurchaseService {
         List<PurchaseOrderDetail> purchaseOrderDetails = purchaseVo.getPurchaseOrderDetails().stream().map(purchaseDetailVo -> {
             // FIXME 如果一个采购计划详细项都没有，会抛异常
             PurchaseOrderDetail purchaseOrderDetail = new PurchaseOrderDetail();
-            BeanUtils.copyProperties(purchaseDetailVo, purchaseOrderDetail);
+            purchaseOrderDetail.setMaterialId(purchaseDetailVo.getMaterialId());
+            purchaseOrderDetail.setMaterialName(purchaseDetailVo.getMaterialName());
+            purchaseOrderDetail.setMaterialCategory(purchaseDetailVo.getMaterialCategory());
+            purchaseOrderDetail.setMaterialSpecification(purchaseDetailVo.getMaterialSpecification());
+            purchaseOrderDetail.setMaterialManufacturer(purchaseDetailVo.getMaterialManufacturer());
+            purchaseOrderDetail.setMaterialOrigin(purchaseDetailVo.getMaterialOrigin());
+            purchaseOrderDetail.setMaterialInPrice(purchaseDetailVo.getMaterialInPrice());
             purchaseOrderDetail.setBelongOrder(save);
             purchaseOrderDetail.setNewMaterial(purchaseDetailVo.getNewMaterial());
             purchaseOrderDetail.setPurchaseNumber(purchaseDetailVo.getNumber());
@@ -107,7 +136,15 @@ public class PurchaseServiceImpl implements PurchaseService {
         List<PurchaseDetailDto> purchaseDetailDtos = purchaseOrderDetails.stream().map(purchaseOrderDetail -> {
             PurchaseDetailDto purchaseDetailDto = new PurchaseDetailDto();
             PurchaseOrderDetail detail = purchaseOrderDetailRepository.save(purchaseOrderDetail);
-            BeanUtils.copyProperties(detail, purchaseDetailDto);
+            purchaseDetailDto.setPurchaseDetailId(detail.getPurchaseDetailId());
+            purchaseDetailDto.setNewMaterial(detail.getNewMaterial());
+            purchaseDetailDto.setMaterialId(detail.getMaterialId());
+            purchaseDetailDto.setMaterialName(detail.getMaterialName());
+            purchaseDetailDto.setMaterialCategory(detail.getMaterialCategory());
+            purchaseDetailDto.setMaterialSpecification(detail.getMaterialSpecification());
+            purchaseDetailDto.setMaterialManufacturer(detail.getMaterialManufacturer());
+            purchaseDetailDto.setMaterialOrigin(detail.getMaterialOrigin());
+            purchaseDetailDto.setMaterialInPrice(detail.getMaterialInPrice());
             purchaseDetailDto.setNumber(detail.getPurchaseNumber().toString());
             StockSmallDto stockSmallDto = new StockSmallDto();
             stockSmallDto.setStockId(detail.getPurchaseStock().getStockId());
@@ -116,7 +153,11 @@ public class PurchaseServiceImpl implements PurchaseService {
             return purchaseDetailDto;
         }).collect(Collectors.toList());
         // 复制 purchaseOrder 的属性到 purchaseDto 中，然后将其返回
-        BeanUtils.copyProperties(save, purchaseDto);
+        purchaseDto.setPurchaseId(save.getPurchaseId());
+        purchaseDto.setPurchaseSubject(save.getPurchaseSubject());
+        purchaseDto.setPurchaseCreateTime(save.getPurchaseCreateTime());
+        purchaseDto.setPurchaseState(save.getPurchaseState());
+        purchaseDto.setLastModifiedTime(save.getLastModifiedTime());
         purchaseDto.setPurchaseOrderDetails(purchaseDetailDtos);
         UserSmallDto applicant = new UserSmallDto();
         applicant.setUserId(save.getPurchaseApplicant().getUserId());
@@ -142,17 +183,11 @@ public class PurchaseServiceImpl implements PurchaseService {
         if (!StringUtils.hasText(purchaseId)) {
             throw new ParameterException("采购计划编号不能为空");
         }
-        // 不对当前状态进行判断，直接修改
-        // 同时需要修改上一次修改时间和操作者
-        PurchaseOrder purchaseOrder = findById(purchaseId);
-        purchaseOrder.setLastModifiedTime(new Date());
-        User user = new User();
-        user.setUserId(SecurityUtil.getUserId());
-        user.setUserName(SecurityUtil.getUserName());
-        purchaseOrder.setLastModifiedOperator(user);
-        purchaseOrder.setPurchaseState(purchaseOrderState);
-        PurchaseOrder update = update(purchaseOrder);
-        return !Objects.equals(update,null);
+        if (Objects.equals(purchaseOrderState, null)) {
+            throw new ParameterException("采购计划状态不能为空");
+        }
+        // 只有状态机允许的转换才会执行，同时修改上一次修改时间和操作者
+        return stateMachineExecutor.transit(PURCHASE_STATE_MACHINE, purchaseId, purchaseOrderState);
     }
 
     /**
@@ -168,11 +203,10 @@ public class PurchaseServiceImpl implements PurchaseService {
             throw new ParameterException("采购计划编号不能为空");
         }
         // 如果状态不是 CREATED 的采购计划，则无法修改为 CONFIRMED 状态
-        PurchaseOrder purchaseOrder = findById(purchaseId);
-        if (!Objects.equals(purchaseOrder.getPurchaseState(), PurchaseOrder.PurchaseOrderState.CREATED)) {
+        if (!updateState(purchaseId, PurchaseOrder.PurchaseOrderState.CONFIRMED)) {
             throw new ParameterException("无法被修改");
         }
-        return updateState(purchaseId, PurchaseOrder.PurchaseOrderState.CONFIRMED);
+        return true;
     }
 
     /**
@@ -188,11 +222,10 @@ public class PurchaseServiceImpl implements PurchaseService {
             throw new ParameterException("采购计划编号不能为空");
         }
         // 如果状态不是 CONFIRMED/DISCUSSING 的采购计划，则无法修改为 VERIFYING 状态
-        PurchaseOrder purchaseOrder = findById(purchaseId);
-        if (!Objects.equals(purchaseOrder.getPurchaseState(), PurchaseOrder.PurchaseOrderState.CONFIRMED) || !Objects.equals(purchaseOrder.getPurchaseState(), PurchaseOrder.PurchaseOrderState.DISCUSSING)) {
+        if (!updateState(purchaseId, PurchaseOrder.PurchaseOrderState.VERIFYING)) {
             throw new ParameterException("无法被修改");
         }
-        return updateState(purchaseId, PurchaseOrder.PurchaseOrderState.VERIFYING);
+        return true;
     }
 
     /**
@@ -208,28 +241,42 @@ public class PurchaseServiceImpl implements PurchaseService {
         if (!StringUtils.hasText(purchaseId)) {
             throw new ParameterException("采购计划编号不能为空");
         }
-        // 如果状态不是 VERIFYING 的采购计划，则无法修改为 IMPORTED 状态
-        PurchaseOrder purchaseOrder = findById(purchaseId);
-        if (!Objects.equals(purchaseOrder.getPurchaseState(), PurchaseOrder.PurchaseOrderState.VERIFYING)) {
+        // 如果状态不是 VERIFYING 的采购计划，则无法修改为 IMPORTED 状态；条件更新只有一次能成功，物料只入库一次
+        if (!updateState(purchaseId, PurchaseOrder.PurchaseOrderState.IMPORTED)) {
             throw new ParameterException("无法被修改");
         }
-        boolean result = updateState(purchaseId, PurchaseOrder.PurchaseOrderState.IMPORTED);
-        List<PurchaseOrderDetail> purchaseOrderDetails = purchaseOrderDetailRepository.findByBelongOrder_PurchaseId(purchaseId, PageRequest.of(0, 200));
-        purchaseOrderDetails.stream().forEach(purchaseOrderDetail -> {
-            // 若为新物料则添加，否则直接在原有库存中加数量
+        List<PurchaseOrderDetail> purchaseOrderDetails = purchaseOrderDetailRepository.findByBelongOrder_PurchaseId(purchaseId);
+        // 新物料先一次性批量插入，再将所有明细的数量按 (物料, 仓库) 合并后以一条语句入库，全部在同一事务中完成
+        List<Material> newMaterials = new ArrayList<>();
+        List<PurchaseOrderDetail> newMaterialDetails = new ArrayList<>();
+        List<MaterialNumberVo> materialNumberVos = new ArrayList<>();
+        for (PurchaseOrderDetail purchaseOrderDetail : purchaseOrderDetails) {
             if (purchaseOrderDetail.getNewMaterial()) {
                 Material material = new Material();
-                // FIXME BeanUtils 复制数据可能会出错
-                BeanUtils.copyProperties(purchaseOrderDetail, material);
-                Material save = materialService.save(material);
-                MaterialNumberVo materialNumberVo = new MaterialNumberVo(save.getMaterialId(), purchaseOrderDetail.getPurchaseStock().getStockId(), purchaseOrderDetail.getPurchaseNumber());
-                stockService.saveMaterialRecord(materialNumberVo);
+                material.setMaterialId(purchaseOrderDetail.getMaterialId());
+                material.setMaterialName(purchaseOrderDetail.getMaterialName());
+                material.setMaterialCategory(purchaseOrderDetail.getMaterialCategory());
+                material.setMaterialSpecification(purchaseOrderDetail.getMaterialSpecification());
+                material.setMaterialManufacturer(purchaseOrderDetail.getMaterialManufacturer());
+                material.setMaterialOrigin(purchaseOrderDetail.getMaterialOrigin());
+                material.setMaterialInPrice(purchaseOrderDetail.getMaterialInPrice());
+                newMaterials.add(material);
+                newMaterialDetails.add(purchaseOrderDetail);
             } else {
-                MaterialNumberVo materialNumberVo = new MaterialNumberVo(purchaseOrderDetail.getMaterialId(), purchaseOrderDetail.getPurchaseStock().getStockId(), purchaseOrderDetail.getPurchaseNumber());
-                stockService.saveMaterialRecord(materialNumberVo);
+                materialNumberVos.add(new MaterialNumberVo(purchaseOrderDetail.getMaterialId(), purchaseOrderDetail.getPurchaseStock().getStockId(), purchaseOrderDetail.getPurchaseNumber()));
+            }
+        }
+        if (!newMaterials.isEmpty()) {
+            List<Material> savedMaterials = materialService.saveAll(newMaterials);
+            // 库存以 JDBC 写入，不会触发 Hibernate 的自动刷新，需先将新物料写入数据库
+            materialRepository.flush();
+            for (int i = 0; i < savedMaterials.size(); i++) {
+                PurchaseOrderDetail purchaseOrderDetail = newMaterialDetails.get(i);
+                materialNumberVos.add(new MaterialNumberVo(savedMaterials.get(i).getMaterialId(), purchaseOrderDetail.getPurchaseStock().getStockId(), purchaseOrderDetail.getPurchaseNumber()));
             }
-        });
-        return result;
+        }
+        stockService.saveMaterialRecords(materialNumberVos);
+        return true;
     }
 
     /**
@@ -245,11 +292,10 @@ public class PurchaseServiceImpl implements PurchaseService {
             throw new ParameterException("采购计划编号不能为空");
         }
         // 如果状态不是 VERIFYING 的采购计划，则无法修改为 DISCUSSING 状态
-        PurchaseOrder purchaseOrder = findById(purchaseId);
-        if (!Objects.equals(purchaseOrder.getPurchaseState(), PurchaseOrder.PurchaseOrderState.VERIFYING)) {
+        if (!updateState(purchaseId, PurchaseOrder.PurchaseOrderState.DISCUSSING)) {
             throw new ParameterException("无法被修改");
         }
-        return updateState(purchaseId, PurchaseOrder.PurchaseOrderState.DISCUSSING);
+        return true;
     }
 
     /**
@@ -265,12 +311,10 @@ public class PurchaseServiceImpl implements PurchaseService {
             throw new ParameterException("采购计划编号不能为空");
         }
         // 如果状态不是 CREATED/IMPORTED/DISCUSSING 的采购计划，则无法修改为 CLOSED 状态
-        PurchaseOrder purchaseOrder = findById(purchaseId);
-        if (Objects.equals(purchaseOrder.getPurchaseState(), PurchaseOrder.PurchaseOrderState.CREATED) || Objects.equals(purchaseOrder.getPurchaseState(), PurchaseOrder.PurchaseOrderState.IMPORTED) || Objects.equals(purchaseOrder.getPurchaseState(), PurchaseOrder.PurchaseOrderState.DISCUSSING)) {
-            return updateState(purchaseId, PurchaseOrder.PurchaseOrderState.CLOSED);
-        } else {
+        if (!updateState(purchaseId, PurchaseOrder.PurchaseOrderState.CLOSED)) {
             throw new ParameterException("无法被修改");
         }
+        return true;
     }
 
     /**
@@ -289,10 +333,7 @@ public class PurchaseServiceImpl implements PurchaseService {
         if (purchaseOrders.isEmpty()) {
             throw new EntityNotExistException("用户暂无任何采购计划");
         }
-        List<PurchaseDto> purchaseDtos = purchaseOrders.stream().map(purchaseOrder -> {
-            PurchaseDto purchaseDto = transferPurchase(purchaseOrder);
-            return purchaseDto;
-        }).collect(Collectors.toList());
+        List<PurchaseDto> purchaseDtos = transferPurchases(purchaseOrders);
         return purchaseDtos;
     }
 
@@ -313,10 +354,7 @@ public class PurchaseServiceImpl implements PurchaseService {
             throw new ParameterException("采购计划状态不能为空");
         }
         List<PurchaseOrder> purchaseOrders = purchaseOrderRepository.findByPurchaseApplicant_UserNameAndPurchaseState(userName, purchaseState, pageable);
-        List<PurchaseDto> purchaseDtos =
-                purchaseOrders.stream()
-                        .map(this::transferPurchase)
-                        .collect(Collectors.toList());
+        List<PurchaseDto> purchaseDtos = transferPurchases(purchaseOrders);
         return purchaseDtos;
     }
 
@@ -334,10 +372,7 @@ public class PurchaseServiceImpl implements PurchaseService {
             throw new ParameterException("采购计划创建时间不能为空");
         }
         List<PurchaseOrder> purchaseOrders = purchaseOrderRepository.findByPurchaseCreateTimeBetween(leftTime, rightTime, pageable);
-        List<PurchaseDto> purchaseDtos =
-                purchaseOrders.stream()
-                        .map(this::transferPurchase)
-                        .collect(Collectors.toList());
+        List<PurchaseDto> purchaseDtos = transferPurchases(purchaseOrders);
         return purchaseDtos;
     }
 
@@ -354,10 +389,7 @@ public class PurchaseServiceImpl implements PurchaseService {
             throw new ParameterException("采购计划状态不能为空");
         }
         List<PurchaseOrder> purchaseOrders = purchaseOrderRepository.findByPurchaseState(purchaseState, pageable);
-        List<PurchaseDto> purchaseDtos =
-                purchaseOrders.stream()
-                        .map(this::transferPurchase)
-                        .collect(Collectors.toList());
+        List<PurchaseDto> purchaseDtos = transferPurchases(purchaseOrders);
         return purchaseDtos;
     }
 
@@ -375,10 +407,7 @@ public class PurchaseServiceImpl implements PurchaseService {
             throw new ParameterException("采购计划上一次修改时间不能为空");
         }
         List<PurchaseOrder> purchaseOrders = purchaseOrderRepository.findByLastModifiedTimeBetween(leftTime, rightTime, pageable);
-        List<PurchaseDto> purchaseDtos =
-                purchaseOrders.stream()
-                        .map(this::transferPurchase)
-                        .collect(Collectors.toList());
+        List<PurchaseDto> purchaseDtos = transferPurchases(purchaseOrders);
         return purchaseDtos;
     }
 
@@ -386,10 +415,7 @@ public class PurchaseServiceImpl implements PurchaseService {
     public List<PurchaseDto> getAllPurchases(Pageable pageable) {
         Page<PurchaseOrder> purchaseOrderPage = findAll(pageable);
         List<PurchaseOrder> purchaseOrders = purchaseOrderPage.getContent();
-        List<PurchaseDto> purchaseDtos =
-                purchaseOrders.stream()
-                        .map(this::transferPurchase)
-                        .collect(Collectors.toList());
+        List<PurchaseDto> purchaseDtos = transferPurchases(purchaseOrders);
         return purchaseDtos;
     }
 
@@ -502,6 +528,21 @@ public class PurchaseServiceImpl implements PurchaseService {
         return purchaseOrderRepository.save(entity);
     }
 
+    /**
+     * 批量保存操作
+     *
+     * @param entities 需要保存的实体
+     * @return 保存的实体
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<PurchaseOrder> saveAll(List<PurchaseOrder> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要保存的采购计划不能为空");
+        }
+        return purchaseOrderRepository.saveAll(entities);
+    }
+
     /**
      * 根据给定一批实体进行批量删除
      *
@@ -513,12 +554,23 @@ public class PurchaseServiceImpl implements PurchaseService {
         if (Objects.equals(entities, null) || entities.isEmpty()) {
             throw new ParameterException("需要删除的采购计划不能为空");
         }
+        deleteAllById(entities.stream().map(PurchaseOrder::getPurchaseId).collect(Collectors.toList()));
+    }
+
+    /**
+     * 根据给定一批 ID 进行批量删除
+     *
+     * @param ids 需要删除的实体 ID
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void deleteAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("需要删除的采购计划不能为空");
+        }
         // 需要同时删除采购计划详细项
-        List<String> purchaseIds = entities.stream().map(PurchaseOrder::getPurchaseId).collect(Collectors.toList());
-        purchaseIds.stream().forEach(purchaseId -> {
-            deletePurchaseDetail(purchaseId);
-        });
-        purchaseOrderRepository.deleteAll(entities);
+        purchaseOrderDetailRepository.deleteByPurchaseIdIn(ids);
+        purchaseOrderRepository.deleteAllByIdInBatch(ids);
     }
 
     /**
@@ -540,6 +592,25 @@ public class PurchaseServiceImpl implements PurchaseService {
         return purchaseOrderRepository.saveAndFlush(entity);
     }
 
+    /**
+     * 批量更新操作
+     *
+     * @param entities 需要更新的实体
+     * @return 更新后的实体
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<PurchaseOrder> updateAll(List<PurchaseOrder> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要修改的采购计划不能为空");
+        }
+        List<PurchaseOrder> updated = purchaseOrderRepository.updateAllInBatch(entities);
+        if (updated.size() < entities.size()) {
+            throw new EntityNotExistException("采购计划不存在");
+        }
+        return updated;
+    }
+
     /**
      * 根据给定 ID 查询一个实体
      *
@@ -554,6 +625,20 @@ public class PurchaseServiceImpl implements PurchaseService {
         return purchaseOrderRepository.findById(id).orElseThrow(() -> new EntityNotExistException("采购计划不存在"));
     }
 
+    /**
+     * 根据给定一批 ID 查询实体
+     *
+     * @param ids 需要查询的实体 ID
+     * @return 存在的实体
+     */
+    @Override
+    public List<PurchaseOrder> findAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("采购计划编号不能为空");
+        }
+        return purchaseOrderRepository.findAllByIdInBatch(ids);
+    }
+
     /**
      * 分页查询
      *
@@ -565,12 +650,21 @@ public class PurchaseServiceImpl implements PurchaseService {
         return purchaseOrderRepository.findAll(pageable);
     }
 
+    @Override
+    public Slice<PurchaseOrder> findAll(Pageable pageable, PageCount count) {
+        return purchaseOrderRepository.findAll(pageable, count);
+    }
+
     private PurchaseDto transferPurchase(PurchaseOrder purchaseOrder) {
         if (Objects.equals(purchaseOrder, null)) {
             throw new ParameterException("需要转换的采购计划数据异常");
         }
         PurchaseDto purchaseDto = new PurchaseDto();
-        BeanUtils.copyProperties(purchaseOrder, purchaseDto);
+        purchaseDto.setPurchaseId(purchaseOrder.getPurchaseId());
+        purchaseDto.setPurchaseSubject(purchaseOrder.getPurchaseSubject());
+        purchaseDto.setPurchaseCreateTime(purchaseOrder.getPurchaseCreateTime());
+        purchaseDto.setPurchaseState(purchaseOrder.getPurchaseState());
+        purchaseDto.setLastModifiedTime(purchaseOrder.getLastModifiedTime());
 
         UserSmallDto applicant = new UserSmallDto();
         applicant.setUserId(purchaseOrder.getPurchaseApplicant().getUserId());
@@ -580,27 +674,38 @@ public class PurchaseServiceImpl implements PurchaseService {
         operator.setUserId(purchaseOrder.getPurchaseApplicant().getUserId());
         operator.setUserName(purchaseOrder.getPurchaseApplicant().getUserName());
 
-        List<PurchaseDetailDto> purchaseDetailDtos = new ArrayList<>();
-        List<PurchaseOrderDetail> purchaseOrderDetails = purchaseOrderDetailRepository.findByBelongOrder_PurchaseId(purchaseOrder.getPurchaseId(), PageRequest.of(0, 200));
-        if (!purchaseOrderDetails.isEmpty()) {
-            purchaseDetailDtos = purchaseOrderDetails
-                    .stream()
-                    .map(purchaseOrderDetail -> transferDetail(purchaseOrderDetail))
-                    .collect(Collectors.toList());
-        }
-
         purchaseDto.setApplicant(applicant);
         purchaseDto.setOperator(operator);
-        purchaseDto.setPurchaseOrderDetails(purchaseDetailDtos);
+        purchaseDto.setPurchaseOrderDetails(new ArrayList<>());
         return purchaseDto;
     }
 
+    /**
+     * 转换一页采购计划，所有计划的详细以一条 IN 查询取出后按计划分组
+     */
+    private List<PurchaseDto> transferPurchases(List<PurchaseOrder> purchaseOrders) {
+        List<PurchaseDto> purchaseDtos = purchaseOrders.stream().map(this::transferPurchase).collect(Collectors.toList());
+        BatchLoadUtils.attachChildren(purchaseDtos, PurchaseDto::getPurchaseId,
+                purchaseOrderDetailRepository::findByBelongOrder_PurchaseIdIn,
+                purchaseOrderDetail -> purchaseOrderDetail.getBelongOrder().getPurchaseId(),
+                this::transferDetail, PurchaseDto::setPurchaseOrderDetails);
+        return purchaseDtos;
+    }
+
     private PurchaseDetailDto transferDetail(PurchaseOrderDetail purchaseOrderDetail) {
         if (Objects.equals(purchaseOrderDetail, null)) {
             throw new ParameterException("需要转换的采购计划子项数据异常");
         }
         PurchaseDetailDto purchaseDetailDto = new PurchaseDetailDto();
-        BeanUtils.copyProperties(purchaseOrderDetail, purchaseDetailDto);
+        purchaseDetailDto.setPurchaseDetailId(purchaseOrderDetail.getPurchaseDetailId());
+        purchaseDetailDto.setNewMaterial(purchaseOrderDetail.getNewMaterial());
+        purchaseDetailDto.setMaterialId(purchaseOrderDetail.getMaterialId());
+        purchaseDetailDto.setMaterialName(purchaseOrderDetail.getMaterialName());
+        purchaseDetailDto.setMaterialCategory(purchaseOrderDetail.getMaterialCategory());
+        purchaseDetailDto.setMaterialSpecification(purchaseOrderDetail.getMaterialSpecification());
+        purchaseDetailDto.setMaterialManufacturer(purchaseOrderDetail.getMaterialManufacturer());
+        purchaseDetailDto.setMaterialOrigin(purchaseOrderDetail.getMaterialOrigin());
+        purchaseDetailDto.setMaterialInPrice(purchaseOrderDetail.getMaterialInPrice());
         purchaseDetailDto.setNumber(purchaseOrderDetail.getPurchaseNumber().toString());
         StockSmallDto stock = new StockSmallDto();
         stock.setStockId(purchaseOrderDetail.getPurchaseStock().getStockId());
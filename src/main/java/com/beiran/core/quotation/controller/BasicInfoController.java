@@ -1,6 +1,7 @@
 package com.beiran.core.quotation.controller;
 
 import com.beiran.common.annotation.LogRecord;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.respone.ResponseModel;
 import com.beiran.common.utils.transfer.BasicInfoTransferUtils;
 import com.beiran.core.quotation.entity.BasicInfo;
@@ -30,7 +31,6 @@ import java.time.format.DateTimeFormatter;
 import java.util.Base64;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * 报价单的基本信息项相关接口<br>
@@ -160,12 +160,7 @@ public class BasicInfoController {
         if (Objects.equals(basicInfoIds, null) || basicInfoIds.isEmpty()) {
             return ResponseModel.error("需要删除的基本信息不能为空");
         }
-        List<BasicInfo> basicInfos = basicInfoIds.stream().map(basicInfoId -> {
-            BasicInfo basicInfo = new BasicInfo();
-            basicInfo.setBasicInfoId(basicInfoId);
-            return basicInfo;
-        }).collect(Collectors.toList());
-        basicInfoService.deleteAll(basicInfos);
+        basicInfoService.deleteAllById(basicInfoIds);
         return ResponseModel.ok("删除成功");
     }
 
@@ -181,8 +176,9 @@ public class BasicInfoController {
     @GetMapping
     @LogRecord("查询所有基本信息")
     @ApiOperation("查询所有基本信息")
-    public ResponseModel getBasicInfos(@PageableDefault(sort = "createTime", direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseModel.ok(basicInfoService.findAll(pageable));
+    public ResponseModel getBasicInfos(@PageableDefault(sort = "createTime", direction = Sort.Direction.DESC) Pageable pageable,
+                                       @RequestParam(value = "count", defaultValue = "EXACT") PageCount count) {
+        return ResponseModel.ok(basicInfoService.findAll(pageable, count));
     }
 
     // 根据搜索条件查询
@@ -1,11 +1,11 @@
 package com.beiran.core.quotation.controller;
 
 import com.beiran.common.annotation.LogRecord;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.respone.ResponseModel;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.common.utils.RateUtils;
 import com.beiran.common.utils.transfer.QuotationTransferUtils;
-import com.beiran.core.quotation.entity.Quotation;
 import com.beiran.core.quotation.service.QuotationService;
 import com.beiran.core.quotation.vo.QuotationVo;
 import io.swagger.annotations.Api;
@@ -24,7 +24,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * 报价单接口
@@ -82,12 +81,7 @@ public class QuotationController {
         if (Objects.equals(quotationIds, null) || quotationIds.isEmpty()) {
             return ResponseModel.error("需要删除的报价单不能为空");
         }
-        List<Quotation> quotations = quotationIds.stream().map(quotationId -> {
-            Quotation quotation = new Quotation();
-            quotation.setQuotationId(quotationId);
-            return quotation;
-        }).collect(Collectors.toList());
-        quotationService.deleteAll(quotations);
+        quotationService.deleteAllById(quotationIds);
         return ResponseModel.ok("删除成功");
     }
 
@@ -103,8 +97,9 @@ public class QuotationController {
     @GetMapping
     @LogRecord("查询所有报价单")
     @ApiOperation("查询所有报价单")
-    public ResponseModel getQuotations(@PageableDefault(sort = "generateDate", direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseModel.ok(quotationService.findAll(pageable));
+    public ResponseModel getQuotations(@PageableDefault(sort = "generateDate", direction = Sort.Direction.DESC) Pageable pageable,
+                                       @RequestParam(value = "count", defaultValue = "EXACT") PageCount count) {
+        return ResponseModel.ok(quotationService.findAll(pageable, count));
     }
 
     // 导出一个
@@ -1,6 +1,7 @@
 package com.beiran.core.quotation.controller;
 
 import com.beiran.common.annotation.LogRecord;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.respone.ResponseModel;
 import com.beiran.common.utils.transfer.SalesmanTransferUtils;
 import com.beiran.core.quotation.entity.Salesman;
@@ -51,12 +52,7 @@ public class SalesmanController {
         if (Objects.equals(salesmanIds, null) || salesmanIds.isEmpty()) {
             return ResponseModel.error("需要删除的业务员不能为空");
         }
-        List<Salesman> salesmanList = salesmanIds.stream().map(salesmanId -> {
-            Salesman salesman = new Salesman();
-            salesman.setSalesmanId(Long.valueOf(salesmanId));
-            return salesman;
-        }).collect(Collectors.toList());
-        salesmanService.deleteAll(salesmanList);
+        salesmanService.deleteAllById(salesmanIds.stream().map(Long::valueOf).collect(Collectors.toList()));
         return ResponseModel.ok("删除成功");
     }
 
@@ -70,7 +66,8 @@ public class SalesmanController {
     @GetMapping
     @LogRecord("查询所有业务员")
     @ApiOperation("查询所有业务员")
-    public ResponseModel getSalesmanList(@PageableDefault(sort = "salesmanCreateTime", direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseModel.ok(salesmanService.findAll(pageable));
+    public ResponseModel getSalesmanList(@PageableDefault(sort = "salesmanCreateTime", direction = Sort.Direction.DESC) Pageable pageable,
+                                         @RequestParam(value = "count", defaultValue = "EXACT") PageCount count) {
+        return ResponseModel.ok(salesmanService.findAll(pageable, count));
     }
 }
@@ -1,5 +1,6 @@
 package com.beiran.core.quotation.entity;
 
+import com.beiran.common.id.TimeOrderedIdGenerator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -26,8 +27,8 @@ public class BasicInfo {
     /**
      * 基本信息编号
      */
-    @GenericGenerator(name = "g_uuid", strategy = "uuid")
-    @GeneratedValue(generator = "g_uuid")
+    @GenericGenerator(name = "g_id", strategy = TimeOrderedIdGenerator.STRATEGY)
+    @GeneratedValue(generator = "g_id")
     @Id
     private String basicInfoId;
 
@@ -1,11 +1,23 @@
 package com.beiran.core.quotation.repository;
 
+import com.beiran.common.repository.GenericRepository;
 import com.beiran.core.quotation.entity.Quotation;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 报价单实体
  */
-public interface QuotationRepository extends JpaRepository<Quotation, String>, JpaSpecificationExecutor<Quotation> {
-}
\ No newline at end of file
+public interface QuotationRepository extends GenericRepository<Quotation, String>, JpaSpecificationExecutor<Quotation> {
+
+    /**
+     * 查询给定业务员中已被报价单引用的业务员编号
+     * @param salesmanIds 业务员编号
+     * @return 被引用的业务员编号
+     */
+    @Query("SELECT DISTINCT q.salesman.salesmanId FROM Quotation q WHERE q.salesman.salesmanId IN ?1")
+    List<Long> findReferencedSalesmanIds(Collection<Long> salesmanIds);
+}
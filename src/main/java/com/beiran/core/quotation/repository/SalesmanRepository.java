@@ -1,11 +1,11 @@
 package com.beiran.core.quotation.repository;
 
+import com.beiran.common.repository.GenericRepository;
 import com.beiran.core.quotation.entity.Salesman;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
 /**
  * 业务员 Repository
  */
-public interface SalesmanRepository extends JpaRepository<Salesman, Long>, JpaSpecificationExecutor<Salesman> {
+public interface SalesmanRepository extends GenericRepository<Salesman, Long>, JpaSpecificationExecutor<Salesman> {
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.beiran.core.quotation.service.impl;
 
 import com.beiran.common.exception.EntityNotExistException;
 import com.beiran.common.exception.ParameterException;
+import com.beiran.common.repository.PageCount;
 import com.beiran.core.quotation.entity.BasicInfo;
 import com.beiran.core.quotation.repository.BasicInfoRepository;
 import com.beiran.core.quotation.service.BasicInfoService;
@@ -10,15 +11,18 @@ import lombok.extern.java.Log;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import javax.persistence.criteria.Predicate;
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * BasicInfoService 实现类
@@ -39,13 +43,31 @@ public class BasicInfoServiceImpl implements BasicInfoService {
         return basicInfoRepository.save(entity);
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<BasicInfo> saveAll(List<BasicInfo> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要保存的基本信息不能为空");
+        }
+        return basicInfoRepository.saveAll(entities);
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void deleteAll(List<BasicInfo> entities) {
         if (Objects.equals(entities, null) || entities.isEmpty()) {
             throw new ParameterException("需要删除的基本信息不能为空");
         }
-        basicInfoRepository.deleteAll(entities);
+        deleteAllById(entities.stream().map(BasicInfo::getBasicInfoId).collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void deleteAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("需要删除的基本信息不能为空");
+        }
+        basicInfoRepository.deleteAllByIdInBatch(ids);
     }
 
     @Override
@@ -57,6 +79,19 @@ public class BasicInfoServiceImpl implements BasicInfoService {
         return basicInfoRepository.saveAndFlush(entity);
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<BasicInfo> updateAll(List<BasicInfo> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要修改的基本信息不能为空");
+        }
+        List<BasicInfo> updated = basicInfoRepository.updateAllInBatch(entities);
+        if (updated.size() < entities.size()) {
+            throw new EntityNotExistException("基本信息不存在");
+        }
+        return updated;
+    }
+
     @Override
     public BasicInfo findById(String id) {
         if (!StringUtils.hasText(id)) {
@@ -65,11 +100,24 @@ public class BasicInfoServiceImpl implements BasicInfoService {
         return basicInfoRepository.findById(id).orElseThrow(() -> new EntityNotExistException("基本信息不存在"));
     }
 
+    @Override
+    public List<BasicInfo> findAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("基本信息编号不能为空");
+        }
+        return basicInfoRepository.findAllByIdInBatch(ids);
+    }
+
     @Override
     public Page<BasicInfo> findAll(Pageable pageable) {
         return basicInfoRepository.findAll(pageable);
     }
 
+    @Override
+    public Slice<BasicInfo> findAll(Pageable pageable, PageCount count) {
+        return basicInfoRepository.findAll(pageable, count);
+    }
+
     @Override
     public Page<BasicInfo> findByCondition(Pageable pageable, BasicInfoSearchVo basicInfoSearchVo) {
         if (!Objects.equals(basicInfoSearchVo, null)) {
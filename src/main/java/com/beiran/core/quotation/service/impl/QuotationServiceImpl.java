@@ -2,6 +2,7 @@ package com.beiran.core.quotation.service.impl;
 
 import com.beiran.common.exception.EntityNotExistException;
 import com.beiran.common.exception.ParameterException;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.core.quotation.entity.Quotation;
 import com.beiran.core.quotation.repository.QuotationRepository;
@@ -9,13 +10,16 @@ import com.beiran.core.quotation.service.QuotationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.io.File;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * QuotationService 实现类
@@ -35,13 +39,31 @@ public class QuotationServiceImpl implements QuotationService {
         return quotationRepository.save(entity);
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<Quotation> saveAll(List<Quotation> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要保存的报价单不能为空");
+        }
+        return quotationRepository.saveAll(entities);
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void deleteAll(List<Quotation> entities) {
         if (Objects.equals(entities, null) || entities.isEmpty()) {
             throw new ParameterException("需要删除的报价单不能为空");
         }
-        quotationRepository.deleteAll(entities);
+        deleteAllById(entities.stream().map(Quotation::getQuotationId).collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void deleteAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("需要删除的报价单不能为空");
+        }
+        quotationRepository.deleteAllByIdInBatch(ids);
     }
 
     @Override
@@ -53,6 +75,19 @@ public class QuotationServiceImpl implements QuotationService {
         return quotationRepository.saveAndFlush(entity);
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<Quotation> updateAll(List<Quotation> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要修改的报价单不能为空");
+        }
+        List<Quotation> updated = quotationRepository.updateAllInBatch(entities);
+        if (updated.size() < entities.size()) {
+            throw new EntityNotExistException("报价单不存在");
+        }
+        return updated;
+    }
+
     @Override
     public Quotation findById(String id) {
         if (!StringUtils.hasText(id)) {
@@ -61,11 +96,24 @@ public class QuotationServiceImpl implements QuotationService {
         return quotationRepository.findById(id).orElseThrow(() -> new EntityNotExistException("报价单不存在"));
     }
 
+    @Override
+    public List<Quotation> findAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("报价单编号不能为空");
+        }
+        return quotationRepository.findAllByIdInBatch(ids);
+    }
+
     @Override
     public Page<Quotation> findAll(Pageable pageable) {
         return quotationRepository.findAll(pageable);
     }
 
+    @Override
+    public Slice<Quotation> findAll(Pageable pageable, PageCount count) {
+        return quotationRepository.findAll(pageable, count);
+    }
+
     @Override
     public File createQuotationFile(String quotationId) {
         Quotation quotation = findById(quotationId);
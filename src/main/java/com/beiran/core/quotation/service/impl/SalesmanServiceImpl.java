@@ -2,7 +2,7 @@ package com.beiran.core.quotation.service.impl;
 
 import com.beiran.common.exception.EntityNotExistException;
 import com.beiran.common.exception.ParameterException;
-import com.beiran.core.quotation.entity.Quotation;
+import com.beiran.common.repository.PageCount;
 import com.beiran.core.quotation.entity.Salesman;
 import com.beiran.core.quotation.repository.QuotationRepository;
 import com.beiran.core.quotation.repository.SalesmanRepository;
@@ -10,13 +10,16 @@ import com.beiran.core.quotation.service.SalesmanService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * SalesmanService 实现类
@@ -39,25 +42,37 @@ public class SalesmanServiceImpl implements SalesmanService {
         return salesmanRepository.save(entity);
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<Salesman> saveAll(List<Salesman> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要保存的业务员不能为空");
+        }
+        return salesmanRepository.saveAll(entities);
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void deleteAll(List<Salesman> entities) {
         if (Objects.equals(entities, null) || entities.isEmpty()) {
             throw new ParameterException("需要删除的业务员不能为空");
         }
-        List<Quotation> quotationList = quotationRepository.findAll();
-        // FIXME 可能会出问题
-        if (!CollectionUtils.isEmpty(quotationList)) {
-            quotationList.forEach(quotation -> {
-                Long salesmanId = quotation.getSalesman().getSalesmanId();
-                entities.forEach(e -> {
-                    if (salesmanId.compareTo(e.getSalesmanId()) == 0) {
-                        entities.remove(e);
-                    }
-                });
-            });
+        deleteAllById(entities.stream().map(Salesman::getSalesmanId).collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void deleteAllById(Collection<Long> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("需要删除的业务员不能为空");
+        }
+        // 已被报价单引用的业务员不删除
+        List<Long> salesmanIds = new ArrayList<>(ids);
+        salesmanIds.removeAll(quotationRepository.findReferencedSalesmanIds(ids));
+        if (salesmanIds.isEmpty()) {
+            return;
         }
-        salesmanRepository.deleteAll(entities);
+        salesmanRepository.deleteAllByIdInBatch(salesmanIds);
     }
 
     @Override
@@ -69,6 +84,19 @@ public class SalesmanServiceImpl implements SalesmanService {
         return salesmanRepository.saveAndFlush(entity);
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<Salesman> updateAll(List<Salesman> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要修改的业务员不能为空");
+        }
+        List<Salesman> updated = salesmanRepository.updateAllInBatch(entities);
+        if (updated.size() < entities.size()) {
+            throw new EntityNotExistException("业务员不存在");
+        }
+        return updated;
+    }
+
     @Override
     public Salesman findById(Long id) {
         if (Objects.equals(id, null) || !StringUtils.hasText(id.toString())) {
@@ -77,8 +105,21 @@ public class SalesmanServiceImpl implements SalesmanService {
         return salesmanRepository.findById(id).orElseThrow(() -> new EntityNotExistException("业务员不存在"));
     }
 
+    @Override
+    public List<Salesman> findAllById(Collection<Long> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("业务员编号不能为空");
+        }
+        return salesmanRepository.findAllByIdInBatch(ids);
+    }
+
     @Override
     public Page<Salesman> findAll(Pageable pageable) {
         return salesmanRepository.findAll(pageable);
     }
+
+    @Override
+    public Slice<Salesman> findAll(Pageable pageable, PageCount count) {
+        return salesmanRepository.findAll(pageable, count);
+    }
 }
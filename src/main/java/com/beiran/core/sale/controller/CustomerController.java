@@ -1,6 +1,7 @@
 package com.beiran.core.sale.controller;
 
 import com.beiran.common.annotation.LogRecord;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.respone.ResponseModel;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.core.sale.entity.Customer;
@@ -18,7 +19,6 @@ import java.io.File;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * 客户接口<br>
@@ -76,26 +76,23 @@ public class CustomerController {
         if (Objects.equals(customerIds, null) || customerIds.isEmpty()) {
             return ResponseModel.error("需要删除的客户不能为空");
         }
-        List<Customer> customers = customerIds.stream().map(customerId -> {
-            Customer customer = new Customer();
-            customer.setCustomerId(customerId);
-            return customer;
-        }).collect(Collectors.toList());
-        customerService.deleteAll(customers);
+        customerService.deleteAllById(customerIds);
         return ResponseModel.ok("删除成功");
     }
 
     /**
      * 分页查询客户
      * @param pageable
+     * @param count 总数的取得方式: EXACT（缺省）精确总数，NONE 不统计总数，ESTIMATE 近似总数
      * @return
      */
     @GetMapping
     @LogRecord("分页查询客户")
     @PreAuthorize("@erp.check('cust:view')")
     @ApiOperation("分页查询客户")
-    public ResponseModel getCustomers(@PageableDefault Pageable pageable) {
-        return ResponseModel.ok(customerService.findAll(pageable));
+    public ResponseModel getCustomers(@PageableDefault Pageable pageable,
+                                      @RequestParam(value = "count", defaultValue = "EXACT") PageCount count) {
+        return ResponseModel.ok(customerService.findAll(pageable, count));
     }
 
     /**
@@ -20,7 +20,6 @@ import java.io.File;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * 销售订单接口<br>
@@ -154,12 +153,7 @@ public class SaleController {
         if (Objects.equals(saleIds, null) || saleIds.isEmpty()) {
             return ResponseModel.error("需要删除的销售订单不能为空");
         }
-        List<SaleOrder> saleOrders = saleIds.stream().map(saleId -> {
-            SaleOrder saleOrder = new SaleOrder();
-            saleOrder.setSaleId(saleId);
-            return saleOrder;
-        }).collect(Collectors.toList());
-        saleService.deleteAll(saleOrders);
+        saleService.deleteAllById(saleIds);
         return ResponseModel.ok("删除成功");
     }
 
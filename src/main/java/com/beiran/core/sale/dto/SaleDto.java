@@ -4,11 +4,13 @@ import com.beiran.core.sale.entity.SaleOrder;
 import com.beiran.core.system.dto.UserSmallDto;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.util.Date;
 import java.util.List;
 
 @Data
+@NoArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
 public class SaleDto {
 
@@ -70,7 +72,37 @@ public class SaleDto {
 
     private String customerAddress;
 
+    private Double customerLatitude;
+
+    private Double customerLongitude;
+
     private String customerPhone;
 
     private String customerEmail;
+
+    /**
+     * 用于 JPQL 构造表达式，直接查询为 SaleDto；销售员与修改者为空时设置为空的 UserSmallDto
+     */
+    public SaleDto(String saleId, String saleSubject, String applicantId, String applicantName, Date saleCreateTime,
+                   SaleOrder.SalePayWay salePayWay, SaleOrder.SaleOrderState saleState, Date lastModifiedTime,
+                   String operatorId, String operatorName, Double totalAmount, String customerId, String customerName,
+                   String customerAddress, Double customerLatitude, Double customerLongitude, String customerPhone,
+                   String customerEmail) {
+        this.saleId = saleId;
+        this.saleSubject = saleSubject;
+        this.applicant = new UserSmallDto(applicantId, applicantName);
+        this.saleCreateTime = saleCreateTime;
+        this.salePayWay = salePayWay;
+        this.saleState = saleState;
+        this.lastModifiedTime = lastModifiedTime;
+        this.operator = new UserSmallDto(operatorId, operatorName);
+        this.totalAmount = totalAmount;
+        this.customerId = customerId;
+        this.customerName = customerName;
+        this.customerAddress = customerAddress;
+        this.customerLatitude = customerLatitude;
+        this.customerLongitude = customerLongitude;
+        this.customerPhone = customerPhone;
+        this.customerEmail = customerEmail;
+    }
 }
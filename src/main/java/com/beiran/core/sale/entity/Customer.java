@@ -1,5 +1,6 @@
 package com.beiran.core.sale.entity;
 
+import com.beiran.common.id.TimeOrderedIdGenerator;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
@@ -25,8 +26,8 @@ public class Customer {
     /**
      * 客户编号
      */
-    @GenericGenerator(name = "g_uuid", strategy = "uuid")
-    @GeneratedValue(generator = "g_uuid")
+    @GenericGenerator(name = "g_id", strategy = TimeOrderedIdGenerator.STRATEGY)
+    @GeneratedValue(generator = "g_id")
     @Id
     private String customerId;
 
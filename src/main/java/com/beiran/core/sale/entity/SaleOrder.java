@@ -1,5 +1,6 @@
 package com.beiran.core.sale.entity;
 
+import com.beiran.common.id.TimeOrderedIdGenerator;
 import com.beiran.core.system.entity.User;
 import lombok.Getter;
 import lombok.Setter;
@@ -23,8 +24,8 @@ public class SaleOrder {
     /**
      * 销售订单编号
      */
-    @GenericGenerator(name = "g_uuid", strategy = "uuid")
-    @GeneratedValue(generator = "g_uuid")
+    @GenericGenerator(name = "g_id", strategy = TimeOrderedIdGenerator.STRATEGY)
+    @GeneratedValue(generator = "g_id")
     @Id
     private String saleId;
 
@@ -84,6 +85,10 @@ public class SaleOrder {
 
     private String customerAddress;
 
+    private Double customerLatitude;
+
+    private Double customerLongitude;
+
     private String customerPhone;
 
     private String customerEmail;
@@ -1,5 +1,6 @@
 package com.beiran.core.sale.entity;
 
+import com.beiran.common.id.TimeOrderedIdGenerator;
 import com.beiran.core.product.entity.Product;
 import lombok.Getter;
 import lombok.Setter;
@@ -20,8 +21,8 @@ public class SaleOrderDetail {
     /**
      * 销售订单详细项编号
      */
-    @GenericGenerator(name = "g_uuid", strategy = "uuid")
-    @GeneratedValue(generator = "g_uuid")
+    @GenericGenerator(name = "g_id", strategy = TimeOrderedIdGenerator.STRATEGY)
+    @GeneratedValue(generator = "g_id")
     @Id
     private String saleDetailId;
 
@@ -1,8 +1,8 @@
 package com.beiran.core.sale.repository;
 
+import com.beiran.common.repository.GenericRepository;
 import com.beiran.core.sale.entity.Customer;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
 import java.util.Date;
@@ -11,7 +11,7 @@ import java.util.List;
 /**
  * 客户 Repository
  */
-public interface CustomerRepository extends JpaRepository<Customer, String>, JpaSpecificationExecutor<Customer> {
+public interface CustomerRepository extends GenericRepository<Customer, String>, JpaSpecificationExecutor<Customer> {
 
     /**
      * 根据客户名模糊查询
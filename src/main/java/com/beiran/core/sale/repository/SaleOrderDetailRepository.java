@@ -2,10 +2,13 @@ package com.beiran.core.sale.repository;
 
 import com.beiran.core.sale.entity.SaleOrderDetail;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -31,10 +34,33 @@ public interface SaleOrderDetailRepository extends JpaRepository<SaleOrderDetail
     @Query(value = "DELETE FROM erp_sale_order_detail WHERE sale_id = ?1", nativeQuery = true)
     void deleteBySaleId(String saleId);
 
+    /**
+     * 根据一批销售订单编号删除其下的所有详细项
+     * @param saleIds 销售订单编号
+     */
+    @Modifying
+    @Query(value = "DELETE FROM erp_sale_order_detail WHERE sale_id IN ?1", nativeQuery = true)
+    void deleteBySaleIdIn(Collection<String> saleIds);
+
     /**
      * 根据销售订单编号查询
      * @param saleId 销售订单编号
      * @return List<SaleOrderDetail>
      */
     List<SaleOrderDetail> findByBelongOrder_SaleId(String saleId, Pageable pageable);
+
+    /**
+     * 根据销售订单编号查询所有的销售订单子项
+     * @param saleId 销售订单编号
+     * @return List<SaleOrderDetail>
+     */
+    List<SaleOrderDetail> findByBelongOrder_SaleId(String saleId);
+
+    /**
+     * 根据一批销售订单编号查询所有的销售订单子项，所属订单与产品在同一条查询中取出
+     * @param saleIds 销售订单编号集合
+     * @return List<SaleOrderDetail>
+     */
+    @EntityGraph(attributePaths = {"belongOrder", "saleProduct"})
+    List<SaleOrderDetail> findByBelongOrder_SaleIdIn(Collection<String> saleIds);
 }
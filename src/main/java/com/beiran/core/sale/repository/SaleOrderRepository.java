@@ -1,8 +1,9 @@
 package com.beiran.core.sale.repository;
 
+import com.beiran.common.repository.GenericRepository;
+import com.beiran.core.sale.dto.SaleDto;
 import com.beiran.core.sale.entity.SaleOrder;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -14,7 +15,7 @@ import java.util.List;
  * 销售订单 Repository
  */
 
-public interface SaleOrderRepository extends JpaRepository<SaleOrder, String>, JpaSpecificationExecutor<SaleOrder> {
+public interface SaleOrderRepository extends GenericRepository<SaleOrder, String>, JpaSpecificationExecutor<SaleOrder> {
 
     /**
      * 根据销售订单编号修改销售订单状态
@@ -36,54 +37,76 @@ public interface SaleOrderRepository extends JpaRepository<SaleOrder, String>, J
     @Query(value = "UPDATE erp_sale_order SET sale_pay_way = ?2 WHERE sale_id = ?1", nativeQuery = true)
     int updatePayWay(String saleId, SaleOrder.SalePayWay salePayWay);
 
+    /**
+     * 直接查询为 SaleDto 的查询语句，销售员与修改者可能为空，使用左连接
+     */
+    String SALE_DTO_QUERY = "SELECT new com.beiran.core.sale.dto.SaleDto(s.saleId, s.saleSubject, u.userId, u.userName, " +
+            "s.saleCreateTime, s.salePayWay, s.saleState, s.lastModifiedTime, o.userId, o.userName, s.totalAmount, " +
+            "s.customerId, s.customerName, s.customerAddress, s.customerLatitude, s.customerLongitude, s.customerPhone, s.customerEmail) " +
+            "FROM SaleOrder s LEFT JOIN s.saleUser u LEFT JOIN s.lastModifiedOperator o";
+
     /**
      * 根据销售订单创建者的用户名查询
      * @param userName 用户名
      * @param pageable 分页参数
-     * @return List<SaleOrder>
+     * @return List<SaleDto>
      */
-    List<SaleOrder> findBySaleUser_UserName(String userName, Pageable pageable);
+    @Query(SALE_DTO_QUERY + " WHERE u.userName = ?1")
+    List<SaleDto> findDtosByUserName(String userName, Pageable pageable);
 
     /**
      * 根据销售订单创建者的用户名与销售订单状态查询
      * @param userName 用户名
      * @param saleState 销售订单状态
      * @param pageable 分页参数
-     * @return List<SaleOrder>
+     * @return List<SaleDto>
      */
-    List<SaleOrder> findBySaleUser_UserNameAndSaleState(String userName, SaleOrder.SaleOrderState saleState, Pageable pageable);
+    @Query(SALE_DTO_QUERY + " WHERE u.userName = ?1 AND s.saleState = ?2")
+    List<SaleDto> findDtosByUserNameAndState(String userName, SaleOrder.SaleOrderState saleState, Pageable pageable);
 
     /**
      * 根据销售订单主题模糊查询
      * @param saleSubject 销售订单主题
      * @param pageable 分页参数
-     * @return List<SaleOrder>
+     * @return List<SaleDto>
      */
-    List<SaleOrder> findBySaleSubjectContaining(String saleSubject, Pageable pageable);
+    @Query(SALE_DTO_QUERY + " WHERE s.saleSubject LIKE %?1%")
+    List<SaleDto> findDtosBySubject(String saleSubject, Pageable pageable);
 
     /**
      * 根据销售订单状态查询
      * @param saleState 销售订单状态
      * @param pageable 分页参数
-     * @return List<SaleOrder>
+     * @return List<SaleDto>
      */
-    List<SaleOrder> findBySaleState(SaleOrder.SaleOrderState saleState, Pageable pageable);
+    @Query(SALE_DTO_QUERY + " WHERE s.saleState = ?1")
+    List<SaleDto> findDtosByState(SaleOrder.SaleOrderState saleState, Pageable pageable);
 
     /**
      * 根据销售订单创建时间查询
      * @param leftTime 左区间
      * @param rightTime 右区间
      * @param pageable 分页参数
-     * @return List<SaleOrder>
+     * @return List<SaleDto>
      */
-    List<SaleOrder> findBySaleCreateTimeBetween(Date leftTime, Date rightTime, Pageable pageable);
+    @Query(SALE_DTO_QUERY + " WHERE s.saleCreateTime BETWEEN ?1 AND ?2")
+    List<SaleDto> findDtosByCreateTime(Date leftTime, Date rightTime, Pageable pageable);
 
     /**
      * 根据销售订单上一次修改时间查询
      * @param leftTime 左区间
      * @param rightTime 右区间
      * @param pageable 分页参数
-     * @return List<SaleOrder>
+     * @return List<SaleDto>
+     */
+    @Query(SALE_DTO_QUERY + " WHERE s.lastModifiedTime BETWEEN ?1 AND ?2")
+    List<SaleDto> findDtosByModifiedTime(Date leftTime, Date rightTime, Pageable pageable);
+
+    /**
+     * 分页查询销售订单
+     * @param pageable 分页参数
+     * @return List<SaleDto>
      */
-    List<SaleOrder> findByLastModifiedTimeBetween(Date leftTime, Date rightTime, Pageable pageable);
+    @Query(SALE_DTO_QUERY)
+    List<SaleDto> findAllDtos(Pageable pageable);
 }
@@ -2,6 +2,7 @@ package com.beiran.core.sale.service.impl;
 
 import com.beiran.common.exception.EntityNotExistException;
 import com.beiran.common.exception.ParameterException;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.utils.DateTimeUtils;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.core.sale.entity.Customer;
@@ -14,14 +15,18 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * CustomerService 接口实现类
@@ -122,6 +127,21 @@ public class CustomerServiceImpl implements CustomerService {
         return customerRepository.save(entity);
     }
 
+    /**
+     * 批量保存操作
+     *
+     * @param entities 需要保存的实体
+     * @return 保存的实体
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<Customer> saveAll(List<Customer> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要保存的客户不能为空");
+        }
+        return customerRepository.saveAll(entities);
+    }
+
     /**
      * 根据给定一批实体进行批量删除
      *
@@ -132,7 +152,21 @@ public class CustomerServiceImpl implements CustomerService {
         if (Objects.equals(entities, null) || entities.isEmpty()) {
             throw new ParameterException("需要删除的客户不能为空");
         }
-        customerRepository.deleteAll(entities);
+        deleteAllById(entities.stream().map(Customer::getCustomerId).collect(Collectors.toList()));
+    }
+
+    /**
+     * 根据给定一批 ID 进行批量删除
+     *
+     * @param ids 需要删除的实体 ID
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void deleteAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("需要删除的客户不能为空");
+        }
+        customerRepository.deleteAllByIdInBatch(ids);
     }
 
     /**
@@ -149,6 +183,25 @@ public class CustomerServiceImpl implements CustomerService {
         return customerRepository.saveAndFlush(entity);
     }
 
+    /**
+     * 批量更新操作
+     *
+     * @param entities 需要更新的实体
+     * @return 更新后的实体
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<Customer> updateAll(List<Customer> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要修改的客户不能为空");
+        }
+        List<Customer> updated = customerRepository.updateAllInBatch(entities);
+        if (updated.size() < entities.size()) {
+            throw new EntityNotExistException("客户不存在");
+        }
+        return updated;
+    }
+
     /**
      * 根据给定 ID 查询一个实体
      *
@@ -163,6 +216,20 @@ public class CustomerServiceImpl implements CustomerService {
         return customerRepository.findById(id).orElseThrow(() -> new EntityNotExistException("客户不存在"));
     }
 
+    /**
+     * 根据给定一批 ID 查询实体
+     *
+     * @param ids 需要查询的实体 ID
+     * @return 存在的实体
+     */
+    @Override
+    public List<Customer> findAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("客户编号不能为空");
+        }
+        return customerRepository.findAllByIdInBatch(ids);
+    }
+
     /**
      * 分页查询
      *
@@ -173,4 +240,9 @@ public class CustomerServiceImpl implements CustomerService {
     public Page<Customer> findAll(Pageable pageable) {
         return customerRepository.findAll(pageable);
     }
+
+    @Override
+    public Slice<Customer> findAll(Pageable pageable, PageCount count) {
+        return customerRepository.findAll(pageable, count);
+    }
 }
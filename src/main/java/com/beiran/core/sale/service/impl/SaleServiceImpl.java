@@ -2,6 +2,10 @@ package com.beiran.core.sale.service.impl;
 
 import com.beiran.common.exception.EntityNotExistException;
 import com.beiran.common.exception.ParameterException;
+import com.beiran.common.repository.PageCount;
+import com.beiran.common.state.StateMachine;
+import com.beiran.common.state.StateMachineExecutor;
+import com.beiran.common.utils.BatchLoadUtils;
 import com.beiran.common.utils.DateTimeUtils;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.core.sale.dto.SaleDetailDto;
@@ -13,7 +17,6 @@ import com.beiran.core.sale.repository.SaleOrderRepository;
 import com.beiran.core.sale.service.SaleService;
 import com.beiran.core.sale.vo.SaleDetailVo;
 import com.beiran.core.sale.vo.SaleVo;
-import com.beiran.core.stock.entity.Stock;
 import com.beiran.core.stock.service.StockService;
 import com.beiran.core.stock.vo.ProductNumberVo;
 import com.beiran.core.system.dto.UserSmallDto;
@@ -23,18 +26,20 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -45,6 +50,15 @@ import java.util.stream.Collectors;
 @Service("saleService")
 public class SaleServiceImpl implements SaleService {
 
+    /**
+     * 销售订单状态机: 已创建 -> 结算中/已取消，结算中 -> 已完成/已取消
+     */
+    static final StateMachine<SaleOrder.SaleOrderState> SALE_STATE_MACHINE =
+            StateMachine.of(SaleOrder.class, "saleId", "saleState", "销售订单", SaleOrder.SaleOrderState.class)
+                    .allow(SaleOrder.SaleOrderState.PAYING, SaleOrder.SaleOrderState.CREATED)
+                    .allow(SaleOrder.SaleOrderState.COMPLETED, SaleOrder.SaleOrderState.PAYING)
+                    .allow(SaleOrder.SaleOrderState.CANCELED, SaleOrder.SaleOrderState.CREATED, SaleOrder.SaleOrderState.PAYING);
+
     @Autowired
     private SaleOrderRepository saleOrderRepository;
 
@@ -54,10 +68,26 @@ public class SaleServiceImpl implements SaleService {
     @Autowired
     private StockService stockService;
 
+    @Autowired
+    private StateMachineExecutor stateMachineExecutor;
+
     private SaleDto transferSale(SaleOrder saleOrder) {
         SaleDto saleDto = new SaleDto();
         if (!Objects.equals(saleOrder, null)) {
-            BeanUtils.copyProperties(saleOrder, saleDto);
+            saleDto.setSaleId(saleOrder.getSaleId());
+            saleDto.setSaleSubject(saleOrder.getSaleSubject());
+            saleDto.setSaleCreateTime(saleOrder.getSaleCreateTime());
+            saleDto.setSalePayWay(saleOrder.getSalePayWay());
+            saleDto.setSaleState(saleOrder.getSaleState());
+            saleDto.setLastModifiedTime(saleOrder.getLastModifiedTime());
+            saleDto.setTotalAmount(saleOrder.getTotalAmount());
+            saleDto.setCustomerId(saleOrder.getCustomerId());
+            saleDto.setCustomerName(saleOrder.getCustomerName());
+            saleDto.setCustomerAddress(saleOrder.getCustomerAddress());
+            saleDto.setCustomerLatitude(saleOrder.getCustomerLatitude());
+            saleDto.setCustomerLongitude(saleOrder.getCustomerLongitude());
+            saleDto.setCustomerPhone(saleOrder.getCustomerPhone());
+            saleDto.setCustomerEmail(saleOrder.getCustomerEmail());
         }
         UserSmallDto applicant = new UserSmallDto();
         if (!Objects.equals(saleOrder.getSaleUser(), null)) {
@@ -78,15 +108,37 @@ public class SaleServiceImpl implements SaleService {
     private SaleDetailDto transferDetail(SaleOrderDetail saleOrderDetail) {
         SaleDetailDto saleDetailDto = new SaleDetailDto();
         if (!Objects.equals(saleOrderDetail, null)) {
-            BeanUtils.copyProperties(saleOrderDetail, saleDetailDto);
+            saleDetailDto.setSaleDetailId(saleOrderDetail.getSaleDetailId());
+            saleDetailDto.setSaleProduct(saleOrderDetail.getSaleProduct());
+            saleDetailDto.setSaleNumber(saleOrderDetail.getSaleNumber());
+            saleDetailDto.setSaleMoney(saleOrderDetail.getSaleMoney());
         }
         return saleDetailDto;
     }
 
+    /**
+     * 以一条 IN 查询取出一页销售订单的所有子项，并设置到对应的订单上
+     */
+    private void attachDetails(List<SaleDto> saleDtos) {
+        BatchLoadUtils.attachChildren(saleDtos, SaleDto::getSaleId,
+                saleOrderDetailRepository::findByBelongOrder_SaleIdIn,
+                saleOrderDetail -> saleOrderDetail.getBelongOrder().getSaleId(),
+                this::transferDetail, SaleDto::setSaleDetails);
+    }
+
     private SaleOrder transferVo(SaleVo saleVo) {
         SaleOrder saleOrder = new SaleOrder();
         if (!Objects.equals(saleVo, null)) {
-            BeanUtils.copyProperties(saleVo, saleOrder);
+            saleOrder.setSaleSubject(saleVo.getSaleSubject());
+            saleOrder.setSalePayWay(saleVo.getSalePayWay());
+            saleOrder.setSaleState(saleVo.getSaleState());
+            saleOrder.setTotalAmount(saleVo.getTotalAmount());
+            saleOrder.setCustomerName(saleVo.getCustomerName());
+            saleOrder.setCustomerAddress(saleVo.getCustomerAddress());
+            saleOrder.setCustomerLatitude(saleVo.getCustomerLatitude());
+            saleOrder.setCustomerLongitude(saleVo.getCustomerLongitude());
+            saleOrder.setCustomerPhone(saleVo.getCustomerPhone());
+            saleOrder.setCustomerEmail(saleVo.getCustomerEmail());
         }
         User applicant = new User();
         if (!Objects.equals(saleVo.getApplicant(), null)) {
@@ -100,7 +152,9 @@ public class SaleServiceImpl implements SaleService {
     private SaleOrderDetail transferDetailVo(SaleDetailVo saleDetailVo) {
         SaleOrderDetail saleOrderDetail = new SaleOrderDetail();
         if (!Objects.equals(saleDetailVo, null)) {
-            BeanUtils.copyProperties(saleDetailVo, saleOrderDetail);
+            saleOrderDetail.setSaleProduct(saleDetailVo.getSaleProduct());
+            saleOrderDetail.setSaleNumber(saleDetailVo.getSaleNumber());
+            saleOrderDetail.setSaleMoney(saleDetailVo.getSaleMoney());
         }
         return saleOrderDetail;
     }
@@ -121,6 +175,13 @@ public class SaleServiceImpl implements SaleService {
         if (Objects.equals(saleVo.getSaleDetails(), null) || saleVo.getSaleDetails().isEmpty()) {
             throw new ParameterException("需要保存的销售订单子项不能为空");
         }
+        // 创建前检查库存是否足够，库存在结算时才会预留
+        Map<String, Long> productNumbers = saleVo.getSaleDetails().stream()
+                .filter(saleDetail -> !Objects.equals(saleDetail.getSaleProduct(), null) && !Objects.equals(saleDetail.getSaleNumber(), null))
+                .collect(Collectors.groupingBy(saleDetail -> saleDetail.getSaleProduct().getProductId(), Collectors.summingLong(SaleDetailVo::getSaleNumber)));
+        if (!productNumbers.isEmpty()) {
+            stockService.checkProductStocks(productNumbers);
+        }
         // FIXME 获取当前用户可能会出错
         SaleOrder saleOrder = transferVo(saleVo);
         saleOrder.setLastModifiedTime(new Date());
@@ -152,19 +213,14 @@ public class SaleServiceImpl implements SaleService {
      */
     @Override
     public Boolean updateState(String saleId, SaleOrder.SaleOrderState saleState) {
-        // 修改状态的同时需要修改上一次修改时间与操作者
+        // 只有状态机允许的转换才会执行，修改状态的同时修改上一次修改时间与操作者
         if (!StringUtils.hasText(saleId)) {
             throw new ParameterException("销售订单编号不能为空");
         }
-        SaleOrder saleOrder = findById(saleId);
-        saleOrder.setLastModifiedTime(new Date());
-        User operator = new User();
-        operator.setUserId(SecurityUtil.getUserId());
-        operator.setUserName(SecurityUtil.getUserName());
-        saleOrder.setLastModifiedOperator(operator);
-        saleOrder.setSaleState(saleState);
-        SaleOrder update = update(saleOrder);
-        return !Objects.equals(update,null);
+        if (Objects.equals(saleState, null)) {
+            throw new ParameterException("销售订单状态不能为空");
+        }
+        return stateMachineExecutor.transit(SALE_STATE_MACHINE, saleId, saleState);
     }
 
     /* 创建 -> 取消/结算
@@ -178,12 +234,18 @@ public class SaleServiceImpl implements SaleService {
      * @return 是否修改成功
      */
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public Boolean paySale(String saleId) {
-        SaleOrder saleOrder = findById(saleId);
-        if (!Objects.equals(saleOrder.getSaleState(), SaleOrder.SaleOrderState.CREATED)) {
+        // 进入结算中时为订单预留库存，预留到期前其他订单无法占用这部分库存
+        if (!updateState(saleId, SaleOrder.SaleOrderState.PAYING)) {
             throw new ParameterException("无法被修改");
         }
-        return updateState(saleId, SaleOrder.SaleOrderState.PAYING);
+        Map<String, Long> productNumbers = getProductNumbers(saleId);
+        if (!productNumbers.isEmpty()) {
+            SaleOrder saleOrder = findById(saleId);
+            stockService.holdProductStocks(saleId, productNumbers, saleOrder.getCustomerLatitude(), saleOrder.getCustomerLongitude());
+        }
+        return true;
     }
 
     /**
@@ -193,40 +255,37 @@ public class SaleServiceImpl implements SaleService {
      * @return 是否修改成功
      */
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public Boolean completeSale(String saleId) {
         // 完成时需要扣除相应库存。由于实际的出货流程过于复杂，故在此简单进行此操作
-        // 实际出货时，应寻找与目标地址最近的仓库进行出货流程
-        SaleOrder saleOrder = findById(saleId);
-        if (!Objects.equals(saleOrder.getSaleState(), SaleOrder.SaleOrderState.PAYING)) {
+        // 若订单带有客户地址的经纬度，则优先从距离客户最近的仓库出货
+        // 状态由 PAYING 改为 COMPLETED 的条件更新只有一次能成功，并发完成同一订单时库存只扣减一次
+        if (!updateState(saleId, SaleOrder.SaleOrderState.COMPLETED)) {
             throw new ParameterException("无法被修改");
         }
-        boolean result = updateState(saleId, SaleOrder.SaleOrderState.COMPLETED);
-        List<SaleOrderDetail> saleOrderDetails = saleOrderDetailRepository.findByBelongOrder_SaleId(saleId, PageRequest.of(0, 200));
-        if (result) {
-            saleOrderDetails.forEach(saleOrderDetail -> {
-                // 订单中的数量
-                Long saleNumber = saleOrderDetail.getSaleNumber();
-                Page<Stock> stockPage = stockService.findAll(PageRequest.of(0, 200));
-                List<Stock> stocks = stockPage.getContent();
-                for (Stock stock : stocks) {
-                    ProductNumberVo productStockNumber = stockService.getProductStockNumber(saleOrderDetail.getSaleProduct().getProductId(), stock.getStockId());
-                    // 库存数量
-                    Long stockNumber = productStockNumber.getProductNumber();
-                    // 如果销售数量为 0 则说明已经出货完成了
-                    if (saleNumber > 0) {
-                        if (stockNumber >= 0) {
-                            if (stockNumber >= saleNumber) {
-                                stockService.updateProductNumber(saleOrderDetail.getSaleProduct().getProductId(), stock.getStockId(), Long.valueOf(stockNumber - saleNumber));
-                            } else {
-                                stockService.updateProductNumber(saleOrderDetail.getSaleProduct().getProductId(), stock.getStockId(), Long.valueOf(0));
-                                saleNumber -= stockNumber;
-                            }
-                        }
-                    }
-                }
-            });
-        }
-        return result;
+        // 优先扣减结算时预留的库存；预留已过期时重新计算出货仓库
+        List<ProductNumberVo> deductions = stockService.deductHeldProductStocks(saleId);
+        if (deductions.isEmpty()) {
+            Map<String, Long> productNumbers = getProductNumbers(saleId);
+            if (!productNumbers.isEmpty()) {
+                SaleOrder saleOrder = findById(saleId);
+                stockService.deductProductStocks(productNumbers, saleOrder.getCustomerLatitude(), saleOrder.getCustomerLongitude());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 汇总销售订单中各产品的数量，同一产品可能出现在多个子项中
+     *
+     * @param saleId 销售订单编号
+     * @return 产品编号与数量
+     */
+    private Map<String, Long> getProductNumbers(String saleId) {
+        List<SaleOrderDetail> saleOrderDetails = saleOrderDetailRepository.findByBelongOrder_SaleId(saleId);
+        return saleOrderDetails.stream()
+                .filter(saleOrderDetail -> !Objects.equals(saleOrderDetail.getSaleProduct(), null) && !Objects.equals(saleOrderDetail.getSaleNumber(), null))
+                .collect(Collectors.groupingBy(saleOrderDetail -> saleOrderDetail.getSaleProduct().getProductId(), Collectors.summingLong(SaleOrderDetail::getSaleNumber)));
     }
 
     /**
@@ -237,11 +296,15 @@ public class SaleServiceImpl implements SaleService {
      */
     @Override
     public Boolean cancelSale(String saleId) {
-        SaleOrder saleOrder = findById(saleId);
-        if (!Objects.equals(saleOrder.getSaleState(), SaleOrder.SaleOrderState.CREATED) || !Objects.equals(saleOrder.getSaleState(), SaleOrder.SaleOrderState.PAYING)) {
-            throw new ParameterException("无法被修改");
+        // 结算中的订单取消时需要释放预留，因此分别按原状态转换
+        if (stateMachineExecutor.transit(SALE_STATE_MACHINE, saleId, SaleOrder.SaleOrderState.PAYING, SaleOrder.SaleOrderState.CANCELED)) {
+            stockService.releaseProductHold(saleId);
+            return true;
+        }
+        if (stateMachineExecutor.transit(SALE_STATE_MACHINE, saleId, SaleOrder.SaleOrderState.CREATED, SaleOrder.SaleOrderState.CANCELED)) {
+            return true;
         }
-        return updateState(saleId, SaleOrder.SaleOrderState.CANCELED);
+        throw new ParameterException("无法被修改");
     }
 
     /**
@@ -279,16 +342,8 @@ public class SaleServiceImpl implements SaleService {
         if (!StringUtils.hasText(userName)) {
             throw new ParameterException("用户名不能为空");
         }
-        List<SaleOrder> saleOrders = saleOrderRepository.findBySaleUser_UserName(userName, pageable);
-        List<SaleDto> saleDtos =
-                saleOrders.stream()
-                        .map(this::transferSale)
-                        .collect(Collectors.toList());
-        saleDtos.forEach(saleDto -> {
-            List<SaleOrderDetail> saleOrderDetails = saleOrderDetailRepository.findByBelongOrder_SaleId(saleDto.getSaleId(), PageRequest.of(0, 200));
-            List<SaleDetailDto> saleDetailDtos = saleOrderDetails.stream().map(this::transferDetail).collect(Collectors.toList());
-            saleDto.setSaleDetails(saleDetailDtos);
-        });
+        List<SaleDto> saleDtos = saleOrderRepository.findDtosByUserName(userName, pageable);
+        attachDetails(saleDtos);
         return saleDtos;
     }
 
@@ -308,16 +363,8 @@ public class SaleServiceImpl implements SaleService {
         if (Objects.equals(saleState, null)) {
             throw new ParameterException("销售订单状态不能为空");
         }
-        List<SaleOrder> saleOrders = saleOrderRepository.findBySaleUser_UserNameAndSaleState(userName, saleState, pageable);
-        List<SaleDto> saleDtos =
-                saleOrders.stream()
-                        .map(this::transferSale)
-                        .collect(Collectors.toList());
-        saleDtos.forEach(saleDto -> {
-            List<SaleOrderDetail> saleOrderDetails = saleOrderDetailRepository.findByBelongOrder_SaleId(saleDto.getSaleId(), PageRequest.of(0, 200));
-            List<SaleDetailDto> saleDetailDtos = saleOrderDetails.stream().map(this::transferDetail).collect(Collectors.toList());
-            saleDto.setSaleDetails(saleDetailDtos);
-        });
+        List<SaleDto> saleDtos = saleOrderRepository.findDtosByUserNameAndState(userName, saleState, pageable);
+        attachDetails(saleDtos);
         return saleDtos;
     }
 
@@ -333,16 +380,8 @@ public class SaleServiceImpl implements SaleService {
         if (!StringUtils.hasText(saleSubject)) {
             throw new ParameterException("销售订单主题不能为空");
         }
-        List<SaleOrder> saleOrders = saleOrderRepository.findBySaleSubjectContaining(saleSubject, pageable);
-        List<SaleDto> saleDtos =
-                saleOrders.stream()
-                        .map(this::transferSale)
-                        .collect(Collectors.toList());
-        saleDtos.forEach(saleDto -> {
-            List<SaleOrderDetail> saleOrderDetails = saleOrderDetailRepository.findByBelongOrder_SaleId(saleDto.getSaleId(), PageRequest.of(0, 200));
-            List<SaleDetailDto> saleDetailDtos = saleOrderDetails.stream().map(this::transferDetail).collect(Collectors.toList());
-            saleDto.setSaleDetails(saleDetailDtos);
-        });
+        List<SaleDto> saleDtos = saleOrderRepository.findDtosBySubject(saleSubject, pageable);
+        attachDetails(saleDtos);
         return saleDtos;
     }
 
@@ -358,16 +397,8 @@ public class SaleServiceImpl implements SaleService {
         if (Objects.equals(saleState, null)) {
             throw new ParameterException("销售订单状态不能为空");
         }
-        List<SaleOrder> saleOrders = saleOrderRepository.findBySaleState(saleState, pageable);
-        List<SaleDto> saleDtos =
-                saleOrders.stream()
-                        .map(this::transferSale)
-                        .collect(Collectors.toList());
-        saleDtos.forEach(saleDto -> {
-            List<SaleOrderDetail> saleOrderDetails = saleOrderDetailRepository.findByBelongOrder_SaleId(saleDto.getSaleId(), PageRequest.of(0, 200));
-            List<SaleDetailDto> saleDetailDtos = saleOrderDetails.stream().map(this::transferDetail).collect(Collectors.toList());
-            saleDto.setSaleDetails(saleDetailDtos);
-        });
+        List<SaleDto> saleDtos = saleOrderRepository.findDtosByState(saleState, pageable);
+        attachDetails(saleDtos);
         return saleDtos;
     }
 
@@ -384,16 +415,8 @@ public class SaleServiceImpl implements SaleService {
         if (Objects.equals(leftTime, null) || Objects.equals(rightTime, null)) {
             throw new ParameterException("销售订单创建时间不能为空");
         }
-        List<SaleOrder> saleOrders = saleOrderRepository.findBySaleCreateTimeBetween(leftTime, rightTime, pageable);
-        List<SaleDto> saleDtos =
-                saleOrders.stream()
-                        .map(this::transferSale)
-                        .collect(Collectors.toList());
-        saleDtos.forEach(saleDto -> {
-            List<SaleOrderDetail> saleOrderDetails = saleOrderDetailRepository.findByBelongOrder_SaleId(saleDto.getSaleId(), PageRequest.of(0, 200));
-            List<SaleDetailDto> saleDetailDtos = saleOrderDetails.stream().map(this::transferDetail).collect(Collectors.toList());
-            saleDto.setSaleDetails(saleDetailDtos);
-        });
+        List<SaleDto> saleDtos = saleOrderRepository.findDtosByCreateTime(leftTime, rightTime, pageable);
+        attachDetails(saleDtos);
         return saleDtos;
     }
 
@@ -410,32 +433,15 @@ public class SaleServiceImpl implements SaleService {
         if (Objects.equals(leftTime, null) || Objects.equals(rightTime, null)) {
             throw new ParameterException("销售订单上一次修改时间不能为空");
         }
-        List<SaleOrder> saleOrders = saleOrderRepository.findByLastModifiedTimeBetween(leftTime, rightTime, pageable);
-        List<SaleDto> saleDtos =
-                saleOrders.stream()
-                        .map(this::transferSale)
-                        .collect(Collectors.toList());
-        saleDtos.forEach(saleDto -> {
-            List<SaleOrderDetail> saleOrderDetails = saleOrderDetailRepository.findByBelongOrder_SaleId(saleDto.getSaleId(), PageRequest.of(0, 200));
-            List<SaleDetailDto> saleDetailDtos = saleOrderDetails.stream().map(this::transferDetail).collect(Collectors.toList());
-            saleDto.setSaleDetails(saleDetailDtos);
-        });
+        List<SaleDto> saleDtos = saleOrderRepository.findDtosByModifiedTime(leftTime, rightTime, pageable);
+        attachDetails(saleDtos);
         return saleDtos;
     }
 
     @Override
     public List<SaleDto> getAllSales(Pageable pageable) {
-        Page<SaleOrder> saleOrderPage = findAll(pageable);
-        List<SaleOrder> saleOrders = saleOrderPage.getContent();
-        List<SaleDto> saleDtos =
-                saleOrders.stream()
-                        .map(this::transferSale)
-                        .collect(Collectors.toList());
-        saleDtos.forEach(saleDto -> {
-            List<SaleOrderDetail> saleOrderDetails = saleOrderDetailRepository.findByBelongOrder_SaleId(saleDto.getSaleId(), PageRequest.of(0, 200));
-            List<SaleDetailDto> saleDetailDtos = saleOrderDetails.stream().map(this::transferDetail).collect(Collectors.toList());
-            saleDto.setSaleDetails(saleDetailDtos);
-        });
+        List<SaleDto> saleDtos = saleOrderRepository.findAllDtos(pageable);
+        attachDetails(saleDtos);
         return saleDtos;
     }
 
@@ -572,6 +578,21 @@ public class SaleServiceImpl implements SaleService {
         return saleOrderRepository.save(entity);
     }
 
+    /**
+     * 批量保存操作
+     *
+     * @param entities 需要保存的实体
+     * @return 保存的实体
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<SaleOrder> saveAll(List<SaleOrder> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要保存的销售订单不能为空");
+        }
+        return saleOrderRepository.saveAll(entities);
+    }
+
     /**
      * 根据给定一批实体进行批量删除
      *
@@ -582,9 +603,23 @@ public class SaleServiceImpl implements SaleService {
         if (Objects.equals(entities, null) || entities.isEmpty()) {
             throw new ParameterException("需要删除的销售订单不能为空");
         }
+        deleteAllById(entities.stream().map(SaleOrder::getSaleId).collect(Collectors.toList()));
+    }
+
+    /**
+     * 根据给定一批 ID 进行批量删除
+     *
+     * @param ids 需要删除的实体 ID
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void deleteAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("需要删除的销售订单不能为空");
+        }
         // 需要同时删除销售订单子项
-        entities.stream().map(SaleOrder::getSaleId).forEach(saleId -> deleteSaleDetail(saleId));
-        saleOrderRepository.deleteAll(entities);
+        saleOrderDetailRepository.deleteBySaleIdIn(ids);
+        saleOrderRepository.deleteAllByIdInBatch(ids);
     }
 
     /**
@@ -601,6 +636,25 @@ public class SaleServiceImpl implements SaleService {
         return saleOrderRepository.saveAndFlush(entity);
     }
 
+    /**
+     * 批量更新操作
+     *
+     * @param entities 需要更新的实体
+     * @return 更新后的实体
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<SaleOrder> updateAll(List<SaleOrder> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要修改的销售订单不能为空");
+        }
+        List<SaleOrder> updated = saleOrderRepository.updateAllInBatch(entities);
+        if (updated.size() < entities.size()) {
+            throw new EntityNotExistException("销售订单不存在");
+        }
+        return updated;
+    }
+
     /**
      * 根据给定 ID 查询一个实体
      *
@@ -615,6 +669,20 @@ public class SaleServiceImpl implements SaleService {
         return saleOrderRepository.findById(id).orElseThrow(() -> new EntityNotExistException("销售订单不存在"));
     }
 
+    /**
+     * 根据给定一批 ID 查询实体
+     *
+     * @param ids 需要查询的实体 ID
+     * @return 存在的实体
+     */
+    @Override
+    public List<SaleOrder> findAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("销售订单编号不能为空");
+        }
+        return saleOrderRepository.findAllByIdInBatch(ids);
+    }
+
     /**
      * 分页查询
      *
@@ -626,6 +694,11 @@ public class SaleServiceImpl implements SaleService {
         return saleOrderRepository.findAll(pageable);
     }
 
+    @Override
+    public Slice<SaleOrder> findAll(Pageable pageable, PageCount count) {
+        return saleOrderRepository.findAll(pageable, count);
+    }
+
     /* ------------------------------ 销售订单详细项相关 ------------------------------- */
 
     /**
@@ -4,6 +4,8 @@ import com.beiran.core.sale.entity.SaleOrder;
 import com.beiran.core.system.dto.UserSmallDto;
 import lombok.Data;
 
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Digits;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
@@ -54,6 +56,20 @@ public class SaleVo {
     @NotBlank(message = "客户地址不能为空")
     private String customerAddress;
 
+    /**
+     * 客户地址的纬度，可选，由客户端根据客户地址解析后提供
+     */
+    @DecimalMin(value = "-90", message = "客户地址纬度错误")
+    @DecimalMax(value = "90", message = "客户地址纬度错误")
+    private Double customerLatitude;
+
+    /**
+     * 客户地址的经度，可选，由客户端根据客户地址解析后提供
+     */
+    @DecimalMin(value = "-180", message = "客户地址经度错误")
+    @DecimalMax(value = "180", message = "客户地址经度错误")
+    private Double customerLongitude;
+
     @NotBlank(message = "客户联系方式不能为空")
     private String customerPhone;
 
@@ -1,26 +1,36 @@
 package com.beiran.core.stock.controller;
 
 import com.beiran.common.annotation.LogRecord;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.respone.ResponseModel;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.core.stock.dto.StockDto;
 import com.beiran.core.stock.entity.MaterialStock;
 import com.beiran.core.stock.entity.ProductStock;
 import com.beiran.core.stock.entity.Stock;
+import com.beiran.core.stock.entity.StockMovement;
+import com.beiran.core.stock.service.StockAlertService;
+import com.beiran.core.stock.service.StockJournalService;
 import com.beiran.core.stock.service.StockService;
 import com.beiran.core.stock.vo.MaterialNumberVo;
 import com.beiran.core.stock.vo.ProductNumberVo;
+import com.beiran.core.stock.vo.StockNumberSearchVo;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -32,6 +42,7 @@ import java.util.stream.Collectors;
  * 仓库删除权限: stock:del<br>
  * 仓库查询权限: stock:view<br>
  * 仓库导出权限: stock:export<br>
+ * 库存导入权限: stock:add<br>
  *
  * 物料-仓库查询权限: stock:mater:view<br>
  * 产品-仓库查询权限: stock:prod:view<br>
@@ -46,6 +57,12 @@ public class StockController {
     @Autowired
     private StockService stockService;
 
+    @Autowired
+    private StockJournalService stockJournalService;
+
+    @Autowired
+    private StockAlertService stockAlertService;
+
     /* ------------------------------- 仓库相关 -------------------------------- */
 
     /**
@@ -102,26 +119,23 @@ public class StockController {
         if (Objects.equals(stockIds, null) || stockIds.isEmpty()) {
             return ResponseModel.error("需要删除的仓库不能为空");
         }
-        List<Stock> stocks = stockIds.stream().map(stockId -> {
-            Stock stock = new Stock();
-            stock.setStockId(stockId);
-            return stock;
-        }).collect(Collectors.toList());
-        stockService.deleteAll(stocks);
+        stockService.deleteAllById(stockIds);
         return ResponseModel.ok("删除成功");
     }
 
     /**
      * 查询所有仓库
      * @param pageable 分页参数
+     * @param count 总数的取得方式: EXACT（缺省）精确总数，NONE 不统计总数，ESTIMATE 近似总数
      * @return
      */
     @GetMapping
     @LogRecord("查询所有仓库")
     @PreAuthorize("@erp.check('stock:view')")
     @ApiOperation("查询所有仓库")
-    public ResponseModel getStocks(@PageableDefault Pageable pageable) {
-        return ResponseModel.ok(stockService.findAll(pageable));
+    public ResponseModel getStocks(@PageableDefault Pageable pageable,
+                                   @RequestParam(value = "count", defaultValue = "EXACT") PageCount count) {
+        return ResponseModel.ok(stockService.findAll(pageable, count));
     }
 
     /**
@@ -187,6 +201,53 @@ public class StockController {
         FileUtils.downloadFile(response, file, file.getName());
     }
 
+    /**
+     * 查询所有仓库的库存总量
+     * @return
+     */
+    @GetMapping("/totals")
+    @LogRecord("查询仓库库存总量")
+    @PreAuthorize("@erp.check('stock:view')")
+    @ApiOperation("查询仓库库存总量")
+    public ResponseModel getStockTotals() {
+        return ResponseModel.ok(stockService.getStockTotals());
+    }
+
+    /**
+     * 查询当前的低库存预警
+     * @return
+     */
+    @GetMapping("/alerts")
+    @LogRecord("查询低库存预警")
+    @PreAuthorize("@erp.check('stock:view')")
+    @ApiOperation("查询低库存预警")
+    public ResponseModel getLowStockAlerts() {
+        return ResponseModel.ok(stockAlertService.getLowStockAlerts());
+    }
+
+    /**
+     * 从 xlsx 或 csv 文件导入物料/产品库存<br>
+     * 第一行为表头，之后每行依次为: 类型（物料/产品）、物料或产品编号、仓库编号、数量
+     * @param file
+     * @param overwrite 为 true 时将数量设置为文件中的值（盘点），否则在原有数量上累加
+     * @return
+     */
+    @PostMapping("/import")
+    @LogRecord("导入库存")
+    @PreAuthorize("@erp.check('stock:add')")
+    @ApiOperation("导入库存")
+    public ResponseModel importStocks(@RequestPart("file") MultipartFile file,
+                                      @RequestParam(value = "overwrite", defaultValue = "false") Boolean overwrite) {
+        if (file.isEmpty()) {
+            return ResponseModel.error(400, "上传的文件为空", null, null);
+        }
+        try (InputStream inputStream = file.getInputStream()) {
+            return ResponseModel.ok(stockService.importStocks(inputStream, file.getOriginalFilename(), overwrite));
+        } catch (IOException e) {
+            return ResponseModel.error("无法读取上传的文件");
+        }
+    }
+
     /* ------------------------------- 物料-仓库相关 ---------------------------- */
 
     /**
@@ -287,6 +348,53 @@ public class StockController {
         return ResponseModel.ok(stockService.getMaterialStockNumber(materialId, stockId));
     }
 
+    /**
+     * 批量查询物料在仓库中的数量
+     * @param searchVo
+     * @return
+     */
+    @PostMapping("/mater/batch")
+    @LogRecord("批量查询物料在仓库中的数量")
+    @PreAuthorize("@erp.check('stock:mater:view')")
+    @ApiOperation("批量查询物料在仓库中的数量")
+    public ResponseModel getMaterialStockNumbers(@RequestBody @Valid StockNumberSearchVo searchVo) {
+        return ResponseModel.ok(stockService.getMaterialStockNumbers(searchVo.getItemIds(), searchVo.getStockIds()));
+    }
+
+    /**
+     * 查询特定仓库中某一时刻的物料数量
+     * @param materialId
+     * @param stockId
+     * @param time 时刻
+     * @return
+     */
+    @GetMapping("/mater/history")
+    @LogRecord("查询特定仓库中某一时刻的物料数量")
+    @PreAuthorize("@erp.check('stock:mater:view')")
+    @ApiOperation("查询特定仓库中某一时刻的物料数量")
+    public ResponseModel getMaterialStockNumberAt(@RequestParam("materialId") String materialId,
+                                         @RequestParam("stockId") String stockId,
+                                         @RequestParam("time") @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") Date time) {
+        return ResponseModel.ok(stockJournalService.getStockNumberAt(StockMovement.StockItemType.MATERIAL, materialId, stockId, time));
+    }
+
+    /**
+     * 查询特定仓库中物料的库存流水
+     * @param materialId
+     * @param stockId
+     * @param pageable
+     * @return
+     */
+    @GetMapping("/mater/movements")
+    @LogRecord("查询特定仓库中物料的库存流水")
+    @PreAuthorize("@erp.check('stock:mater:view')")
+    @ApiOperation("查询特定仓库中物料的库存流水")
+    public ResponseModel getMaterialMovements(@RequestParam("materialId") String materialId,
+                                         @RequestParam("stockId") String stockId,
+                                         @PageableDefault Pageable pageable) {
+        return ResponseModel.ok(stockJournalService.getMovements(StockMovement.StockItemType.MATERIAL, materialId, stockId, pageable));
+    }
+
     /* ------------------------------- 产品-仓库相关 ---------------------------- */
 
     /**
@@ -381,4 +489,51 @@ public class StockController {
                                                @RequestParam("stockId") String stockId) {
         return ResponseModel.ok(stockService.getProductStockNumber(productId, stockId));
     }
+
+    /**
+     * 批量查询产品在仓库中的数量
+     * @param searchVo
+     * @return
+     */
+    @PostMapping("/prod/batch")
+    @LogRecord("批量查询产品在仓库中的数量")
+    @PreAuthorize("@erp.check('stock:prod:view')")
+    @ApiOperation("批量查询产品在仓库中的数量")
+    public ResponseModel getProductStockNumbers(@RequestBody @Valid StockNumberSearchVo searchVo) {
+        return ResponseModel.ok(stockService.getProductStockNumbers(searchVo.getItemIds(), searchVo.getStockIds()));
+    }
+
+    /**
+     * 查询特定仓库中某一时刻的产品数量
+     * @param productId
+     * @param stockId
+     * @param time 时刻
+     * @return
+     */
+    @GetMapping("/prod/history")
+    @LogRecord("查询特定仓库中某一时刻的产品数量")
+    @PreAuthorize("@erp.check('stock:prod:view')")
+    @ApiOperation("查询特定仓库中某一时刻的产品数量")
+    public ResponseModel getProductStockNumberAt(@RequestParam("productId") String productId,
+                                         @RequestParam("stockId") String stockId,
+                                         @RequestParam("time") @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") Date time) {
+        return ResponseModel.ok(stockJournalService.getStockNumberAt(StockMovement.StockItemType.PRODUCT, productId, stockId, time));
+    }
+
+    /**
+     * 查询特定仓库中产品的库存流水
+     * @param productId
+     * @param stockId
+     * @param pageable
+     * @return
+     */
+    @GetMapping("/prod/movements")
+    @LogRecord("查询特定仓库中产品的库存流水")
+    @PreAuthorize("@erp.check('stock:prod:view')")
+    @ApiOperation("查询特定仓库中产品的库存流水")
+    public ResponseModel getProductMovements(@RequestParam("productId") String productId,
+                                         @RequestParam("stockId") String stockId,
+                                         @PageableDefault Pageable pageable) {
+        return ResponseModel.ok(stockJournalService.getMovements(StockMovement.StockItemType.PRODUCT, productId, stockId, pageable));
+    }
 }
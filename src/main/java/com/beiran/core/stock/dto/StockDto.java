@@ -2,11 +2,15 @@ package com.beiran.core.stock.dto;
 
 import com.beiran.core.system.dto.UserSmallDto;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 
 @Data
+@NoArgsConstructor
 public class StockDto {
 
     /**
@@ -31,4 +35,31 @@ public class StockDto {
      */
     @NotNull(message = "仓库管理员不能为空")
     private UserSmallDto manager;
+
+    /**
+     * 仓库纬度，可选，用于按距离选择出货仓库
+     */
+    @DecimalMin(value = "-90", message = "仓库纬度错误")
+    @DecimalMax(value = "90", message = "仓库纬度错误")
+    private Double stockLatitude;
+
+    /**
+     * 仓库经度，可选，用于按距离选择出货仓库
+     */
+    @DecimalMin(value = "-180", message = "仓库经度错误")
+    @DecimalMax(value = "180", message = "仓库经度错误")
+    private Double stockLongitude;
+
+    /**
+     * 用于 JPQL 构造表达式，直接查询为 StockDto
+     */
+    public StockDto(String stockId, String stockName, String stockPosition, String managerId, String managerName,
+                    Double stockLatitude, Double stockLongitude) {
+        this.stockId = stockId;
+        this.stockName = stockName;
+        this.stockPosition = stockPosition;
+        this.manager = new UserSmallDto(managerId, managerName);
+        this.stockLatitude = stockLatitude;
+        this.stockLongitude = stockLongitude;
+    }
 }
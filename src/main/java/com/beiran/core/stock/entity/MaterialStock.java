@@ -1,5 +1,6 @@
 package com.beiran.core.stock.entity;
 
+import com.beiran.common.id.TimeOrderedIdGenerator;
 import com.beiran.core.material.entity.Material;
 import lombok.Getter;
 import lombok.Setter;
@@ -17,15 +18,15 @@ import java.util.Objects;
 
 @Getter
 @Setter
-@Table(name = "erp_material_stock")
+@Table(name = "erp_material_stock", uniqueConstraints = @UniqueConstraint(columnNames = {"materialId", "stockId"}))
 @Entity
 public class MaterialStock {
 
     /**
      * 物料-仓库中间表编号
      */
-    @GenericGenerator(name = "g_uuid", strategy = "uuid")
-    @GeneratedValue(generator = "g_uuid")
+    @GenericGenerator(name = "g_id", strategy = TimeOrderedIdGenerator.STRATEGY)
+    @GeneratedValue(generator = "g_id")
     @Id
     private String materStockId;
 
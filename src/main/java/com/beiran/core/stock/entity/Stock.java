@@ -1,11 +1,16 @@
 package com.beiran.core.stock.entity;
 
+import com.beiran.common.id.TimeOrderedIdGenerator;
 import com.beiran.core.system.entity.User;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
 
 import javax.persistence.*;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import java.util.Objects;
@@ -16,6 +21,8 @@ import java.util.Objects;
 
 @Getter
 @Setter
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 @Table(name = "erp_stock")
 @Entity
 public class Stock {
@@ -23,8 +30,8 @@ public class Stock {
     /**
      * 仓库编号
      */
-    @GenericGenerator(name = "g_uuid", strategy = "uuid")
-    @GeneratedValue(generator = "g_uuid")
+    @GenericGenerator(name = "g_id", strategy = TimeOrderedIdGenerator.STRATEGY)
+    @GeneratedValue(generator = "g_id")
     @Id
     private String stockId;
 
@@ -50,6 +57,20 @@ public class Stock {
     @NotNull(message = "仓库管理员不能为空")
     private User stockManager;
 
+    /**
+     * 仓库纬度，可选，用于按距离选择出货仓库
+     */
+    @DecimalMin(value = "-90", message = "仓库纬度错误")
+    @DecimalMax(value = "90", message = "仓库纬度错误")
+    private Double stockLatitude;
+
+    /**
+     * 仓库经度，可选，用于按距离选择出货仓库
+     */
+    @DecimalMin(value = "-180", message = "仓库经度错误")
+    @DecimalMax(value = "180", message = "仓库经度错误")
+    private Double stockLongitude;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -0,0 +1,123 @@
+package com.beiran.core.stock.entity;
+
+import com.beiran.common.id.TimeOrderedIdGenerator;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+
+import javax.persistence.*;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * 库存流水（只追加，不修改）<br>
+ * 每次物料/产品库存变化都记录一条，movementNumber 为变化量，入库为正，出库为负
+ */
+
+@Getter
+@Setter
+@Table(name = "erp_stock_movement", indexes = {
+        @Index(columnList = "itemType, itemId, stockId, movementTime"),
+        @Index(columnList = "movementTime")
+})
+@Entity
+public class StockMovement {
+
+    /**
+     * 流水编号
+     */
+    @GenericGenerator(name = "g_id", strategy = TimeOrderedIdGenerator.STRATEGY)
+    @GeneratedValue(generator = "g_id")
+    @Id
+    private String movementId;
+
+    /**
+     * 库存类型（物料或产品）
+     */
+    @Enumerated(EnumType.STRING)
+    private StockItemType itemType;
+
+    /**
+     * 物料编号或产品编号，不关联实体，物料/产品被删除后流水依旧保留
+     */
+    private String itemId;
+
+    /**
+     * 仓库编号
+     */
+    private String stockId;
+
+    /**
+     * 变化数量，入库为正，出库为负
+     */
+    private Long movementNumber;
+
+    /**
+     * 流水类型
+     */
+    @Enumerated(EnumType.STRING)
+    private MovementType movementType;
+
+    /**
+     * 发生时间
+     */
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date movementTime;
+
+    /**
+     * 库存类型枚举类
+     */
+    public enum StockItemType {
+        MATERIAL("物料"),
+
+        PRODUCT("产品");
+
+        private String value;
+
+        private StockItemType(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return this.value;
+        }
+    }
+
+    /**
+     * 流水类型枚举类
+     */
+    public enum MovementType {
+        IN("入库"),
+
+        OUT("出库"),
+
+        ADJUST("调整");
+
+        private String value;
+
+        private MovementType(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return this.value;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        StockMovement that = (StockMovement) o;
+        return Objects.equals(movementId, that.movementId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(movementId);
+    }
+}
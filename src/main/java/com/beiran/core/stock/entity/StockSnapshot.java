@@ -0,0 +1,77 @@
+package com.beiran.core.stock.entity;
+
+import com.beiran.common.id.TimeOrderedIdGenerator;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+
+import javax.persistence.*;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * 库存快照<br>
+ * 同一次快照的所有记录 snapshotTime 相同，某一时刻的库存 = 此前最近一次快照 + 之后的流水
+ */
+
+@Getter
+@Setter
+@Table(name = "erp_stock_snapshot", indexes = {
+        @Index(columnList = "snapshotTime"),
+        @Index(columnList = "itemType, itemId, stockId, snapshotTime")
+})
+@Entity
+public class StockSnapshot {
+
+    /**
+     * 快照编号
+     */
+    @GenericGenerator(name = "g_id", strategy = TimeOrderedIdGenerator.STRATEGY)
+    @GeneratedValue(generator = "g_id")
+    @Id
+    private String snapshotId;
+
+    /**
+     * 库存类型（物料或产品）
+     */
+    @Enumerated(EnumType.STRING)
+    private StockMovement.StockItemType itemType;
+
+    /**
+     * 物料编号或产品编号
+     */
+    private String itemId;
+
+    /**
+     * 仓库编号
+     */
+    private String stockId;
+
+    /**
+     * 快照时的库存数量
+     */
+    private Long snapshotNumber;
+
+    /**
+     * 快照时间
+     */
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date snapshotTime;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        StockSnapshot that = (StockSnapshot) o;
+        return Objects.equals(snapshotId, that.snapshotId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(snapshotId);
+    }
+}
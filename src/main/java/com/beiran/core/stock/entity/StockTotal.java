@@ -0,0 +1,54 @@
+package com.beiran.core.stock.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.util.Objects;
+
+/**
+ * 仓库库存总量<br>
+ * 每个仓库一条记录，在每次库存变化的同一事务中累加，无需再对物料-仓库、产品-仓库表做分组统计
+ */
+
+@Getter
+@Setter
+@Table(name = "erp_stock_total")
+@Entity
+public class StockTotal {
+
+    /**
+     * 仓库编号
+     */
+    @Id
+    private String stockId;
+
+    /**
+     * 仓库存放的物料总数
+     */
+    private Long materialNumber;
+
+    /**
+     * 仓库存放的产品总数
+     */
+    private Long productNumber;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        StockTotal that = (StockTotal) o;
+        return Objects.equals(stockId, that.stockId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(stockId);
+    }
+}
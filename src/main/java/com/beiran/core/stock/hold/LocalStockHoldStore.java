@@ -0,0 +1,108 @@
+package com.beiran.core.stock.hold;
+
+import com.beiran.core.stock.vo.ProductNumberVo;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * 基于当前 JVM 的库存预留存储，未使用 Redis（stock.hold.store=local）时启用<br>
+ * 预留只在当前实例内可见，重启后丢失；所有操作都只涉及内存，耗时极短，直接使用对象锁
+ */
+
+@Component
+@ConditionalOnProperty(name = "stock.hold.store", havingValue = "local")
+public class LocalStockHoldStore implements StockHoldStore {
+
+    /**
+     * (产品, 仓库) -> 预留总量
+     */
+    private final Map<String, Long> totals = new HashMap<>();
+
+    /**
+     * 预留编号 -> 预留
+     */
+    private final Map<String, Hold> holds = new HashMap<>();
+
+    @Override
+    public synchronized boolean hold(String holdId, List<ProductNumberVo> items, Map<String, Long> onHandNumbers, long expireAt) {
+        if (holds.containsKey(holdId)) {
+            return true;
+        }
+        for (ProductNumberVo item : items) {
+            String key = StockHoldStore.key(item.getProductId(), item.getStockId());
+            if (totals.getOrDefault(key, 0L) + item.getProductNumber() > onHandNumbers.getOrDefault(key, 0L)) {
+                return false;
+            }
+        }
+        for (ProductNumberVo item : items) {
+            totals.merge(StockHoldStore.key(item.getProductId(), item.getStockId()), item.getProductNumber(), Long::sum);
+        }
+        holds.put(holdId, new Hold(new ArrayList<>(items), expireAt));
+        return true;
+    }
+
+    @Override
+    public synchronized List<ProductNumberVo> get(String holdId) {
+        Hold hold = holds.get(holdId);
+        return Objects.equals(hold, null) ? new ArrayList<>() : new ArrayList<>(hold.items);
+    }
+
+    @Override
+    public synchronized List<ProductNumberVo> release(String holdId) {
+        Hold hold = holds.remove(holdId);
+        if (Objects.equals(hold, null)) {
+            return new ArrayList<>();
+        }
+        for (ProductNumberVo item : hold.items) {
+            String key = StockHoldStore.key(item.getProductId(), item.getStockId());
+            long left = totals.getOrDefault(key, 0L) - item.getProductNumber();
+            if (left > 0) {
+                totals.put(key, left);
+            } else {
+                totals.remove(key);
+            }
+        }
+        return hold.items;
+    }
+
+    @Override
+    public synchronized Map<String, Long> getHeldNumbers(Collection<String> keys) {
+        Map<String, Long> heldNumbers = new HashMap<>();
+        for (String key : keys) {
+            Long held = totals.get(key);
+            if (!Objects.equals(held, null)) {
+                heldNumbers.put(key, held);
+            }
+        }
+        return heldNumbers;
+    }
+
+    @Override
+    public synchronized List<String> findExpiredHoldIds(long now, int limit) {
+        return holds.entrySet().stream()
+                .filter(entry -> entry.getValue().expireAt <= now)
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    private static final class Hold {
+
+        private final List<ProductNumberVo> items;
+
+        private final long expireAt;
+
+        private Hold(List<ProductNumberVo> items, long expireAt) {
+            this.items = items;
+            this.expireAt = expireAt;
+        }
+    }
+}
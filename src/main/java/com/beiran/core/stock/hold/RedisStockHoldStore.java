@@ -0,0 +1,141 @@
+package com.beiran.core.stock.hold;
+
+import com.beiran.common.utils.RedisUtils;
+import com.beiran.core.stock.vo.ProductNumberVo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 基于 Redis 的库存预留存储<br>
+ * {stock:hold}:total     Hash，(产品, 仓库) -> 预留总量<br>
+ * {stock:hold}:items:id  Hash，某个预留的 (产品, 仓库) -> 数量<br>
+ * {stock:hold}:expiry    ZSet，预留编号 -> 到期时间<br>
+ * 放置与释放均由 Lua 脚本完成，检查与修改在 Redis 中是原子的；键使用同一 hash tag，集群模式下位于同一个槽
+ */
+
+@Component
+@ConditionalOnProperty(name = "stock.hold.store", havingValue = "redis", matchIfMissing = true)
+public class RedisStockHoldStore implements StockHoldStore {
+
+    private static final String TOTAL_KEY = "{stock:hold}:total";
+
+    private static final String ITEMS_KEY_PREFIX = "{stock:hold}:items:";
+
+    private static final String EXPIRY_KEY = "{stock:hold}:expiry";
+
+    /**
+     * KEYS: total, items, expiry；ARGV: holdId, expireAt, 之后每三个一组 (键, 数量, 库存)
+     */
+    private static final RedisScript<Long> HOLD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[2]) == 1 then return 1 end " +
+            "for i = 3, #ARGV, 3 do " +
+            "  local held = tonumber(redis.call('HGET', KEYS[1], ARGV[i]) or '0') " +
+            "  if held + tonumber(ARGV[i + 1]) > tonumber(ARGV[i + 2]) then return 0 end " +
+            "end " +
+            "for i = 3, #ARGV, 3 do " +
+            "  redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1]) " +
+            "  redis.call('HSET', KEYS[2], ARGV[i], ARGV[i + 1]) " +
+            "end " +
+            "redis.call('ZADD', KEYS[3], ARGV[2], ARGV[1]) " +
+            "return 1", Long.class);
+
+    /**
+     * KEYS: total, items, expiry；ARGV: holdId。以 ZREM 的结果判断由谁释放，保证只释放一次
+     */
+    private static final RedisScript<List> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('ZREM', KEYS[3], ARGV[1]) == 0 then return {} end " +
+            "local items = redis.call('HGETALL', KEYS[2]) " +
+            "for i = 1, #items, 2 do " +
+            "  if redis.call('HINCRBY', KEYS[1], items[i], -tonumber(items[i + 1])) <= 0 then " +
+            "    redis.call('HDEL', KEYS[1], items[i]) " +
+            "  end " +
+            "end " +
+            "redis.call('DEL', KEYS[2]) " +
+            "return items", List.class);
+
+    private static final RedisScript<List> GET_SCRIPT = new DefaultRedisScript<>(
+            "return redis.call('HGETALL', KEYS[1])", List.class);
+
+    private static final RedisScript<List> HELD_SCRIPT = new DefaultRedisScript<>(
+            "return redis.call('HMGET', KEYS[1], unpack(ARGV))", List.class);
+
+    private static final RedisScript<List> EXPIRED_SCRIPT = new DefaultRedisScript<>(
+            "return redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2])", List.class);
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Override
+    public boolean hold(String holdId, List<ProductNumberVo> items, Map<String, Long> onHandNumbers, long expireAt) {
+        List<Object> args = new ArrayList<>();
+        args.add(holdId);
+        args.add(expireAt);
+        for (ProductNumberVo item : items) {
+            String key = StockHoldStore.key(item.getProductId(), item.getStockId());
+            args.add(key);
+            args.add(item.getProductNumber());
+            args.add(onHandNumbers.getOrDefault(key, 0L));
+        }
+        Long result = redisUtils.execute(HOLD_SCRIPT, Arrays.asList(TOTAL_KEY, ITEMS_KEY_PREFIX + holdId, EXPIRY_KEY), args.toArray());
+        return Objects.equals(result, 1L);
+    }
+
+    @Override
+    public List<ProductNumberVo> get(String holdId) {
+        return toItems(redisUtils.execute(GET_SCRIPT, Collections.singletonList(ITEMS_KEY_PREFIX + holdId)));
+    }
+
+    @Override
+    public List<ProductNumberVo> release(String holdId) {
+        return toItems(redisUtils.execute(RELEASE_SCRIPT, Arrays.asList(TOTAL_KEY, ITEMS_KEY_PREFIX + holdId, EXPIRY_KEY), holdId));
+    }
+
+    @Override
+    public Map<String, Long> getHeldNumbers(Collection<String> keys) {
+        Map<String, Long> heldNumbers = new HashMap<>();
+        if (keys.isEmpty()) {
+            return heldNumbers;
+        }
+        List<String> fields = new ArrayList<>(keys);
+        List<?> values = redisUtils.execute(HELD_SCRIPT, Collections.singletonList(TOTAL_KEY), fields.toArray());
+        for (int i = 0; i < fields.size() && i < values.size(); i++) {
+            if (!Objects.equals(values.get(i), null)) {
+                heldNumbers.put(fields.get(i), Long.valueOf(values.get(i).toString()));
+            }
+        }
+        return heldNumbers;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> findExpiredHoldIds(long now, int limit) {
+        List<String> holdIds = redisUtils.execute(EXPIRED_SCRIPT, Collections.singletonList(EXPIRY_KEY), now, limit);
+        return Objects.equals(holdIds, null) ? new ArrayList<>() : holdIds;
+    }
+
+    /**
+     * 将 HGETALL 返回的 [键, 数量, 键, 数量, ...] 转换为预留内容
+     */
+    private List<ProductNumberVo> toItems(List<?> values) {
+        List<ProductNumberVo> items = new ArrayList<>();
+        if (Objects.equals(values, null)) {
+            return items;
+        }
+        for (int i = 0; i + 1 < values.size(); i += 2) {
+            items.add(StockHoldStore.fromKey(values.get(i).toString(), Long.valueOf(values.get(i + 1).toString())));
+        }
+        return items;
+    }
+}
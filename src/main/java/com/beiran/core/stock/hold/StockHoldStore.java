@@ -0,0 +1,75 @@
+package com.beiran.core.stock.hold;
+
+import com.beiran.core.stock.vo.ProductNumberVo;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 产品库存预留（hold）存储<br>
+ * 每个预留以 holdId（通常为销售订单编号）标识，包含若干 (产品, 仓库, 数量)，到期后由后台任务释放<br>
+ * 通过配置 stock.hold.store 选择实现: redis（默认，多个实例共享）或 local（仅当前 JVM）
+ */
+public interface StockHoldStore {
+
+    /**
+     * 放置预留，所有 (产品, 仓库) 的预留总量都不超过对应的库存时才会放置，否则一个都不放置
+     * @param holdId 预留编号
+     * @param items 预留的产品、仓库与数量
+     * @param onHandNumbers 各 (产品, 仓库) 的库存数量，键由 {@link #key(String, String)} 生成
+     * @param expireAt 到期时间（毫秒时间戳）
+     * @return 是否放置成功，预留编号已存在时视为成功
+     */
+    boolean hold(String holdId, List<ProductNumberVo> items, Map<String, Long> onHandNumbers, long expireAt);
+
+    /**
+     * 查询预留内容
+     * @param holdId 预留编号
+     * @return 预留的产品、仓库与数量，不存在时为空集合
+     */
+    List<ProductNumberVo> get(String holdId);
+
+    /**
+     * 释放预留，同一预留只会被释放一次
+     * @param holdId 预留编号
+     * @return 本次释放的预留内容，预留不存在或已被释放时为空集合
+     */
+    List<ProductNumberVo> release(String holdId);
+
+    /**
+     * 查询各 (产品, 仓库) 当前被预留的总量
+     * @param keys 由 {@link #key(String, String)} 生成的键
+     * @return 键与预留总量，没有预留的键不包含在内
+     */
+    Map<String, Long> getHeldNumbers(Collection<String> keys);
+
+    /**
+     * 查询已到期的预留编号
+     * @param now 当前时间（毫秒时间戳）
+     * @param limit 最多返回的数目
+     * @return 预留编号
+     */
+    List<String> findExpiredHoldIds(long now, int limit);
+
+    /**
+     * 生成 (产品, 仓库) 的键
+     * @param productId 产品编号
+     * @param stockId 仓库编号
+     * @return 键
+     */
+    static String key(String productId, String stockId) {
+        return productId + "/" + stockId;
+    }
+
+    /**
+     * 由键还原 (产品, 仓库, 数量)
+     * @param key 由 {@link #key(String, String)} 生成的键
+     * @param number 数量
+     * @return ProductNumberVo
+     */
+    static ProductNumberVo fromKey(String key, Long number) {
+        int index = key.indexOf('/');
+        return new ProductNumberVo(key.substring(0, index), key.substring(index + 1), number);
+    }
+}
@@ -0,0 +1,384 @@
+package com.beiran.core.stock.index;
+
+import com.beiran.common.cache.CacheInvalidationMessage;
+import com.beiran.common.cache.CacheInvalidationPublisher;
+import com.beiran.core.stock.hold.StockHoldStore;
+import com.beiran.core.stock.repository.ProductStockRepository;
+import com.beiran.core.stock.vo.ProductNumberVo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 进程内的库存可用量索引<br>
+ * 按 (产品编号, 仓库编号) 保存库存数量与预留数量，用于快速拒绝可用量不足的请求<br>
+ * 启动时从 erp_product_stock 与预留存储加载一次，之后由 StockService 在每次修改库存、放置或释放预留后同步；
+ * 变更同时通过 Redis 发布/订阅通知其他实例，其他实例从数据库与预留存储重新读取对应的记录<br>
+ * 加载期间发生变更的记录在新表替换旧表后从数据库与预留存储重新读取，避免全量扫描覆盖扫描期间的变更<br>
+ * 注意: 索引只用于提前拒绝，判断足够时仍须由数据库确认；库存数量的查询直接读取数据库，扣减时依旧由 SQL 条件保证不会超卖
+ */
+
+@Slf4j
+@Component
+public class StockAvailabilityIndex {
+
+    static final String PRODUCT_REGION = "product";
+
+    @Autowired
+    private ProductStockRepository productStockRepository;
+
+    @Autowired
+    private StockHoldStore stockHoldStore;
+
+    private volatile CacheInvalidationPublisher publisher;
+
+    private volatile AvailabilityTable productTable = new AvailabilityTable();
+
+    /**
+     * 修改索引时持有读锁，加载完成替换新表时持有写锁
+     */
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    /**
+     * 加载期间发生变更的记录，未在加载时为 null
+     */
+    private volatile Set<String> touchedKeys;
+
+    /**
+     * 是否已完成加载，未加载前调用方应直接查询数据库
+     */
+    private volatile boolean loaded = false;
+
+    /**
+     * 应用启动完成后加载索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    public void setPublisher(CacheInvalidationPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    /**
+     * 从数据库与预留存储加载索引<br>
+     * 扫描期间的变更照常写入旧表并记录键，新表替换旧表时重新读取这些键，替换期间暂停修改索引
+     */
+    public synchronized void reload() {
+        touchedKeys = ConcurrentHashMap.newKeySet();
+        AvailabilityTable products = new AvailabilityTable();
+        try {
+            List<String> productKeys = new ArrayList<>();
+            for (ProductNumberVo productNumberVo : productStockRepository.findEachProductStockNumber()) {
+                products.set(productNumberVo.getProductId(), productNumberVo.getStockId(), valueOf(productNumberVo.getProductNumber()));
+                productKeys.add(StockHoldStore.key(productNumberVo.getProductId(), productNumberVo.getStockId()));
+            }
+            stockHoldStore.getHeldNumbers(productKeys).forEach((key, held) -> {
+                ProductNumberVo hold = StockHoldStore.fromKey(key, held);
+                products.setReserved(hold.getProductId(), hold.getStockId(), valueOf(held));
+            });
+        } catch (RuntimeException e) {
+            touchedKeys = null;
+            throw e;
+        }
+        swapLock.writeLock().lock();
+        try {
+            Set<String> touched = touchedKeys;
+            touchedKeys = null;
+            productTable = products;
+            for (String key : touched) {
+                ProductNumberVo productNumberVo = StockHoldStore.fromKey(key, 0L);
+                refreshProduct(productNumberVo.getProductId(), productNumberVo.getStockId());
+            }
+            loaded = true;
+            log.info(" { 库存索引加载完成 } 产品记录: " + products.size() + ", 加载期间变更的记录: " + touched.size());
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * 处理其他实例发来的同步消息: 从数据库与预留存储重新读取变更的记录<br>
+     * 索引只在启动时全量加载一次，全部失效的消息不会触发重新加载
+     * @param message 同步消息，region 为 product，key 为 "产品编号/仓库编号"
+     */
+    public void apply(CacheInvalidationMessage message) {
+        if (!loaded && Objects.equals(touchedKeys, null)) {
+            return;
+        }
+        if (!Objects.equals(message.getAction(), CacheInvalidationMessage.Action.EVICT)
+                || !Objects.equals(message.getRegion(), PRODUCT_REGION)) {
+            return;
+        }
+        String key = message.getKey();
+        if (Objects.equals(key, null) || key.indexOf('/') < 0) {
+            return;
+        }
+        ProductNumberVo productNumberVo = StockHoldStore.fromKey(key, 0L);
+        modify(productNumberVo.getProductId(), productNumberVo.getStockId(),
+                () -> refreshProduct(productNumberVo.getProductId(), productNumberVo.getStockId()));
+    }
+
+    /* ------------------------------- 产品 ------------------------------- */
+
+    /**
+     * 查询特定产品在所有仓库中的可用总量（库存减去预留）
+     */
+    public long getAvailableProductNumber(String productId) {
+        return productTable.getTotalAvailable(productId);
+    }
+
+    /**
+     * 判断一批产品的可用量是否足够，结果为 false 时可直接拒绝，结果为 true 时须由数据库确认
+     * @param productNumbers 产品编号与需要的数量
+     * @return 是否足够
+     */
+    public boolean isProductAvailable(Map<String, Long> productNumbers) {
+        for (Map.Entry<String, Long> entry : productNumbers.entrySet()) {
+            if (getAvailableProductNumber(entry.getKey()) < valueOf(entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 记录特定仓库中放置的产品预留，预留是否成功以预留存储为准，这里只同步数量
+     */
+    public void reserveProduct(String productId, String stockId, long number) {
+        modify(productId, stockId, () -> productTable.reserve(productId, stockId, number));
+        publish(PRODUCT_REGION, productId, stockId);
+    }
+
+    /**
+     * 释放特定仓库中预留的产品
+     */
+    public void releaseProduct(String productId, String stockId, long number) {
+        modify(productId, stockId, () -> productTable.release(productId, stockId, number));
+        publish(PRODUCT_REGION, productId, stockId);
+    }
+
+    /**
+     * 事务提交后增加（number 为负数时扣减）特定仓库中的产品库存
+     */
+    public void addProductAfterCommit(String productId, String stockId, long number) {
+        afterCommit(() -> {
+            modify(productId, stockId, () -> productTable.add(productId, stockId, number));
+            publish(PRODUCT_REGION, productId, stockId);
+        });
+    }
+
+    /**
+     * 事务提交后设置特定仓库中的产品库存
+     */
+    public void setProductAfterCommit(String productId, String stockId, long number) {
+        afterCommit(() -> {
+            modify(productId, stockId, () -> productTable.set(productId, stockId, number));
+            publish(PRODUCT_REGION, productId, stockId);
+        });
+    }
+
+    /**
+     * 事务提交后移除特定仓库中的产品存储记录
+     */
+    public void removeProductAfterCommit(String productId, String stockId) {
+        setProductAfterCommit(productId, stockId, 0L);
+    }
+
+    /**
+     * 从数据库与预留存储重新读取特定仓库中的产品
+     */
+    private void refreshProduct(String productId, String stockId) {
+        ProductNumberVo productNumberVo = productStockRepository.findProductStockNumber(productId, stockId);
+        productTable.set(productId, stockId, Objects.equals(productNumberVo, null) ? 0L : valueOf(productNumberVo.getProductNumber()));
+        String key = StockHoldStore.key(productId, stockId);
+        productTable.setReserved(productId, stockId, valueOf(stockHoldStore.getHeldNumbers(Collections.singletonList(key)).get(key)));
+    }
+
+    /**
+     * 修改索引: 加载期间记录变更的键，替换新表期间等待替换完成后再修改新表
+     */
+    private void modify(String productId, String stockId, Runnable modification) {
+        swapLock.readLock().lock();
+        try {
+            Set<String> touched = touchedKeys;
+            if (!Objects.equals(touched, null)) {
+                touched.add(StockHoldStore.key(productId, stockId));
+            }
+            modification.run();
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 通知其他实例重新读取变更的记录，通知失败时其他实例的索引保持旧值直至该记录再次变更
+     */
+    private void publish(String region, String itemId, String stockId) {
+        CacheInvalidationPublisher current = publisher;
+        if (Objects.equals(current, null)) {
+            return;
+        }
+        try {
+            current.publish(CacheInvalidationMessage.evict(region, StockHoldStore.key(itemId, stockId)));
+        } catch (RuntimeException e) {
+            log.error(" { 库存索引同步消息发送失败 } " + itemId + "/" + stockId, e);
+        }
+    }
+
+    /**
+     * 若当前存在事务，则在事务提交后执行，事务回滚时不执行；否则立即执行
+     */
+    private void afterCommit(Runnable runnable) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    runnable.run();
+                }
+            });
+        } else {
+            runnable.run();
+        }
+    }
+
+    private static long valueOf(Long number) {
+        return Objects.equals(number, null) ? 0L : number;
+    }
+
+    /**
+     * 以 (编号, 仓库编号) 为键的数量表<br>
+     * 键到槽位的映射保存在 ConcurrentHashMap 中，数量保存在分块的 AtomicLongArray 中，读写均无锁
+     */
+    static class AvailabilityTable {
+
+        private static final int CHUNK_BITS = 10;
+
+        private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+        private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+        /**
+         * (编号, 仓库编号) -> 槽位
+         */
+        private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+
+        /**
+         * 编号 -> 该编号在各仓库中的槽位
+         */
+        private final Map<String, int[]> itemSlots = new ConcurrentHashMap<>();
+
+        private volatile AtomicLongArray[] onHandChunks = new AtomicLongArray[0];
+
+        private volatile AtomicLongArray[] reservedChunks = new AtomicLongArray[0];
+
+        private int size = 0;
+
+        int size() {
+            return slots.size();
+        }
+
+        long getTotalAvailable(String itemId) {
+            long total = 0;
+            for (int slot : itemSlots.getOrDefault(itemId, new int[0])) {
+                total += Math.max(0, onHand(slot).get(slot & CHUNK_MASK) - reserved(slot).get(slot & CHUNK_MASK));
+            }
+            return total;
+        }
+
+        void set(String itemId, String stockId, long number) {
+            int slot = slotOf(itemId, stockId);
+            onHand(slot).set(slot & CHUNK_MASK, number);
+        }
+
+        void add(String itemId, String stockId, long number) {
+            int slot = slotOf(itemId, stockId);
+            onHand(slot).addAndGet(slot & CHUNK_MASK, number);
+        }
+
+        void reserve(String itemId, String stockId, long number) {
+            int slot = slotOf(itemId, stockId);
+            reserved(slot).addAndGet(slot & CHUNK_MASK, number);
+        }
+
+        void setReserved(String itemId, String stockId, long number) {
+            int slot = slotOf(itemId, stockId);
+            reserved(slot).set(slot & CHUNK_MASK, number);
+        }
+
+        void release(String itemId, String stockId, long number) {
+            Integer slot = slots.get(key(itemId, stockId));
+            if (Objects.equals(slot, null)) {
+                return;
+            }
+            reserved(slot).updateAndGet(slot & CHUNK_MASK, reserved -> Math.max(0, reserved - number));
+        }
+
+        private int slotOf(String itemId, String stockId) {
+            String key = key(itemId, stockId);
+            Integer slot = slots.get(key);
+            if (!Objects.equals(slot, null)) {
+                return slot;
+            }
+            return slots.computeIfAbsent(key, k -> allocate(k));
+        }
+
+        /**
+         * 分配一个新的槽位，必要时扩容
+         */
+        private synchronized int allocate(String key) {
+            int slot = size++;
+            int chunkIndex = slot >> CHUNK_BITS;
+            if (chunkIndex >= onHandChunks.length) {
+                AtomicLongArray[] newOnHand = new AtomicLongArray[chunkIndex + 1];
+                AtomicLongArray[] newReserved = new AtomicLongArray[chunkIndex + 1];
+                System.arraycopy(onHandChunks, 0, newOnHand, 0, onHandChunks.length);
+                System.arraycopy(reservedChunks, 0, newReserved, 0, reservedChunks.length);
+                newOnHand[chunkIndex] = new AtomicLongArray(CHUNK_SIZE);
+                newReserved[chunkIndex] = new AtomicLongArray(CHUNK_SIZE);
+                onHandChunks = newOnHand;
+                reservedChunks = newReserved;
+            }
+            String itemId = key.substring(0, key.indexOf('/'));
+            itemSlots.merge(itemId, new int[]{slot}, (oldSlots, newSlot) -> {
+                int[] merged = new int[oldSlots.length + 1];
+                System.arraycopy(oldSlots, 0, merged, 0, oldSlots.length);
+                merged[oldSlots.length] = newSlot[0];
+                return merged;
+            });
+            return slot;
+        }
+
+        private AtomicLongArray onHand(int slot) {
+            return onHandChunks[slot >> CHUNK_BITS];
+        }
+
+        private AtomicLongArray reserved(int slot) {
+            return reservedChunks[slot >> CHUNK_BITS];
+        }
+
+        private static String key(String itemId, String stockId) {
+            return itemId + "/" + stockId;
+        }
+    }
+}
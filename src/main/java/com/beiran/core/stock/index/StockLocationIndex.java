@@ -0,0 +1,220 @@
+package com.beiran.core.stock.index;
+
+import com.beiran.core.stock.entity.Stock;
+import com.beiran.core.stock.repository.StockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * 仓库位置索引<br>
+ * 将设置了经纬度的仓库放入 k-d 树，按与目标位置的距离由近到远依次给出仓库，取前 k 个仓库的代价为 O(k log n)<br>
+ * 经纬度先转换为单位球面上的三维坐标，三维空间中的直线距离与球面距离单调一致
+ */
+
+@Slf4j
+@Component
+public class StockLocationIndex {
+
+    private static final int DIMENSIONS = 3;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    private volatile Node root = null;
+
+    /**
+     * 应用启动完成后加载索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * 从数据库重新加载所有设置了经纬度的仓库
+     */
+    public synchronized void reload() {
+        List<Node> nodes = new ArrayList<>();
+        for (Stock stock : stockRepository.findAll()) {
+            if (isValid(stock.getStockLatitude(), stock.getStockLongitude())) {
+                nodes.add(new Node(stock.getStockId(), toPoint(stock.getStockLatitude(), stock.getStockLongitude())));
+            }
+        }
+        root = build(nodes, 0, nodes.size(), 0);
+        log.info(" { 仓库位置索引加载完成 } 仓库数: " + nodes.size());
+    }
+
+    /**
+     * 若当前存在事务，则在事务提交后重新加载；否则立即重新加载
+     */
+    public void reloadAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    /**
+     * 按与目标位置的距离由近到远依次给出仓库编号，未设置经纬度的仓库不包含在内
+     * @param latitude 纬度
+     * @param longitude 经度
+     * @return 惰性迭代器，只在取下一个仓库时才继续搜索；经纬度无效时为空
+     */
+    public Iterator<String> nearest(Double latitude, Double longitude) {
+        if (!isValid(latitude, longitude) || Objects.equals(root, null)) {
+            return new ArrayList<String>().iterator();
+        }
+        return new NearestIterator(root, toPoint(latitude, longitude));
+    }
+
+    /**
+     * 经纬度是否有效
+     */
+    public static boolean isValid(Double latitude, Double longitude) {
+        return !Objects.equals(latitude, null) && !Objects.equals(longitude, null)
+                && latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+    }
+
+    private static double[] toPoint(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        return new double[]{Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon), Math.sin(lat)};
+    }
+
+    /**
+     * 以中位数划分构建平衡的 k-d 树，并记录每棵子树的包围盒
+     */
+    private static Node build(List<Node> nodes, int from, int to, int depth) {
+        if (from >= to) {
+            return null;
+        }
+        int axis = depth % DIMENSIONS;
+        nodes.subList(from, to).sort(Comparator.comparingDouble(node -> node.point[axis]));
+        int median = (from + to) >>> 1;
+        Node node = nodes.get(median);
+        node.left = build(nodes, from, median, depth + 1);
+        node.right = build(nodes, median + 1, to, depth + 1);
+        for (int i = 0; i < DIMENSIONS; i++) {
+            node.min[i] = node.max[i] = node.point[i];
+            for (Node child : new Node[]{node.left, node.right}) {
+                if (!Objects.equals(child, null)) {
+                    node.min[i] = Math.min(node.min[i], child.min[i]);
+                    node.max[i] = Math.max(node.max[i], child.max[i]);
+                }
+            }
+        }
+        return node;
+    }
+
+    private static final class Node {
+
+        private final String stockId;
+
+        private final double[] point;
+
+        private final double[] min = new double[DIMENSIONS];
+
+        private final double[] max = new double[DIMENSIONS];
+
+        private Node left;
+
+        private Node right;
+
+        private Node(String stockId, double[] point) {
+            this.stockId = stockId;
+            this.point = point;
+        }
+    }
+
+    /**
+     * 最佳优先搜索: 优先队列中既有子树（以包围盒到目标的最短距离排序）也有仓库（以实际距离排序），
+     * 弹出的仓库一定不比队列中任何其他仓库更远
+     */
+    private static final class NearestIterator implements Iterator<String> {
+
+        private final double[] target;
+
+        private final PriorityQueue<Entry> queue = new PriorityQueue<>(Comparator.comparingDouble(entry -> entry.distance));
+
+        private NearestIterator(Node root, double[] target) {
+            this.target = target;
+            queue.add(new Entry(root, false, boxDistance(root)));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public String next() {
+            while (!queue.isEmpty()) {
+                Entry entry = queue.poll();
+                if (entry.point) {
+                    return entry.node.stockId;
+                }
+                Node node = entry.node;
+                queue.add(new Entry(node, true, pointDistance(node.point)));
+                if (!Objects.equals(node.left, null)) {
+                    queue.add(new Entry(node.left, false, boxDistance(node.left)));
+                }
+                if (!Objects.equals(node.right, null)) {
+                    queue.add(new Entry(node.right, false, boxDistance(node.right)));
+                }
+            }
+            throw new NoSuchElementException();
+        }
+
+        private double pointDistance(double[] point) {
+            double distance = 0;
+            for (int i = 0; i < DIMENSIONS; i++) {
+                double d = point[i] - target[i];
+                distance += d * d;
+            }
+            return distance;
+        }
+
+        private double boxDistance(Node node) {
+            double distance = 0;
+            for (int i = 0; i < DIMENSIONS; i++) {
+                double d = Math.max(0, Math.max(node.min[i] - target[i], target[i] - node.max[i]));
+                distance += d * d;
+            }
+            return distance;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Node node;
+
+        private final boolean point;
+
+        private final double distance;
+
+        private Entry(Node node, boolean point, double distance) {
+            this.node = node;
+            this.point = point;
+            this.distance = distance;
+        }
+    }
+}
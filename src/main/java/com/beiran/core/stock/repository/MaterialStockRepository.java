@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -32,6 +33,23 @@ public interface MaterialStockRepository extends JpaRepository<MaterialStock, St
     @Query("SELECT new com.beiran.core.stock.vo.MaterialNumberVo(m.material.materialId, m.stock.stockId, m.materNumber) FROM MaterialStock m WHERE m.material.materialId = :materialId AND m.stock.stockId = :stockId")
     MaterialNumberVo findMaterialStockNumber(@Param("materialId") String materialId, @Param("stockId") String stockId);
 
+    /**
+     * 查找一批物料在所有仓库中的数量
+     * @param materialIds 物料编号集合
+     * @return List<MaterialNumberVo>
+     */
+    @Query("SELECT new com.beiran.core.stock.vo.MaterialNumberVo(m.material.materialId, m.stock.stockId, m.materNumber) FROM MaterialStock m WHERE m.material.materialId IN :materialIds")
+    List<MaterialNumberVo> findMaterialStockNumbers(@Param("materialIds") Collection<String> materialIds);
+
+    /**
+     * 查找一批物料在一批仓库中的数量
+     * @param materialIds 物料编号集合
+     * @param stockIds 仓库编号集合
+     * @return List<MaterialNumberVo>
+     */
+    @Query("SELECT new com.beiran.core.stock.vo.MaterialNumberVo(m.material.materialId, m.stock.stockId, m.materNumber) FROM MaterialStock m WHERE m.material.materialId IN :materialIds AND m.stock.stockId IN :stockIds")
+    List<MaterialNumberVo> findMaterialStockNumbers(@Param("materialIds") Collection<String> materialIds, @Param("stockIds") Collection<String> stockIds);
+
     /**
      * 统计物料-仓库中物料数量（根据 stockId 分类）
      * @return List<MaterialNumberVo>
@@ -49,4 +67,37 @@ public interface MaterialStockRepository extends JpaRepository<MaterialStock, St
     @Modifying
     @Query(value = "UPDATE erp_material_stock SET mater_number = ?3 WHERE material_id = ?1 AND stock_id = ?2", nativeQuery = true)
     int updateNumber(String materialId, String stockId, Long number);
+
+    /**
+     * 在特定仓库中特定物料的原有数量上扣减库存，仅当库存充足时才会扣减
+     * @param materialId 物料编号
+     * @param stockId 仓库编号
+     * @param number 扣减的数量
+     * @return 受影响的行数，为 0 说明记录不存在或库存不足
+     */
+    @Modifying
+    @Query(value = "UPDATE erp_material_stock SET mater_number = mater_number - ?3 WHERE material_id = ?1 AND stock_id = ?2 AND mater_number >= ?3", nativeQuery = true)
+    int decreaseNumber(String materialId, String stockId, Long number);
+
+    /**
+     * 向特定仓库中存入物料，若已存在存储记录则在原有数量上增加，否则新建一条记录<br>
+     * 依赖 (material_id, stock_id) 上的唯一约束
+     * @param materStockId 新记录使用的编号（记录已存在时忽略）
+     * @param materialId 物料编号
+     * @param stockId 仓库编号
+     * @param number 存入的数量
+     * @return 受影响的行数（MySQL 中新建为 1，累加为 2）
+     */
+    @Modifying
+    @Query(value = "INSERT INTO erp_material_stock (mater_stock_id, material_id, stock_id, mater_number) VALUES (?1, ?2, ?3, ?4) ON DUPLICATE KEY UPDATE mater_number = mater_number + VALUES(mater_number)", nativeQuery = true)
+    int upsertNumber(String materStockId, String materialId, String stockId, Long number);
+
+    /**
+     * 查询并锁定特定仓库中特定物料的数量（SELECT ... FOR UPDATE），用于在修改前计算变化量
+     * @param materialId 物料编号
+     * @param stockId 仓库编号
+     * @return 数量，记录不存在时为 null
+     */
+    @Query(value = "SELECT mater_number FROM erp_material_stock WHERE material_id = ?1 AND stock_id = ?2 FOR UPDATE", nativeQuery = true)
+    Long findNumberForUpdate(String materialId, String stockId);
 }
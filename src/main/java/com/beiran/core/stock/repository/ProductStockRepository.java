@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -32,6 +33,30 @@ public interface ProductStockRepository extends JpaRepository<ProductStock, Stri
     @Query("SELECT new com.beiran.core.stock.vo.ProductNumberVo(p.product.productId, p.stock.stockId, p.prodNumber) FROM ProductStock p WHERE p.product.productId = :productId AND p.stock.stockId = :stockId")
     ProductNumberVo findProductStockNumber(@Param("productId") String productId, @Param("stockId") String stockId);
 
+    /**
+     * 查找一批产品在一批仓库中的数量
+     * @param productIds 产品编号集合
+     * @param stockIds 仓库编号集合
+     * @return List<ProductNumberVo>
+     */
+    @Query("SELECT new com.beiran.core.stock.vo.ProductNumberVo(p.product.productId, p.stock.stockId, p.prodNumber) FROM ProductStock p WHERE p.product.productId IN :productIds AND p.stock.stockId IN :stockIds")
+    List<ProductNumberVo> findProductStockNumbers(@Param("productIds") Collection<String> productIds, @Param("stockIds") Collection<String> stockIds);
+
+    /**
+     * 查找一批产品在所有仓库中的数量
+     * @param productIds 产品编号集合
+     * @return List<ProductNumberVo>
+     */
+    @Query("SELECT new com.beiran.core.stock.vo.ProductNumberVo(p.product.productId, p.stock.stockId, p.prodNumber) FROM ProductStock p WHERE p.product.productId IN :productIds")
+    List<ProductNumberVo> findProductStockNumbers(@Param("productIds") Collection<String> productIds);
+
+    /**
+     * 查找每一条产品-仓库存储记录的数量，用于加载库存索引
+     * @return List<ProductNumberVo>
+     */
+    @Query("SELECT new com.beiran.core.stock.vo.ProductNumberVo(p.product.productId, p.stock.stockId, p.prodNumber) FROM ProductStock p")
+    List<ProductNumberVo> findEachProductStockNumber();
+
     /**
      * 统计产品-仓库中产品数量（根据 stockId 分类）
      * @return List<ProductNumberVo>
@@ -49,4 +74,37 @@ public interface ProductStockRepository extends JpaRepository<ProductStock, Stri
     @Modifying
     @Query(value = "UPDATE erp_product_stock SET prod_number = ?3 WHERE product_id = ?1 AND stock_id = ?2", nativeQuery = true)
     int updateNumber(String productId, String stockId, Long number);
+
+    /**
+     * 在特定仓库中特定产品的原有数量上扣减库存，仅当库存充足时才会扣减
+     * @param productId 产品编号
+     * @param stockId 仓库编号
+     * @param number 扣减的数量
+     * @return 受影响的行数，为 0 说明记录不存在或库存不足
+     */
+    @Modifying
+    @Query(value = "UPDATE erp_product_stock SET prod_number = prod_number - ?3 WHERE product_id = ?1 AND stock_id = ?2 AND prod_number >= ?3", nativeQuery = true)
+    int decreaseNumber(String productId, String stockId, Long number);
+
+    /**
+     * 向特定仓库中存入产品，若已存在存储记录则在原有数量上增加，否则新建一条记录<br>
+     * 依赖 (product_id, stock_id) 上的唯一约束
+     * @param prodStockId 新记录使用的编号（记录已存在时忽略）
+     * @param productId 产品编号
+     * @param stockId 仓库编号
+     * @param number 存入的数量
+     * @return 受影响的行数（MySQL 中新建为 1，累加为 2）
+     */
+    @Modifying
+    @Query(value = "INSERT INTO erp_product_stock (prod_stock_id, product_id, stock_id, prod_number) VALUES (?1, ?2, ?3, ?4) ON DUPLICATE KEY UPDATE prod_number = prod_number + VALUES(prod_number)", nativeQuery = true)
+    int upsertNumber(String prodStockId, String productId, String stockId, Long number);
+
+    /**
+     * 查询并锁定特定仓库中特定产品的数量（SELECT ... FOR UPDATE），用于在修改前计算变化量
+     * @param productId 产品编号
+     * @param stockId 仓库编号
+     * @return 数量，记录不存在时为 null
+     */
+    @Query(value = "SELECT prod_number FROM erp_product_stock WHERE product_id = ?1 AND stock_id = ?2 FOR UPDATE", nativeQuery = true)
+    Long findNumberForUpdate(String productId, String stockId);
 }
@@ -0,0 +1,49 @@
+package com.beiran.core.stock.repository;
+
+import com.beiran.core.stock.entity.StockMovement;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 库存流水 Repository
+ */
+public interface StockMovementRepository extends JpaRepository<StockMovement, String> {
+
+    /**
+     * 查询特定仓库中特定物料/产品的流水，按发生时间倒序
+     * @param itemType 库存类型
+     * @param itemId 物料编号或产品编号
+     * @param stockId 仓库编号
+     * @param pageable 分页参数
+     * @return Page<StockMovement>
+     */
+    Page<StockMovement> findByItemTypeAndItemIdAndStockIdOrderByMovementTimeDesc(StockMovement.StockItemType itemType, String itemId, String stockId, Pageable pageable);
+
+    /**
+     * 统计一段时间 (from, to] 内特定仓库中特定物料/产品的变化量
+     * @param itemType 库存类型
+     * @param itemId 物料编号或产品编号
+     * @param stockId 仓库编号
+     * @param from 开始时间（不包含）
+     * @param to 结束时间（包含）
+     * @return 变化量之和
+     */
+    @Query("SELECT COALESCE(SUM(m.movementNumber), 0) FROM StockMovement m WHERE m.itemType = :itemType AND m.itemId = :itemId AND m.stockId = :stockId AND m.movementTime > :from AND m.movementTime <= :to")
+    Long sumMovementNumber(@Param("itemType") StockMovement.StockItemType itemType, @Param("itemId") String itemId, @Param("stockId") String stockId,
+                           @Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * 查询某一时刻之后库存发生过变化的物料/产品编号，用于增量检查
+     * @param itemType 库存类型
+     * @param since 开始时间（不包含）
+     * @return 物料编号或产品编号
+     */
+    @Query("SELECT DISTINCT m.itemId FROM StockMovement m WHERE m.itemType = :itemType AND m.movementTime > :since")
+    List<String> findChangedItemIds(@Param("itemType") StockMovement.StockItemType itemType, @Param("since") Date since);
+}
@@ -1,12 +1,16 @@
 package com.beiran.core.stock.repository;
 
+import com.beiran.common.repository.GenericRepository;
+import com.beiran.core.stock.dto.StockDto;
 import com.beiran.core.stock.entity.Stock;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,30 +18,39 @@ import java.util.Optional;
  * 仓库 Repository
  */
 
-public interface StockRepository extends JpaRepository<Stock, String>, JpaSpecificationExecutor<Stock> {
+public interface StockRepository extends GenericRepository<Stock, String>, JpaSpecificationExecutor<Stock> {
 
     /**
      * 根据仓库名查询仓库信息
      * @param stockName 仓库名
      * @return Optional<Stock>
      */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<Stock> findByStockName(String stockName);
 
+    /**
+     * 直接查询为 StockDto 的查询语句，仓库管理员可能为空，使用左连接
+     */
+    String STOCK_DTO_QUERY = "SELECT new com.beiran.core.stock.dto.StockDto(s.stockId, s.stockName, s.stockPosition, " +
+            "m.userId, m.userName, s.stockLatitude, s.stockLongitude) FROM Stock s LEFT JOIN s.stockManager m";
+
     /**
      * 根据仓库名模糊查询仓库信息
      * @param stockName 仓库名
      * @param pageable 分页参数
-     * @return List<Stock>
+     * @return List<StockDto>
      */
-    List<Stock> findByStockNameContaining(String stockName, Pageable pageable);
+    @Query(STOCK_DTO_QUERY + " WHERE s.stockName LIKE %?1%")
+    List<StockDto> findDtosByStockName(String stockName, Pageable pageable);
 
     /**
      * 根据仓库管理员用户名查询仓库信息
      * @param userName 用户名
      * @param pageable 分页参数
-     * @return List<Stock>
+     * @return List<StockDto>
      */
-    List<Stock> findByStockManager_UserName(String userName, Pageable pageable);
+    @Query(STOCK_DTO_QUERY + " WHERE m.userName = ?1")
+    List<StockDto> findDtosByManagerUserName(String userName, Pageable pageable);
 
     /**
      * 更换仓库管理员
@@ -48,4 +61,20 @@ public interface StockRepository extends JpaRepository<Stock, String>, JpaSpecif
     @Modifying
     @Query(value = "UPDATE erp_stock SET stock_manager_id = ?1 WHERE stock_id = ?2", nativeQuery = true)
     int updateStockManager(String userId, String stockId);
+
+    /**
+     * 查询给定编号中存在的仓库编号，用于批量校验
+     * @param ids 仓库编号
+     * @return 存在的仓库编号
+     */
+    @Query("SELECT s.stockId FROM Stock s WHERE s.stockId IN ?1")
+    List<String> findExistingIds(Collection<String> ids);
+
+    /**
+     * 查询给定名称中已存在的名称，用于批量保存前的校验
+     * @param names 名称
+     * @return 已存在的名称
+     */
+    @Query("SELECT s.stockName FROM Stock s WHERE s.stockName IN ?1")
+    List<String> findExistingStockNames(Collection<String> names);
 }
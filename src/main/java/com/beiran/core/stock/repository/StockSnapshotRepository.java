@@ -0,0 +1,60 @@
+package com.beiran.core.stock.repository;
+
+import com.beiran.core.stock.entity.StockMovement;
+import com.beiran.core.stock.entity.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * 库存快照 Repository
+ */
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, String> {
+
+    /**
+     * 查询某一时刻（包含）之前最近一次快照的时间
+     * @param time 时刻
+     * @return 快照时间，不存在时为 null
+     */
+    @Query("SELECT MAX(s.snapshotTime) FROM StockSnapshot s WHERE s.snapshotTime <= :time")
+    Date findLatestSnapshotTime(@Param("time") Date time);
+
+    /**
+     * 查询某一时刻（不包含）之后最早一次快照的时间
+     * @param time 时刻
+     * @return 快照时间，不存在时为 null
+     */
+    @Query("SELECT MIN(s.snapshotTime) FROM StockSnapshot s WHERE s.snapshotTime > :time")
+    Date findEarliestSnapshotTime(@Param("time") Date time);
+
+    /**
+     * 查询最后一次快照的时间
+     * @return 快照时间，不存在时为 null
+     */
+    @Query("SELECT MAX(s.snapshotTime) FROM StockSnapshot s")
+    Date findLastSnapshotTime();
+
+    /**
+     * 查询某次快照中特定仓库中特定物料/产品的记录
+     * @param itemType 库存类型
+     * @param itemId 物料编号或产品编号
+     * @param stockId 仓库编号
+     * @param snapshotTime 快照时间
+     * @return Optional<StockSnapshot>，数量为 0 的记录不会保存在快照中
+     */
+    Optional<StockSnapshot> findByItemTypeAndItemIdAndStockIdAndSnapshotTime(StockMovement.StockItemType itemType, String itemId, String stockId, Date snapshotTime);
+
+    /**
+     * 压缩快照: 某一时刻之前的快照每月只保留第一次
+     * @param time 时刻
+     * @return 删除的快照记录数
+     */
+    @Modifying
+    @Query(value = "DELETE FROM erp_stock_snapshot WHERE snapshot_time < ?1 AND snapshot_time NOT IN (" +
+            "SELECT k.snapshot_time FROM (SELECT MIN(snapshot_time) AS snapshot_time FROM erp_stock_snapshot GROUP BY DATE_FORMAT(snapshot_time, '%Y-%m')) k)", nativeQuery = true)
+    int compactSnapshots(Date time);
+}
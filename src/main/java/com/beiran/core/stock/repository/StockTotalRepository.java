@@ -0,0 +1,25 @@
+package com.beiran.core.stock.repository;
+
+import com.beiran.core.stock.entity.StockTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+/**
+ * 仓库库存总量 Repository
+ */
+public interface StockTotalRepository extends JpaRepository<StockTotal, String> {
+
+    /**
+     * 根据物料-仓库、产品-仓库表重新统计所有仓库的库存总量
+     * @return 受影响的行数
+     */
+    @Modifying
+    @Query(value = "INSERT INTO erp_stock_total (stock_id, material_number, product_number) " +
+            "SELECT s.stock_id, " +
+            "COALESCE((SELECT SUM(m.mater_number) FROM erp_material_stock m WHERE m.stock_id = s.stock_id), 0), " +
+            "COALESCE((SELECT SUM(p.prod_number) FROM erp_product_stock p WHERE p.stock_id = s.stock_id), 0) " +
+            "FROM erp_stock s " +
+            "ON DUPLICATE KEY UPDATE material_number = VALUES(material_number), product_number = VALUES(product_number)", nativeQuery = true)
+    int rebuildAll();
+}
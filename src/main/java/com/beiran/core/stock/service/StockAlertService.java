@@ -0,0 +1,34 @@
+package com.beiran.core.stock.service;
+
+import com.beiran.core.stock.entity.StockMovement;
+import com.beiran.core.stock.vo.LowStockAlertVo;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * StockAlertService 接口<br>
+ * 低库存预警: 物料/产品在所有仓库中的总数量低于其预警阈值时预警
+ */
+
+public interface StockAlertService {
+
+    /**
+     * 增量检查低库存，只检查上次检查之后库存流水中出现过的物料/产品，并以邮件批量发送新产生的预警
+     * @return 本次新产生的预警
+     */
+    List<LowStockAlertVo> checkLowStocks();
+
+    /**
+     * 查询当前所有未解除的低库存预警
+     * @return 按预警时间倒序排列的预警
+     */
+    List<LowStockAlertVo> getLowStockAlerts();
+
+    /**
+     * 物料/产品的预警阈值被修改后调用，在下次检查时重新检查这些物料/产品（存在事务时在提交后生效）
+     * @param itemType 库存类型
+     * @param itemIds 物料编号或产品编号
+     */
+    void recheckItems(StockMovement.StockItemType itemType, Collection<String> itemIds);
+}
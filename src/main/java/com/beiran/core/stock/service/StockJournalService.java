@@ -0,0 +1,54 @@
+package com.beiran.core.stock.service;
+
+import com.beiran.core.stock.entity.StockMovement;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * StockJournalService 接口<br>
+ * 库存流水只追加，不修改；某一时刻的库存由最近的快照加上少量流水计算得出，超过保留期的流水在压缩快照时删除
+ */
+
+public interface StockJournalService {
+
+    /**
+     * 批量记录库存流水
+     * @param movements 库存流水
+     */
+    void recordAll(List<StockMovement> movements);
+
+    /**
+     * 查询特定仓库中特定物料/产品的流水
+     * @param itemType 库存类型
+     * @param itemId 物料编号或产品编号
+     * @param stockId 仓库编号
+     * @param pageable 分页参数
+     * @return Page<StockMovement>
+     */
+    Page<StockMovement> getMovements(StockMovement.StockItemType itemType, String itemId, String stockId, Pageable pageable);
+
+    /**
+     * 查询某一时刻特定仓库中特定物料/产品的库存数量
+     * @param itemType 库存类型
+     * @param itemId 物料编号或产品编号
+     * @param stockId 仓库编号
+     * @param time 时刻
+     * @return 库存数量
+     */
+    Long getStockNumberAt(StockMovement.StockItemType itemType, String itemId, String stockId, Date time);
+
+    /**
+     * 创建库存快照
+     * @return 快照记录数
+     */
+    int createSnapshot();
+
+    /**
+     * 压缩历史快照，并删除已被保留的快照覆盖的旧流水
+     * @return 删除的快照记录数
+     */
+    int compactSnapshots();
+}
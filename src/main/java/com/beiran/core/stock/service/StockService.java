@@ -5,12 +5,17 @@ import com.beiran.core.stock.dto.StockDto;
 import com.beiran.core.stock.entity.MaterialStock;
 import com.beiran.core.stock.entity.ProductStock;
 import com.beiran.core.stock.entity.Stock;
+import com.beiran.core.stock.entity.StockTotal;
 import com.beiran.core.stock.vo.MaterialNumberVo;
 import com.beiran.core.stock.vo.ProductNumberVo;
+import com.beiran.core.stock.vo.StockImportResultVo;
 import org.springframework.data.domain.Pageable;
 
 import java.io.File;
+import java.io.InputStream;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * StockService 接口
@@ -58,6 +63,24 @@ public interface StockService extends GenericService<Stock, String> {
      */
     File createExcelFile(Pageable pageable);
 
+    /**
+     * 查询所有仓库的库存总量
+     * @return List<StockTotal>
+     */
+    List<StockTotal> getStockTotals();
+
+    /**
+     * 查询一批仓库的库存总量
+     * @param stockIds 仓库编号集合
+     * @return 仓库编号与库存总量，没有库存记录的仓库不包含在内
+     */
+    Map<String, StockTotal> getStockTotals(Collection<String> stockIds);
+
+    /**
+     * 根据物料-仓库、产品-仓库表重新统计所有仓库的库存总量
+     */
+    void rebuildStockTotals();
+
     /* ------------------------------- 物料-仓库相关 ---------------------------- */
 
     /**
@@ -75,6 +98,14 @@ public interface StockService extends GenericService<Stock, String> {
      */
     MaterialNumberVo getMaterialStockNumber(String materialId, String stockId);
 
+    /**
+     * 批量查找一批物料在仓库中的数量
+     * @param materialIds 物料编号集合
+     * @param stockIds 仓库编号集合，为空时查询所有仓库
+     * @return List<MaterialNumberVo>，没有存储记录的组合不包含在内
+     */
+    List<MaterialNumberVo> getMaterialStockNumbers(Collection<String> materialIds, Collection<String> stockIds);
+
     /**
      * 修改特定仓库中特定物料的数量
      * @param materialId 物料编号
@@ -84,13 +115,28 @@ public interface StockService extends GenericService<Stock, String> {
      */
     Boolean updateMaterialNumber(String materialId, String stockId, Long number);
 
+    /**
+     * 从特定仓库中扣减一定数量的物料，库存不足时不扣减
+     * @param materialId 物料编号
+     * @param stockId 仓库编号
+     * @param number 扣减的数量
+     * @return 是否扣减成功
+     */
+    Boolean deductMaterialNumber(String materialId, String stockId, Long number);
+
     /**
      * 向特定仓库中存储一定数量的物料
      * @param materialNumberVo 物料与仓库的数据
-     * @return MaterialStock
+     * @return MaterialStock，materNumber 为本次存入的数量
      */
     MaterialStock saveMaterialRecord(MaterialNumberVo materialNumberVo);
 
+    /**
+     * 批量入库物料，同一 (物料, 仓库) 的数量先合并，再在一个事务中分批以多行语句写入
+     * @param materialNumberVos 物料与仓库的数据
+     */
+    void saveMaterialRecords(Collection<MaterialNumberVo> materialNumberVos);
+
     /**
      * 更新物料-仓库中间表记录
      * @param materialStock 物料-仓库中间表
@@ -107,20 +153,28 @@ public interface StockService extends GenericService<Stock, String> {
     /* ------------------------------- 产品-仓库相关 ---------------------------- */
 
     /**
-     * 查找仓库中特定产品的数量
+     * 查找仓库中特定产品的可用数量（已扣除库存预留）
      * @param productId 产品数量
      * @return ProductNumberVo
      */
     ProductNumberVo getProductNumber(String productId);
 
     /**
-     * 查找特定仓库中特定产品的数量
+     * 查找特定仓库中特定产品的可用数量（已扣除库存预留）
      * @param productId 产品编号
      * @param stockId 仓库编号
      * @return ProductNumberVo
      */
     ProductNumberVo getProductStockNumber(String productId, String stockId);
 
+    /**
+     * 批量查找一批产品在仓库中的可用数量（已扣除库存预留）
+     * @param productIds 产品编号集合
+     * @param stockIds 仓库编号集合，为空时查询所有仓库
+     * @return List<ProductNumberVo>，没有存储记录的组合不包含在内
+     */
+    List<ProductNumberVo> getProductStockNumbers(Collection<String> productIds, Collection<String> stockIds);
+
     /**
      * 修改特定仓库中特定产品的数量
      * @param productId 产品编号
@@ -130,13 +184,80 @@ public interface StockService extends GenericService<Stock, String> {
      */
     Boolean updateProductNumber(String productId, String stockId, Long number);
 
+    /**
+     * 从特定仓库中扣减一定数量的产品，库存不足时不扣减
+     * @param productId 产品编号
+     * @param stockId 仓库编号
+     * @param number 扣减的数量
+     * @return 是否扣减成功
+     */
+    Boolean deductProductNumber(String productId, String stockId, Long number);
+
+    /**
+     * 按需出货，从各仓库中扣减一批产品的库存<br>
+     * 所有产品的库存一次查出，在内存中计算各仓库的扣减数量后批量扣减，任一产品库存不足时整体回滚
+     * @param productNumbers 产品编号与需要出货的数量
+     * @return 实际的扣减明细（产品编号、仓库编号、扣减数量）
+     */
+    List<ProductNumberVo> deductProductStocks(Map<String, Long> productNumbers);
+
+    /**
+     * 按需出货，优先从距离目标位置最近的仓库中扣减一批产品的库存，库存不足时抛出 StockShortageException
+     * @param productNumbers 产品编号与需要出货的数量
+     * @param latitude 目标位置纬度，为空时不考虑距离
+     * @param longitude 目标位置经度，为空时不考虑距离
+     * @return 实际的扣减明细（产品编号、仓库编号、扣减数量）
+     */
+    List<ProductNumberVo> deductProductStocks(Map<String, Long> productNumbers, Double latitude, Double longitude);
+
+    /**
+     * 为一批产品放置有时效的库存预留（如订单进入结算中时），优先预留距离目标位置最近的仓库，可用数量不足时抛出 StockShortageException
+     * @param holdId 预留编号，通常为销售订单编号
+     * @param productNumbers 产品编号与需要预留的数量
+     * @param latitude 目标位置纬度，为空时不考虑距离
+     * @param longitude 目标位置经度，为空时不考虑距离
+     * @return 预留明细（产品编号、仓库编号、预留数量）
+     */
+    List<ProductNumberVo> holdProductStocks(String holdId, Map<String, Long> productNumbers, Double latitude, Double longitude);
+
+    /**
+     * 将库存预留转为实际扣减
+     * @param holdId 预留编号
+     * @return 实际的扣减明细，预留不存在（如已过期）时为空集合
+     */
+    List<ProductNumberVo> deductHeldProductStocks(String holdId);
+
+    /**
+     * 释放库存预留
+     * @param holdId 预留编号
+     */
+    void releaseProductHold(String holdId);
+
+    /**
+     * 检查一批产品的可用量是否足够，不足时抛出 StockShortageException
+     * @param productNumbers 产品编号与需要的数量
+     */
+    void checkProductStocks(Map<String, Long> productNumbers);
+
+    /**
+     * 释放所有已到期的库存预留
+     * @return 释放的预留数
+     */
+    int releaseExpiredProductHolds();
+
     /**
      * 向特定仓库中存储一定数量的产品
      * @param productNumberVo 产品与仓库的数据
-     * @return ProductStock
+     * @return ProductStock，prodNumber 为本次存入的数量
      */
     ProductStock saveProductRecord(ProductNumberVo productNumberVo);
 
+    /**
+     * 批量入库产品，同一 (产品, 仓库) 的数量先合并，再在一个事务中分批以多行语句写入
+     * @param productNumberVos 产品与仓库的数据
+     */
+    void saveProductRecords(Collection<ProductNumberVo> productNumberVos);
+
     /**
      * 更新产品-仓库中间表记录
      * @param productStock 产品-仓库中间表
@@ -149,4 +270,15 @@ public interface StockService extends GenericService<Stock, String> {
      * @param productStocks 产品-仓库记录集合
      */
     void deleteProductRecord(List<ProductStock> productStocks);
+
+    /* ------------------------------- 库存导入 -------------------------------- */
+
+    /**
+     * 从 xlsx 或 csv 文件批量导入物料/产品库存
+     * @param inputStream 文件内容
+     * @param fileName 文件名，根据扩展名判断文件类型
+     * @param overwrite 为 true 时将数量设置为文件中的值（盘点），否则在原有数量上累加（入库）
+     * @return 导入结果，包含出错的行及原因
+     */
+    StockImportResultVo importStocks(InputStream inputStream, String fileName, Boolean overwrite);
 }
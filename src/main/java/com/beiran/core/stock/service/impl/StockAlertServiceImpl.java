@@ -0,0 +1,284 @@
+package com.beiran.core.stock.service.impl;
+
+import com.beiran.common.utils.MailUtils;
+import com.beiran.common.utils.RedisUtils;
+import com.beiran.core.material.repository.MaterialRepository;
+import com.beiran.core.product.repository.ProductRepository;
+import com.beiran.core.stock.entity.StockMovement;
+import com.beiran.core.stock.repository.MaterialStockRepository;
+import com.beiran.core.stock.repository.ProductStockRepository;
+import com.beiran.core.stock.repository.StockMovementRepository;
+import com.beiran.core.stock.service.StockAlertService;
+import com.beiran.core.stock.vo.LowStockAlertVo;
+import com.beiran.core.stock.vo.MaterialNumberVo;
+import com.beiran.core.stock.vo.ProductNumberVo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * StockAlertService 接口实现类<br>
+ * 以库存流水为变化记录，水位（上次检查的时间）保存在 Redis 中，每次只检查水位之后变化过的物料/产品，
+ * 检查的代价与变化的数量成正比，与库存记录的总数无关<br>
+ * 水位不存在（首次检查或 Redis 数据丢失）时，先将所有设置了预警阈值的物料/产品登记为待重新检查，做一次有界的全面检查<br>
+ * 未解除的预警与水位一同保存在 Redis 中，检查时持有 Redis 锁，多个实例中同一时间只有一个实例检查并发送邮件
+ */
+
+@Slf4j
+@Service("stockAlertService")
+public class StockAlertServiceImpl implements StockAlertService {
+
+    private static final String WATERMARK_KEY = "stock:alert:watermark";
+
+    /**
+     * 未解除的预警，hash: 库存类型/编号 -> LowStockAlertVo
+     */
+    private static final String ALERTS_KEY = "stock:alert:alerts";
+
+    /**
+     * 预警阈值被修改、需要在下次检查时重新检查的编号，set，键后接库存类型
+     */
+    private static final String RECHECK_KEY_PREFIX = "stock:alert:recheck:";
+
+    private static final String LOCK_KEY = "stock:alert:lock";
+
+    /**
+     * 锁的过期时间（秒），持有锁的实例异常退出时锁在此时间后释放
+     */
+    private static final long LOCK_TIMEOUT = TimeUnit.MINUTES.toSeconds(5);
+
+    /**
+     * 每次检查向水位之前多看的时间，流水时间早于提交时间，给检查时尚未提交的事务留出余量
+     */
+    private static final long WATERMARK_OVERLAP = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * 每条 IN 查询最多包含的编号数
+     */
+    private static final int IN_QUERY_CHUNK_SIZE = 500;
+
+    /**
+     * 接收预警邮件的地址，多个地址以逗号分隔，为空时只记录预警而不发送邮件
+     */
+    @Value("${stock.alert.emails:}")
+    private String alertEmails;
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private MaterialRepository materialRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MaterialStockRepository materialStockRepository;
+
+    @Autowired
+    private ProductStockRepository productStockRepository;
+
+    @Override
+    public List<LowStockAlertVo> checkLowStocks() {
+        String token = UUID.randomUUID().toString();
+        if (!redisUtils.setIfAbsent(LOCK_KEY, token, LOCK_TIMEOUT)) {
+            // 其他实例正在检查
+            return new ArrayList<>();
+        }
+        try {
+            long now = System.currentTimeMillis();
+            Object watermark = redisUtils.get(WATERMARK_KEY);
+            if (Objects.equals(watermark, null)) {
+                seedRecheckItems();
+            }
+            long since = (Objects.equals(watermark, null) ? now : Long.parseLong(watermark.toString())) - WATERMARK_OVERLAP;
+            List<LowStockAlertVo> newAlerts = new ArrayList<>();
+            for (StockMovement.StockItemType itemType : StockMovement.StockItemType.values()) {
+                Set<String> itemIds = new LinkedHashSet<>(stockMovementRepository.findChangedItemIds(itemType, new Date(since)));
+                itemIds.addAll(takeRecheckItems(itemType));
+                List<String> items = new ArrayList<>(itemIds);
+                for (int i = 0; i < items.size(); i += IN_QUERY_CHUNK_SIZE) {
+                    checkItems(itemType, items.subList(i, Math.min(i + IN_QUERY_CHUNK_SIZE, items.size())), newAlerts);
+                }
+            }
+            redisUtils.set(WATERMARK_KEY, String.valueOf(now));
+            if (!newAlerts.isEmpty()) {
+                log.info(" { 低库存预警 } 新增预警数: " + newAlerts.size());
+                sendAlerts(newAlerts);
+            }
+            return newAlerts;
+        } finally {
+            redisUtils.compareAndDelete(LOCK_KEY, token);
+        }
+    }
+
+    @Override
+    public List<LowStockAlertVo> getLowStockAlerts() {
+        return redisUtils.hmget(ALERTS_KEY).values().stream()
+                .map(alert -> (LowStockAlertVo) alert)
+                .sorted(Comparator.comparing(LowStockAlertVo::getAlertTime).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void recheckItems(StockMovement.StockItemType itemType, Collection<String> itemIds) {
+        if (Objects.equals(itemType, null) || Objects.equals(itemIds, null) || itemIds.isEmpty()) {
+            return;
+        }
+        Object[] ids = itemIds.stream().filter(StringUtils::hasText).distinct().toArray();
+        if (ids.length == 0) {
+            return;
+        }
+        // 提交后再登记，检查时读到的是修改后的阈值
+        afterCommit(() -> redisUtils.sSet(RECHECK_KEY_PREFIX + itemType, ids));
+    }
+
+    /**
+     * 将所有设置了预警阈值的物料/产品登记为待重新检查；未设置阈值的不会预警，无须检查
+     */
+    private void seedRecheckItems() {
+        List<String> materialIds = materialRepository.findIdsWithReorderPoint();
+        if (!materialIds.isEmpty()) {
+            redisUtils.sSet(RECHECK_KEY_PREFIX + StockMovement.StockItemType.MATERIAL, materialIds.toArray());
+        }
+        List<String> productIds = productRepository.findIdsWithReorderPoint();
+        if (!productIds.isEmpty()) {
+            redisUtils.sSet(RECHECK_KEY_PREFIX + StockMovement.StockItemType.PRODUCT, productIds.toArray());
+        }
+        log.info(" { 低库存预警 } 未找到水位，首次检查设置了预警阈值的物料: " + materialIds.size() + ", 产品: " + productIds.size());
+    }
+
+    /**
+     * 取出需要重新检查的编号；先移除再检查，检查期间再次登记的编号留到下一次
+     */
+    private List<String> takeRecheckItems(StockMovement.StockItemType itemType) {
+        String key = RECHECK_KEY_PREFIX + itemType;
+        Set<Object> members = redisUtils.sGet(key);
+        if (Objects.equals(members, null) || members.isEmpty()) {
+            return new ArrayList<>();
+        }
+        redisUtils.setRemove(key, members.toArray());
+        return members.stream().map(String::valueOf).collect(Collectors.toList());
+    }
+
+    /**
+     * 检查一批物料/产品: 低于阈值且尚未预警的加入预警，恢复的解除预警；同一物料/产品在解除前只预警一次
+     */
+    private void checkItems(StockMovement.StockItemType itemType, List<String> itemIds, List<LowStockAlertVo> newAlerts) {
+        boolean material = Objects.equals(itemType, StockMovement.StockItemType.MATERIAL);
+        List<Object[]> reorderPoints = material ? materialRepository.findReorderPoints(itemIds) : productRepository.findReorderPoints(itemIds);
+        Map<String, Long> stockNumbers = getStockNumbers(itemType, itemIds);
+        Map<String, Object[]> thresholds = new HashMap<>();
+        reorderPoints.forEach(row -> thresholds.put((String) row[0], row));
+        List<String> keys = itemIds.stream().map(itemId -> itemType + "/" + itemId).collect(Collectors.toList());
+        List<Object> currentAlerts = redisUtils.hmget(ALERTS_KEY, keys);
+        Map<String, Object> changedAlerts = new HashMap<>();
+        List<String> resolvedKeys = new ArrayList<>();
+        for (int i = 0; i < itemIds.size(); i++) {
+            String itemId = itemIds.get(i);
+            String key = keys.get(i);
+            LowStockAlertVo current = (LowStockAlertVo) currentAlerts.get(i);
+            Object[] threshold = thresholds.get(itemId);
+            long stockNumber = stockNumbers.getOrDefault(itemId, 0L);
+            if (Objects.equals(threshold, null) || stockNumber >= (Long) threshold[2]) {
+                if (!Objects.equals(current, null)) {
+                    resolvedKeys.add(key);
+                }
+            } else if (Objects.equals(current, null)) {
+                LowStockAlertVo alert = new LowStockAlertVo(itemType, itemId, (String) threshold[1], stockNumber, (Long) threshold[2], new Date());
+                changedAlerts.put(key, alert);
+                newAlerts.add(alert);
+            } else {
+                current.setStockNumber(stockNumber);
+                current.setReorderPoint((Long) threshold[2]);
+                changedAlerts.put(key, current);
+            }
+        }
+        if (!resolvedKeys.isEmpty()) {
+            redisUtils.hdel(ALERTS_KEY, resolvedKeys.toArray());
+        }
+        if (!changedAlerts.isEmpty()) {
+            redisUtils.hmset(ALERTS_KEY, changedAlerts);
+        }
+    }
+
+    /**
+     * 若当前存在事务，则在事务提交后执行，事务回滚时不执行；否则立即执行
+     */
+    private void afterCommit(Runnable runnable) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    runnable.run();
+                }
+            });
+        } else {
+            runnable.run();
+        }
+    }
+
+    /**
+     * 查询一批物料/产品在所有仓库中的总数量
+     */
+    private Map<String, Long> getStockNumbers(StockMovement.StockItemType itemType, List<String> itemIds) {
+        boolean material = Objects.equals(itemType, StockMovement.StockItemType.MATERIAL);
+        Map<String, Long> stockNumbers = new HashMap<>();
+        if (material) {
+            for (MaterialNumberVo number : materialStockRepository.findMaterialStockNumbers(itemIds)) {
+                stockNumbers.merge(number.getMaterialId(), number.getMaterialNumber(), Long::sum);
+            }
+        } else {
+            for (ProductNumberVo number : productStockRepository.findProductStockNumbers(itemIds)) {
+                stockNumbers.merge(number.getProductId(), number.getProductNumber(), Long::sum);
+            }
+        }
+        return stockNumbers;
+    }
+
+    /**
+     * 将一次检查中新产生的预警合并为一封邮件发送
+     */
+    private void sendAlerts(List<LowStockAlertVo> newAlerts) {
+        if (!StringUtils.hasText(alertEmails)) {
+            return;
+        }
+        StringBuilder content = new StringBuilder("<p>以下物料/产品的库存低于预警阈值:</p><table border=\"1\">")
+                .append("<tr><th>类型</th><th>编号</th><th>名称</th><th>库存</th><th>预警阈值</th></tr>");
+        for (LowStockAlertVo alert : newAlerts) {
+            content.append("<tr><td>").append(alert.getItemType().getValue())
+                    .append("</td><td>").append(alert.getItemId())
+                    .append("</td><td>").append(alert.getItemName())
+                    .append("</td><td>").append(alert.getStockNumber())
+                    .append("</td><td>").append(alert.getReorderPoint())
+                    .append("</td></tr>");
+        }
+        content.append("</table>");
+        for (String email : StringUtils.commaDelimitedListToStringArray(alertEmails)) {
+            if (StringUtils.hasText(email)) {
+                MailUtils.sendEmail(email.trim(), content.toString());
+            }
+        }
+    }
+}
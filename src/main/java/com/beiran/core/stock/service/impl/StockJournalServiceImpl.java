@@ -0,0 +1,273 @@
+package com.beiran.core.stock.service.impl;
+
+import com.beiran.common.exception.ParameterException;
+import com.beiran.common.utils.IdUtils;
+import com.beiran.core.stock.entity.StockMovement;
+import com.beiran.core.stock.entity.StockSnapshot;
+import com.beiran.core.stock.repository.MaterialStockRepository;
+import com.beiran.core.stock.repository.ProductStockRepository;
+import com.beiran.core.stock.repository.StockMovementRepository;
+import com.beiran.core.stock.repository.StockSnapshotRepository;
+import com.beiran.core.stock.service.StockJournalService;
+import com.beiran.core.stock.vo.MaterialNumberVo;
+import com.beiran.core.stock.vo.ProductNumberVo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * StockJournalService 接口实现类
+ */
+
+@Slf4j
+@Service("stockJournalService")
+public class StockJournalServiceImpl implements StockJournalService {
+
+    /**
+     * 快照时间比当前时间提前的量，给尚未提交的事务留出时间，避免其流水落在快照之前却没有被统计
+     */
+    private static final long SNAPSHOT_DELAY = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * 快照保留天数，更早的快照每月只保留一次，更早的流水在压缩时删除
+     */
+    private static final long SNAPSHOT_RETENTION = TimeUnit.DAYS.toMillis(90);
+
+    /**
+     * 创建快照时每批插入的记录数
+     */
+    private static final int SNAPSHOT_BATCH_SIZE = 1000;
+
+    /**
+     * 删除旧流水时每个事务删除的记录数，避免一次锁住大量记录
+     */
+    private static final int MOVEMENT_DELETE_BATCH_SIZE = 10000;
+
+    private static final String INSERT_MOVEMENT =
+            "INSERT INTO erp_stock_movement (movement_id, item_type, item_id, stock_id, movement_number, movement_type, movement_time) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_SNAPSHOT =
+            "INSERT INTO erp_stock_snapshot (snapshot_id, item_type, item_id, stock_id, snapshot_number, snapshot_time) VALUES (?, ?, ?, ?, ?, ?)";
+
+    /**
+     * 以当前库存表为基准计算快照（第一次快照时使用）<br>
+     * 快照时间早于当前时间，库存表中已包含快照时间之后已提交的流水，需要减去
+     */
+    private static final String SELECT_SNAPSHOT_FROM_STOCKS =
+            "SELECT t.item_type, t.item_id, t.stock_id, SUM(t.number) FROM (" +
+            "SELECT 'MATERIAL' AS item_type, material_id AS item_id, stock_id, mater_number AS number FROM erp_material_stock " +
+            "UNION ALL " +
+            "SELECT 'PRODUCT' AS item_type, product_id AS item_id, stock_id, prod_number AS number FROM erp_product_stock " +
+            "UNION ALL " +
+            "SELECT item_type, item_id, stock_id, -movement_number AS number FROM erp_stock_movement WHERE movement_time > ?" +
+            ") t GROUP BY t.item_type, t.item_id, t.stock_id HAVING SUM(t.number) <> 0";
+
+    /**
+     * 以上一次快照加上之后的流水计算快照，只读取流水与快照表，不锁库存表
+     */
+    private static final String SELECT_SNAPSHOT_FROM_MOVEMENTS =
+            "SELECT t.item_type, t.item_id, t.stock_id, SUM(t.number) FROM (" +
+            "SELECT item_type, item_id, stock_id, snapshot_number AS number FROM erp_stock_snapshot WHERE snapshot_time = ? " +
+            "UNION ALL " +
+            "SELECT item_type, item_id, stock_id, movement_number AS number FROM erp_stock_movement WHERE movement_time > ? AND movement_time <= ?" +
+            ") t GROUP BY t.item_type, t.item_id, t.stock_id HAVING SUM(t.number) <> 0";
+
+    private static final String DELETE_MOVEMENTS =
+            "DELETE FROM erp_stock_movement WHERE movement_time <= ? LIMIT " + MOVEMENT_DELETE_BATCH_SIZE;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StockSnapshotRepository stockSnapshotRepository;
+
+    @Autowired
+    private MaterialStockRepository materialStockRepository;
+
+    @Autowired
+    private ProductStockRepository productStockRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 批量记录库存流水，使用 JDBC 批量插入，在调用方的事务中执行
+     */
+    @Override
+    public void recordAll(List<StockMovement> movements) {
+        if (Objects.equals(movements, null) || movements.isEmpty()) {
+            return;
+        }
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> batchArgs = movements.stream()
+                .filter(movement -> !Objects.equals(movement.getMovementNumber(), null) && movement.getMovementNumber() != 0)
+                .map(movement -> new Object[]{
+                        IdUtils.nextId(),
+                        movement.getItemType().name(),
+                        movement.getItemId(),
+                        movement.getStockId(),
+                        movement.getMovementNumber(),
+                        movement.getMovementType().name(),
+                        Objects.equals(movement.getMovementTime(), null) ? now : new Timestamp(movement.getMovementTime().getTime())
+                })
+                .collect(Collectors.toList());
+        if (!batchArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_MOVEMENT, batchArgs);
+        }
+    }
+
+    @Override
+    public Page<StockMovement> getMovements(StockMovement.StockItemType itemType, String itemId, String stockId, Pageable pageable) {
+        checkItem(itemType, itemId, stockId);
+        return stockMovementRepository.findByItemTypeAndItemIdAndStockIdOrderByMovementTimeDesc(itemType, itemId, stockId, pageable);
+    }
+
+    /**
+     * 查询某一时刻的库存数量<br>
+     * 优先使用此前最近的快照加上之后的流水；若此前没有快照，则用此后最早的快照（或当前库存）减去期间的流水<br>
+     * 注意: 流水从启用此功能时开始记录，更早的时刻无法准确计算；超过保留期的流水已删除，保留期之前的时刻只精确到保留的快照
+     */
+    @Override
+    public Long getStockNumberAt(StockMovement.StockItemType itemType, String itemId, String stockId, Date time) {
+        checkItem(itemType, itemId, stockId);
+        if (Objects.equals(time, null)) {
+            throw new ParameterException("查询时间不能为空");
+        }
+        Date previous = stockSnapshotRepository.findLatestSnapshotTime(time);
+        if (!Objects.equals(previous, null)) {
+            return getSnapshotNumber(itemType, itemId, stockId, previous)
+                    + stockMovementRepository.sumMovementNumber(itemType, itemId, stockId, previous, time);
+        }
+        Date next = stockSnapshotRepository.findEarliestSnapshotTime(time);
+        if (!Objects.equals(next, null)) {
+            return getSnapshotNumber(itemType, itemId, stockId, next)
+                    - stockMovementRepository.sumMovementNumber(itemType, itemId, stockId, time, next);
+        }
+        // 尚未创建过快照，从当前库存倒推
+        Date now = new Date();
+        return getCurrentNumber(itemType, itemId, stockId)
+                - stockMovementRepository.sumMovementNumber(itemType, itemId, stockId, time, now);
+    }
+
+    /**
+     * 创建快照，快照时间为当前时间减去 SNAPSHOT_DELAY<br>
+     * 第一次以库存表为基准，之后以上一次快照加上期间的流水计算；快照编号与其他主键一样在 JVM 中生成（ULID），批量插入
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int createSnapshot() {
+        Date snapshotTime = new Date(System.currentTimeMillis() - SNAPSHOT_DELAY);
+        Date previous = stockSnapshotRepository.findLastSnapshotTime();
+        Timestamp time = new Timestamp(snapshotTime.getTime());
+        int count;
+        if (Objects.equals(previous, null)) {
+            // 与之后的快照使用同样的延迟，快照时间之前的流水此时都已提交，之后的由查询时的流水补上
+            count = insertSnapshot(time, SELECT_SNAPSHOT_FROM_STOCKS, time);
+        } else if (previous.before(snapshotTime)) {
+            Timestamp previousTime = new Timestamp(previous.getTime());
+            count = insertSnapshot(time, SELECT_SNAPSHOT_FROM_MOVEMENTS, previousTime, previousTime, time);
+        } else {
+            return 0;
+        }
+        log.info(" { 库存快照创建完成 } 快照记录数: " + count);
+        return count;
+    }
+
+    /**
+     * 压缩快照，并删除已被保留的快照覆盖的旧流水<br>
+     * 保留期之前最近一次保留的快照之前（包含）的流水不再用于计算，删除后更早时刻的库存按该快照所在月的快照计算；
+     * 每批删除使用单独的事务
+     */
+    @Override
+    public int compactSnapshots() {
+        Date retention = new Date(System.currentTimeMillis() - SNAPSHOT_RETENTION);
+        Integer count = transactionTemplate.execute(status -> stockSnapshotRepository.compactSnapshots(retention));
+        log.info(" { 库存快照压缩完成 } 删除快照记录数: " + count);
+        Date cutoff = stockSnapshotRepository.findLatestSnapshotTime(retention);
+        if (!Objects.equals(cutoff, null)) {
+            Timestamp cutoffTime = new Timestamp(cutoff.getTime());
+            long deleted = 0;
+            int batch;
+            do {
+                batch = Objects.requireNonNull(transactionTemplate.execute(status -> jdbcTemplate.update(DELETE_MOVEMENTS, cutoffTime)));
+                deleted += batch;
+            } while (batch >= MOVEMENT_DELETE_BATCH_SIZE);
+            log.info(" { 库存流水清理完成 } 删除 " + cutoff + " 之前的流水记录数: " + deleted);
+        }
+        return Objects.equals(count, null) ? 0 : count;
+    }
+
+    /**
+     * 按查询结果逐批插入快照记录
+     * @param snapshotTime 快照时间
+     * @param query 返回库存类型、编号、仓库编号与数量的查询
+     * @param args 查询参数
+     * @return 快照记录数
+     */
+    private int insertSnapshot(Timestamp snapshotTime, String query, Object... args) {
+        List<Object[]> batchArgs = new ArrayList<>(SNAPSHOT_BATCH_SIZE);
+        int[] count = {0};
+        // MySQL 驱动默认先读取完整的结果集，回调中可以在同一连接上插入
+        jdbcTemplate.query(query, (RowCallbackHandler) rs -> {
+            batchArgs.add(new Object[]{IdUtils.nextId(), rs.getString(1), rs.getString(2), rs.getString(3), rs.getLong(4), snapshotTime});
+            if (batchArgs.size() >= SNAPSHOT_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_SNAPSHOT, batchArgs);
+                count[0] += batchArgs.size();
+                batchArgs.clear();
+            }
+        }, args);
+        if (!batchArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SNAPSHOT, batchArgs);
+            count[0] += batchArgs.size();
+        }
+        return count[0];
+    }
+
+    private long getSnapshotNumber(StockMovement.StockItemType itemType, String itemId, String stockId, Date snapshotTime) {
+        return stockSnapshotRepository.findByItemTypeAndItemIdAndStockIdAndSnapshotTime(itemType, itemId, stockId, snapshotTime)
+                .map(StockSnapshot::getSnapshotNumber)
+                .orElse(0L);
+    }
+
+    private long getCurrentNumber(StockMovement.StockItemType itemType, String itemId, String stockId) {
+        Long number;
+        if (Objects.equals(itemType, StockMovement.StockItemType.MATERIAL)) {
+            MaterialNumberVo materialNumberVo = materialStockRepository.findMaterialStockNumber(itemId, stockId);
+            number = Objects.equals(materialNumberVo, null) ? null : materialNumberVo.getMaterialNumber();
+        } else {
+            ProductNumberVo productNumberVo = productStockRepository.findProductStockNumber(itemId, stockId);
+            number = Objects.equals(productNumberVo, null) ? null : productNumberVo.getProductNumber();
+        }
+        return Objects.equals(number, null) ? 0L : number;
+    }
+
+    private void checkItem(StockMovement.StockItemType itemType, String itemId, String stockId) {
+        if (Objects.equals(itemType, null)) {
+            throw new ParameterException("库存类型不能为空");
+        }
+        if (!StringUtils.hasText(itemId)) {
+            throw new ParameterException("物料或产品编号不能为空");
+        }
+        if (!StringUtils.hasText(stockId)) {
+            throw new ParameterException("仓库编号不能为空");
+        }
+    }
+}
@@ -1,42 +1,81 @@
 package com.beiran.core.stock.service.impl;
 
+import com.beiran.common.cache.CacheNames;
 import com.beiran.common.exception.EntityExistException;
 import com.beiran.common.exception.EntityNotExistException;
 import com.beiran.common.exception.ParameterException;
+import com.beiran.common.exception.StockShortageException;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.utils.FileUtils;
+import com.beiran.common.utils.IdUtils;
 import com.beiran.common.utils.transfer.StockTransferUtils;
 import com.beiran.core.material.entity.Material;
+import com.beiran.core.material.repository.MaterialRepository;
 import com.beiran.core.product.entity.Product;
+import com.beiran.core.product.repository.ProductRepository;
 import com.beiran.core.stock.dto.StockDto;
 import com.beiran.core.stock.entity.MaterialStock;
 import com.beiran.core.stock.entity.ProductStock;
 import com.beiran.core.stock.entity.Stock;
+import com.beiran.core.stock.entity.StockMovement;
+import com.beiran.core.stock.entity.StockTotal;
+import com.beiran.core.stock.hold.StockHoldStore;
+import com.beiran.core.stock.index.StockAvailabilityIndex;
+import com.beiran.core.stock.index.StockLocationIndex;
 import com.beiran.core.stock.repository.MaterialStockRepository;
 import com.beiran.core.stock.repository.ProductStockRepository;
 import com.beiran.core.stock.repository.StockRepository;
+import com.beiran.core.stock.repository.StockTotalRepository;
+import com.beiran.core.stock.service.StockJournalService;
 import com.beiran.core.stock.service.StockService;
 import com.beiran.core.stock.vo.MaterialNumberVo;
 import com.beiran.core.stock.vo.ProductNumberVo;
+import com.beiran.core.stock.vo.StockImportResultVo;
 import com.beiran.core.system.entity.User;
 import com.beiran.core.system.repository.UserRepository;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
 import java.io.File;
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * StockService 接口实现类
@@ -45,18 +84,72 @@ import java.util.stream.Collectors;
 @Service("stockService")
 public class StockServiceImpl implements StockService {
 
+    /**
+     * 批量查询时每条 IN 查询最多包含的编号数
+     */
+    private static final int IN_QUERY_CHUNK_SIZE = 500;
+
+    /**
+     * 每次查询的到期预留数
+     */
+    private static final int EXPIRED_HOLD_BATCH_SIZE = 100;
+
+    /**
+     * 导入库存时每批校验与写入的行数，每批使用单独的事务；也是批量入库时每条多行语句的最大行数，
+     * 每行 4 个占位符，不会超过 MySQL 单条语句 65535 个占位符的限制
+     */
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+
+    /**
+     * 导入结果中最多保留的错误信息条数
+     */
+    private static final int MAX_IMPORT_ERRORS = 1000;
+
+    /**
+     * 库存预留有效时间（秒）
+     */
+    @Value("${stock.hold.ttl:1800}")
+    private long holdTtl;
+
     @Autowired
     private StockRepository stockRepository;
 
+    @Autowired
+    private StockTotalRepository stockTotalRepository;
+
     @Autowired
     private MaterialStockRepository materialStockRepository;
 
     @Autowired
     private ProductStockRepository productStockRepository;
 
+    @Autowired
+    private MaterialRepository materialRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private StockAvailabilityIndex stockAvailabilityIndex;
+
+    @Autowired
+    private StockLocationIndex stockLocationIndex;
+
+    @Autowired
+    private StockHoldStore stockHoldStore;
+
+    @Autowired
+    private StockJournalService stockJournalService;
+
     /* ------------------------------- 仓库相关 -------------------------------- */
 
     /**
@@ -66,6 +159,7 @@ public class StockServiceImpl implements StockService {
      * @return StockDto
      */
     @Override
+    @Cacheable(cacheNames = CacheNames.STOCK_BY_NAME, key = "#stockName", unless = "#result == null")
     public StockDto getStockByName(String stockName) {
         if (!StringUtils.hasText(stockName)) {
             throw new ParameterException("仓库名不能为空");
@@ -90,12 +184,7 @@ public class StockServiceImpl implements StockService {
         if (!StringUtils.hasText(stockName)) {
             throw new ParameterException("仓库名不能为空");
         }
-        List<Stock> stocks = stockRepository.findByStockNameContaining(stockName, pageable);
-        List<StockDto> stockDtos =
-                stocks.stream()
-                        .map(stock -> StockTransferUtils.stockToDto(stock))
-                        .collect(Collectors.toList());
-        return stockDtos;
+        return stockRepository.findDtosByStockName(stockName, pageable);
     }
 
     /**
@@ -110,12 +199,7 @@ public class StockServiceImpl implements StockService {
         if (!StringUtils.hasText(userName)) {
             throw new ParameterException("仓库管理员用户名不能为空");
         }
-        List<Stock> stocks = stockRepository.findByStockManager_UserName(userName, pageable);
-        List<StockDto> stockDtos =
-                stocks.stream()
-                        .map(stock -> StockTransferUtils.stockToDto(stock))
-                        .collect(Collectors.toList());
-        return stockDtos;
+        return stockRepository.findDtosByManagerUserName(userName, pageable);
     }
 
     /**
@@ -127,6 +211,7 @@ public class StockServiceImpl implements StockService {
      */
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheNames.STOCK_BY_NAME, allEntries = true)
     public Boolean updateStockManager(String userId, String stockId) {
         // 首先判空，然后查询 userId 与 stockId 对应的 User 和 Stock 是否存在
         // 存在就改，不存在抛异常
@@ -161,10 +246,8 @@ public class StockServiceImpl implements StockService {
         if (Objects.equals(stocks, null)) {
             stocks = new ArrayList<>();
         }
-        // 物料数据
-        List<MaterialNumberVo> materialNumber = materialStockRepository.findAllMaterialStockNumber();
-        // 产品数据
-        List<ProductNumberVo> productNumber = productStockRepository.findAllProductStockNumber();
+        // 仓库库存总量，按仓库编号直接查找
+        Map<String, StockTotal> stockTotals = getStockTotals(stocks.stream().map(Stock::getStockId).collect(Collectors.toList()));
 
         Workbook workbook = new XSSFWorkbook();
         Sheet sheet = workbook.createSheet();
@@ -181,20 +264,7 @@ public class StockServiceImpl implements StockService {
 
         for (int i = 0; i < stocks.size(); i++) {
             Stock stock = stocks.get(i);
-            // 仓库存放的物料总数数据
-            // FIXME 可能会出问题
-            Set<MaterialNumberVo> materialNumberVos = materialNumber.stream().filter(materialNumberVo -> Objects.equals(materialNumberVo.getStockId(), stock.getStockId())).collect(Collectors.toSet());
-            MaterialNumberVo materialNumberVo = null;
-            if (!materialNumberVos.isEmpty()) {
-                materialNumberVo = materialNumberVos.stream().findFirst().orElse(null);
-            }
-            // 仓库存放的产品总数数据
-            // FIXME 可能会出问题
-            Set<ProductNumberVo> productNumberVos = productNumber.stream().filter(productNumberVo -> Objects.equals(productNumberVo.getStockId(), stock.getStockId())).collect(Collectors.toSet());
-            ProductNumberVo productNumberVo = null;
-            if (!productNumberVos.isEmpty()) {
-                productNumberVo = productNumberVos.stream().findFirst().orElse(null);
-            }
+            StockTotal stockTotal = stockTotals.get(stock.getStockId());
             Row row = sheet.createRow(i + 1);
             for (int j = 0; j < columnIndex + 1; j++) {
                 row.createCell(j);
@@ -205,12 +275,57 @@ public class StockServiceImpl implements StockService {
             row.getCell(++columnIndex).setCellValue(stock.getStockName());
             row.getCell(++columnIndex).setCellValue(stock.getStockPosition());
             row.getCell(++columnIndex).setCellValue(Objects.equals(stock.getStockManager(), null) ? "-" : stock.getStockManager().getUserName());
-            row.getCell(++columnIndex).setCellValue(Objects.equals(materialNumberVo, null) ? "-" : materialNumberVo.getMaterialNumber().toString());
-            row.getCell(++columnIndex).setCellValue(Objects.equals(productNumberVo, null) ? "-" : productNumberVo.getProductNumber().toString());
+            row.getCell(++columnIndex).setCellValue(Objects.equals(stockTotal, null) ? "-" : String.valueOf(stockTotal.getMaterialNumber()));
+            row.getCell(++columnIndex).setCellValue(Objects.equals(stockTotal, null) ? "-" : String.valueOf(stockTotal.getProductNumber()));
         }
         return FileUtils.createExcelFile(workbook, "erp_stocks");
     }
 
+    /**
+     * 查询所有仓库的库存总量
+     *
+     * @return List<StockTotal>
+     */
+    @Override
+    public List<StockTotal> getStockTotals() {
+        return stockTotalRepository.findAll();
+    }
+
+    /**
+     * 查询一批仓库的库存总量
+     *
+     * @param stockIds 仓库编号集合
+     * @return 仓库编号与库存总量
+     */
+    @Override
+    public Map<String, StockTotal> getStockTotals(Collection<String> stockIds) {
+        if (Objects.equals(stockIds, null) || stockIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return stockTotalRepository.findAllById(stockIds).stream()
+                .collect(Collectors.toMap(StockTotal::getStockId, stockTotal -> stockTotal));
+    }
+
+    /**
+     * 重新统计所有仓库的库存总量
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void rebuildStockTotals() {
+        stockTotalRepository.rebuildAll();
+    }
+
+    /**
+     * 应用启动后，若仓库库存总量表为空（第一次启用），则根据现有库存统计一次
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(rollbackFor = Exception.class)
+    public void initStockTotals() {
+        if (stockTotalRepository.count() == 0) {
+            stockTotalRepository.rebuildAll();
+        }
+    }
+
     /**
      * 保存操作
      *
@@ -219,6 +334,7 @@ public class StockServiceImpl implements StockService {
      */
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheNames.STOCK_BY_NAME, allEntries = true)
     public Stock save(Stock entity) {
         // 由于仓库名是唯一的，所以需要查是否存在
         if (Objects.equals(entity, null)) {
@@ -228,7 +344,32 @@ public class StockServiceImpl implements StockService {
         if (!Objects.equals(stockDto, null)) {
             throw new EntityExistException("仓库已存在");
         }
-        return stockRepository.save(entity);
+        Stock stock = stockRepository.save(entity);
+        stockLocationIndex.reloadAfterCommit();
+        return stock;
+    }
+
+    /**
+     * 批量保存操作
+     *
+     * @param entities 需要保存的实体
+     * @return 保存的实体
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheNames.STOCK_BY_NAME, allEntries = true)
+    public List<Stock> saveAll(List<Stock> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要保存的仓库不能为空");
+        }
+        // 仓库名称唯一，一次查询校验整批名称，批内重复同样视为已存在
+        Set<String> names = entities.stream().map(Stock::getStockName).collect(Collectors.toSet());
+        if (names.size() < entities.size() || !stockRepository.findExistingStockNames(names).isEmpty()) {
+            throw new EntityExistException("仓库已存在");
+        }
+        List<Stock> stocks = stockRepository.saveAll(entities);
+        stockLocationIndex.reloadAfterCommit();
+        return stocks;
     }
 
     /**
@@ -238,11 +379,34 @@ public class StockServiceImpl implements StockService {
      */
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheNames.STOCK_BY_NAME, allEntries = true)
     public void deleteAll(List<Stock> entities) {
         if (Objects.equals(entities, null) || entities.isEmpty()) {
             throw new ParameterException("需要删除的仓库不能为空");
         }
-        stockRepository.deleteAll(entities);
+        deleteAllById(entities.stream().map(Stock::getStockId).collect(Collectors.toList()));
+    }
+
+    /**
+     * 根据给定一批 ID 进行批量删除
+     *
+     * @param ids 需要删除的实体 ID
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheNames.STOCK_BY_NAME, allEntries = true)
+    public void deleteAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("需要删除的仓库不能为空");
+        }
+        stockRepository.deleteAllByIdInBatch(ids);
+        // 一条 DELETE ... WHERE stock_id IN (...) 删除对应的库存总量
+        stockTotalRepository.deleteInBatch(ids.stream().map(stockId -> {
+            StockTotal stockTotal = new StockTotal();
+            stockTotal.setStockId(stockId);
+            return stockTotal;
+        }).collect(Collectors.toList()));
+        stockLocationIndex.reloadAfterCommit();
     }
 
     /**
@@ -253,11 +417,35 @@ public class StockServiceImpl implements StockService {
      */
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheNames.STOCK_BY_NAME, allEntries = true)
     public Stock update(Stock entity) {
         if (Objects.equals(entity, null)) {
             throw new ParameterException("需要更新的仓库不能为空");
         }
-        return stockRepository.saveAndFlush(entity);
+        Stock stock = stockRepository.saveAndFlush(entity);
+        stockLocationIndex.reloadAfterCommit();
+        return stock;
+    }
+
+    /**
+     * 批量更新操作
+     *
+     * @param entities 需要更新的实体
+     * @return 更新后的实体
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheNames.STOCK_BY_NAME, allEntries = true)
+    public List<Stock> updateAll(List<Stock> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要修改的仓库不能为空");
+        }
+        List<Stock> updated = stockRepository.updateAllInBatch(entities);
+        if (updated.size() < entities.size()) {
+            throw new EntityNotExistException("仓库不存在");
+        }
+        stockLocationIndex.reloadAfterCommit();
+        return updated;
     }
 
     /**
@@ -274,6 +462,20 @@ public class StockServiceImpl implements StockService {
         return stockRepository.findById(id).orElseThrow(() -> new EntityNotExistException("仓库不存在"));
     }
 
+    /**
+     * 根据给定一批 ID 查询实体
+     *
+     * @param ids 需要查询的实体 ID
+     * @return 存在的实体
+     */
+    @Override
+    public List<Stock> findAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("仓库编号不能为空");
+        }
+        return stockRepository.findAllByIdInBatch(ids);
+    }
+
     /**
      * 分页查询
      *
@@ -285,6 +487,11 @@ public class StockServiceImpl implements StockService {
         return stockRepository.findAll(pageable);
     }
 
+    @Override
+    public Slice<Stock> findAll(Pageable pageable, PageCount count) {
+        return stockRepository.findAll(pageable, count);
+    }
+
     /* ------------------------------- 物料-仓库相关 ---------------------------- */
 
     /**
@@ -319,6 +526,31 @@ public class StockServiceImpl implements StockService {
         return materialStockRepository.findMaterialStockNumber(materialId, stockId);
     }
 
+    /**
+     * 批量查找一批物料在仓库中的数量，编号过多时分批使用 IN 查询
+     *
+     * @param materialIds 物料编号集合
+     * @param stockIds   仓库编号集合，为空时查询所有仓库
+     * @return List<MaterialNumberVo>
+     */
+    @Override
+    public List<MaterialNumberVo> getMaterialStockNumbers(Collection<String> materialIds, Collection<String> stockIds) {
+        if (Objects.equals(materialIds, null) || materialIds.isEmpty()) {
+            throw new ParameterException("物料编号不能为空");
+        }
+        List<String> stocks = Objects.equals(stockIds, null) ? new ArrayList<>() : new ArrayList<>(new LinkedHashSet<>(stockIds));
+        if (stocks.size() > IN_QUERY_CHUNK_SIZE) {
+            throw new ParameterException("一次查询的仓库不能超过 " + IN_QUERY_CHUNK_SIZE + " 个");
+        }
+        List<String> items = new ArrayList<>(new LinkedHashSet<>(materialIds));
+        List<MaterialNumberVo> numbers = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += IN_QUERY_CHUNK_SIZE) {
+            List<String> chunk = items.subList(i, Math.min(i + IN_QUERY_CHUNK_SIZE, items.size()));
+            numbers.addAll(stocks.isEmpty() ? materialStockRepository.findMaterialStockNumbers(chunk) : materialStockRepository.findMaterialStockNumbers(chunk, stocks));
+        }
+        return numbers;
+    }
+
     /**
      * 修改特定仓库中特定物料的数量
      *
@@ -337,29 +569,73 @@ public class StockServiceImpl implements StockService {
         if (!StringUtils.hasText(stockId)) {
             throw new ParameterException("仓库编号不能为空");
         }
-        if (Objects.equals(number, number) || number < 0) {
+        if (Objects.equals(number, null) || number < 0) {
             throw new ParameterException("物料数量错误");
         }
-        return materialStockRepository.updateNumber(materialId, stockId, number) > 0;
+        // 先锁定原有数量，以便在流水中记录变化量
+        Long oldNumber = materialStockRepository.findNumberForUpdate(materialId, stockId);
+        boolean updated = materialStockRepository.updateNumber(materialId, stockId, number) > 0;
+        if (updated) {
+            recordMovement(StockMovement.StockItemType.MATERIAL, materialId, stockId, StockMovement.MovementType.ADJUST,
+                    number - (Objects.equals(oldNumber, null) ? 0L : oldNumber));
+        }
+        return updated;
+    }
+
+    /**
+     * 从特定仓库中扣减一定数量的物料，库存不足时不扣减
+     *
+     * @param materialId 物料编号
+     * @param stockId    仓库编号
+     * @param number     扣减的数量
+     * @return 是否扣减成功
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Boolean deductMaterialNumber(String materialId, String stockId, Long number) {
+        if (!StringUtils.hasText(materialId)) {
+            throw new ParameterException("物料编号不能为空");
+        }
+        if (!StringUtils.hasText(stockId)) {
+            throw new ParameterException("仓库编号不能为空");
+        }
+        if (Objects.equals(number, null) || number < 0) {
+            throw new ParameterException("物料数量错误");
+        }
+        // 库存是否充足由 UPDATE 语句的条件判断，无需先查询
+        boolean deducted = materialStockRepository.decreaseNumber(materialId, stockId, number) > 0;
+        if (deducted) {
+            recordMovement(StockMovement.StockItemType.MATERIAL, materialId, stockId, StockMovement.MovementType.OUT, -number);
+        }
+        return deducted;
     }
 
     /**
      * 向特定仓库中存储一定数量的物料
      *
      * @param materialNumberVo 物料与仓库的数据
-     * @return MaterialStock
+     * @return MaterialStock，其中的 materNumber 为本次存入的数量；存入后的总量不在此读取，需要时调用 getMaterialStockNumber
      */
     @Override
-//    @Transactional(rollbackFor = Exception.class)
+    @Transactional(rollbackFor = Exception.class)
     public MaterialStock saveMaterialRecord(MaterialNumberVo materialNumberVo) {
-        // 注意如果这个仓库中已经存放过这种物料了，那就在这个基础上加
-        // 也就是在保存前首先要查一下存不存在
+        // 注意如果这个仓库中已经存放过这种物料了，那就在这个基础上加，否则新建一条记录
+        // 两种情况由一条 INSERT ... ON DUPLICATE KEY UPDATE 完成，并发入库时不会丢失数量
         if (Objects.equals(materialNumberVo, null)) {
             throw new ParameterException("需要存储的物料信息不能为空");
         }
+        if (!StringUtils.hasText(materialNumberVo.getMaterialId())) {
+            throw new ParameterException("物料编号不能为空");
+        }
+        if (!StringUtils.hasText(materialNumberVo.getStockId())) {
+            throw new ParameterException("仓库编号不能为空");
+        }
         if (Objects.equals(materialNumberVo.getMaterialNumber(), null) || materialNumberVo.getMaterialNumber() < 0) {
             throw new ParameterException("物料数量错误");
         }
+        materialStockRepository.upsertNumber(generateRecordId(), materialNumberVo.getMaterialId(), materialNumberVo.getStockId(), materialNumberVo.getMaterialNumber());
+        recordMovement(StockMovement.StockItemType.MATERIAL, materialNumberVo.getMaterialId(), materialNumberVo.getStockId(),
+                StockMovement.MovementType.IN, materialNumberVo.getMaterialNumber());
         MaterialStock materialStock = new MaterialStock();
         materialStock.setMaterNumber(materialNumberVo.getMaterialNumber());
         Material material = new Material();
@@ -368,25 +644,40 @@ public class StockServiceImpl implements StockService {
         Stock stock = new Stock();
         stock.setStockId(materialNumberVo.getStockId());
         materialStock.setStock(stock);
-        // 返回的 MaterialStock
-        MaterialStock returnMaterialStock = new MaterialStock();
-        MaterialNumberVo materialStockNumber = materialStockRepository.findMaterialStockNumber(materialNumberVo.getMaterialId(), materialNumberVo.getStockId());
-        if (!Objects.equals(materialStockNumber, null)) {
-            // 不为空说明库存中已经有这个物料的存储记录了，则在此基础上加库存量就行了
-            int result = materialStockRepository.updateNumber(materialNumberVo.getMaterialId(), materialNumberVo.getStockId(), materialStockNumber.getMaterialNumber() + materialNumberVo.getMaterialNumber());
-            if (result > 0) {
-                materialStock.setMaterNumber(materialNumberVo.getMaterialNumber() + materialStockNumber.getMaterialNumber());
-            } else {
-                materialStock.setMaterNumber(materialStockNumber.getMaterialNumber());
+        return materialStock;
+    }
+
+    /**
+     * 批量入库物料
+     *
+     * @param materialNumberVos 物料与仓库的数据
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void saveMaterialRecords(Collection<MaterialNumberVo> materialNumberVos) {
+        if (Objects.equals(materialNumberVos, null)) {
+            throw new ParameterException("需要存储的物料信息不能为空");
+        }
+        List<StockRow> rows = new ArrayList<>();
+        for (MaterialNumberVo materialNumberVo : materialNumberVos) {
+            if (Objects.equals(materialNumberVo, null)) {
+                throw new ParameterException("需要存储的物料信息不能为空");
             }
-            // FIXME 可能会出现没有数据的问题
-            BeanUtils.copyProperties(materialStock, returnMaterialStock);
-        } else {
-            // 为空则说明没有记录，则直接保存即可
-            returnMaterialStock = materialStockRepository.save(materialStock);
+            if (!StringUtils.hasText(materialNumberVo.getMaterialId())) {
+                throw new ParameterException("物料编号不能为空");
+            }
+            if (!StringUtils.hasText(materialNumberVo.getStockId())) {
+                throw new ParameterException("仓库编号不能为空");
+            }
+            if (Objects.equals(materialNumberVo.getMaterialNumber(), null) || materialNumberVo.getMaterialNumber() < 0) {
+                throw new ParameterException("物料数量错误");
+            }
+            rows.add(new StockRow(rows.size(), StockMovement.StockItemType.MATERIAL,
+                    materialNumberVo.getMaterialId(), materialNumberVo.getStockId(), materialNumberVo.getMaterialNumber()));
+        }
+        if (!rows.isEmpty()) {
+            writeStockRows(rows, false);
         }
-        // 调用方需要判断返回结果是否为 Null
-        return returnMaterialStock;
     }
 
     /**
@@ -402,7 +693,17 @@ public class StockServiceImpl implements StockService {
         if (Objects.equals(materialStock, null)) {
             throw new ParameterException("需要修改的物料存储记录不能为空");
         }
-        return materialStockRepository.saveAndFlush(materialStock);
+        // 记录可能被改到其他物料或仓库下，需要先冲销原来的数量
+        if (StringUtils.hasText(materialStock.getMaterStockId())) {
+            materialStockRepository.findById(materialStock.getMaterStockId()).ifPresent(old -> {
+                recordMovement(StockMovement.StockItemType.MATERIAL, old.getMaterial().getMaterialId(), old.getStock().getStockId(),
+                        StockMovement.MovementType.ADJUST, negate(old.getMaterNumber()));
+            });
+        }
+        MaterialStock saved = materialStockRepository.saveAndFlush(materialStock);
+        recordMovement(StockMovement.StockItemType.MATERIAL, saved.getMaterial().getMaterialId(), saved.getStock().getStockId(),
+                StockMovement.MovementType.ADJUST, saved.getMaterNumber());
+        return saved;
     }
 
     /**
@@ -416,13 +717,20 @@ public class StockServiceImpl implements StockService {
         if (Objects.equals(materialStocks, null) || materialStocks.isEmpty()) {
             throw new ParameterException("需要删除的物料存储记录不能为空");
         }
-        materialStockRepository.deleteAll(materialStocks);
+        // 调用方通常只给出记录编号，先查出记录以便在流水中冲销原有数量
+        List<MaterialStock> records = materialStockRepository.findAllById(
+                materialStocks.stream().map(MaterialStock::getMaterStockId).collect(Collectors.toList()));
+        materialStockRepository.deleteAll(records);
+        records.forEach(record -> {
+            recordMovement(StockMovement.StockItemType.MATERIAL, record.getMaterial().getMaterialId(), record.getStock().getStockId(),
+                    StockMovement.MovementType.ADJUST, negate(record.getMaterNumber()));
+        });
     }
 
     /* ------------------------------- 产品-仓库相关 ---------------------------- */
 
     /**
-     * 查找仓库中特定产品的数量
+     * 查找仓库中特定产品的可用数量（已扣除库存预留）
      *
      * @param productId 产品数量
      * @return ProductNumberVo
@@ -432,11 +740,17 @@ public class StockServiceImpl implements StockService {
         if (!StringUtils.hasText(productId)) {
             throw new ParameterException("产品编号不能为空");
         }
-        return productStockRepository.findProductNumber(productId);
+        // 预留按仓库记录，先按仓库扣除预留再求和；没有库存记录时数量为 null，与求和查询一致
+        Long productNumber = subtractHeldNumbers(productStockRepository.findProductStockNumbers(Collections.singleton(productId))).stream()
+                .map(ProductNumberVo::getProductNumber)
+                .filter(number -> !Objects.equals(number, null))
+                .reduce(Long::sum)
+                .orElse(null);
+        return new ProductNumberVo(productId, productNumber);
     }
 
     /**
-     * 查找特定仓库中特定产品的数量
+     * 查找特定仓库中特定产品的可用数量（已扣除库存预留）
      *
      * @param productId 产品编号
      * @param stockId   仓库编号
@@ -450,7 +764,37 @@ public class StockServiceImpl implements StockService {
         if (!StringUtils.hasText(stockId)) {
             throw new ParameterException("仓库编号不能为空");
         }
-        return productStockRepository.findProductStockNumber(productId, stockId);
+        ProductNumberVo productNumberVo = productStockRepository.findProductStockNumber(productId, stockId);
+        if (Objects.equals(productNumberVo, null)) {
+            return null;
+        }
+        return subtractHeldNumbers(Collections.singletonList(productNumberVo)).get(0);
+    }
+
+    /**
+     * 批量查找一批产品在仓库中的可用数量（已扣除库存预留），编号过多时分批使用 IN 查询
+     *
+     * @param productIds 产品编号集合
+     * @param stockIds   仓库编号集合，为空时查询所有仓库
+     * @return List<ProductNumberVo>
+     */
+    @Override
+    public List<ProductNumberVo> getProductStockNumbers(Collection<String> productIds, Collection<String> stockIds) {
+        if (Objects.equals(productIds, null) || productIds.isEmpty()) {
+            throw new ParameterException("产品编号不能为空");
+        }
+        List<String> stocks = Objects.equals(stockIds, null) ? new ArrayList<>() : new ArrayList<>(new LinkedHashSet<>(stockIds));
+        if (stocks.size() > IN_QUERY_CHUNK_SIZE) {
+            throw new ParameterException("一次查询的仓库不能超过 " + IN_QUERY_CHUNK_SIZE + " 个");
+        }
+        List<String> items = new ArrayList<>(new LinkedHashSet<>(productIds));
+        List<ProductNumberVo> numbers = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += IN_QUERY_CHUNK_SIZE) {
+            List<String> chunk = items.subList(i, Math.min(i + IN_QUERY_CHUNK_SIZE, items.size()));
+            numbers.addAll(stocks.isEmpty() ? productStockRepository.findProductStockNumbers(chunk) : productStockRepository.findProductStockNumbers(chunk, stocks));
+        }
+        // 返回可用数量，扣除其他订单的预留
+        return subtractHeldNumbers(numbers);
     }
 
     /**
@@ -471,25 +815,352 @@ public class StockServiceImpl implements StockService {
         if (!StringUtils.hasText(stockId)) {
             throw new ParameterException("仓库编号不能为空");
         }
-        if (Objects.equals(number, number) || number < 0) {
+        if (Objects.equals(number, null) || number < 0) {
+            throw new ParameterException("产品数量错误");
+        }
+        // 先锁定原有数量，以便在流水中记录变化量
+        Long oldNumber = productStockRepository.findNumberForUpdate(productId, stockId);
+        boolean updated = productStockRepository.updateNumber(productId, stockId, number) > 0;
+        if (updated) {
+            recordMovement(StockMovement.StockItemType.PRODUCT, productId, stockId, StockMovement.MovementType.ADJUST,
+                    number - (Objects.equals(oldNumber, null) ? 0L : oldNumber));
+            stockAvailabilityIndex.setProductAfterCommit(productId, stockId, number);
+        }
+        return updated;
+    }
+
+    /**
+     * 从特定仓库中扣减一定数量的产品，库存不足时不扣减
+     *
+     * @param productId 产品编号
+     * @param stockId   仓库编号
+     * @param number    扣减的数量
+     * @return 是否扣减成功
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Boolean deductProductNumber(String productId, String stockId, Long number) {
+        if (!StringUtils.hasText(productId)) {
+            throw new ParameterException("产品编号不能为空");
+        }
+        if (!StringUtils.hasText(stockId)) {
+            throw new ParameterException("仓库编号不能为空");
+        }
+        if (Objects.equals(number, null) || number < 0) {
             throw new ParameterException("产品数量错误");
         }
-        return productStockRepository.updateNumber(productId, stockId, number) > 0;
+        // 库存是否充足由 UPDATE 语句的条件判断，无需先查询
+        boolean deducted = productStockRepository.decreaseNumber(productId, stockId, number) > 0;
+        if (deducted) {
+            recordMovement(StockMovement.StockItemType.PRODUCT, productId, stockId, StockMovement.MovementType.OUT, -number);
+            stockAvailabilityIndex.addProductAfterCommit(productId, stockId, -number);
+        }
+        return deducted;
+    }
+
+    /**
+     * 按需出货，从各仓库中扣减一批产品的库存
+     *
+     * @param productNumbers 产品编号与需要出货的数量
+     * @return 实际的扣减明细（产品编号、仓库编号、扣减数量）
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<ProductNumberVo> deductProductStocks(Map<String, Long> productNumbers) {
+        return deductProductStocks(productNumbers, null, null);
+    }
+
+    /**
+     * 按需出货，优先从距离目标位置最近的仓库中扣减一批产品的库存
+     *
+     * @param productNumbers 产品编号与需要出货的数量
+     * @param latitude       目标位置纬度，为空时不考虑距离
+     * @param longitude      目标位置经度，为空时不考虑距离
+     * @return 实际的扣减明细（产品编号、仓库编号、扣减数量）
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<ProductNumberVo> deductProductStocks(Map<String, Long> productNumbers, Double latitude, Double longitude) {
+        if (Objects.equals(productNumbers, null) || productNumbers.isEmpty()) {
+            throw new ParameterException("需要出货的产品不能为空");
+        }
+        // Step 1. 一次查出所有产品在所有仓库中的库存，并扣除其他订单的预留
+        Map<String, List<ProductNumberVo>> stockNumbers = subtractHeldNumbers(productStockRepository.findProductStockNumbers(productNumbers.keySet())).stream()
+                .collect(Collectors.groupingBy(ProductNumberVo::getProductId));
+        // Step 2. 在内存中计算每个仓库需要扣减的数量
+        List<ProductNumberVo> deductions = planProductDeductions(productNumbers, stockNumbers, latitude, longitude);
+        // Step 3. 批量扣减
+        applyProductDeductions(deductions);
+        return deductions;
+    }
+
+    /**
+     * 为一批产品放置有时效的库存预留，优先预留距离目标位置最近的仓库
+     *
+     * @param holdId         预留编号
+     * @param productNumbers 产品编号与需要预留的数量
+     * @param latitude       目标位置纬度，为空时不考虑距离
+     * @param longitude      目标位置经度，为空时不考虑距离
+     * @return 预留明细（产品编号、仓库编号、预留数量）
+     */
+    @Override
+    public List<ProductNumberVo> holdProductStocks(String holdId, Map<String, Long> productNumbers, Double latitude, Double longitude) {
+        if (!StringUtils.hasText(holdId)) {
+            throw new ParameterException("预留编号不能为空");
+        }
+        if (Objects.equals(productNumbers, null) || productNumbers.isEmpty()) {
+            throw new ParameterException("需要预留的产品不能为空");
+        }
+        List<ProductNumberVo> onHandNumbers = productStockRepository.findProductStockNumbers(productNumbers.keySet());
+        Map<String, List<ProductNumberVo>> stockNumbers = subtractHeldNumbers(onHandNumbers).stream()
+                .collect(Collectors.groupingBy(ProductNumberVo::getProductId));
+        List<ProductNumberVo> holds = planProductDeductions(productNumbers, stockNumbers, latitude, longitude);
+        // 计算与放置之间可能有其他订单抢先预留，由预留存储按库存数量再次检查
+        Map<String, Long> onHand = onHandNumbers.stream()
+                .filter(onHandNumber -> !Objects.equals(onHandNumber.getProductNumber(), null))
+                .collect(Collectors.toMap(onHandNumber -> StockHoldStore.key(onHandNumber.getProductId(), onHandNumber.getStockId()), ProductNumberVo::getProductNumber));
+        if (!holds.isEmpty() && !stockHoldStore.hold(holdId, holds, onHand, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(holdTtl))) {
+            throw new StockShortageException();
+        }
+        holds.forEach(hold -> stockAvailabilityIndex.reserveProduct(hold.getProductId(), hold.getStockId(), hold.getProductNumber()));
+        return holds;
+    }
+
+    /**
+     * 将库存预留转为实际扣减，事务提交后释放预留
+     *
+     * @param holdId 预留编号
+     * @return 实际的扣减明细，预留不存在（如已过期）时为空集合
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<ProductNumberVo> deductHeldProductStocks(String holdId) {
+        if (!StringUtils.hasText(holdId)) {
+            throw new ParameterException("预留编号不能为空");
+        }
+        List<ProductNumberVo> holds = stockHoldStore.get(holdId);
+        if (holds.isEmpty()) {
+            return holds;
+        }
+        applyProductDeductions(holds);
+        // 在提交前释放会让其他订单在扣减生效前看到这部分库存
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    releaseHold(holdId);
+                }
+            });
+        } else {
+            releaseHold(holdId);
+        }
+        return holds;
+    }
+
+    /**
+     * 释放库存预留
+     *
+     * @param holdId 预留编号
+     */
+    @Override
+    public void releaseProductHold(String holdId) {
+        if (!StringUtils.hasText(holdId)) {
+            throw new ParameterException("预留编号不能为空");
+        }
+        releaseHold(holdId);
+    }
+
+    /**
+     * 释放所有已到期的库存预留，只涉及预留存储，不访问数据库
+     *
+     * @return 释放的预留数
+     */
+    @Override
+    public int releaseExpiredProductHolds() {
+        int count = 0;
+        List<String> holdIds;
+        do {
+            holdIds = stockHoldStore.findExpiredHoldIds(System.currentTimeMillis(), EXPIRED_HOLD_BATCH_SIZE);
+            for (String holdId : holdIds) {
+                if (releaseHold(holdId)) {
+                    count++;
+                }
+            }
+        } while (holdIds.size() >= EXPIRED_HOLD_BATCH_SIZE);
+        return count;
+    }
+
+    /**
+     * 检查一批产品的可用量是否足够，不足时抛出 StockShortageException<br>
+     * 索引判断不足时直接拒绝，无须查询数据库；索引判断足够或尚未加载时由数据库确认
+     *
+     * @param productNumbers 产品编号与需要的数量
+     */
+    @Override
+    public void checkProductStocks(Map<String, Long> productNumbers) {
+        if (Objects.equals(productNumbers, null) || productNumbers.isEmpty()) {
+            throw new ParameterException("需要检查的产品不能为空");
+        }
+        if (stockAvailabilityIndex.isLoaded() && !stockAvailabilityIndex.isProductAvailable(productNumbers)) {
+            throw new StockShortageException();
+        }
+        Map<String, Long> availableNumbers = getProductStockNumbers(productNumbers.keySet(), null).stream()
+                .filter(stockNumber -> !Objects.equals(stockNumber.getProductNumber(), null))
+                .collect(Collectors.groupingBy(ProductNumberVo::getProductId, Collectors.summingLong(ProductNumberVo::getProductNumber)));
+        productNumbers.forEach((productId, number) -> {
+            if (availableNumbers.getOrDefault(productId, 0L) < (Objects.equals(number, null) ? 0L : number)) {
+                throw new StockShortageException();
+            }
+        });
+    }
+
+    /**
+     * 释放预留并同步索引
+     * @param holdId 预留编号
+     * @return 本次是否释放了预留
+     */
+    private boolean releaseHold(String holdId) {
+        List<ProductNumberVo> items = stockHoldStore.release(holdId);
+        items.forEach(item -> stockAvailabilityIndex.releaseProduct(item.getProductId(), item.getStockId(), item.getProductNumber()));
+        return !items.isEmpty();
+    }
+
+    /**
+     * 从库存数量中扣除当前的预留总量
+     * @param stockNumbers 产品在各仓库中的库存
+     * @return 产品在各仓库中的可用数量
+     */
+    private List<ProductNumberVo> subtractHeldNumbers(List<ProductNumberVo> stockNumbers) {
+        Map<String, Long> heldNumbers = stockHoldStore.getHeldNumbers(stockNumbers.stream()
+                .map(stockNumber -> StockHoldStore.key(stockNumber.getProductId(), stockNumber.getStockId()))
+                .collect(Collectors.toList()));
+        if (heldNumbers.isEmpty()) {
+            return stockNumbers;
+        }
+        return stockNumbers.stream().map(stockNumber -> {
+            Long held = heldNumbers.get(StockHoldStore.key(stockNumber.getProductId(), stockNumber.getStockId()));
+            if (Objects.equals(held, null) || Objects.equals(stockNumber.getProductNumber(), null)) {
+                return stockNumber;
+            }
+            return new ProductNumberVo(stockNumber.getProductId(), stockNumber.getStockId(), Math.max(0, stockNumber.getProductNumber() - held));
+        }).collect(Collectors.toList());
+    }
+
+    /**
+     * 计算一批产品在各仓库中的扣减数量
+     * @param productNumbers 产品编号与需要出货的数量
+     * @param stockNumbers 产品编号与该产品在各仓库中的可用数量
+     * @param latitude 目标位置纬度
+     * @param longitude 目标位置经度
+     * @return 扣减明细
+     */
+    private List<ProductNumberVo> planProductDeductions(Map<String, Long> productNumbers, Map<String, List<ProductNumberVo>> stockNumbers, Double latitude, Double longitude) {
+        List<ProductNumberVo> deductions = new ArrayList<>();
+        productNumbers.forEach((productId, number) -> {
+            if (Objects.equals(number, null) || number < 0) {
+                throw new ParameterException("产品数量错误");
+            }
+            deductions.addAll(planProductDeduction(productId, number, stockNumbers.getOrDefault(productId, new ArrayList<>()), latitude, longitude));
+        });
+        return deductions;
+    }
+
+    /**
+     * 批量扣减产品库存，扣减条件中仍然判断库存是否充足，防止期间被其他操作扣减；同时记录流水并同步索引
+     * @param deductions 扣减明细
+     */
+    private void applyProductDeductions(List<ProductNumberVo> deductions) {
+        if (deductions.isEmpty()) {
+            return;
+        }
+        List<Object[]> batchArgs = deductions.stream()
+                .map(deduction -> new Object[]{deduction.getProductNumber(), deduction.getProductId(), deduction.getStockId(), deduction.getProductNumber()})
+                .collect(Collectors.toList());
+        int[] results = jdbcTemplate.batchUpdate("UPDATE erp_product_stock SET prod_number = prod_number - ? WHERE product_id = ? AND stock_id = ? AND prod_number >= ?", batchArgs);
+        for (int result : results) {
+            if (result == 0) {
+                throw new StockShortageException();
+            }
+        }
+        recordMovements(deductions.stream().map(deduction -> {
+            StockMovement movement = new StockMovement();
+            movement.setItemType(StockMovement.StockItemType.PRODUCT);
+            movement.setItemId(deduction.getProductId());
+            movement.setStockId(deduction.getStockId());
+            movement.setMovementType(StockMovement.MovementType.OUT);
+            movement.setMovementNumber(-deduction.getProductNumber());
+            return movement;
+        }).collect(Collectors.toList()));
+        deductions.forEach(deduction -> stockAvailabilityIndex.addProductAfterCommit(deduction.getProductId(), deduction.getStockId(), -deduction.getProductNumber()));
+    }
+
+    /**
+     * 计算单个产品在各仓库中的扣减数量<br>
+     * 给出目标位置时，按距离由近到远依次从有库存的仓库出货；未设置位置的仓库以及未给出目标位置时，优先从库存多的仓库出货以减少拆单
+     * @param productId 产品编号
+     * @param number 需要出货的数量
+     * @param stockNumbers 该产品在各仓库中的库存
+     * @param latitude 目标位置纬度
+     * @param longitude 目标位置经度
+     * @return 扣减明细
+     */
+    private List<ProductNumberVo> planProductDeduction(String productId, Long number, List<ProductNumberVo> stockNumbers, Double latitude, Double longitude) {
+        List<ProductNumberVo> deductions = new ArrayList<>();
+        long remain = number;
+        Map<String, ProductNumberVo> candidates = stockNumbers.stream()
+                .filter(stockNumber -> !Objects.equals(stockNumber.getProductNumber(), null) && stockNumber.getProductNumber() > 0)
+                .sorted(Comparator.comparing(ProductNumberVo::getProductNumber).reversed())
+                .collect(Collectors.toMap(ProductNumberVo::getStockId, stockNumber -> stockNumber, (a, b) -> a, LinkedHashMap::new));
+        // 最近的仓库优先，只在需要下一个仓库时才继续搜索
+        Iterator<String> nearest = stockLocationIndex.nearest(latitude, longitude);
+        while (remain > 0 && !candidates.isEmpty() && nearest.hasNext()) {
+            ProductNumberVo candidate = candidates.remove(nearest.next());
+            if (!Objects.equals(candidate, null)) {
+                long deductNumber = Math.min(candidate.getProductNumber(), remain);
+                deductions.add(new ProductNumberVo(productId, candidate.getStockId(), deductNumber));
+                remain -= deductNumber;
+            }
+        }
+        for (ProductNumberVo candidate : candidates.values()) {
+            if (remain <= 0) {
+                break;
+            }
+            long deductNumber = Math.min(candidate.getProductNumber(), remain);
+            deductions.add(new ProductNumberVo(productId, candidate.getStockId(), deductNumber));
+            remain -= deductNumber;
+        }
+        if (remain > 0) {
+            throw new StockShortageException();
+        }
+        return deductions;
     }
 
     /**
      * 向特定仓库中存储一定数量的产品
      *
      * @param productNumberVo 产品与仓库的数据
-     * @return ProductStock
+     * @return ProductStock，其中的 prodNumber 为本次存入的数量；存入后的总量不在此读取，需要时调用 getProductStockNumber
      */
     @Override
     @Transactional(rollbackFor = Exception.class)
     public ProductStock saveProductRecord(ProductNumberVo productNumberVo) {
-        // 存储前需要先查是否存在，如存在则加数量，不存在则创一条新的记录
+        // 如已存在记录则加数量，不存在则创一条新的记录，由一条 INSERT ... ON DUPLICATE KEY UPDATE 完成
         if (Objects.equals(productNumberVo, null)) {
             throw new ParameterException("产品存储信息不能为空");
         }
+        if (!StringUtils.hasText(productNumberVo.getProductId())) {
+            throw new ParameterException("产品编号不能为空");
+        }
+        if (!StringUtils.hasText(productNumberVo.getStockId())) {
+            throw new ParameterException("仓库编号不能为空");
+        }
+        if (Objects.equals(productNumberVo.getProductNumber(), null) || productNumberVo.getProductNumber() < 0) {
+            throw new ParameterException("产品数量错误");
+        }
+        productStockRepository.upsertNumber(generateRecordId(), productNumberVo.getProductId(), productNumberVo.getStockId(), productNumberVo.getProductNumber());
+        recordMovement(StockMovement.StockItemType.PRODUCT, productNumberVo.getProductId(), productNumberVo.getStockId(),
+                StockMovement.MovementType.IN, productNumberVo.getProductNumber());
+        stockAvailabilityIndex.addProductAfterCommit(productNumberVo.getProductId(), productNumberVo.getStockId(), productNumberVo.getProductNumber());
         ProductStock productStock = new ProductStock();
         productStock.setProdNumber(productNumberVo.getProductNumber());
         Product product = new Product();
@@ -498,24 +1169,40 @@ public class StockServiceImpl implements StockService {
         Stock stock = new Stock();
         stock.setStockId(productNumberVo.getStockId());
         productStock.setStock(stock);
-        // 返回的产品-仓库信息
-        ProductStock returnProductStock = new ProductStock();
-        ProductNumberVo productStockNumber = productStockRepository.findProductStockNumber(productNumberVo.getProductId(), productNumberVo.getStockId());
-        if (!Objects.equals(productStockNumber, null)) {
-            // 不为空则表示已经存在该记录，则直接在原有记录上添加数量即可
-            int result = productStockRepository.updateNumber(productNumberVo.getProductId(), productNumberVo.getStockId(), productStockNumber.getProductNumber() + productNumberVo.getProductNumber());
-            if (result > 0) {
-                productStock.setProdNumber(productStockNumber.getProductNumber() + productNumberVo.getProductNumber());
-            } else {
-                productStock.setProdNumber(productStockNumber.getProductNumber());
+        return productStock;
+    }
+
+    /**
+     * 批量入库产品
+     *
+     * @param productNumberVos 产品与仓库的数据
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void saveProductRecords(Collection<ProductNumberVo> productNumberVos) {
+        if (Objects.equals(productNumberVos, null)) {
+            throw new ParameterException("产品存储信息不能为空");
+        }
+        List<StockRow> rows = new ArrayList<>();
+        for (ProductNumberVo productNumberVo : productNumberVos) {
+            if (Objects.equals(productNumberVo, null)) {
+                throw new ParameterException("产品存储信息不能为空");
             }
-            // FIXME 复制数据可能会出现没值的情况
-            BeanUtils.copyProperties(productStock, returnProductStock);
-        } else {
-            // 为空说明没有记录，直接保存即可
-            returnProductStock = productStockRepository.save(productStock);
+            if (!StringUtils.hasText(productNumberVo.getProductId())) {
+                throw new ParameterException("产品编号不能为空");
+            }
+            if (!StringUtils.hasText(productNumberVo.getStockId())) {
+                throw new ParameterException("仓库编号不能为空");
+            }
+            if (Objects.equals(productNumberVo.getProductNumber(), null) || productNumberVo.getProductNumber() < 0) {
+                throw new ParameterException("产品数量错误");
+            }
+            rows.add(new StockRow(rows.size(), StockMovement.StockItemType.PRODUCT,
+                    productNumberVo.getProductId(), productNumberVo.getStockId(), productNumberVo.getProductNumber()));
+        }
+        if (!rows.isEmpty()) {
+            writeStockRows(rows, false);
         }
-        return returnProductStock;
     }
 
     /**
@@ -531,7 +1218,19 @@ public class StockServiceImpl implements StockService {
         if (Objects.equals(productStock, null)) {
             throw new ParameterException("需要修改的产品存储信息不能为空");
         }
-        return productStockRepository.saveAndFlush(productStock);
+        // 记录可能被改到其他产品或仓库下，需要先冲销原来的数量
+        if (StringUtils.hasText(productStock.getProdStockId())) {
+            productStockRepository.findById(productStock.getProdStockId()).ifPresent(old -> {
+                recordMovement(StockMovement.StockItemType.PRODUCT, old.getProduct().getProductId(), old.getStock().getStockId(),
+                        StockMovement.MovementType.ADJUST, negate(old.getProdNumber()));
+                stockAvailabilityIndex.removeProductAfterCommit(old.getProduct().getProductId(), old.getStock().getStockId());
+            });
+        }
+        ProductStock saved = productStockRepository.saveAndFlush(productStock);
+        recordMovement(StockMovement.StockItemType.PRODUCT, saved.getProduct().getProductId(), saved.getStock().getStockId(),
+                StockMovement.MovementType.ADJUST, saved.getProdNumber());
+        stockAvailabilityIndex.setProductAfterCommit(saved.getProduct().getProductId(), saved.getStock().getStockId(), saved.getProdNumber());
+        return saved;
     }
 
     /**
@@ -545,6 +1244,300 @@ public class StockServiceImpl implements StockService {
         if (Objects.equals(productStocks, null) || productStocks.isEmpty()) {
             throw new ParameterException("需要删除的产品存储信息不能为空");
         }
-        productStockRepository.deleteAll(productStocks);
+        // 调用方通常只给出记录编号，先查出记录以便同步索引
+        List<ProductStock> records = productStockRepository.findAllById(
+                productStocks.stream().map(ProductStock::getProdStockId).collect(Collectors.toList()));
+        productStockRepository.deleteAll(records);
+        records.forEach(record -> {
+            recordMovement(StockMovement.StockItemType.PRODUCT, record.getProduct().getProductId(), record.getStock().getStockId(),
+                    StockMovement.MovementType.ADJUST, negate(record.getProdNumber()));
+            stockAvailabilityIndex.removeProductAfterCommit(record.getProduct().getProductId(), record.getStock().getStockId());
+        });
+    }
+
+    /* ------------------------------- 库存导入 -------------------------------- */
+
+    /**
+     * 从 xlsx 或 csv 文件批量导入物料/产品库存<br>
+     * 文件第一行为表头，之后每行依次为: 类型（物料/产品）、物料或产品编号、仓库编号、数量<br>
+     * 文件逐行流式读取，每 IMPORT_CHUNK_SIZE 行校验并写入一次，每批使用单独的事务，某一批写入失败不影响其他批次
+     *
+     * @param inputStream 文件内容
+     * @param fileName    文件名，根据扩展名判断文件类型
+     * @param overwrite   为 true 时将数量设置为文件中的值（盘点），否则在原有数量上累加（入库）
+     * @return 导入结果
+     */
+    @Override
+    public StockImportResultVo importStocks(InputStream inputStream, String fileName, Boolean overwrite) {
+        if (Objects.equals(inputStream, null)) {
+            throw new ParameterException("导入的文件不能为空");
+        }
+        boolean overwriteNumber = Boolean.TRUE.equals(overwrite);
+        StockImportResultVo result = new StockImportResultVo();
+        List<StockRow> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        FileUtils.readRows(inputStream, fileName, (rowNum, cells) -> {
+            // 跳过表头与空行
+            if (rowNum == 1 || cells.stream().noneMatch(StringUtils::hasText)) {
+                return;
+            }
+            result.setTotalRows(result.getTotalRows() + 1);
+            StockRow row = parseImportRow(rowNum, cells, result);
+            if (Objects.equals(row, null)) {
+                return;
+            }
+            chunk.add(row);
+            if (chunk.size() >= IMPORT_CHUNK_SIZE) {
+                importChunk(chunk, overwriteNumber, result);
+                chunk.clear();
+            }
+        });
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, overwriteNumber, result);
+        }
+        return result;
+    }
+
+    /**
+     * 解析导入文件中的一行，格式错误时记录错误并返回 null
+     */
+    private StockRow parseImportRow(int rowNum, List<String> cells, StockImportResultVo result) {
+        String type = cells.size() > 0 ? cells.get(0) : "";
+        String itemId = cells.size() > 1 ? cells.get(1) : "";
+        String stockId = cells.size() > 2 ? cells.get(2) : "";
+        String number = cells.size() > 3 ? cells.get(3) : "";
+        StockMovement.StockItemType itemType;
+        if (Objects.equals(type, "物料") || StockMovement.StockItemType.MATERIAL.name().equalsIgnoreCase(type)) {
+            itemType = StockMovement.StockItemType.MATERIAL;
+        } else if (Objects.equals(type, "产品") || StockMovement.StockItemType.PRODUCT.name().equalsIgnoreCase(type)) {
+            itemType = StockMovement.StockItemType.PRODUCT;
+        } else {
+            addImportError(result, rowNum, "类型应为物料或产品");
+            return null;
+        }
+        if (!StringUtils.hasText(itemId)) {
+            addImportError(result, rowNum, "物料或产品编号不能为空");
+            return null;
+        }
+        if (!StringUtils.hasText(stockId)) {
+            addImportError(result, rowNum, "仓库编号不能为空");
+            return null;
+        }
+        Long importNumber = null;
+        try {
+            // xlsx 中的数值可能带有千分位或小数点（如 1,000 或 100.0）
+            importNumber = new BigDecimal(number.replace(",", "")).longValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            // 在下面统一处理
+        }
+        if (Objects.equals(importNumber, null) || importNumber < 0) {
+            addImportError(result, rowNum, "数量应为非负整数");
+            return null;
+        }
+        return new StockRow(rowNum, itemType, itemId, stockId, importNumber);
+    }
+
+    /**
+     * 校验并写入一批导入的行
+     */
+    private void importChunk(List<StockRow> rows, boolean overwrite, StockImportResultVo result) {
+        Set<String> materialIds = findExistingIds(rows, StockMovement.StockItemType.MATERIAL, materialRepository::findExistingIds);
+        Set<String> productIds = findExistingIds(rows, StockMovement.StockItemType.PRODUCT, productRepository::findExistingIds);
+        Set<String> stockIds = new HashSet<>(stockRepository.findExistingIds(
+                rows.stream().map(row -> row.stockId).collect(Collectors.toSet())));
+        List<StockRow> validRows = new ArrayList<>();
+        for (StockRow row : rows) {
+            boolean material = Objects.equals(row.itemType, StockMovement.StockItemType.MATERIAL);
+            if (!(material ? materialIds : productIds).contains(row.itemId)) {
+                addImportError(result, row.rowNum, (material ? "物料不存在: " : "产品不存在: ") + row.itemId);
+            } else if (!stockIds.contains(row.stockId)) {
+                addImportError(result, row.rowNum, "仓库不存在: " + row.stockId);
+            } else {
+                validRows.add(row);
+            }
+        }
+        if (validRows.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.execute(status -> {
+                writeStockRows(validRows, overwrite);
+                return null;
+            });
+            result.setImportedRows(result.getImportedRows() + validRows.size());
+        } catch (RuntimeException e) {
+            validRows.forEach(row -> addImportError(result, row.rowNum, "写入失败，本批数据未导入"));
+        }
+    }
+
+    /**
+     * 查询行中出现的某一类型的编号中存在的编号
+     */
+    private Set<String> findExistingIds(List<StockRow> rows, StockMovement.StockItemType itemType,
+                                        Function<Collection<String>, List<String>> finder) {
+        Set<String> ids = rows.stream()
+                .filter(row -> Objects.equals(row.itemType, itemType))
+                .map(row -> row.itemId)
+                .collect(Collectors.toSet());
+        return ids.isEmpty() ? Collections.emptySet() : new HashSet<>(finder.apply(ids));
+    }
+
+    /**
+     * 在当前事务中写入一批已校验的行（导入文件或入库单据的明细）<br>
+     * 同一 (物料/产品, 仓库) 的多行先合并: 累加时数量相加，覆盖时以最后一行为准；合并后按键排序，固定加锁顺序<br>
+     * 每 IMPORT_CHUNK_SIZE 行一条语句，所有语句都在当前事务中；流水与仓库总量在最后一次写入
+     */
+    private void writeStockRows(List<StockRow> rows, boolean overwrite) {
+        Map<String, StockRow> merged = new TreeMap<>();
+        for (StockRow row : rows) {
+            merged.merge(row.itemType + "/" + row.itemId + "/" + row.stockId, row, (old, current) -> overwrite ? current
+                    : new StockRow(old.rowNum, old.itemType, old.itemId, old.stockId, old.number + current.number));
+        }
+        List<StockMovement> movements = new ArrayList<>();
+        for (StockMovement.StockItemType itemType : StockMovement.StockItemType.values()) {
+            List<StockRow> items = merged.values().stream()
+                    .filter(row -> Objects.equals(row.itemType, itemType))
+                    .collect(Collectors.toList());
+            for (int i = 0; i < items.size(); i += IMPORT_CHUNK_SIZE) {
+                movements.addAll(upsertStockRows(itemType, items.subList(i, Math.min(i + IMPORT_CHUNK_SIZE, items.size())), overwrite));
+            }
+        }
+        if (!movements.isEmpty()) {
+            recordMovements(movements);
+        }
+    }
+
+    /**
+     * 以一条多行 INSERT ... ON DUPLICATE KEY UPDATE 写入同一类型的一批行，并同步索引
+     * @return 需要记录的流水
+     */
+    private List<StockMovement> upsertStockRows(StockMovement.StockItemType itemType, List<StockRow> rows, boolean overwrite) {
+        boolean material = Objects.equals(itemType, StockMovement.StockItemType.MATERIAL);
+        String table = material ? "erp_material_stock" : "erp_product_stock";
+        String idColumn = material ? "mater_stock_id" : "prod_stock_id";
+        String itemColumn = material ? "material_id" : "product_id";
+        String numberColumn = material ? "mater_number" : "prod_number";
+        // 覆盖时先锁定原有数量，以便在流水中记录变化量
+        Map<String, Long> oldNumbers = new HashMap<>();
+        if (overwrite) {
+            jdbcTemplate.query("SELECT " + itemColumn + ", stock_id, " + numberColumn + " FROM " + table +
+                            " WHERE (" + itemColumn + ", stock_id) IN (" + placeholders("(?, ?)", rows.size()) + ") FOR UPDATE",
+                    rows.stream().flatMap(row -> Stream.of(row.itemId, row.stockId)).toArray(),
+                    (RowCallbackHandler) rs -> oldNumbers.put(rs.getString(1) + "/" + rs.getString(2), rs.getLong(3)));
+        }
+        jdbcTemplate.update("INSERT INTO " + table + " (" + idColumn + ", " + itemColumn + ", stock_id, " + numberColumn + ") VALUES " +
+                        placeholders("(?, ?, ?, ?)", rows.size()) + " ON DUPLICATE KEY UPDATE " + numberColumn + " = " +
+                        (overwrite ? "" : numberColumn + " + ") + "VALUES(" + numberColumn + ")",
+                rows.stream().flatMap(row -> Stream.of(generateRecordId(), row.itemId, row.stockId, row.number)).toArray());
+        List<StockMovement> movements = new ArrayList<>();
+        for (StockRow row : rows) {
+            long delta = overwrite ? row.number - oldNumbers.getOrDefault(row.itemId + "/" + row.stockId, 0L) : row.number;
+            if (delta != 0) {
+                StockMovement movement = new StockMovement();
+                movement.setItemType(itemType);
+                movement.setItemId(row.itemId);
+                movement.setStockId(row.stockId);
+                movement.setMovementType(overwrite ? StockMovement.MovementType.ADJUST : StockMovement.MovementType.IN);
+                movement.setMovementNumber(delta);
+                movements.add(movement);
+            }
+            if (material) {
+                continue;
+            }
+            if (overwrite) {
+                stockAvailabilityIndex.setProductAfterCommit(row.itemId, row.stockId, row.number);
+            } else {
+                stockAvailabilityIndex.addProductAfterCommit(row.itemId, row.stockId, row.number);
+            }
+        }
+        return movements;
+    }
+
+    private static String placeholders(String group, int count) {
+        return String.join(", ", Collections.nCopies(count, group));
+    }
+
+    private static void addImportError(StockImportResultVo result, int rowNum, String message) {
+        result.setErrorRows(result.getErrorRows() + 1);
+        if (result.getErrors().size() < MAX_IMPORT_ERRORS) {
+            result.getErrors().add(new StockImportResultVo.RowError(rowNum, message));
+        }
+    }
+
+    /**
+     * 一行待写入的库存: 导入文件中的一行或入库单据中的一条明细，rowNum 仅用于导入时报告错误
+     */
+    private static final class StockRow {
+
+        private final int rowNum;
+
+        private final StockMovement.StockItemType itemType;
+
+        private final String itemId;
+
+        private final String stockId;
+
+        private final long number;
+
+        private StockRow(int rowNum, StockMovement.StockItemType itemType, String itemId, String stockId, long number) {
+            this.rowNum = rowNum;
+            this.itemType = itemType;
+            this.itemId = itemId;
+            this.stockId = stockId;
+            this.number = number;
+        }
+    }
+
+    /**
+     * 记录一条库存变化: 写入库存流水并累加仓库库存总量
+     */
+    private void recordMovement(StockMovement.StockItemType itemType, String itemId, String stockId, StockMovement.MovementType movementType, Long number) {
+        StockMovement movement = new StockMovement();
+        movement.setItemType(itemType);
+        movement.setItemId(itemId);
+        movement.setStockId(stockId);
+        movement.setMovementType(movementType);
+        movement.setMovementNumber(number);
+        recordMovements(Collections.singletonList(movement));
+    }
+
+    /**
+     * 记录一批库存变化: 批量写入库存流水，并按仓库汇总后批量累加仓库库存总量
+     */
+    private void recordMovements(List<StockMovement> movements) {
+        stockJournalService.recordAll(movements);
+        // 按仓库编号排序后更新，避免并发事务以不同顺序锁定总量记录
+        Map<String, long[]> deltas = new TreeMap<>();
+        for (StockMovement movement : movements) {
+            if (Objects.equals(movement.getMovementNumber(), null) || movement.getMovementNumber() == 0) {
+                continue;
+            }
+            long[] delta = deltas.computeIfAbsent(movement.getStockId(), stockId -> new long[2]);
+            delta[Objects.equals(movement.getItemType(), StockMovement.StockItemType.MATERIAL) ? 0 : 1] += movement.getMovementNumber();
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> batchArgs = deltas.entrySet().stream()
+                .map(entry -> new Object[]{entry.getKey(), entry.getValue()[0], entry.getValue()[1]})
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate("INSERT INTO erp_stock_total (stock_id, material_number, product_number) VALUES (?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE material_number = material_number + VALUES(material_number), product_number = product_number + VALUES(product_number)", batchArgs);
+    }
+
+    /**
+     * 取相反数，用于冲销原有数量
+     * @param number 数量
+     * @return 相反数，number 为 null 时返回 null
+     */
+    private static Long negate(Long number) {
+        return Objects.equals(number, null) ? null : -number;
+    }
+
+    /**
+     * 生成中间表记录编号，与实体主键生成器的格式一致（按时间有序的 ULID）
+     * @return 记录编号
+     */
+    private String generateRecordId() {
+        return IdUtils.nextId();
     }
 }
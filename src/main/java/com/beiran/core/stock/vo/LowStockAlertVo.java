@@ -0,0 +1,59 @@
+package com.beiran.core.stock.vo;
+
+import com.beiran.core.stock.entity.StockMovement;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.Date;
+
+/**
+ * 低库存预警
+ */
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class LowStockAlertVo {
+
+    /**
+     * 库存类型
+     */
+    private StockMovement.StockItemType itemType;
+
+    /**
+     * 物料编号或产品编号
+     */
+    private String itemId;
+
+    /**
+     * 物料名或产品名
+     */
+    private String itemName;
+
+    /**
+     * 所有仓库中的总数量
+     */
+    private Long stockNumber;
+
+    /**
+     * 预警阈值
+     */
+    private Long reorderPoint;
+
+    /**
+     * 预警时间
+     */
+    private Date alertTime;
+
+    public LowStockAlertVo(StockMovement.StockItemType itemType, String itemId, String itemName, Long stockNumber, Long reorderPoint, Date alertTime) {
+        this.itemType = itemType;
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.stockNumber = stockNumber;
+        this.reorderPoint = reorderPoint;
+        this.alertTime = alertTime;
+    }
+}
@@ -0,0 +1,62 @@
+package com.beiran.core.stock.vo;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 库存导入结果
+ */
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class StockImportResultVo {
+
+    /**
+     * 数据行数（不含表头）
+     */
+    private long totalRows;
+
+    /**
+     * 成功导入的行数
+     */
+    private long importedRows;
+
+    /**
+     * 出错的行数
+     */
+    private long errorRows;
+
+    /**
+     * 各行的错误信息，数量较多时只保留前面一部分
+     */
+    private List<RowError> errors = new ArrayList<>();
+
+    @Getter
+    @Setter
+    @ToString
+    @NoArgsConstructor
+    public static class RowError {
+
+        /**
+         * 行号（从 1 开始，表头为第 1 行）
+         */
+        private int rowNum;
+
+        /**
+         * 错误信息
+         */
+        private String message;
+
+        public RowError(int rowNum, String message) {
+            this.rowNum = rowNum;
+            this.message = message;
+        }
+    }
+}
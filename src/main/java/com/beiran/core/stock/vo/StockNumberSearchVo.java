@@ -0,0 +1,24 @@
+package com.beiran.core.stock.vo;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+/**
+ * 批量查询物料/产品在仓库中存储数量的条件
+ */
+@Data
+public class StockNumberSearchVo {
+
+    /**
+     * 物料编号或产品编号
+     */
+    @NotEmpty(message = "物料或产品编号不能为空")
+    private List<String> itemIds;
+
+    /**
+     * 仓库编号，为空时查询所有仓库
+     */
+    private List<String> stockIds;
+}
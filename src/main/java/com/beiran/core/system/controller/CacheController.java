@@ -0,0 +1,75 @@
+package com.beiran.core.system.controller;
+
+import com.beiran.common.annotation.LogRecord;
+import com.beiran.common.respone.ResponseModel;
+import com.beiran.core.system.service.CacheService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 二级缓存相关接口<br>
+ * 仅限管理员: admin<br>
+ */
+
+@RestController
+@RequestMapping("/api/v1/caches")
+@Api(tags = "系统管理：缓存管理")
+public class CacheController {
+
+    @Autowired
+    private CacheService cacheService;
+
+    /**
+     * 查询二级缓存各区域的条目数与命中情况
+     * @return
+     */
+    @GetMapping
+    @PreAuthorize("@erp.check('admin')")
+    @ApiOperation("查询二级缓存统计")
+    public ResponseModel getRegions() {
+        return ResponseModel.ok(cacheService.getRegions());
+    }
+
+    /**
+     * 查询 Redis 批量与脚本操作的调用次数与耗时
+     * @return
+     */
+    @GetMapping("/redis")
+    @PreAuthorize("@erp.check('admin')")
+    @ApiOperation("查询 Redis 操作统计")
+    public ResponseModel getRedisOperations() {
+        return ResponseModel.ok(cacheService.getRedisOperations());
+    }
+
+    /**
+     * 按写入时间分页查询某个缓存在 Redis 中的键
+     * @param cacheName 缓存名
+     * @param pageable 分页参数
+     * @return
+     */
+    @GetMapping("/redis/{cacheName}/keys")
+    @PreAuthorize("@erp.check('admin')")
+    @ApiOperation("查询缓存键")
+    public ResponseModel getCacheKeys(@PathVariable("cacheName") String cacheName,
+                                      @PageableDefault Pageable pageable) {
+        return ResponseModel.ok(cacheService.getCacheKeys(cacheName, pageable));
+    }
+
+    /**
+     * 清空二级缓存与查询缓存
+     * @return
+     */
+    @DeleteMapping
+    @LogRecord("清空二级缓存")
+    @PreAuthorize("@erp.check('admin')")
+    @ApiOperation("清空二级缓存")
+    public ResponseModel evictAll() {
+        cacheService.evictAll();
+        return ResponseModel.ok("清空成功");
+    }
+}
@@ -1,6 +1,7 @@
 package com.beiran.core.system.controller;
 
 import com.beiran.common.annotation.LogRecord;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.respone.ResponseModel;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.core.system.dto.DeptDto;
@@ -21,7 +22,6 @@ import javax.validation.Valid;
 import java.io.File;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * 部门接口<br>
@@ -102,12 +102,7 @@ public class DeptController {
         if (Objects.equals(deptIds, null) || deptIds.isEmpty()) {
             return ResponseModel.error("需要删除的部门不能为空");
         } else {
-            List<Dept> depts = deptIds.stream().map(deptId -> {
-                Dept dept = new Dept();
-                dept.setDeptId(deptId);
-                return dept;
-            }).collect(Collectors.toList());
-            deptService.deleteAll(depts);
+            deptService.deleteAllById(deptIds);
             return ResponseModel.ok("删除成功");
         }
     }
@@ -185,14 +180,16 @@ public class DeptController {
     /**
      * 查询所有部门
      * @param pageable
+     * @param count 总数的取得方式: EXACT（缺省）精确总数，NONE 不统计总数，ESTIMATE 近似总数
      * @return
      */
     @GetMapping
     @LogRecord("查询所有部门")
     @PreAuthorize("@erp.check('admin') and @erp.check('system:dept:view')")
     @ApiOperation("查询所有部门")
-    public ResponseModel getDepts(@PageableDefault Pageable pageable) {
-        return ResponseModel.ok(deptService.findAll(pageable));
+    public ResponseModel getDepts(@PageableDefault Pageable pageable,
+                                  @RequestParam(value = "count", defaultValue = "EXACT") PageCount count) {
+        return ResponseModel.ok(deptService.findAll(pageable, count));
     }
 
     /**
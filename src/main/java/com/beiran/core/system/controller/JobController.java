@@ -1,6 +1,7 @@
 package com.beiran.core.system.controller;
 
 import com.beiran.common.annotation.LogRecord;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.respone.ResponseModel;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.core.system.dto.JobDto;
@@ -21,7 +22,6 @@ import java.io.File;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * 岗位接口<br>
@@ -98,12 +98,7 @@ public class JobController {
         if (Objects.equals(jobIds, null) || jobIds.isEmpty()) {
             return ResponseModel.error("需要删除的岗位不能为空");
         } else {
-            List<Job> jobs = jobIds.stream().map(jobId -> {
-                Job job = new Job();
-                job.setJobId(jobId);
-                return job;
-            }).collect(Collectors.toList());
-            jobService.deleteAll(jobs);
+            jobService.deleteAllById(jobIds);
             return ResponseModel.ok("删除成功");
         }
     }
@@ -111,14 +106,16 @@ public class JobController {
     /**
      * 分页查询岗位
      * @param pageable
+     * @param count 总数的取得方式: EXACT（缺省）精确总数，NONE 不统计总数，ESTIMATE 近似总数
      * @return
      */
     @GetMapping
     @LogRecord("分页查询岗位")
     @PreAuthorize("@erp.check('admin') and @erp.check('system:job:view')")
     @ApiOperation("分页查询岗位")
-    public ResponseModel getJobs(@PageableDefault Pageable pageable) {
-        return ResponseModel.ok(jobService.findAll(pageable));
+    public ResponseModel getJobs(@PageableDefault Pageable pageable,
+                                 @RequestParam(value = "count", defaultValue = "EXACT") PageCount count) {
+        return ResponseModel.ok(jobService.findAll(pageable, count));
     }
 
     /**
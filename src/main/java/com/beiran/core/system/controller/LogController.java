@@ -1,6 +1,7 @@
 package com.beiran.core.system.controller;
 
 import com.beiran.common.annotation.LogRecord;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.respone.ResponseModel;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.core.system.service.LogService;
@@ -36,13 +37,15 @@ public class LogController {
     /**
      * 查询所有的日志
      * @param pageable 分页参数
+     * @param count 总数的取得方式: EXACT（缺省）精确总数，NONE 不统计总数，ESTIMATE 近似总数
      * @return 返回带分页属性的数据
      */
     @GetMapping
     @PreAuthorize("@erp.check('admin') and @erp.check('system:log:view')")
     @ApiOperation("查询所有操作日志")
-    public ResponseModel queryAll(@PageableDefault(sort = { "createTime" }, direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseModel.ok(logService.getLogs(pageable));
+    public ResponseModel queryAll(@PageableDefault(sort = { "createTime" }, direction = Sort.Direction.DESC) Pageable pageable,
+                                  @RequestParam(value = "count", defaultValue = "EXACT") PageCount count) {
+        return ResponseModel.ok(logService.getLogs(pageable, count));
     }
 
     /**
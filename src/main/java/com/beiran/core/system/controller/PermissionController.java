@@ -1,6 +1,7 @@
 package com.beiran.core.system.controller;
 
 import com.beiran.common.annotation.LogRecord;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.respone.ResponseModel;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.core.system.dto.PermissionDto;
@@ -21,7 +22,6 @@ import java.io.File;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * 权限接口<br>
@@ -79,12 +79,7 @@ public class PermissionController {
         if (Objects.equals(permissionIds, null) && permissionIds.isEmpty()) {
             return ResponseModel.error("需要删除的权限不能为空");
         } else {
-            List<Permission> permissions = permissionIds.stream().map(permissionId -> {
-                Permission permission = new Permission();
-                permission.setPermissionId(permissionId);
-                return permission;
-            }).collect(Collectors.toList());
-            permissionService.deleteAll(permissions);
+            permissionService.deleteAllById(permissionIds);
             return ResponseModel.ok("删除成功");
         }
     }
@@ -92,14 +87,16 @@ public class PermissionController {
     /**
      * 分页查询权限
      * @param pageable
+     * @param count 总数的取得方式: EXACT（缺省）精确总数，NONE 不统计总数，ESTIMATE 近似总数
      * @return
      */
     @GetMapping
     @LogRecord("分页查询权限")
     @PreAuthorize("@erp.check('admin') and @erp.check('system:permission:view')")
     @ApiOperation("分页查询权限")
-    public ResponseModel getPermissions(@PageableDefault Pageable pageable) {
-        return ResponseModel.ok(permissionService.findAll(pageable));
+    public ResponseModel getPermissions(@PageableDefault Pageable pageable,
+                                        @RequestParam(value = "count", defaultValue = "EXACT") PageCount count) {
+        return ResponseModel.ok(permissionService.findAll(pageable, count));
     }
 
     /**
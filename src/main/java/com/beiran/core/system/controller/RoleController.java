@@ -1,6 +1,7 @@
 package com.beiran.core.system.controller;
 
 import com.beiran.common.annotation.LogRecord;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.respone.ResponseModel;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.core.system.dto.RoleDto;
@@ -21,8 +22,6 @@ import java.io.File;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * 角色接口<br>
@@ -91,26 +90,23 @@ public class RoleController {
             // 如果要删除的角色中有 admin, 则将其移除
             roleIds.removeIf(roleId -> Objects.equals(roleId, admin.getRoleId()));
         }
-        List<Role> roles = roleIds.stream().map(roleId -> {
-            Role role = new Role();
-            role.setRoleId(roleId);
-            return role;
-        }).collect(Collectors.toList());
-        roleService.deleteAll(roles);
+        roleService.deleteAllById(roleIds);
         return ResponseModel.ok("删除成功");
     }
 
     /**
      * 分页查询
      * @param pageable 分页参数
+     * @param count 总数的取得方式: EXACT（缺省）精确总数，NONE 不统计总数，ESTIMATE 近似总数
      * @return 分页数据
      */
     @GetMapping
     @LogRecord("分页查询角色")
     @PreAuthorize("@erp.check('admin') and @erp.check('system:role:view')")
     @ApiOperation("分页查询角色")
-    public ResponseModel getRoles(@PageableDefault Pageable pageable) {
-        return ResponseModel.ok(roleService.findAll(pageable));
+    public ResponseModel getRoles(@PageableDefault Pageable pageable,
+                                  @RequestParam(value = "count", defaultValue = "EXACT") PageCount count) {
+        return ResponseModel.ok(roleService.findAll(pageable, count));
     }
 
     /**
@@ -1,6 +1,7 @@
 package com.beiran.core.system.controller;
 
 import com.beiran.common.annotation.LogRecord;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.respone.ResponseModel;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.core.system.dto.UserDto;
@@ -23,7 +24,6 @@ import javax.validation.Valid;
 import java.io.File;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * 用户相关接口<br>
@@ -194,14 +194,16 @@ public class UserController {
     /**
      * 分页查询用户
      * @param pageable
+     * @param count 总数的取得方式: EXACT（缺省）精确总数，NONE 不统计总数，ESTIMATE 近似总数
      * @return
      */
     @GetMapping
     @LogRecord("分页查询用户")
     @PreAuthorize("@erp.check('admin') and @erp.check('system:user:view')")
     @ApiOperation("分页查询用户")
-    public ResponseModel getUsers(@PageableDefault Pageable pageable) {
-        return ResponseModel.ok(userService.findAll(pageable));
+    public ResponseModel getUsers(@PageableDefault Pageable pageable,
+                                  @RequestParam(value = "count", defaultValue = "EXACT") PageCount count) {
+        return ResponseModel.ok(userService.findAll(pageable, count));
     }
 
     /**
@@ -322,12 +324,7 @@ public class UserController {
         if (userIds.isEmpty() || Objects.equals(userIds, null)) {
             return ResponseModel.error("需要删除的用户不能为空");
         } else {
-            List<User> users = userIds.stream().map(userId -> {
-                User user = new User();
-                user.setUserId(userId);
-                return user;
-            }).collect(Collectors.toList());
-            userService.deleteAll(users);
+            userService.deleteAllById(userIds);
             return ResponseModel.ok("删除成功");
         }
     }
@@ -0,0 +1,41 @@
+package com.beiran.core.system.dto;
+
+import lombok.Data;
+
+/**
+ * 二级缓存区域的统计信息
+ */
+
+@Data
+public class CacheRegionDto {
+
+    /**
+     * 区域名，实体全类名、集合 role 或查询缓存区域名
+     */
+    private String regionName;
+
+    /**
+     * 当前条目数
+     */
+    private Integer size;
+
+    /**
+     * 命中次数
+     */
+    private Long hitCount;
+
+    /**
+     * 未命中次数
+     */
+    private Long missCount;
+
+    /**
+     * 写入次数
+     */
+    private Long putCount;
+
+    /**
+     * 命中率，尚无访问时为 0
+     */
+    private Double hitRatio;
+}
@@ -2,8 +2,13 @@ package com.beiran.core.system.dto;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.beiran.common.utils.DateTimeUtils;
+import com.beiran.core.system.entity.User;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
+import java.util.Date;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -11,6 +16,7 @@ import java.util.Set;
  */
 
 @Data
+@NoArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
 public class UserDto {
 
@@ -74,4 +80,33 @@ public class UserDto {
      * 用户角色信息
      */
     private Set<RoleSmallDto> roles;
+
+    /**
+     * 用于 JPQL 构造表达式，直接查询为 UserDto；角色为集合，需另外查询后设置
+     */
+    public UserDto(String userId, String userName, String userAvatar, String nickName, User.UserState userState,
+                   String userPhone, User.UserSex userSex, String userEmail, Date userCreateTime,
+                   String jobId, String jobName, String deptId, String deptName) {
+        this.userId = userId;
+        this.userName = userName;
+        this.userAvatar = userAvatar;
+        this.nickName = nickName;
+        this.userPhone = userPhone;
+        this.userEmail = userEmail;
+        if (!Objects.equals(userState, null)) {
+            this.state = userState.getValue();
+        }
+        if (!Objects.equals(userSex, null)) {
+            this.sex = userSex.getValue();
+        }
+        if (!Objects.equals(userCreateTime, null)) {
+            this.createTime = DateTimeUtils.getDateTime(userCreateTime);
+        }
+        JobSmallDto jobSmallDto = new JobSmallDto();
+        jobSmallDto.setJobId(jobId);
+        jobSmallDto.setJobName(jobName);
+        jobSmallDto.setDeptId(deptId);
+        jobSmallDto.setDeptName(deptName);
+        this.jobSmallDto = jobSmallDto;
+    }
 }
@@ -1,8 +1,12 @@
 package com.beiran.core.system.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class UserSmallDto {
 
     private String userId;
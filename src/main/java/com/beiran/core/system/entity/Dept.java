@@ -1,7 +1,13 @@
 package com.beiran.core.system.entity;
 
+import com.beiran.common.id.TimeOrderedIdGenerator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.GenericGenerator;
 
@@ -13,8 +19,13 @@ import java.util.Objects;
  * 部门实体
  */
 
+@NamedEntityGraph(name = "Dept.detail", attributeNodes = @NamedAttributeNode("deptParent"))
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@BatchSize(size = 100)
 @Getter
 @Setter
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 @Table(name = "erp_dept")
 @Entity
 public class Dept {
@@ -22,8 +33,8 @@ public class Dept {
     /**
      * 部门编号
      */
-    @GenericGenerator(name = "g_uuid", strategy = "uuid")
-    @GeneratedValue(generator = "g_uuid")
+    @GenericGenerator(name = "g_id", strategy = TimeOrderedIdGenerator.STRATEGY)
+    @GeneratedValue(generator = "g_id")
     @Id
     private String deptId;
 
@@ -37,7 +48,7 @@ public class Dept {
      * 上一级部门，为空说明没有上一级，自身即为最上级
      */
     @JoinColumn(name = "parentId")
-    @OneToOne(fetch = FetchType.EAGER)
+    @OneToOne(fetch = FetchType.LAZY)
     private Dept deptParent;
 
     /**
@@ -77,15 +88,16 @@ public class Dept {
         if (this == o) {
             return true;
         }
-        if (o == null || getClass() != o.getClass()) {
+        // 上级部门为延迟加载的代理，比较实际类型并通过 getter 取值
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) {
             return false;
         }
         Dept dept = (Dept) o;
-        return Objects.equals(deptId, dept.deptId) && Objects.equals(deptName, dept.deptName);
+        return Objects.equals(getDeptId(), dept.getDeptId()) && Objects.equals(getDeptName(), dept.getDeptName());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(deptId, deptName);
+        return Objects.hash(getDeptId(), getDeptName());
     }
 }
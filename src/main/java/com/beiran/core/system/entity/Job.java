@@ -1,7 +1,12 @@
 package com.beiran.core.system.entity;
 
+import com.beiran.common.id.TimeOrderedIdGenerator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.GenericGenerator;
 
@@ -12,8 +17,13 @@ import java.util.Date;
  * 岗位实体
  */
 
+@NamedEntityGraph(name = "Job.detail", attributeNodes = @NamedAttributeNode("jobDept"))
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@BatchSize(size = 100)
 @Getter
 @Setter
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 @Table(name = "erp_job")
 @Entity
 public class Job {
@@ -21,8 +31,8 @@ public class Job {
     /**
      * 岗位编号
      */
-    @GenericGenerator(name = "g_uuid", strategy = "uuid")
-    @GeneratedValue(generator = "g_uuid")
+    @GenericGenerator(name = "g_id", strategy = TimeOrderedIdGenerator.STRATEGY)
+    @GeneratedValue(generator = "g_id")
     @Id
     private String jobId;
 
@@ -49,7 +59,7 @@ public class Job {
      * 岗位所属部门，使用外键进行关联
      */
     @JoinColumn(name = "deptId")
-    @OneToOne(fetch = FetchType.EAGER)
+    @OneToOne(fetch = FetchType.LAZY)
     private Dept jobDept;
 
     /**
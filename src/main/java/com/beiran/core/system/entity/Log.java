@@ -1,5 +1,6 @@
 package com.beiran.core.system.entity;
 
+import com.beiran.common.id.TimeOrderedIdGenerator;
 import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.GenericGenerator;
@@ -20,8 +21,8 @@ public class Log {
     /**
      * 日志编号
      */
-    @GenericGenerator(name = "g_uuid", strategy = "uuid")
-    @GeneratedValue(generator = "g_uuid")
+    @GenericGenerator(name = "g_id", strategy = TimeOrderedIdGenerator.STRATEGY)
+    @GeneratedValue(generator = "g_id")
     @Id
     private String logId;
 
@@ -1,8 +1,11 @@
 package com.beiran.core.system.entity;
 
+import com.beiran.common.id.TimeOrderedIdGenerator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.GenericGenerator;
 
@@ -17,6 +20,8 @@ import java.util.Set;
 
 @Getter
 @Setter
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 @Table(name = "erp_permission")
 @Entity
 public class Permission {
@@ -24,8 +29,8 @@ public class Permission {
     /**
      * 权限编号
      */
-    @GenericGenerator(name = "g_uuid", strategy = "uuid")
-    @GeneratedValue(generator = "g_uuid")
+    @GenericGenerator(name = "g_id", strategy = TimeOrderedIdGenerator.STRATEGY)
+    @GeneratedValue(generator = "g_id")
     @Id
     private String permissionId;
 
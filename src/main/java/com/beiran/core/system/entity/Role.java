@@ -1,8 +1,12 @@
 package com.beiran.core.system.entity;
 
+import com.beiran.common.id.TimeOrderedIdGenerator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.GenericGenerator;
 
@@ -15,8 +19,11 @@ import java.util.Set;
  * 角色实体
  */
 
+@NamedEntityGraph(name = "Role.detail", attributeNodes = @NamedAttributeNode("rolePermissions"))
 @Getter
 @Setter
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 @Table(name = "erp_role")
 @Entity
 public class Role {
@@ -24,8 +31,8 @@ public class Role {
     /**
      * 角色编号
      */
-    @GenericGenerator(name = "g_uuid", strategy = "uuid")
-    @GeneratedValue(generator = "g_uuid")
+    @GenericGenerator(name = "g_id", strategy = TimeOrderedIdGenerator.STRATEGY)
+    @GeneratedValue(generator = "g_id")
     @Id
     private String roleId;
 
@@ -61,7 +68,8 @@ public class Role {
     @JoinTable(name = "erp_role_permission",
             joinColumns = @JoinColumn(referencedColumnName = "roleId", name = "roleId"),
             inverseJoinColumns = { @JoinColumn(referencedColumnName = "permissionId", name = "permissionId") })
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     private Set<Permission> rolePermissions;
 
     @Override
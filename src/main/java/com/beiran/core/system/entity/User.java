@@ -1,8 +1,10 @@
 package com.beiran.core.system.entity;
 
+import com.beiran.common.id.TimeOrderedIdGenerator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.GenericGenerator;
 
@@ -12,9 +14,23 @@ import java.util.Objects;
 import java.util.Set;
 
 /**
- * 系统使用者
+ * 系统使用者<br>
+ * 关联均为延迟加载，按使用场景通过实体图指定一次查询需要加载的关联:<br>
+ * User.list    用户列表，加载岗位及岗位所属部门<br>
+ * User.detail  登录认证与用户详情，另外加载用户角色（角色的权限仍为延迟加载，由认证单独查询权限名称）
  */
 
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = "User.list",
+                attributeNodes = @NamedAttributeNode(value = "userJob", subgraph = "job"),
+                subgraphs = @NamedSubgraph(name = "job", attributeNodes = @NamedAttributeNode("jobDept"))),
+        @NamedEntityGraph(name = "User.detail",
+                attributeNodes = {
+                        @NamedAttributeNode(value = "userJob", subgraph = "job"),
+                        @NamedAttributeNode("userRoles")
+                },
+                subgraphs = @NamedSubgraph(name = "job", attributeNodes = @NamedAttributeNode("jobDept")))
+})
 @Getter
 @Setter
 @Table(name = "erp_user")
@@ -24,8 +40,8 @@ public class User {
     /**
      * 用户编号
      */
-    @GenericGenerator(name = "g_uuid", strategy = "uuid")
-    @GeneratedValue(generator = "g_uuid")
+    @GenericGenerator(name = "g_id", strategy = TimeOrderedIdGenerator.STRATEGY)
+    @GeneratedValue(generator = "g_id")
     @Id
     private String userId;
 
@@ -85,7 +101,7 @@ public class User {
      * 用户岗位
      */
     @JoinColumn(name = "userJobId")
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     private Job userJob;
 
     /**
@@ -94,7 +110,8 @@ public class User {
     @JoinTable(name = "erp_user_role",
             joinColumns = @JoinColumn(referencedColumnName = "userId", name = "userId") ,
             inverseJoinColumns = { @JoinColumn(referencedColumnName = "roleId", name = "roleId") })
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     private Set<Role> userRoles;
 
     /**
@@ -1,19 +1,26 @@
 package com.beiran.core.system.repository;
 
+import com.beiran.common.repository.GenericRepository;
+import com.beiran.common.repository.PageCount;
 import com.beiran.core.system.entity.Dept;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * 部门 Repository
  */
-public interface DeptRepository extends JpaRepository<Dept, String>, JpaSpecificationExecutor<Dept> {
+public interface DeptRepository extends GenericRepository<Dept, String>, JpaSpecificationExecutor<Dept> {
 
     /**
      * 根据部门编号修改部门状态
@@ -30,6 +37,7 @@ public interface DeptRepository extends JpaRepository<Dept, String>, JpaSpecific
      * @param deptName 部门名称
      * @return Optional<Dept>
      */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<Dept> findByDeptName(String deptName);
 
     /**
@@ -37,6 +45,7 @@ public interface DeptRepository extends JpaRepository<Dept, String>, JpaSpecific
      * @param deptName 部门名称
      * @return List<Dept>
      */
+    @EntityGraph("Dept.detail")
     List<Dept> findByDeptNameContaining(String deptName);
 
     /**
@@ -45,6 +54,7 @@ public interface DeptRepository extends JpaRepository<Dept, String>, JpaSpecific
      * @param pageable 分页参数
      * @return List<Dept>
      */
+    @EntityGraph("Dept.detail")
     List<Dept> findByDeptState(Dept.DeptState deptState, Pageable pageable);
 
     /**
@@ -58,4 +68,31 @@ public interface DeptRepository extends JpaRepository<Dept, String>, JpaSpecific
      * @return List<Dept>
      */
     List<Dept> findByDeptParentIsNotNull();
+
+    /**
+     * 分页查询部门，同时加载上一级部门
+     * @param pageable 分页参数
+     * @return Page<Dept>
+     */
+    @Override
+    @EntityGraph("Dept.detail")
+    Page<Dept> findAll(Pageable pageable);
+
+    /**
+     * 按 count 决定总数取得方式的分页查询，与 findAll(Pageable) 使用相同的实体图
+     * @param pageable 分页参数
+     * @param count 总数的取得方式
+     * @return Slice<Dept>
+     */
+    @Override
+    @EntityGraph("Dept.detail")
+    Slice<Dept> findAll(Pageable pageable, PageCount count);
+
+    /**
+     * 查询给定名称中已存在的名称，用于批量保存前的校验
+     * @param names 名称
+     * @return 已存在的名称
+     */
+    @Query("SELECT d.deptName FROM Dept d WHERE d.deptName IN ?1")
+    List<String> findExistingDeptNames(Collection<String> names);
 }
@@ -1,12 +1,19 @@
 package com.beiran.core.system.repository;
 
+import com.beiran.common.repository.GenericRepository;
+import com.beiran.common.repository.PageCount;
 import com.beiran.core.system.entity.Job;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -14,7 +21,7 @@ import java.util.Optional;
 /**
  * 岗位 Repository
  */
-public interface JobRepository extends JpaRepository<Job, String>, JpaSpecificationExecutor<Job> {
+public interface JobRepository extends GenericRepository<Job, String>, JpaSpecificationExecutor<Job> {
 
     /**
      * 根据岗位编号修改岗位状态
@@ -31,6 +38,7 @@ public interface JobRepository extends JpaRepository<Job, String>, JpaSpecificat
      * @param jobName 岗位名
      * @return Optional<Job>
      */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<Job> findByJobName(String jobName);
 
     /**
@@ -38,6 +46,7 @@ public interface JobRepository extends JpaRepository<Job, String>, JpaSpecificat
      * @param jobName 岗位名
      * @return List<Job>
      */
+    @EntityGraph("Job.detail")
     List<Job> findByJobNameContaining(String jobName);
 
     /**
@@ -46,6 +55,7 @@ public interface JobRepository extends JpaRepository<Job, String>, JpaSpecificat
      * @param pageable 分页参数
      * @return List<Job>
      */
+    @EntityGraph("Job.detail")
     List<Job> findByJobState(Job.JobState jobState, Pageable pageable);
 
     /**
@@ -54,6 +64,7 @@ public interface JobRepository extends JpaRepository<Job, String>, JpaSpecificat
      * @param pageable 分页参数
      * @return List<Job>
      */
+    @EntityGraph("Job.detail")
     List<Job> findByJobDept_DeptId(String deptId, Pageable pageable);
 
     /**
@@ -63,5 +74,33 @@ public interface JobRepository extends JpaRepository<Job, String>, JpaSpecificat
      * @param pageable 分页参数
      * @return List<Job>
      */
+    @EntityGraph("Job.detail")
     List<Job> findByJobCreateTimeBetween(Date leftTime, Date rightTime, Pageable pageable);
+
+    /**
+     * 分页查询岗位，同时加载所属部门
+     * @param pageable 分页参数
+     * @return Page<Job>
+     */
+    @Override
+    @EntityGraph("Job.detail")
+    Page<Job> findAll(Pageable pageable);
+
+    /**
+     * 按 count 决定总数取得方式的分页查询，与 findAll(Pageable) 使用相同的实体图
+     * @param pageable 分页参数
+     * @param count 总数的取得方式
+     * @return Slice<Job>
+     */
+    @Override
+    @EntityGraph("Job.detail")
+    Slice<Job> findAll(Pageable pageable, PageCount count);
+
+    /**
+     * 查询给定名称中已存在的名称，用于批量保存前的校验
+     * @param names 名称
+     * @return 已存在的名称
+     */
+    @Query("SELECT j.jobName FROM Job j WHERE j.jobName IN ?1")
+    List<String> findExistingJobNames(Collection<String> names);
 }
@@ -1,9 +1,9 @@
 package com.beiran.core.system.repository;
 
+import com.beiran.common.repository.GenericRepository;
 import com.beiran.core.system.entity.Log;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -11,7 +11,7 @@ import org.springframework.data.jpa.repository.Query;
 /**
  * 操作日志 Repository
  */
-public interface LogRepository extends JpaRepository<Log, String>, JpaSpecificationExecutor<Log> {
+public interface LogRepository extends GenericRepository<Log, String>, JpaSpecificationExecutor<Log> {
 
     /**
      * 根据用户名查询该用户的操作日志
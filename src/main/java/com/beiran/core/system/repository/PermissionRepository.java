@@ -1,10 +1,14 @@
 package com.beiran.core.system.repository;
 
+import com.beiran.common.repository.GenericRepository;
 import com.beiran.core.system.entity.Permission;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -13,13 +17,14 @@ import java.util.Set;
 /**
  * 权限 Repository
  */
-public interface PermissionRepository extends JpaRepository<Permission, String>, JpaSpecificationExecutor<Permission> {
+public interface PermissionRepository extends GenericRepository<Permission, String>, JpaSpecificationExecutor<Permission> {
 
     /**
      * 根据权限名查询一个权限
      * @param permissionName 权限名
      * @return Optional<Permission>
      */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<Permission> findByPermissionName(String permissionName);
 
     /**
@@ -50,4 +55,12 @@ public interface PermissionRepository extends JpaRepository<Permission, String>,
      * @return Set<Permission>
      */
     Set<Permission> findByPermissionRoles_RoleId(String roleId);
+
+    /**
+     * 查询给定名称中已存在的名称，用于批量保存前的校验
+     * @param names 名称
+     * @return 已存在的名称
+     */
+    @Query("SELECT p.permissionName FROM Permission p WHERE p.permissionName IN ?1")
+    List<String> findExistingPermissionNames(Collection<String> names);
 }
@@ -1,9 +1,14 @@
 package com.beiran.core.system.repository;
 
+import com.beiran.common.repository.GenericRepository;
 import com.beiran.core.system.entity.Role;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -12,15 +17,32 @@ import java.util.Set;
 /**
  * 角色 Repository
  */
-public interface RoleRepository extends JpaRepository<Role, String>, JpaSpecificationExecutor<Role> {
+public interface RoleRepository extends GenericRepository<Role, String>, JpaSpecificationExecutor<Role> {
 
     /**
      * 根据角色名查询角色
      * @param roleName 角色名
      * @return Optional<Role>
      */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<Role> findByRoleName(String roleName);
 
+    /**
+     * 根据角色名查询角色，同时加载角色的权限，用于角色详情
+     * @param roleName 角色名
+     * @return Optional<Role>
+     */
+    @EntityGraph("Role.detail")
+    Optional<Role> findDetailByRoleName(String roleName);
+
+    /**
+     * 查询角色所拥有的权限名称，用于登录认证，不加载角色与权限实体
+     * @param roleIds 角色编号
+     * @return 权限名称
+     */
+    @Query("SELECT DISTINCT p.permissionName FROM Role r JOIN r.rolePermissions p WHERE r.roleId IN ?1")
+    Set<String> findPermissionNamesByRoleIds(Collection<String> roleIds);
+
     /**
      * 根据角色名模糊匹配
      * @param roleName
@@ -49,4 +71,12 @@ public interface RoleRepository extends JpaRepository<Role, String>, JpaSpecific
      * @return List<Role>
      */
     List<Role> findByRoleCreateTimeBetween(Date leftTime, Date rightTime);
+
+    /**
+     * 查询给定名称中已存在的名称，用于批量保存前的校验
+     * @param names 名称
+     * @return 已存在的名称
+     */
+    @Query("SELECT r.roleName FROM Role r WHERE r.roleName IN ?1")
+    List<String> findExistingRoleNames(Collection<String> names);
 }
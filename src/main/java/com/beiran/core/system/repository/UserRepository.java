@@ -1,21 +1,27 @@
 package com.beiran.core.system.repository;
 
-import com.beiran.core.system.entity.Dept;
+import com.beiran.common.repository.GenericRepository;
+import com.beiran.common.repository.PageCount;
+import com.beiran.core.system.dto.UserDto;
 import com.beiran.core.system.entity.User;
+import com.beiran.core.system.vo.UserRoleVo;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * 用户 Repository
  */
-public interface UserRepository extends JpaRepository<User, String>, JpaSpecificationExecutor<User> {
+public interface UserRepository extends GenericRepository<User, String>, JpaSpecificationExecutor<User> {
 
     /**
      * 根据用户名查找一个用户
@@ -24,30 +30,74 @@ public interface UserRepository extends JpaRepository<User, String>, JpaSpecific
      */
     Optional<User> findByUserName(String userName);
 
+    /**
+     * 根据用户名查找一个用户，同时加载岗位、部门与角色，用于登录认证与用户详情
+     * @param userName 用户名
+     * @return Optional<User>
+     */
+    @EntityGraph("User.detail")
+    Optional<User> findDetailByUserName(String userName);
+
+    /**
+     * 分页查询用户，同时加载岗位与部门
+     * @param pageable 分页参数
+     * @return Page<User>
+     */
+    @Override
+    @EntityGraph("User.list")
+    Page<User> findAll(Pageable pageable);
+
+    /**
+     * 按 count 决定总数取得方式的分页查询，与 findAll(Pageable) 使用相同的实体图
+     * @param pageable 分页参数
+     * @param count 总数的取得方式
+     * @return Slice<User>
+     */
+    @Override
+    @EntityGraph("User.list")
+    Slice<User> findAll(Pageable pageable, PageCount count);
+
+    /**
+     * 直接查询为 UserDto 的查询语句，岗位与部门可能为空，使用左连接
+     */
+    String USER_DTO_QUERY = "SELECT new com.beiran.core.system.dto.UserDto(u.userId, u.userName, u.userAvatar, u.nickName, " +
+            "u.userState, u.userPhone, u.userSex, u.userEmail, u.userCreateTime, j.jobId, j.jobName, d.deptId, d.deptName) " +
+            "FROM User u LEFT JOIN u.userJob j LEFT JOIN j.jobDept d";
+
     /**
      * 根据部门信息查询用户
      * @param deptId 部门编号
      * @param pageable 分页参数
-     * @return List<User>
+     * @return List<UserDto>
      */
-    List<User> findByUserJob_JobDept_DeptId(String deptId, Pageable pageable);
+    @Query(USER_DTO_QUERY + " WHERE d.deptId = ?1")
+    List<UserDto> findDtosByDeptId(String deptId, Pageable pageable);
 
     /**
      * 根据关键字进行模糊匹配（匹配 userName 与 nickName）
      * @param keyWord 关键字
      * @param pageable 分页参数
-     * @return List<User>
+     * @return List<UserDto>
      */
-    @Query("FROM User u WHERE u.userName LIKE %:keyWord% OR u.nickName LIKE %:keyWord%")
-    List<User> findByUserNameAndNickName(@Param("keyWord") String keyWord, Pageable pageable);
+    @Query(USER_DTO_QUERY + " WHERE u.userName LIKE %:keyWord% OR u.nickName LIKE %:keyWord%")
+    List<UserDto> findDtosByKeyWord(@Param("keyWord") String keyWord, Pageable pageable);
 
     /**
      * 根据用户状态查询用户
      * @param userState 用户状态
      * @param pageable 分页参数
-     * @return List<User>
+     * @return List<UserDto>
      */
-    List<User> findByUserState(User.UserState userState, Pageable pageable);
+    @Query(USER_DTO_QUERY + " WHERE u.userState = ?1")
+    List<UserDto> findDtosByUserState(User.UserState userState, Pageable pageable);
+
+    /**
+     * 查询一批用户的角色
+     * @param userIds 用户编号
+     * @return List<UserRoleVo>
+     */
+    @Query("SELECT new com.beiran.core.system.vo.UserRoleVo(u.userId, r.roleId, r.roleName) FROM User u JOIN u.userRoles r WHERE u.userId IN ?1")
+    List<UserRoleVo> findRolesByUserIdIn(Collection<String> userIds);
 
     /**
      * 根据用户邮箱查询用户
@@ -95,4 +145,12 @@ public interface UserRepository extends JpaRepository<User, String>, JpaSpecific
 //    @Modifying
 //    @Query(value = "UPDATE erp_user SET user_state = ?2 WHERE user_id = ?1", nativeQuery = true)
 //    int updateState(String userId, User.UserState userState);
+
+    /**
+     * 查询给定名称中已存在的名称，用于批量保存前的校验
+     * @param names 名称
+     * @return 已存在的名称
+     */
+    @Query("SELECT u.userName FROM User u WHERE u.userName IN ?1")
+    List<String> findExistingUserNames(Collection<String> names);
 }
@@ -0,0 +1,39 @@
+package com.beiran.core.system.service;
+
+import com.beiran.common.utils.RedisOperationStats;
+import com.beiran.core.system.dto.CacheRegionDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * 二级缓存管理
+ */
+public interface CacheService {
+
+    /**
+     * 查询所有二级缓存区域的条目数与命中情况
+     * @return List<CacheRegionDto>
+     */
+    List<CacheRegionDto> getRegions();
+
+    /**
+     * 清空所有二级缓存区域与查询缓存，其他实例同步清空
+     */
+    void evictAll();
+
+    /**
+     * 查询 Redis 批量与脚本操作的调用次数与耗时
+     * @return List<RedisOperationStats>
+     */
+    List<RedisOperationStats> getRedisOperations();
+
+    /**
+     * 按写入时间分页查询某个缓存在 Redis 中的键
+     * @param cacheName 缓存名
+     * @param pageable 分页参数
+     * @return Page<String>
+     */
+    Page<String> getCacheKeys(String cacheName, Pageable pageable);
+}
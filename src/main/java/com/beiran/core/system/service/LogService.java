@@ -1,8 +1,10 @@
 package com.beiran.core.system.service;
 
+import com.beiran.common.repository.PageCount;
 import com.beiran.core.system.entity.Log;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.io.File;
 
@@ -45,6 +47,14 @@ public interface LogService {
      */
     Page<Log> getLogs(Pageable pageable);
 
+    /**
+     * 获取所有日志，按 count 决定总数的取得方式，日志数量大时可避免每页都执行 COUNT(*)
+     * @param pageable 分页参数
+     * @param count 总数的取得方式
+     * @return NONE 时为 Slice，否则为 Page
+     */
+    Slice<Log> getLogs(Pageable pageable, PageCount count);
+
     /**
      * 导出指定用户的日志
      * @param userName 用户名
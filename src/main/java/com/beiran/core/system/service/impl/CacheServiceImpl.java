@@ -0,0 +1,89 @@
+package com.beiran.core.system.service.impl;
+
+import com.beiran.common.cache.LocalRegionFactory;
+import com.beiran.common.cache.LocalStorageAccess;
+import com.beiran.common.exception.EntityNotExistException;
+import com.beiran.common.utils.RedisOperationStats;
+import com.beiran.common.utils.RedisUtils;
+import com.beiran.core.system.dto.CacheRegionDto;
+import com.beiran.core.system.service.CacheService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * CacheService 接口的实现类<br>
+ * 命中次数等来自 Hibernate 统计（hibernate.generate_statistics），条目数来自 LocalRegionFactory
+ */
+@Service("cacheService")
+public class CacheServiceImpl implements CacheService {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private LocalRegionFactory localRegionFactory;
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Autowired
+    private RedisCacheConfiguration redisCacheConfiguration;
+
+    @Override
+    public List<CacheRegionDto> getRegions() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<CacheRegionDto> regions = new ArrayList<>();
+        for (LocalStorageAccess storage : localRegionFactory.getStorages().values()) {
+            CacheRegionDto region = new CacheRegionDto();
+            region.setRegionName(storage.getRegionName());
+            region.setSize(storage.size());
+            CacheRegionStatistics regionStatistics = statistics.isStatisticsEnabled() ?
+                    statistics.getCacheRegionStatistics(storage.getRegionName()) : null;
+            if (!Objects.equals(regionStatistics, null)) {
+                region.setHitCount(regionStatistics.getHitCount());
+                region.setMissCount(regionStatistics.getMissCount());
+                region.setPutCount(regionStatistics.getPutCount());
+                long total = regionStatistics.getHitCount() + regionStatistics.getMissCount();
+                region.setHitRatio(total == 0 ? 0D : (double) regionStatistics.getHitCount() / total);
+            }
+            regions.add(region);
+        }
+        regions.sort(Comparator.comparing(CacheRegionDto::getRegionName));
+        return regions;
+    }
+
+    @Override
+    public void evictAll() {
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    @Override
+    public List<RedisOperationStats> getRedisOperations() {
+        return redisUtils.getOperationStats();
+    }
+
+    @Override
+    public Page<String> getCacheKeys(String cacheName, Pageable pageable) {
+        // 按缓存名计算键前缀，不依赖当前实例是否已创建过该缓存；登记表在 Redis 中，各实例看到的相同
+        String keyPrefix = redisCacheConfiguration.getKeyPrefixFor(cacheName);
+        if (!redisUtils.isRegisteredPrefix(keyPrefix)) {
+            throw new EntityNotExistException("缓存不存在");
+        }
+        List<String> keys = redisUtils.findRegisteredKeys(keyPrefix, pageable.getPageNumber(), pageable.getPageSize());
+        return new PageImpl<>(keys, pageable, redisUtils.countRegisteredKeys(keyPrefix));
+    }
+}
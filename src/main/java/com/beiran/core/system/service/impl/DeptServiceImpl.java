@@ -1,8 +1,10 @@
 package com.beiran.core.system.service.impl;
 
+import com.beiran.common.cache.CacheNames;
 import com.beiran.common.exception.EntityExistException;
 import com.beiran.common.exception.EntityNotExistException;
 import com.beiran.common.exception.ParameterException;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.utils.DateTimeUtils;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.common.utils.transfer.DeptTransferUtils;
@@ -17,16 +19,21 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.io.File;
 import java.util.*;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service("deptService")
@@ -36,6 +43,7 @@ public class DeptServiceImpl implements DeptService {
     private DeptRepository deptRepository;
 
     @Override
+    @CacheEvict(cacheNames = CacheNames.DEPT_TREE, allEntries = true)
     public DeptDto createDept(DeptVo deptVo) {
         if (Objects.equals(deptVo, null)) {
             throw new ParameterException("需要保存的部门不能为空");
@@ -50,6 +58,7 @@ public class DeptServiceImpl implements DeptService {
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheNames.DEPT_TREE, allEntries = true)
     public Boolean updateState(String deptId, Dept.DeptState deptState) {
         if (!StringUtils.hasText(deptId)) {
             throw new ParameterException("部门编号不能为空");
@@ -101,6 +110,7 @@ public class DeptServiceImpl implements DeptService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheNames.DEPT_TREE, key = "'all'")
     public List<DeptTree> getDeptTree() {
         // FIXME 目前只支持两层
         List<Dept> parent = deptRepository.findByDeptParentIsNull();
@@ -111,7 +121,9 @@ public class DeptServiceImpl implements DeptService {
             parent.stream().forEach(dept -> {
                 // 顶级部门
                 DeptTree parentNode = new DeptTree();
-                BeanUtils.copyProperties(dept, parentNode);
+                parentNode.setDeptId(dept.getDeptId());
+                parentNode.setDeptName(dept.getDeptName());
+                parentNode.setDeptState(dept.getDeptState());
                 parentNode.setCreateTime(DateTimeUtils.getDateTime(dept.getDeptCreateTime()));
                 Set<DeptSmallDto> children = new HashSet<>();
                 // 遍历所有的子部门，若有父级 id 等于当前的顶级部门 id 的，则加入 children 里
@@ -171,6 +183,7 @@ public class DeptServiceImpl implements DeptService {
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheNames.DEPT_TREE, allEntries = true)
     public Dept save(Dept entity) {
         if (Objects.equals(entity, null)) {
             throw new ParameterException("需要保存的部门不能为空");
@@ -185,15 +198,42 @@ public class DeptServiceImpl implements DeptService {
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheNames.DEPT_TREE, allEntries = true)
+    public List<Dept> saveAll(List<Dept> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要保存的部门不能为空");
+        }
+        // 部门名称唯一，一次查询校验整批名称，批内重复同样视为已存在
+        Set<String> names = entities.stream().map(Dept::getDeptName).collect(Collectors.toSet());
+        if (names.size() < entities.size() || !deptRepository.findExistingDeptNames(names).isEmpty()) {
+            throw new EntityExistException("部门已存在");
+        }
+        return deptRepository.saveAll(entities);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheNames.DEPT_TREE, allEntries = true)
     public void deleteAll(List<Dept> entities) {
         if (Objects.equals(entities, null) || entities.isEmpty()) {
             throw new ParameterException("需要删除的部门不能为空");
         }
-        deptRepository.deleteAll(entities);
+        deleteAllById(entities.stream().map(Dept::getDeptId).collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheNames.DEPT_TREE, allEntries = true)
+    public void deleteAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("需要删除的部门不能为空");
+        }
+        deptRepository.deleteAllByIdInBatch(ids);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheNames.DEPT_TREE, allEntries = true)
     public Dept update(Dept entity) {
         if (Objects.equals(entity, null)) {
             throw new ParameterException("需要修改的部门不能为空");
@@ -201,6 +241,20 @@ public class DeptServiceImpl implements DeptService {
         return deptRepository.saveAndFlush(entity);
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    @CacheEvict(cacheNames = CacheNames.DEPT_TREE, allEntries = true)
+    public List<Dept> updateAll(List<Dept> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要修改的部门不能为空");
+        }
+        List<Dept> updated = deptRepository.updateAllInBatch(entities);
+        if (updated.size() < entities.size()) {
+            throw new EntityNotExistException("部门不存在");
+        }
+        return updated;
+    }
+
     @Override
     public Dept findById(String id) {
         if (!StringUtils.hasText(id)) {
@@ -209,8 +263,21 @@ public class DeptServiceImpl implements DeptService {
         return deptRepository.findById(id).orElseThrow(() -> new EntityNotExistException("部门不存在"));
     }
 
+    @Override
+    public List<Dept> findAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("部门编号不能为空");
+        }
+        return deptRepository.findAllByIdInBatch(ids);
+    }
+
     @Override
     public Page<Dept> findAll(Pageable pageable) {
         return deptRepository.findAll(pageable);
     }
+
+    @Override
+    public Slice<Dept> findAll(Pageable pageable, PageCount count) {
+        return deptRepository.findAll(pageable, count);
+    }
 }
@@ -3,6 +3,7 @@ package com.beiran.core.system.service.impl;
 import com.beiran.common.exception.EntityExistException;
 import com.beiran.common.exception.EntityNotExistException;
 import com.beiran.common.exception.ParameterException;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.utils.DateTimeUtils;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.common.utils.transfer.JobTransferUtils;
@@ -18,15 +19,18 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -178,13 +182,36 @@ public class JobServiceImpl implements JobService {
         return jobRepository.save(entity);
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<Job> saveAll(List<Job> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要保存的岗位不能为空");
+        }
+        // 岗位名称唯一，一次查询校验整批名称，批内重复同样视为已存在
+        Set<String> names = entities.stream().map(Job::getJobName).collect(Collectors.toSet());
+        if (names.size() < entities.size() || !jobRepository.findExistingJobNames(names).isEmpty()) {
+            throw new EntityExistException("岗位已存在");
+        }
+        return jobRepository.saveAll(entities);
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void deleteAll(List<Job> entities) {
         if (Objects.equals(entities, null) || entities.isEmpty()) {
             throw new ParameterException("需要删除的岗位不能为空");
         }
-        jobRepository.deleteAll(entities);
+        deleteAllById(entities.stream().map(Job::getJobId).collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void deleteAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("需要删除的岗位不能为空");
+        }
+        jobRepository.deleteAllByIdInBatch(ids);
     }
 
     @Override
@@ -196,6 +223,19 @@ public class JobServiceImpl implements JobService {
         return jobRepository.saveAndFlush(entity);
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<Job> updateAll(List<Job> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要修改的岗位不能为空");
+        }
+        List<Job> updated = jobRepository.updateAllInBatch(entities);
+        if (updated.size() < entities.size()) {
+            throw new EntityNotExistException("岗位不存在");
+        }
+        return updated;
+    }
+
     @Override
     public Job findById(String id) {
         if (!StringUtils.hasText(id)) {
@@ -204,8 +244,21 @@ public class JobServiceImpl implements JobService {
         return jobRepository.findById(id).orElseThrow(() -> new EntityNotExistException("岗位不存在"));
     }
 
+    @Override
+    public List<Job> findAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("岗位编号不能为空");
+        }
+        return jobRepository.findAllByIdInBatch(ids);
+    }
+
     @Override
     public Page<Job> findAll(Pageable pageable) {
         return jobRepository.findAll(pageable);
     }
+
+    @Override
+    public Slice<Job> findAll(Pageable pageable, PageCount count) {
+        return jobRepository.findAll(pageable, count);
+    }
 }
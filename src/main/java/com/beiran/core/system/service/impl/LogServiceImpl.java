@@ -1,6 +1,7 @@
 package com.beiran.core.system.service.impl;
 
 import com.beiran.common.exception.ParameterException;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.utils.DateTimeUtils;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.core.system.entity.Log;
@@ -11,6 +12,7 @@ import org.apache.poi.xssf.streaming.SXSSFSheet;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
@@ -67,6 +69,11 @@ public class LogServiceImpl implements LogService {
         return logRepository.findAll(pageable);
     }
 
+    @Override
+    public Slice<Log> getLogs(Pageable pageable, PageCount count) {
+        return logRepository.findAll(pageable, count);
+    }
+
     @Override
     public File createSpecLogsExcelFileByName(String userName, Pageable pageable) {
         Page<Log> logPage = getLogsByName(userName, pageable);
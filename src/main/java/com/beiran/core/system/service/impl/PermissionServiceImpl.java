@@ -3,6 +3,7 @@ package com.beiran.core.system.service.impl;
 import com.beiran.common.exception.EntityExistException;
 import com.beiran.common.exception.EntityNotExistException;
 import com.beiran.common.exception.ParameterException;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.utils.DateTimeUtils;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.common.utils.transfer.PermissionTransferUtils;
@@ -18,12 +19,16 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.io.File;
 import java.util.*;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -161,13 +166,36 @@ public class PermissionServiceImpl implements PermissionService {
         }
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<Permission> saveAll(List<Permission> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要保存的权限不能为空");
+        }
+        // 权限名称唯一，一次查询校验整批名称，批内重复同样视为已存在
+        Set<String> names = entities.stream().map(Permission::getPermissionName).collect(Collectors.toSet());
+        if (names.size() < entities.size() || !permissionRepository.findExistingPermissionNames(names).isEmpty()) {
+            throw new EntityExistException("权限已存在");
+        }
+        return permissionRepository.saveAll(entities);
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void deleteAll(List<Permission> entities) {
         if (Objects.equals(entities, null) || entities.isEmpty()) {
             throw new ParameterException("需要删除的权限不能为空");
         }
-        permissionRepository.deleteAll(entities);
+        deleteAllById(entities.stream().map(Permission::getPermissionId).collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void deleteAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("需要删除的权限不能为空");
+        }
+        permissionRepository.deleteAllByIdInBatch(ids);
     }
 
     @Override
@@ -179,6 +207,19 @@ public class PermissionServiceImpl implements PermissionService {
         return permissionRepository.saveAndFlush(entity);
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<Permission> updateAll(List<Permission> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要修改的权限不能为空");
+        }
+        List<Permission> updated = permissionRepository.updateAllInBatch(entities);
+        if (updated.size() < entities.size()) {
+            throw new EntityNotExistException("权限不存在");
+        }
+        return updated;
+    }
+
     @Override
     public Permission findById(String id) {
         if (!StringUtils.hasText(id)) {
@@ -187,8 +228,21 @@ public class PermissionServiceImpl implements PermissionService {
         return permissionRepository.findById(id).orElseThrow(() -> new EntityNotExistException("权限不存在"));
     }
 
+    @Override
+    public List<Permission> findAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("权限编号不能为空");
+        }
+        return permissionRepository.findAllByIdInBatch(ids);
+    }
+
     @Override
     public Page<Permission> findAll(Pageable pageable) {
         return permissionRepository.findAll(pageable);
     }
+
+    @Override
+    public Slice<Permission> findAll(Pageable pageable, PageCount count) {
+        return permissionRepository.findAll(pageable, count);
+    }
 }
@@ -3,6 +3,7 @@ package com.beiran.core.system.service.impl;
 import com.beiran.common.exception.EntityExistException;
 import com.beiran.common.exception.EntityNotExistException;
 import com.beiran.common.exception.ParameterException;
+import com.beiran.common.repository.PageCount;
 import com.beiran.common.respone.ResponseModel;
 import com.beiran.common.utils.DateTimeUtils;
 import com.beiran.common.utils.FileUtils;
@@ -20,12 +21,16 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.io.File;
 import java.util.*;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -53,7 +58,7 @@ public class RoleServiceImpl implements RoleService {
             throw new ParameterException("角色名不能为空");
         }
         // 这边直接设为 null 让调用方判断
-        Role role = roleRepository.findByRoleName(roleName).orElse(null);
+        Role role = roleRepository.findDetailByRoleName(roleName).orElse(null);
         if (Objects.equals(role, null)) {
             return null;
         } else {
@@ -165,12 +170,35 @@ public class RoleServiceImpl implements RoleService {
         }
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<Role> saveAll(List<Role> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要保存的角色不能为空");
+        }
+        // 角色名称唯一，一次查询校验整批名称，批内重复同样视为已存在
+        Set<String> names = entities.stream().map(Role::getRoleName).collect(Collectors.toSet());
+        if (names.size() < entities.size() || !roleRepository.findExistingRoleNames(names).isEmpty()) {
+            throw new EntityExistException("角色已存在");
+        }
+        return roleRepository.saveAll(entities);
+    }
+
     @Override
     public void deleteAll(List<Role> entities) {
         if (Objects.equals(entities, null) || entities.isEmpty()) {
             throw new ParameterException("需要删除的角色不能为空");
         }
-        roleRepository.deleteAll(entities);
+        deleteAllById(entities.stream().map(Role::getRoleId).collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void deleteAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("需要删除的角色不能为空");
+        }
+        roleRepository.deleteAllByIdInBatch(ids);
     }
 
     @Override
@@ -181,6 +209,19 @@ public class RoleServiceImpl implements RoleService {
         return roleRepository.saveAndFlush(entity);
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<Role> updateAll(List<Role> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要修改的角色不能为空");
+        }
+        List<Role> updated = roleRepository.updateAllInBatch(entities);
+        if (updated.size() < entities.size()) {
+            throw new EntityNotExistException("角色不存在");
+        }
+        return updated;
+    }
+
     @Override
     public Role findById(String id) {
         if (!StringUtils.hasText(id)) {
@@ -189,8 +230,21 @@ public class RoleServiceImpl implements RoleService {
         return roleRepository.findById(id).orElseThrow(() -> new EntityNotExistException("角色不存在"));
     }
 
+    @Override
+    public List<Role> findAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("角色编号不能为空");
+        }
+        return roleRepository.findAllByIdInBatch(ids);
+    }
+
     @Override
     public Page<Role> findAll(Pageable pageable) {
         return roleRepository.findAll(pageable);
     }
+
+    @Override
+    public Slice<Role> findAll(Pageable pageable, PageCount count) {
+        return roleRepository.findAll(pageable, count);
+    }
 }
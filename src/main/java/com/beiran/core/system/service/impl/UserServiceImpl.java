@@ -3,15 +3,19 @@ package com.beiran.core.system.service.impl;
 import com.beiran.common.exception.EntityExistException;
 import com.beiran.common.exception.EntityNotExistException;
 import com.beiran.common.exception.ParameterException;
+import com.beiran.common.repository.PageCount;
+import com.beiran.common.utils.BatchLoadUtils;
 import com.beiran.common.utils.DateTimeUtils;
 import com.beiran.common.utils.FileUtils;
 import com.beiran.common.utils.transfer.UserTransferUtils;
+import com.beiran.core.system.dto.RoleSmallDto;
 import com.beiran.core.system.dto.UserDto;
 import com.beiran.core.system.entity.Role;
 import com.beiran.core.system.entity.User;
 import com.beiran.core.system.repository.UserRepository;
 import com.beiran.core.system.service.UserService;
 import com.beiran.core.system.vo.UserPartVo;
+import com.beiran.core.system.vo.UserRoleVo;
 import com.beiran.core.system.vo.UserVo;
 import lombok.RequiredArgsConstructor;
 import org.apache.poi.ss.usermodel.Row;
@@ -20,6 +24,7 @@ import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,8 +32,11 @@ import org.springframework.util.StringUtils;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service("userService")
@@ -39,6 +47,21 @@ public class UserServiceImpl implements UserService {
 
     private final BCryptPasswordEncoder bCryptPasswordEncoder;
 
+    /**
+     * 以一条 IN 查询取出一页用户的角色，并设置到对应的用户上
+     */
+    private void attachRoles(List<UserDto> userDtos) {
+        BatchLoadUtils.attachChildren(userDtos, UserDto::getUserId,
+                userRepository::findRolesByUserIdIn, UserRoleVo::getUserId,
+                userRoleVo -> {
+                    RoleSmallDto roleSmallDto = new RoleSmallDto();
+                    roleSmallDto.setRoleId(userRoleVo.getRoleId());
+                    roleSmallDto.setRoleName(userRoleVo.getRoleName());
+                    return roleSmallDto;
+                },
+                (userDto, roles) -> userDto.setRoles(new HashSet<>(roles)));
+    }
+
     @Override
     public UserDto createUser(UserVo userVo) {
         // 不开事务，因为 save() 方法那边有了
@@ -58,7 +81,7 @@ public class UserServiceImpl implements UserService {
             throw new ParameterException("用户名不能为空");
         }
         // FIXME 这边设为 null，由调用方自行判断
-        User user = userRepository.findByUserName(userName).orElse(null);
+        User user = userRepository.findDetailByUserName(userName).orElse(null);
         if (Objects.equals(user, null)) {
             return null;
         } else {
@@ -151,11 +174,8 @@ public class UserServiceImpl implements UserService {
         if (!StringUtils.hasText(deptId)) {
             throw new ParameterException("部门编号不能为空");
         }
-        List<User> users = userRepository.findByUserJob_JobDept_DeptId(deptId, pageable);
-        List<UserDto> userDtos =
-                users.stream()
-                        .map(user -> UserTransferUtils.userToDto(user))
-                        .collect(Collectors.toList());
+        List<UserDto> userDtos = userRepository.findDtosByDeptId(deptId, pageable);
+        attachRoles(userDtos);
         return userDtos;
     }
 
@@ -164,11 +184,8 @@ public class UserServiceImpl implements UserService {
         if (!StringUtils.hasText(keyWord)) {
             throw new ParameterException("关键词不能为空");
         }
-        List<User> users = userRepository.findByUserNameAndNickName(keyWord, pageable);
-        List<UserDto> userDtos =
-                users.stream()
-                        .map(user -> UserTransferUtils.userToDto(user))
-                        .collect(Collectors.toList());
+        List<UserDto> userDtos = userRepository.findDtosByKeyWord(keyWord, pageable);
+        attachRoles(userDtos);
         return userDtos;
     }
 
@@ -177,11 +194,8 @@ public class UserServiceImpl implements UserService {
         if (Objects.equals(userState, null)) {
             throw new ParameterException("用户状态不能为空");
         }
-        List<User> users = userRepository.findByUserState(userState, pageable);
-        List<UserDto> userDtos =
-                users.stream()
-                        .map(user -> UserTransferUtils.userToDto(user))
-                        .collect(Collectors.toList());
+        List<UserDto> userDtos = userRepository.findDtosByUserState(userState, pageable);
+        attachRoles(userDtos);
         return userDtos;
     }
 
@@ -255,13 +269,36 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<User> saveAll(List<User> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要保存的用户不能为空");
+        }
+        // 用户名称唯一，一次查询校验整批名称，批内重复同样视为已存在
+        Set<String> names = entities.stream().map(User::getUserName).collect(Collectors.toSet());
+        if (names.size() < entities.size() || !userRepository.findExistingUserNames(names).isEmpty()) {
+            throw new EntityExistException("用户已存在");
+        }
+        return userRepository.saveAll(entities);
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void deleteAll(List<User> entities) {
-        if (entities.isEmpty() || Objects.equals(entities, null)) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
             throw new ParameterException("用户集合不能为空");
         }
-        userRepository.deleteAll(entities);
+        deleteAllById(entities.stream().map(User::getUserId).collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void deleteAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("需要删除的用户不能为空");
+        }
+        userRepository.deleteAllByIdInBatch(ids);
     }
 
     @Override
@@ -273,6 +310,19 @@ public class UserServiceImpl implements UserService {
         return userRepository.saveAndFlush(entity);
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<User> updateAll(List<User> entities) {
+        if (Objects.equals(entities, null) || entities.isEmpty()) {
+            throw new ParameterException("需要修改的用户不能为空");
+        }
+        List<User> updated = userRepository.updateAllInBatch(entities);
+        if (updated.size() < entities.size()) {
+            throw new EntityNotExistException("用户不存在");
+        }
+        return updated;
+    }
+
     @Override
     public User findById(String id) {
         if (!StringUtils.hasText(id)) {
@@ -281,8 +331,21 @@ public class UserServiceImpl implements UserService {
         return userRepository.findById(id).orElseThrow(() -> new EntityNotExistException("用户不存在"));
     }
 
+    @Override
+    public List<User> findAllById(Collection<String> ids) {
+        if (Objects.equals(ids, null) || ids.isEmpty()) {
+            throw new ParameterException("用户编号不能为空");
+        }
+        return userRepository.findAllByIdInBatch(ids);
+    }
+
     @Override
     public Page<User> findAll(Pageable pageable) {
         return userRepository.findAll(pageable);
     }
+
+    @Override
+    public Slice<User> findAll(Pageable pageable, PageCount count) {
+        return userRepository.findAll(pageable, count);
+    }
 }
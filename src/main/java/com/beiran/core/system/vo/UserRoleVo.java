@@ -0,0 +1,29 @@
+package com.beiran.core.system.vo;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 用于批量查询一批用户的角色，JPQL 构造表达式直接查询为该对象
+ */
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class UserRoleVo {
+
+    private String userId;
+
+    private String roleId;
+
+    private String roleName;
+
+    public UserRoleVo(String userId, String roleId, String roleName) {
+        this.userId = userId;
+        this.roleId = roleId;
+        this.roleName = roleName;
+    }
+}
@@ -57,6 +57,9 @@ public class AuthController {
     // 创建验证码时用到的第一段 Key
     private static final String CAPTCHA_KEY = "ERP_CAPTCHA_KEY";
 
+    // 验证码在 Redis 中的键前缀，按前缀登记以便查找时无须遍历键空间
+    private static final String CAPTCHA_KEY_PREFIX = "captcha:";
+
     /**
      * EasyCaptcha验证码，使用 base64 编码进行输出
      * @return ResponseModel
@@ -100,7 +103,7 @@ public class AuthController {
         log.info(" { 运算结果 } " + text);
 
         // 保存到 Redis, 设置 2 分钟过期
-        redisUtils.set(imgKey, text, 2, TimeUnit.MINUTES);
+        redisUtils.setAndRegister(CAPTCHA_KEY_PREFIX, CAPTCHA_KEY_PREFIX + imgKey, text, 2, TimeUnit.MINUTES);
 
         // Note: data 为 imgKey, url 为 Base64 编码后的验证码图片
         return ResponseModel.ok(HttpStatus.OK.value(), null, imgKey, base64String);
@@ -125,11 +128,8 @@ public class AuthController {
     @PostMapping("/login")
     @ApiOperation("用户登录")
     public ResponseModel login(@RequestBody @Valid AuthUser authUser) {
-        // 获取服务端保存的验证码
-        String code = (String) redisUtils.get(authUser.getCodeKey());
-
-        // 清除验证码
-        redisUtils.del(authUser.getCodeKey());
+        // 取出并清除服务端保存的验证码，同一个验证码只能使用一次
+        String code = (String) redisUtils.getAndDelete(CAPTCHA_KEY_PREFIX + authUser.getCodeKey());
 
         // 判断验证码是否正确
         if (!StringUtils.hasText(code)) {
@@ -1,14 +1,12 @@
 package com.beiran.security.service;
 
-import com.beiran.core.system.entity.Permission;
 import com.beiran.core.system.entity.Role;
 import com.beiran.core.system.entity.User;
 import com.beiran.core.system.repository.JobRepository;
-import com.beiran.core.system.repository.PermissionRepository;
+import com.beiran.core.system.repository.RoleRepository;
 import com.beiran.core.system.repository.UserRepository;
 import com.beiran.security.entity.SecurityUserDetails;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -32,7 +30,7 @@ public class SecurityUserDetailsService implements UserDetailsService {
     private UserRepository userRepository;
 
     @Autowired
-    private PermissionRepository permissionRepository;
+    private RoleRepository roleRepository;
 
     @Autowired
     private JobRepository jobRepository;
@@ -46,29 +44,36 @@ public class SecurityUserDetailsService implements UserDetailsService {
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         // 从数据库中查询用户
-        User user = userRepository.findByUserName(username).orElse(null);
+        // 一次查询加载用户的岗位、部门与角色，角色的权限不随角色加载
+        User user = userRepository.findDetailByUserName(username).orElse(null);
         if (Objects.equals(user, null)) {
             throw new UsernameNotFoundException("用户不存在");
         }
         // 如果从数据库中查找出来的 user 不为空，则复制数据到 Spring Security 实体中
         SecurityUserDetails securityUserDetails = new SecurityUserDetails();
-        BeanUtils.copyProperties(user, securityUserDetails);
+        securityUserDetails.setUserId(user.getUserId());
+        securityUserDetails.setUserName(user.getUserName());
+        securityUserDetails.setUserAvatar(user.getUserAvatar());
+        securityUserDetails.setNickName(user.getNickName());
+        securityUserDetails.setUserPassword(user.getUserPassword());
+        securityUserDetails.setUserState(user.getUserState());
+        securityUserDetails.setUserPhone(user.getUserPhone());
+        securityUserDetails.setUserSex(user.getUserSex());
+        securityUserDetails.setUserEmail(user.getUserEmail());
+        securityUserDetails.setUserCreateTime(user.getUserCreateTime());
+        securityUserDetails.setUserJob(user.getUserJob());
 
         // 用户角色
         Set<String> roles = user.getUserRoles().stream().map(Role::getRoleName).collect(Collectors.toSet());
 
-        // 用户所拥有的所有权限
-        Set<Permission> permissions = new HashSet<>();
+        // 用户所拥有的所有权限，只查询权限名称
         Set<String> roleIds = user.getUserRoles().stream().map(Role::getRoleId).collect(Collectors.toSet());
-        roleIds.forEach(roleId -> {
-            Set<Permission> rolePermissions = permissionRepository.findByPermissionRoles_RoleId(roleId);
-            permissions.addAll(rolePermissions);
-        });
+        Set<String> permissions = roleIds.isEmpty() ? new HashSet<>() : roleRepository.findPermissionNamesByRoleIds(roleIds);
 
         // 将用户角色与用户权限都放入 authorities 中
         List<GrantedAuthority> authorities = new ArrayList<>();
         authorities.addAll(roles.stream().map(SimpleGrantedAuthority::new).collect(Collectors.toList()));
-        authorities.addAll(permissions.stream().map(Permission::getPermissionName).map(SimpleGrantedAuthority::new).collect(Collectors.toList()));
+        authorities.addAll(permissions.stream().map(SimpleGrantedAuthority::new).collect(Collectors.toList()));
 
         securityUserDetails.setAuthorities(authorities);
         return securityUserDetails;
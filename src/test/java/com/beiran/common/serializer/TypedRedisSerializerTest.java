@@ -0,0 +1,135 @@
+package com.beiran.common.serializer;
+
+import com.beiran.core.product.entity.Product;
+import com.beiran.core.product.entity.ProductCategory;
+import com.beiran.core.stock.entity.StockMovement;
+import com.beiran.core.stock.vo.LowStockAlertVo;
+import com.fasterxml.jackson.databind.exc.InvalidTypeIdException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.util.LinkedMultiValueMap;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TypedRedisSerializerTest {
+
+	private final TypedRedisSerializer serializer = new TypedRedisSerializer(new TypeRegistry()
+			.register(1, ArrayList.class)
+			.register(2, HashSet.class)
+			.register(4, LinkedHashMap.class)
+			.register(5, Date.class)
+			.register(6, Timestamp.class)
+			.register(10, Product.class)
+			.register(11, ProductCategory.class), 256);
+
+	@Test
+	void roundTripsRegisteredEntities() {
+		ProductCategory category = new ProductCategory();
+		category.setCategoryId("C1");
+		category.setCategoryName("成品");
+		Product product = new Product();
+		product.setProductId("P1");
+		product.setProductName("产品");
+		product.setProductCategory(category);
+		product.setProductOutPrice(12.5);
+		product.setProductReorderPoint(100L);
+
+		Object value = serializer.deserialize(serializer.serialize(product));
+
+		assertThat(value).isInstanceOf(Product.class);
+		Product copy = (Product) value;
+		assertThat(copy.getProductId()).isEqualTo("P1");
+		assertThat(copy.getProductName()).isEqualTo("产品");
+		assertThat(copy.getProductOutPrice()).isEqualTo(12.5);
+		assertThat(copy.getProductReorderPoint()).isEqualTo(100L);
+		assertThat(copy.getProductCategory()).isEqualTo(category);
+	}
+
+	@Test
+	void roundTripsCollectionsDatesAndUnregisteredTypes() {
+		Date date = new Date(1600000000000L);
+		LowStockAlertVo alert = new LowStockAlertVo(StockMovement.StockItemType.MATERIAL, "M1", "物料", 3L, 10L, date);
+		Map<String, Object> map = new LinkedHashMap<>();
+		map.put("date", date);
+		map.put("timestamp", new Timestamp(1600000000123L));
+		map.put("set", new HashSet<>(Arrays.asList("a", "b")));
+		map.put("alert", alert);
+		List<Object> list = new ArrayList<>(Arrays.asList(map, 1L, "text"));
+
+		Object value = serializer.deserialize(serializer.serialize(list));
+
+		assertThat(value).isInstanceOf(ArrayList.class);
+		List<?> copy = (List<?>) value;
+		assertThat(copy.get(0)).isInstanceOf(LinkedHashMap.class);
+		Map<?, ?> mapCopy = (Map<?, ?>) copy.get(0);
+		assertThat(mapCopy.get("date")).isEqualTo(date);
+		assertThat(mapCopy.get("timestamp")).isEqualTo(new Timestamp(1600000000123L));
+		assertThat(mapCopy.get("set")).isEqualTo(new HashSet<>(Arrays.asList("a", "b")));
+		LowStockAlertVo alertCopy = (LowStockAlertVo) mapCopy.get("alert");
+		assertThat(alertCopy.getItemType()).isEqualTo(StockMovement.StockItemType.MATERIAL);
+		assertThat(alertCopy.getStockNumber()).isEqualTo(3L);
+		assertThat(alertCopy.getAlertTime()).isEqualTo(date);
+		assertThat(copy.get(1)).isEqualTo(1L);
+		assertThat(copy.get(2)).isEqualTo("text");
+	}
+
+	@Test
+	void compressesLargeValues() {
+		List<String> list = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			list.add("repeated value " + (i % 10));
+		}
+		byte[] bytes = serializer.serialize(list);
+
+		assertThat(bytes.length).isLessThan(1000);
+		assertThat(serializer.deserialize(bytes)).isEqualTo(list);
+	}
+
+	@Test
+	void treatsNullAsEmpty() {
+		assertThat(serializer.serialize(null)).isEmpty();
+		assertThat(serializer.deserialize(new byte[0])).isNull();
+		assertThat(serializer.deserialize(null)).isNull();
+	}
+
+	@Test
+	void readsLegacyJson() {
+		Object plain = serializer.deserialize("{\"name\":\"value\",\"numbers\":[1,2]}".getBytes(StandardCharsets.UTF_8));
+		assertThat(plain).isInstanceOf(Map.class);
+		assertThat(((Map<?, ?>) plain).get("name")).isEqualTo("value");
+
+		Object typed = serializer.deserialize(("{\"@class\":\"com.beiran.core.product.entity.ProductCategory\"," +
+				"\"categoryId\":\"C1\",\"categoryName\":\"成品\"}").getBytes(StandardCharsets.UTF_8));
+		assertThat(typed).isInstanceOf(ProductCategory.class);
+	}
+
+	@Test
+	void legacyJsonWithDisallowedClassIsReadAsPlainMap() {
+		Object value = serializer.deserialize(("{\"@class\":\"org.springframework.util.LinkedMultiValueMap\"," +
+				"\"key\":[\"value\"]}").getBytes(StandardCharsets.UTF_8));
+
+		assertThat(value).isInstanceOf(Map.class).isNotInstanceOf(LinkedMultiValueMap.class);
+	}
+
+	@Test
+	void rejectsDisallowedClassNames() {
+		LinkedMultiValueMap<String, String> value = new LinkedMultiValueMap<>();
+		value.add("key", "value");
+		byte[] bytes = serializer.serialize(value);
+
+		assertThatThrownBy(() -> serializer.deserialize(bytes))
+				.isInstanceOf(SerializationException.class)
+				.hasCauseInstanceOf(InvalidTypeIdException.class);
+	}
+}
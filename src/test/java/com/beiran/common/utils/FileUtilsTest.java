@@ -0,0 +1,55 @@
+package com.beiran.common.utils;
+
+import com.beiran.common.exception.ParameterException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileUtilsTest {
+
+	@Test
+	void readsPlainCsvRows() {
+		Map<Integer, List<String>> rows = readCsv("a,b,c\n1, 2 ,3\n");
+		assertThat(rows).hasSize(2);
+		assertThat(rows.get(1)).containsExactly("a", "b", "c");
+		assertThat(rows.get(2)).containsExactly("1", "2", "3");
+	}
+
+	@Test
+	void readsQuotedFields() {
+		Map<Integer, List<String>> rows = readCsv("\"x,y\",\"say \"\"hi\"\"\",\"line1\nline2\"\nlast,row\n");
+		assertThat(rows).hasSize(2);
+		assertThat(rows.get(1)).containsExactly("x,y", "say \"hi\"", "line1\nline2");
+		assertThat(rows.get(2)).containsExactly("last", "row");
+	}
+
+	@Test
+	void skipsBomCarriageReturnsAndBlankLines() {
+		Map<Integer, List<String>> rows = readCsv("\uFEFFid,number\r\n\r\nP1,10\r\nP2,");
+		assertThat(rows.keySet()).containsExactly(1, 3, 4);
+		assertThat(rows.get(1)).containsExactly("id", "number");
+		assertThat(rows.get(3)).containsExactly("P1", "10");
+		assertThat(rows.get(4)).containsExactly("P2", "");
+	}
+
+	@Test
+	void rejectsUnsupportedFiles() {
+		assertThatThrownBy(() -> FileUtils.readRows(new ByteArrayInputStream(new byte[0]), "stocks.xls", (rowNum, cells) -> {
+		})).isInstanceOf(ParameterException.class);
+	}
+
+	private static Map<Integer, List<String>> readCsv(String content) {
+		Map<Integer, List<String>> rows = new LinkedHashMap<>();
+		FileUtils.readRows(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), "stocks.CSV",
+				(rowNum, cells) -> rows.put(rowNum, new ArrayList<>(cells)));
+		return rows;
+	}
+}
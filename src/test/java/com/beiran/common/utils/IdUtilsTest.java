@@ -0,0 +1,104 @@
+package com.beiran.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdUtilsTest {
+
+	private static final int COUNT = 100000;
+
+	@Test
+	void ulidIsMonotonicWithinTheSameMillisecond() {
+		String previous = IdUtils.nextId();
+		for (int i = 0; i < COUNT; i++) {
+			String id = IdUtils.nextId();
+			assertThat(id).hasSize(IdUtils.ULID_LENGTH);
+			assertThat(IdUtils.isUlid(id)).isTrue();
+			assertThat(id).isGreaterThan(previous);
+			previous = id;
+		}
+	}
+
+	@Test
+	void ulidOrderFollowsTimestamp() {
+		long now = System.currentTimeMillis();
+		String earlier = IdUtils.nextId(now - 60000);
+		String later = IdUtils.nextId(now - 1000);
+		assertThat(earlier).isLessThan(later);
+	}
+
+	@Test
+	void ulidBytesAreMonotonic() {
+		byte[] previous = IdUtils.nextBytes();
+		for (int i = 0; i < COUNT; i++) {
+			byte[] bytes = IdUtils.nextBytes();
+			assertThat(bytes).hasSize(16);
+			assertThat(compareUnsigned(bytes, previous)).isPositive();
+			previous = bytes;
+		}
+	}
+
+	@Test
+	void snowflakeIsMonotonicAndPositive() {
+		long previous = IdUtils.nextLong();
+		for (int i = 0; i < COUNT; i++) {
+			long id = IdUtils.nextLong();
+			assertThat(id).isPositive().isGreaterThan(previous);
+			previous = id;
+		}
+	}
+
+	@Test
+	void idsAreUniqueAcrossThreads() throws Exception {
+		int threads = 4;
+		Set<String> ulids = ConcurrentHashMap.newKeySet();
+		Set<Long> snowflakes = ConcurrentHashMap.newKeySet();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < COUNT / threads; i++) {
+						ulids.add(IdUtils.nextId());
+						snowflakes.add(IdUtils.nextLong());
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertThat(ulids).hasSize(COUNT);
+		assertThat(snowflakes).hasSize(COUNT);
+	}
+
+	@Test
+	void nodeOutOfRangeIsRejected() {
+		assertThat(IdUtils.checkNode(0)).isEqualTo(0);
+		assertThat(IdUtils.checkNode(1023)).isEqualTo(1023);
+		assertThatThrownBy(() -> IdUtils.checkNode(1024)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> IdUtils.checkNode(-1)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static int compareUnsigned(byte[] a, byte[] b) {
+		for (int i = 0; i < Math.min(a.length, b.length); i++) {
+			int compare = Integer.compare(a[i] & 0xFF, b[i] & 0xFF);
+			if (compare != 0) {
+				return compare;
+			}
+		}
+		return Integer.compare(a.length, b.length);
+	}
+}
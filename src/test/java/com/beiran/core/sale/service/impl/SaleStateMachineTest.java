@@ -0,0 +1,53 @@
+package com.beiran.core.sale.service.impl;
+
+import com.beiran.common.exception.ParameterException;
+import com.beiran.common.state.StateMachine;
+import com.beiran.common.state.StateMachineExecutor;
+import com.beiran.core.sale.entity.SaleOrder.SaleOrderState;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SaleStateMachineTest {
+
+	private final StateMachine<SaleOrderState> stateMachine = SaleServiceImpl.SALE_STATE_MACHINE;
+
+	@Test
+	void allowsTheSaleLifecycle() {
+		assertThat(stateMachine.isAllowed(SaleOrderState.CREATED, SaleOrderState.PAYING)).isTrue();
+		assertThat(stateMachine.isAllowed(SaleOrderState.PAYING, SaleOrderState.COMPLETED)).isTrue();
+		assertThat(stateMachine.isAllowed(SaleOrderState.CREATED, SaleOrderState.CANCELED)).isTrue();
+		assertThat(stateMachine.isAllowed(SaleOrderState.PAYING, SaleOrderState.CANCELED)).isTrue();
+	}
+
+	@Test
+	void rejectsEveryOtherTransition() {
+		for (SaleOrderState from : SaleOrderState.values()) {
+			for (SaleOrderState target : SaleOrderState.values()) {
+				boolean legal = (from == SaleOrderState.CREATED && (target == SaleOrderState.PAYING || target == SaleOrderState.CANCELED))
+						|| (from == SaleOrderState.PAYING && (target == SaleOrderState.COMPLETED || target == SaleOrderState.CANCELED));
+				assertThat(stateMachine.isAllowed(from, target)).as(from + " -> " + target).isEqualTo(legal);
+			}
+		}
+	}
+
+	@Test
+	void declaresTheSourcesOfEachTargetState() {
+		assertThat(stateMachine.getSources(SaleOrderState.CREATED)).isEmpty();
+		assertThat(stateMachine.getSources(SaleOrderState.COMPLETED)).containsExactly(SaleOrderState.PAYING);
+		assertThat(stateMachine.getSources(SaleOrderState.CANCELED))
+				.isEqualTo(EnumSet.of(SaleOrderState.CREATED, SaleOrderState.PAYING));
+	}
+
+	@Test
+	void executorRejectsIllegalTransitionsBeforeTouchingTheDatabase() {
+		StateMachineExecutor executor = new StateMachineExecutor();
+		assertThatThrownBy(() -> executor.transit(stateMachine, "S1", SaleOrderState.COMPLETED, SaleOrderState.CANCELED))
+				.isInstanceOf(ParameterException.class);
+		assertThatThrownBy(() -> executor.transit(stateMachine, "S1", SaleOrderState.CREATED, SaleOrderState.COMPLETED))
+				.isInstanceOf(ParameterException.class);
+	}
+}
@@ -0,0 +1,110 @@
+package com.beiran.core.stock.index;
+
+import com.beiran.core.stock.entity.Stock;
+import com.beiran.core.stock.repository.StockRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StockLocationIndexTest {
+
+	@Mock
+	private StockRepository stockRepository;
+
+	@InjectMocks
+	private StockLocationIndex stockLocationIndex;
+
+	@Test
+	void returnsStocksFromNearestToFarthest() {
+		Random random = new Random(42);
+		List<Stock> stocks = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			stocks.add(stock("S" + i, random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180));
+		}
+		when(stockRepository.findAll()).thenReturn(stocks);
+		stockLocationIndex.reload();
+
+		for (int i = 0; i < 20; i++) {
+			double latitude = random.nextDouble() * 180 - 90;
+			double longitude = random.nextDouble() * 360 - 180;
+			List<String> expected = stocks.stream()
+					.sorted(Comparator.comparingDouble(stock -> distance(latitude, longitude, stock.getStockLatitude(), stock.getStockLongitude())))
+					.map(Stock::getStockId)
+					.collect(Collectors.toList());
+
+			assertThat(collect(stockLocationIndex.nearest(latitude, longitude))).containsExactlyElementsOf(expected);
+		}
+	}
+
+	@Test
+	void handlesTheAntimeridian() {
+		List<Stock> stocks = new ArrayList<>();
+		stocks.add(stock("east", 0D, 179D));
+		stocks.add(stock("west", 0D, -179.5));
+		stocks.add(stock("middle", 0D, 0D));
+		when(stockRepository.findAll()).thenReturn(stocks);
+		stockLocationIndex.reload();
+
+		assertThat(collect(stockLocationIndex.nearest(0D, -179D))).containsExactly("west", "east", "middle");
+	}
+
+	@Test
+	void skipsStocksWithoutLocation() {
+		List<Stock> stocks = new ArrayList<>();
+		stocks.add(stock("located", 30D, 120D));
+		stocks.add(stock("unlocated", null, null));
+		stocks.add(stock("invalid", 91D, 120D));
+		when(stockRepository.findAll()).thenReturn(stocks);
+		stockLocationIndex.reload();
+
+		assertThat(collect(stockLocationIndex.nearest(0D, 0D))).containsExactly("located");
+		assertThat(stockLocationIndex.nearest(null, 0D).hasNext()).isFalse();
+		assertThat(stockLocationIndex.nearest(0D, 181D).hasNext()).isFalse();
+	}
+
+	@Test
+	void emptyIndexReturnsNothing() {
+		when(stockRepository.findAll()).thenReturn(new ArrayList<>());
+		stockLocationIndex.reload();
+
+		assertThat(stockLocationIndex.nearest(0D, 0D).hasNext()).isFalse();
+	}
+
+	private static Stock stock(String stockId, Double latitude, Double longitude) {
+		Stock stock = new Stock();
+		stock.setStockId(stockId);
+		stock.setStockLatitude(latitude);
+		stock.setStockLongitude(longitude);
+		return stock;
+	}
+
+	/**
+	 * 球面距离（弧度），用于与索引的结果对照
+	 */
+	private static double distance(double lat1, double lon1, double lat2, double lon2) {
+		double dLat = Math.toRadians(lat2 - lat1);
+		double dLon = Math.toRadians(lon2 - lon1);
+		double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+				+ Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+		return 2 * Math.asin(Math.min(1, Math.sqrt(a)));
+	}
+
+	private static List<String> collect(Iterator<String> iterator) {
+		List<String> stockIds = new ArrayList<>();
+		iterator.forEachRemaining(stockIds::add);
+		return stockIds;
+	}
+}
@@ -0,0 +1,129 @@
+package com.beiran.core.stock.service.impl;
+
+import com.beiran.common.utils.RedisUtils;
+import com.beiran.core.material.repository.MaterialRepository;
+import com.beiran.core.product.repository.ProductRepository;
+import com.beiran.core.stock.entity.StockMovement;
+import com.beiran.core.stock.repository.MaterialStockRepository;
+import com.beiran.core.stock.repository.ProductStockRepository;
+import com.beiran.core.stock.repository.StockMovementRepository;
+import com.beiran.core.stock.vo.LowStockAlertVo;
+import com.beiran.core.stock.vo.MaterialNumberVo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StockAlertServiceImplTest {
+
+	private static final String MATERIAL_RECHECK_KEY = "stock:alert:recheck:MATERIAL";
+
+	@Mock
+	private RedisUtils redisUtils;
+
+	@Mock
+	private StockMovementRepository stockMovementRepository;
+
+	@Mock
+	private MaterialRepository materialRepository;
+
+	@Mock
+	private ProductRepository productRepository;
+
+	@Mock
+	private MaterialStockRepository materialStockRepository;
+
+	@Mock
+	private ProductStockRepository productStockRepository;
+
+	@InjectMocks
+	private StockAlertServiceImpl stockAlertService;
+
+	@BeforeEach
+	void setUp() {
+		lenient().when(redisUtils.setIfAbsent(eq("stock:alert:lock"), anyString(), anyLong())).thenReturn(true);
+		lenient().when(stockMovementRepository.findChangedItemIds(any(StockMovement.StockItemType.class), any(Date.class))).thenReturn(new ArrayList<>());
+	}
+
+	@Test
+	void firstRunAlertsItemsAlreadyBelowTheirReorderPoint() {
+		when(materialRepository.findIdsWithReorderPoint()).thenReturn(Collections.singletonList("M1"));
+		when(productRepository.findIdsWithReorderPoint()).thenReturn(new ArrayList<>());
+		when(redisUtils.sGet(MATERIAL_RECHECK_KEY)).thenReturn(new HashSet<>(Collections.singletonList("M1")));
+		when(materialRepository.findReorderPoints(Collections.singletonList("M1")))
+				.thenReturn(Collections.singletonList(new Object[]{"M1", "钢板", 10L}));
+		when(materialStockRepository.findMaterialStockNumbers(Collections.singletonList("M1")))
+				.thenReturn(Collections.singletonList(new MaterialNumberVo("M1", "S1", 3L)));
+		when(redisUtils.hmget("stock:alert:alerts", Collections.singletonList("MATERIAL/M1"))).thenReturn(Collections.singletonList(null));
+
+		List<LowStockAlertVo> alerts = stockAlertService.checkLowStocks();
+
+		verify(redisUtils).sSet(MATERIAL_RECHECK_KEY, "M1");
+		assertThat(alerts).hasSize(1);
+		assertThat(alerts.get(0).getStockNumber()).isEqualTo(3L);
+		assertThat(alerts.get(0).getReorderPoint()).isEqualTo(10L);
+		verify(redisUtils).hmset(eq("stock:alert:alerts"), anyMap());
+		verify(redisUtils).set(eq("stock:alert:watermark"), anyString());
+		verify(redisUtils).compareAndDelete(eq("stock:alert:lock"), anyString());
+	}
+
+	@Test
+	void laterRunsOnlyCheckChangedItems() {
+		when(redisUtils.get("stock:alert:watermark")).thenReturn(String.valueOf(System.currentTimeMillis()));
+
+		assertThat(stockAlertService.checkLowStocks()).isEmpty();
+
+		verify(materialRepository, never()).findIdsWithReorderPoint();
+		verify(productRepository, never()).findIdsWithReorderPoint();
+		verify(materialRepository, never()).findReorderPoints(any());
+	}
+
+	@Test
+	void recoveredItemIsResolvedWithoutANewAlert() {
+		when(redisUtils.get("stock:alert:watermark")).thenReturn(String.valueOf(System.currentTimeMillis()));
+		when(stockMovementRepository.findChangedItemIds(eq(StockMovement.StockItemType.MATERIAL), any(Date.class)))
+				.thenReturn(Collections.singletonList("M1"));
+		when(materialRepository.findReorderPoints(Collections.singletonList("M1")))
+				.thenReturn(Collections.singletonList(new Object[]{"M1", "钢板", 10L}));
+		when(materialStockRepository.findMaterialStockNumbers(Collections.singletonList("M1")))
+				.thenReturn(Collections.singletonList(new MaterialNumberVo("M1", "S1", 12L)));
+		LowStockAlertVo current = new LowStockAlertVo(StockMovement.StockItemType.MATERIAL, "M1", "钢板", 3L, 10L, new Date());
+		when(redisUtils.hmget("stock:alert:alerts", Collections.singletonList("MATERIAL/M1"))).thenReturn(Collections.singletonList(current));
+
+		assertThat(stockAlertService.checkLowStocks()).isEmpty();
+
+		verify(redisUtils).hdel("stock:alert:alerts", "MATERIAL/M1");
+		verify(redisUtils, never()).hmset(anyString(), anyMap());
+	}
+
+	@Test
+	void skipsTheRunWhileAnotherNodeHoldsTheLock() {
+		when(redisUtils.setIfAbsent(eq("stock:alert:lock"), anyString(), anyLong())).thenReturn(false);
+
+		assertThat(stockAlertService.checkLowStocks()).isEmpty();
+
+		verifyNoInteractions(stockMovementRepository, materialRepository, productRepository);
+		verify(redisUtils, never()).set(anyString(), any());
+	}
+}
@@ -0,0 +1,87 @@
+package com.beiran.core.stock.service.impl;
+
+import com.beiran.core.stock.entity.StockMovement;
+import com.beiran.core.stock.index.StockAvailabilityIndex;
+import com.beiran.core.stock.service.StockJournalService;
+import com.beiran.core.stock.vo.MaterialNumberVo;
+import com.beiran.core.stock.vo.ProductNumberVo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.invocation.Invocation;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class StockBulkPostingTest {
+
+	@Mock
+	private StockJournalService stockJournalService;
+
+	@Mock
+	private StockAvailabilityIndex stockAvailabilityIndex;
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@InjectMocks
+	private StockServiceImpl stockService;
+
+	@Test
+	void largePostingIsSplitIntoStatementsUnderThePlaceholderLimit() {
+		List<ProductNumberVo> lines = new ArrayList<>();
+		for (int i = 0; i < 20000; i++) {
+			lines.add(new ProductNumberVo(String.format("P%05d", i), "S1", 1L));
+		}
+
+		stockService.saveProductRecords(lines);
+
+		List<Object[]> inserts = upserts("INSERT INTO erp_product_stock");
+		assertThat(inserts).hasSize(20);
+		assertThat(inserts).allSatisfy(args -> assertThat(args.length).isLessThanOrEqualTo(65535));
+		assertThat(inserts.stream().mapToInt(args -> args.length).sum()).isEqualTo(20000 * 4);
+		assertThat(recordedMovements()).hasSize(20000);
+	}
+
+	@Test
+	void linesForTheSameItemAndStockAreMergedBeforePosting() {
+		stockService.saveMaterialRecords(Arrays.asList(
+				new MaterialNumberVo("M1", "S1", 2L),
+				new MaterialNumberVo("M2", "S1", 1L),
+				new MaterialNumberVo("M1", "S1", 3L)));
+
+		List<Object[]> inserts = upserts("INSERT INTO erp_material_stock");
+		assertThat(inserts).hasSize(1);
+		assertThat(inserts.get(0)).hasSize(8);
+		assertThat(Arrays.asList(inserts.get(0)[1], inserts.get(0)[2], inserts.get(0)[3])).containsExactly("M1", "S1", 5L);
+		assertThat(recordedMovements()).extracting(StockMovement::getMovementNumber).containsExactly(5L, 1L);
+	}
+
+	private List<Object[]> upserts(String sqlPrefix) {
+		return mockingDetails(jdbcTemplate).getInvocations().stream()
+				.filter(invocation -> invocation.getMethod().getName().equals("update"))
+				.map(Invocation::getRawArguments)
+				.filter(args -> ((String) args[0]).startsWith(sqlPrefix))
+				.map(args -> (Object[]) args[1])
+				.collect(Collectors.toList());
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<StockMovement> recordedMovements() {
+		ArgumentCaptor<List<StockMovement>> captor = ArgumentCaptor.forClass(List.class);
+		verify(stockJournalService, times(1)).recordAll(captor.capture());
+		return captor.getValue();
+	}
+}
@@ -0,0 +1,120 @@
+package com.beiran.core.stock.service.impl;
+
+import com.beiran.common.exception.StockShortageException;
+import com.beiran.core.stock.hold.LocalStockHoldStore;
+import com.beiran.core.stock.index.StockAvailabilityIndex;
+import com.beiran.core.stock.index.StockLocationIndex;
+import com.beiran.core.stock.repository.ProductStockRepository;
+import com.beiran.core.stock.service.StockJournalService;
+import com.beiran.core.stock.vo.ProductNumberVo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StockHoldTest {
+
+	@Mock
+	private ProductStockRepository productStockRepository;
+
+	@Mock
+	private StockJournalService stockJournalService;
+
+	@Mock
+	private StockAvailabilityIndex stockAvailabilityIndex;
+
+	@Mock
+	private StockLocationIndex stockLocationIndex;
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@Spy
+	private LocalStockHoldStore stockHoldStore = new LocalStockHoldStore();
+
+	@InjectMocks
+	private StockServiceImpl stockService;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(stockService, "holdTtl", 1800L);
+		lenient().when(stockLocationIndex.nearest(null, null)).thenReturn(Collections.emptyIterator());
+		lenient().when(productStockRepository.findProductStockNumbers(Collections.singleton("P1")))
+				.thenReturn(Arrays.asList(new ProductNumberVo("P1", "S1", 5L), new ProductNumberVo("P1", "S2", 2L)));
+	}
+
+	@Test
+	void lastUnitsCanOnlyBeHeldOnce() {
+		List<ProductNumberVo> holds = stockService.holdProductStocks("H1", Collections.singletonMap("P1", 7L), null, null);
+
+		assertThat(holds).extracting(ProductNumberVo::getStockId).containsExactly("S1", "S2");
+		assertThatThrownBy(() -> stockService.holdProductStocks("H2", Collections.singletonMap("P1", 1L), null, null))
+				.isInstanceOf(StockShortageException.class);
+		assertThat(stockHoldStore.get("H2")).isEmpty();
+	}
+
+	@Test
+	void availabilitySubtractsActiveHolds() {
+		when(productStockRepository.findProductStockNumber("P1", "S1")).thenReturn(new ProductNumberVo("P1", "S1", 5L));
+
+		stockService.holdProductStocks("H1", Collections.singletonMap("P1", 3L), null, null);
+
+		assertThat(stockService.getProductStockNumber("P1", "S1").getProductNumber()).isEqualTo(2L);
+		verify(stockAvailabilityIndex).reserveProduct("P1", "S1", 3L);
+	}
+
+	@Test
+	void cancelingReleasesTheHold() {
+		stockService.holdProductStocks("H1", Collections.singletonMap("P1", 7L), null, null);
+
+		stockService.releaseProductHold("H1");
+
+		assertThat(stockService.holdProductStocks("H2", Collections.singletonMap("P1", 7L), null, null)).hasSize(2);
+		verify(stockAvailabilityIndex).releaseProduct("P1", "S1", 5L);
+	}
+
+	@Test
+	void completingTurnsTheHoldIntoADeduction() {
+		when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+		stockService.holdProductStocks("H1", Collections.singletonMap("P1", 3L), null, null);
+
+		List<ProductNumberVo> deductions = stockService.deductHeldProductStocks("H1");
+
+		assertThat(deductions).extracting(ProductNumberVo::getProductNumber).containsExactly(3L);
+		assertThat(stockHoldStore.get("H1")).isEmpty();
+		verify(stockAvailabilityIndex).addProductAfterCommit("P1", "S1", -3L);
+		verify(stockAvailabilityIndex).releaseProduct("P1", "S1", 3L);
+	}
+
+	@Test
+	void expiredHoldsAreSweptWithoutTouchingTheDatabase() {
+		ReflectionTestUtils.setField(stockService, "holdTtl", 0L);
+		stockService.holdProductStocks("H1", Collections.singletonMap("P1", 3L), null, null);
+		clearInvocations(productStockRepository);
+
+		assertThat(stockService.releaseExpiredProductHolds()).isEqualTo(1);
+
+		assertThat(stockHoldStore.get("H1")).isEmpty();
+		verifyNoInteractions(productStockRepository, jdbcTemplate, stockJournalService);
+	}
+}
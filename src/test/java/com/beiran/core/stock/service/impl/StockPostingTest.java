@@ -0,0 +1,107 @@
+package com.beiran.core.stock.service.impl;
+
+import com.beiran.core.stock.entity.MaterialStock;
+import com.beiran.core.stock.entity.ProductStock;
+import com.beiran.core.stock.entity.StockMovement;
+import com.beiran.core.stock.index.StockAvailabilityIndex;
+import com.beiran.core.stock.repository.MaterialStockRepository;
+import com.beiran.core.stock.repository.ProductStockRepository;
+import com.beiran.core.stock.service.StockJournalService;
+import com.beiran.core.stock.vo.MaterialNumberVo;
+import com.beiran.core.stock.vo.ProductNumberVo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StockPostingTest {
+
+	@Mock
+	private MaterialStockRepository materialStockRepository;
+
+	@Mock
+	private ProductStockRepository productStockRepository;
+
+	@Mock
+	private StockJournalService stockJournalService;
+
+	@Mock
+	private StockAvailabilityIndex stockAvailabilityIndex;
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@InjectMocks
+	private StockServiceImpl stockService;
+
+	@Test
+	void savesProductWithOneUpsertAndNoLockingRead() {
+		ProductStock productStock = stockService.saveProductRecord(new ProductNumberVo("P1", "S1", 5L));
+
+		verify(productStockRepository, times(1)).upsertNumber(anyString(), eq("P1"), eq("S1"), eq(5L));
+		verify(productStockRepository, never()).findNumberForUpdate(anyString(), anyString());
+		assertThat(productStock.getProdNumber()).isEqualTo(5L);
+		assertThat(productStock.getProduct().getProductId()).isEqualTo("P1");
+		assertThat(productStock.getStock().getStockId()).isEqualTo("S1");
+		assertThat(recordedMovement().getMovementType()).isEqualTo(StockMovement.MovementType.IN);
+		verify(stockAvailabilityIndex).addProductAfterCommit("P1", "S1", 5L);
+	}
+
+	@Test
+	void savesMaterialWithOneUpsertAndNoLockingRead() {
+		MaterialStock materialStock = stockService.saveMaterialRecord(new MaterialNumberVo("M1", "S1", 7L));
+
+		verify(materialStockRepository, times(1)).upsertNumber(anyString(), eq("M1"), eq("S1"), eq(7L));
+		verify(materialStockRepository, never()).findNumberForUpdate(anyString(), anyString());
+		assertThat(materialStock.getMaterNumber()).isEqualTo(7L);
+		StockMovement movement = recordedMovement();
+		assertThat(movement.getItemType()).isEqualTo(StockMovement.StockItemType.MATERIAL);
+		assertThat(movement.getMovementNumber()).isEqualTo(7L);
+	}
+
+	@Test
+	void deductsWithConditionalUpdateAndRecordsNegativeMovement() {
+		when(productStockRepository.decreaseNumber("P1", "S1", 3L)).thenReturn(1);
+
+		assertThat(stockService.deductProductNumber("P1", "S1", 3L)).isTrue();
+
+		StockMovement movement = recordedMovement();
+		assertThat(movement.getMovementType()).isEqualTo(StockMovement.MovementType.OUT);
+		assertThat(movement.getMovementNumber()).isEqualTo(-3L);
+		verify(stockAvailabilityIndex).addProductAfterCommit("P1", "S1", -3L);
+	}
+
+	@Test
+	void shortDeductionChangesNothing() {
+		when(productStockRepository.decreaseNumber("P1", "S1", 3L)).thenReturn(0);
+
+		assertThat(stockService.deductProductNumber("P1", "S1", 3L)).isFalse();
+
+		verifyNoInteractions(stockJournalService, stockAvailabilityIndex, jdbcTemplate);
+	}
+
+	@SuppressWarnings("unchecked")
+	private StockMovement recordedMovement() {
+		ArgumentCaptor<List<StockMovement>> captor = ArgumentCaptor.forClass(List.class);
+		verify(stockJournalService).recordAll(captor.capture());
+		assertThat(captor.getValue()).hasSize(1);
+		verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+		return captor.getValue().get(0);
+	}
+}